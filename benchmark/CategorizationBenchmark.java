@@ -0,0 +1,176 @@
+package com.PFM.CD.benchmark;
+
+import com.PFM.CD.entity.CategorizationRule;
+import com.PFM.CD.entity.enums.RuleMatchType;
+import com.PFM.CD.entity.enums.TransactionType;
+import com.PFM.CD.service.categorization.CategorizationEngine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 自动分类基准测试
+ * 生成指定数量的关键词规则（含少量前缀规则和金额范围）和交易备注，对比逐条规则用正则表达式匹配
+ * （每条交易按优先级顺序尝试每条规则，直到第一个命中）与编译后的规则集（一个Aho-Corasick自动机
+ * 扫描一遍备注）的吞吐量。两种方式的分类结果应一致。
+ *
+ * 用法: CategorizationBenchmark [规则数] [交易数] [重复次数]
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CategorizationBenchmark {
+
+    private static final String[] WORDS = {
+            "超市", "外卖", "地铁", "加油", "咖啡", "电影", "书店", "药房", "话费", "水电",
+            "taxi", "coffee", "market", "online", "store", "pay", "card", "fee", "club", "shop"
+    };
+
+    public static void main(String[] args) {
+        int ruleCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Random random = new Random(42);
+        List<CategorizationRule> rules = generateRules(ruleCount, random);
+        String[] descriptions = new String[rows];
+        long[] amounts = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            descriptions[i] = randomDescription(rules, random);
+            amounts[i] = 100 + random.nextInt(100_000);
+        }
+        System.out.printf("规则数=%d 交易数=%d 重复=%d%n", ruleCount, rows, rounds);
+
+        List<NaiveRule> naiveRules = compileNaive(rules);
+        long begin = System.nanoTime();
+        CategorizationEngine.RuleSet ruleSet = CategorizationEngine.RuleSet.compile(rules);
+        System.out.printf("规则集编译耗时=%.1fms%n", (System.nanoTime() - begin) / 1e6);
+
+        for (int round = 1; round <= rounds; round++) {
+            int[] naiveResults = new int[rows];
+            begin = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                naiveResults[i] = categorizeNaive(naiveRules, amounts[i], descriptions[i]);
+            }
+            report("逐条正则#" + round, rows, System.nanoTime() - begin);
+
+            int[] engineResults = new int[rows];
+            begin = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                engineResults[i] = ruleSet.categorize(TransactionType.EXPENSE, 0, amounts[i], descriptions[i]);
+            }
+            report("规则集#" + round, rows, System.nanoTime() - begin);
+
+            int mismatches = 0;
+            int matched = 0;
+            for (int i = 0; i < rows; i++) {
+                if (naiveResults[i] != engineResults[i]) {
+                    mismatches++;
+                }
+                if (engineResults[i] >= 0) {
+                    matched++;
+                }
+            }
+            System.out.printf("  命中=%d 不一致=%d%n", matched, mismatches);
+            if (mismatches > 0) {
+                System.out.println("警告: 两种方式的分类结果不一致");
+            }
+        }
+    }
+
+    private static void report(String name, int rows, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-12s 耗时=%8.1fms 吞吐=%,12.0f行/秒%n", name, nanos / 1e6, rows / seconds);
+    }
+
+    /**
+     * 生成规则：关键词由一到两个词组成，每十条规则中有一条前缀规则，每五条有一条带金额上限
+     */
+    private static List<CategorizationRule> generateRules(int count, Random random) {
+        List<CategorizationRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String pattern = WORDS[random.nextInt(WORDS.length)] + i;
+            if (random.nextBoolean()) {
+                pattern = WORDS[random.nextInt(WORDS.length)] + pattern;
+            }
+            CategorizationRule rule = new CategorizationRule(1, pattern, TransactionType.EXPENSE, 100 + i % 40);
+            rule.setRuleId(i + 1);
+            rule.setPriority(random.nextInt(5));
+            if (i % 10 == 0) {
+                rule.setMatchType(RuleMatchType.PREFIX);
+            }
+            if (i % 5 == 0) {
+                rule.setMaxAmount(new BigDecimal(random.nextInt(1000)));
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    /**
+     * 生成备注：约70%包含某条规则的关键词，关键词前后是随机的词
+     */
+    private static String randomDescription(List<CategorizationRule> rules, Random random) {
+        StringBuilder sb = new StringBuilder();
+        if (random.nextInt(10) < 3) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        if (random.nextInt(10) < 7) {
+            String pattern = rules.get(random.nextInt(rules.size())).getPattern();
+            sb.append(random.nextBoolean() ? pattern : pattern.toUpperCase());
+        }
+        for (int i = random.nextInt(4); i > 0; i--) {
+            sb.append(' ').append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(1000));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 原方式：规则按优先级排序后逐条用正则表达式匹配，每条规则预先编译一个Pattern
+     */
+    private static final class NaiveRule {
+        private final Pattern pattern;
+        private final boolean prefix;
+        private final long maxCents;
+        private final int categoryId;
+
+        private NaiveRule(CategorizationRule rule) {
+            this.pattern = Pattern.compile(Pattern.quote(rule.getPattern()),
+                    Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+            this.prefix = rule.getMatchType() == RuleMatchType.PREFIX;
+            this.maxCents = rule.getMaxAmount() == null
+                    ? Long.MAX_VALUE : CategorizationEngine.RuleSet.toCents(rule.getMaxAmount());
+            this.categoryId = rule.getCategoryId();
+        }
+    }
+
+    private static List<NaiveRule> compileNaive(List<CategorizationRule> rules) {
+        List<CategorizationRule> sorted = new ArrayList<>(rules);
+        sorted.sort((a, b) -> a.getPriority() != b.getPriority()
+                ? Integer.compare(b.getPriority(), a.getPriority())
+                : Integer.compare(a.getRuleId(), b.getRuleId()));
+        List<NaiveRule> naive = new ArrayList<>(sorted.size());
+        for (CategorizationRule rule : sorted) {
+            naive.add(new NaiveRule(rule));
+        }
+        return naive;
+    }
+
+    private static int categorizeNaive(List<NaiveRule> rules, long amountCents, String description) {
+        String text = description.trim();
+        for (NaiveRule rule : rules) {
+            if (amountCents > rule.maxCents) {
+                continue;
+            }
+            Matcher matcher = rule.pattern.matcher(text);
+            if (rule.prefix ? matcher.lookingAt() : matcher.find()) {
+                return rule.categoryId;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,199 @@
+package com.PFM.CD.benchmark;
+
+import com.PFM.CD.utils.file.CsvReader;
+import com.PFM.CD.utils.file.CsvUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV解析基准测试
+ * 生成交易导入格式的CSV文件（日期,金额,分类,账户,备注，备注中含逗号和引号），
+ * 对比原来的逐行解析（整个文件读成List后再转换金额和日期）与流式CsvReader（逐条读取，
+ * 直接从字符解析金额和日期）的耗时、吞吐量和堆内存峰值。两种方式计算的金额合计应一致。
+ *
+ * 用法: CsvParseBenchmark [行数] [重复次数]
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CsvParseBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        File file = File.createTempFile("csv-benchmark", ".csv");
+        file.deleteOnExit();
+        writeSample(file, rows);
+        long fileSize = file.length();
+        System.out.printf("行数=%d 文件大小=%.1fMB 重复=%d%n", rows, fileSize / (1024.0 * 1024), rounds);
+
+        for (int round = 1; round <= rounds; round++) {
+            HeapSampler sampler = HeapSampler.start();
+            long begin = System.nanoTime();
+            BigDecimal legacyTotal = parseLegacy(file.getPath());
+            report("逐行解析#" + round, rows, fileSize, System.nanoTime() - begin, sampler.stop(), legacyTotal);
+
+            sampler = HeapSampler.start();
+            begin = System.nanoTime();
+            BigDecimal streamingTotal = parseStreaming(file.getPath());
+            report("流式解析#" + round, rows, fileSize, System.nanoTime() - begin, sampler.stop(), streamingTotal);
+
+            if (legacyTotal.compareTo(streamingTotal) != 0) {
+                System.out.println("警告: 两种解析方式的金额合计不一致");
+            }
+        }
+    }
+
+    /**
+     * 原实现：readLine逐行切分，全部读入内存后再转换
+     */
+    private static BigDecimal parseLegacy(String path) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                records.add(parseLine(line));
+            }
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i < records.size(); i++) {
+            List<String> record = records.get(i);
+            LocalDate.parse(record.get(0).trim());
+            total = total.add(new BigDecimal(record.get(1).trim().replace(",", "")));
+        }
+        return total;
+    }
+
+    private static List<String> parseLine(String line) {
+        List<String> result = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                result.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        result.add(field.toString());
+        return result;
+    }
+
+    /**
+     * 新实现：CsvReader逐条读取，记录对象复用
+     */
+    private static BigDecimal parseStreaming(String path) throws IOException {
+        BigDecimal[] total = {BigDecimal.ZERO};
+        try (CsvReader reader = CsvUtils.openReader(path)) {
+            reader.next();
+            reader.readAll(record -> {
+                record.getLocalDate(0);
+                total[0] = total[0].add(record.getBigDecimal(1));
+            });
+        }
+        return total[0];
+    }
+
+    private static void writeSample(File file, int rows) throws IOException {
+        String[] categories = {"餐饮", "交通", "购物", "工资", "房租"};
+        String[] accounts = {"招商银行储蓄卡", "支付宝", "现金"};
+        LocalDate date = LocalDate.of(2025, 1, 1);
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write("日期,金额,分类,账户,备注\r\n");
+            for (int i = 0; i < rows; i++) {
+                out.write(date.plusDays(i % 365).toString());
+                out.write(',');
+                // 部分金额带千分位，需要加引号
+                if (i % 10 == 0) {
+                    out.write("\"1," + (100 + i % 900) + ".25\"");
+                } else {
+                    out.write((10 + i % 500) + ".50");
+                }
+                out.write(',');
+                out.write(categories[i % categories.length]);
+                out.write(',');
+                out.write(accounts[i % accounts.length]);
+                out.write(',');
+                if (i % 7 == 0) {
+                    out.write("\"午餐, 含\"\"饮料\"\" #" + i + "\"");
+                } else {
+                    out.write("备注 #" + i);
+                }
+                out.write("\r\n");
+            }
+        }
+    }
+
+    private static void report(String label, int rows, long bytes, long nanos, long peakHeap, BigDecimal total) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%s: 耗时=%.2fs 吞吐量=%.0f 行/秒 %.1fMB/s 堆峰值=%dMB 合计=%s%n",
+                label, seconds, rows / seconds, bytes / seconds / (1024 * 1024), peakHeap / (1024 * 1024), total);
+    }
+
+    /**
+     * 后台采样已用堆内存的峰值
+     */
+    private static final class HeapSampler implements Runnable {
+
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile long peak;
+
+        private HeapSampler() {
+            this.thread = new Thread(this, "heap-sampler");
+            this.thread.setDaemon(true);
+        }
+
+        static HeapSampler start() {
+            System.gc();
+            HeapSampler sampler = new HeapSampler();
+            sampler.thread.start();
+            return sampler;
+        }
+
+        @Override
+        public void run() {
+            Runtime runtime = Runtime.getRuntime();
+            while (running) {
+                peak = Math.max(peak, runtime.totalMemory() - runtime.freeMemory());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        long stop() throws InterruptedException {
+            running = false;
+            thread.join();
+            return peak;
+        }
+    }
+}
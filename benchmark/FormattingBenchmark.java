@@ -0,0 +1,170 @@
+package com.PFM.CD.benchmark;
+
+import com.PFM.CD.utils.format.CompiledNumberFormat;
+import com.PFM.CD.utils.format.CurrencyFormatter;
+import com.PFM.CD.utils.format.DateFormatter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 金额和日期格式化基准测试
+ * 对比原来的每次调用创建NumberFormat、预编译格式化器输出String、预编译格式化器按分写入复用的
+ * StringBuilder三种金额格式化方式，以及DateTimeFormatter与直接按位写出的日期格式化，
+ * 报告每种方式的吞吐量和每次调用分配的字节数（需要HotSpot的线程分配计数）。
+ * 最后用多个线程共享同一个预编译格式化器，校验结果与单线程一致。
+ *
+ * 用法: FormattingBenchmark [每轮调用次数] [重复次数] [线程数]
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class FormattingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Random random = new Random(42);
+        long[] cents = new long[count];
+        BigDecimal[] amounts = new BigDecimal[count];
+        LocalDate[] dates = new LocalDate[count];
+        for (int i = 0; i < count; i++) {
+            cents[i] = random.nextInt(2_000_000_000) - 100_000_000L;
+            amounts[i] = BigDecimal.valueOf(cents[i], 2);
+            dates[i] = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(2000));
+        }
+        System.out.printf("调用次数=%d 重复=%d 线程数=%d%n", count, rounds, threads);
+
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        CompiledNumberFormat currencyFormat = CurrencyFormatter.getFormat("CNY");
+        StringBuilder sb = new StringBuilder(32);
+
+        for (int round = 1; round <= rounds; round++) {
+            run("每次新建NumberFormat#" + round, count, () -> {
+                long checksum = 0;
+                for (BigDecimal amount : amounts) {
+                    NumberFormat format = NumberFormat.getCurrencyInstance(Locale.CHINA);
+                    format.setCurrency(Currency.getInstance("CNY"));
+                    checksum += format.format(amount).hashCode();
+                }
+                return checksum;
+            });
+            run("预编译->String#" + round, count, () -> {
+                long checksum = 0;
+                for (BigDecimal amount : amounts) {
+                    checksum += CurrencyFormatter.format(amount).hashCode();
+                }
+                return checksum;
+            });
+            run("预编译分->Appendable#" + round, count, () -> {
+                long checksum = 0;
+                for (long value : cents) {
+                    sb.setLength(0);
+                    currencyFormat.formatCentsTo(value, sb);
+                    checksum += hash(sb);
+                }
+                return checksum;
+            });
+            run("DateTimeFormatter#" + round, count, () -> {
+                long checksum = 0;
+                for (LocalDate date : dates) {
+                    checksum += dateFormatter.format(date).hashCode();
+                }
+                return checksum;
+            });
+            run("日期->Appendable#" + round, count, () -> {
+                long checksum = 0;
+                for (LocalDate date : dates) {
+                    sb.setLength(0);
+                    DateFormatter.formatTo(date, sb);
+                    checksum += hash(sb);
+                }
+                return checksum;
+            });
+        }
+
+        verifyConcurrent(currencyFormat, cents, threads);
+    }
+
+    private static void run(String name, int count, Callable<Long> task) throws Exception {
+        long allocatedBefore = allocatedBytes();
+        long begin = System.nanoTime();
+        long checksum = task.call();
+        long nanos = System.nanoTime() - begin;
+        long allocated = allocatedBytes() - allocatedBefore;
+        System.out.printf("%-24s 耗时=%8.1fms 吞吐=%,12.0f次/秒 每次分配=%6.1f字节 校验和=%d%n",
+                name, nanos / 1e6, count / (nanos / 1e9),
+                allocatedBefore < 0 ? -1.0 : (double) allocated / count, checksum);
+    }
+
+    /**
+     * 多个线程共享同一个格式化器，各自格式化全部数据，校验和应与单线程相同
+     */
+    private static void verifyConcurrent(CompiledNumberFormat format, long[] cents, int threads) throws Exception {
+        Callable<Long> task = () -> {
+            StringBuilder sb = new StringBuilder(32);
+            long checksum = 0;
+            for (long value : cents) {
+                sb.setLength(0);
+                format.formatCentsTo(value, sb);
+                checksum += hash(sb);
+            }
+            return checksum;
+        };
+        long expected = task.call();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            long begin = System.nanoTime();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(task));
+            }
+            int mismatches = 0;
+            for (Future<Long> future : futures) {
+                if (future.get() != expected) {
+                    mismatches++;
+                }
+            }
+            long nanos = System.nanoTime() - begin;
+            System.out.printf("%d线程共享格式化器: 吞吐=%,.0f次/秒 结果不一致的线程=%d%n",
+                    threads, (double) cents.length * threads / (nanos / 1e9), mismatches);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long hash(CharSequence s) {
+        long h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h;
+    }
+
+    /**
+     * 当前线程累计分配的字节数，不支持时返回-1
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,225 @@
+package com.PFM.CD.benchmark;
+
+import com.PFM.CD.dao.interfaces.UserDao;
+import com.PFM.CD.entity.User;
+import com.PFM.CD.service.cache.UserAvailabilityFilter;
+import com.PFM.CD.service.exception.AuthenticationException;
+import com.PFM.CD.service.exception.ServiceException;
+import com.PFM.CD.service.impl.UserServiceImpl;
+import com.PFM.CD.service.session.SessionManager;
+import com.PFM.CD.utils.security.LoginRateLimiter;
+import com.PFM.CD.utils.security.PasswordHasher;
+import com.PFM.CD.utils.security.PasswordHashingPool;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并发登录吞吐量基准测试
+ * 使用内存中的UserDao，模拟多个请求线程同时登录，统计成功、失败和因过载被拒绝的登录数。
+ *
+ * 用法: LoginThroughputBenchmark [请求线程数] [每线程登录次数] [哈希线程数] [队列容量] [算法]
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class LoginThroughputBenchmark {
+
+    private static final String PASSWORD = "Benchmark#2025";
+
+    public static void main(String[] args) throws Exception {
+        int clientThreads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int loginsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int hashThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = args.length > 3 ? Integer.parseInt(args[3]) : PasswordHashingPool.DEFAULT_QUEUE_CAPACITY;
+        PasswordHasher.HashAlgorithm algorithm = args.length > 4
+                ? PasswordHasher.HashAlgorithm.valueOf(args[4]) : PasswordHasher.HashAlgorithm.PBKDF2;
+
+        PasswordHasher hasher = new PasswordHasher(algorithm);
+        InMemoryUserDao userDao = new InMemoryUserDao();
+        String hash = hasher.hash(PASSWORD);
+        for (int i = 0; i < clientThreads; i++) {
+            userDao.save(new User("user" + i, hash, "user" + i + "@example.com"));
+        }
+
+        PasswordHashingPool pool = new PasswordHashingPool(hasher, hashThreads, queueCapacity);
+        UserServiceImpl userService = new UserServiceImpl(userDao, pool, new SessionManager(null, null),
+                // 基准测试只关心哈希吞吐量，把限额放宽到不会触发
+                new LoginRateLimiter(1_000_000, 1, 1_000_000, 1, clientThreads + 1),
+                new UserAvailabilityFilter(userDao));
+
+        // 预热
+        userService.login("user0", PASSWORD);
+
+        LongAdder succeeded = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder busy = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clientThreads);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < clientThreads; i++) {
+            String username = "user" + i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; n < loginsPerThread; n++) {
+                        try {
+                            userService.login(username, PASSWORD);
+                            succeeded.increment();
+                        } catch (AuthenticationException e) {
+                            failed.increment();
+                        } catch (ServiceException e) {
+                            busy.increment();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "login-client-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+        pool.shutdown();
+
+        System.out.printf("算法=%s 请求线程=%d 哈希线程=%d 队列=%d%n", algorithm, clientThreads, hashThreads, queueCapacity);
+        System.out.printf("成功=%d 失败=%d 过载拒绝=%d 耗时=%.2fs 吞吐量=%.1f 次/秒%n",
+                succeeded.sum(), failed.sum(), busy.sum(), seconds, succeeded.sum() / seconds);
+        System.out.printf("线程池: 提交=%d 拒绝=%d%n", pool.getSubmittedCount(), pool.getRejectedCount());
+    }
+
+    /**
+     * 基准测试用的内存UserDao
+     */
+    private static final class InMemoryUserDao implements UserDao {
+
+        private final Map<Integer, User> users = new ConcurrentHashMap<>();
+        private final Map<String, User> byUsername = new ConcurrentHashMap<>();
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public boolean save(User user) {
+            user.setUserId(sequence.incrementAndGet());
+            user.setCreatedAt(LocalDate.now());
+            users.put(user.getUserId(), user);
+            byUsername.put(user.getUsername(), user);
+            return true;
+        }
+
+        @Override
+        public User findById(Integer id) {
+            return users.get(id);
+        }
+
+        @Override
+        public boolean update(User user) {
+            users.put(user.getUserId(), user);
+            byUsername.put(user.getUsername(), user);
+            return true;
+        }
+
+        @Override
+        public boolean delete(Integer id) {
+            User user = users.remove(id);
+            if (user != null) {
+                byUsername.remove(user.getUsername());
+            }
+            return user != null;
+        }
+
+        @Override
+        public List<User> findAll() {
+            return new ArrayList<>(users.values());
+        }
+
+        @Override
+        public User findByUsername(String username) {
+            return byUsername.get(username);
+        }
+
+        @Override
+        public User findByEmail(String email) {
+            for (User user : users.values()) {
+                if (user.getEmail().equals(email)) {
+                    return user;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public User authenticate(String username, String passwordHash) {
+            User user = byUsername.get(username);
+            return user != null && user.getPasswordHash().equals(passwordHash) ? user : null;
+        }
+
+        @Override
+        public boolean updatePassword(int userId, String newPasswordHash) {
+            User user = users.get(userId);
+            if (user == null) {
+                return false;
+            }
+            user.setPasswordHash(newPasswordHash);
+            return true;
+        }
+
+        @Override
+        public boolean isUsernameExists(String username) {
+            return byUsername.containsKey(username);
+        }
+
+        @Override
+        public boolean isEmailExists(String email) {
+            return findByEmail(email) != null;
+        }
+
+        @Override
+        public List<String> findAllUsernames() {
+            return new ArrayList<>(byUsername.keySet());
+        }
+
+        @Override
+        public List<String> findAllEmails() {
+            List<String> emails = new ArrayList<>();
+            for (User user : users.values()) {
+                emails.add(user.getEmail());
+            }
+            return emails;
+        }
+
+        @Override
+        public Connection getConnection() {
+            return null;
+        }
+
+        @Override
+        public void beginTransaction(Connection conn) {
+        }
+
+        @Override
+        public void commitTransaction(Connection conn) {
+        }
+
+        @Override
+        public void rollbackTransaction(Connection conn) {
+        }
+
+        @Override
+        public void closeConnection(Connection conn) {
+        }
+    }
+}
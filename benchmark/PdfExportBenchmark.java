@@ -0,0 +1,169 @@
+package com.PFM.CD.benchmark;
+
+import com.PFM.CD.entity.Report;
+import com.PFM.CD.entity.enums.ReportType;
+import com.PFM.CD.utils.report.PdfExporter;
+import com.PFM.CD.utils.report.PdfFontCache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 批量PDF导出吞吐量基准测试
+ * 用与ReportGenerator相同格式的Markdown报表内容批量导出PDF，输出写入只计数的流，
+ * 分别统计单线程和多线程下的文档数/秒、输出字节数、字体加载次数和堆内存峰值。
+ *
+ * 用法: PdfExportBenchmark [报表数] [每份报表交易行数] [导出线程数]
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class PdfExportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int reports = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int rowsPerReport = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        PdfExporter exporter = new PdfExporter();
+        Report report = new Report(1, ReportType.INCOME_EXPENSE, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31));
+        String content = buildContent(rowsPerReport);
+
+        // 首次导出包含字体加载
+        long coldStart = System.nanoTime();
+        long coldBytes = exportOnce(exporter, report, content);
+        double coldMillis = (System.nanoTime() - coldStart) / 1_000_000.0;
+        System.out.printf("报表数=%d 每份行数=%d 线程=%d 内容大小=%dKB%n",
+                reports, rowsPerReport, threads, content.length() / 1024);
+        System.out.printf("首次导出: %.1fms, %dKB%n", coldMillis, coldBytes / 1024);
+
+        // 单线程
+        HeapSampler sampler = HeapSampler.start();
+        long begin = System.nanoTime();
+        long bytes = 0;
+        for (int i = 0; i < reports; i++) {
+            bytes += exportOnce(exporter, report, content);
+        }
+        report("单线程", reports, bytes, System.nanoTime() - begin, sampler.stop());
+
+        // 多线程
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        LongAdder parallelBytes = new LongAdder();
+        sampler = HeapSampler.start();
+        begin = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < reports; i++) {
+            futures.add(executor.submit(() -> {
+                parallelBytes.add(exportOnce(exporter, report, content));
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        report("多线程", reports, parallelBytes.sum(), System.nanoTime() - begin, sampler.stop());
+        executor.shutdown();
+
+        System.out.printf("字体加载次数=%d%n", PdfFontCache.getLoadCount());
+    }
+
+    private static long exportOnce(PdfExporter exporter, Report report, String content) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        exporter.export(report, new StringReader(content), out);
+        return out.count;
+    }
+
+    private static void report(String label, int documents, long bytes, long nanos, long peakHeap) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%s: 耗时=%.2fs 吞吐量=%.1f 份/秒 输出=%.1fMB/s 堆峰值=%dMB%n",
+                label, seconds, documents / seconds, bytes / seconds / (1024 * 1024), peakHeap / (1024 * 1024));
+    }
+
+    /**
+     * 生成与ReportGenerator格式相同的报表内容
+     */
+    private static String buildContent(int rows) {
+        StringBuilder sb = new StringBuilder(rows * 64);
+        sb.append("# 收支报表\n\n");
+        sb.append("报表周期: 2025-01-01 至 2025-12-31\n\n");
+        sb.append("## 收支摘要\n\n");
+        sb.append("| 项目 | 金额 |\n|------|------|\n");
+        sb.append("| 总收入 | ¥120,000.00 |\n| 总支出 | ¥85,432.10 |\n| 结余 | ¥34,567.90 |\n\n");
+        sb.append("## 交易明细\n\n");
+        sb.append("| 日期 | 分类 | 账户 | 金额 | 备注 |\n|------|------|------|------|------|\n");
+        LocalDate date = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            sb.append("| ").append(date.plusDays(i % 365))
+                    .append(" | 餐饮 | 招商银行储蓄卡 | ¥").append(10 + i % 500).append(".50")
+                    .append(" | 午餐 #").append(i).append(" |\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 只统计字节数的输出流
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /**
+     * 后台采样已用堆内存的峰值
+     */
+    private static final class HeapSampler implements Runnable {
+
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile long peak;
+
+        private HeapSampler() {
+            this.thread = new Thread(this, "heap-sampler");
+            this.thread.setDaemon(true);
+        }
+
+        static HeapSampler start() {
+            System.gc();
+            HeapSampler sampler = new HeapSampler();
+            sampler.thread.start();
+            return sampler;
+        }
+
+        @Override
+        public void run() {
+            Runtime runtime = Runtime.getRuntime();
+            while (running) {
+                peak = Math.max(peak, runtime.totalMemory() - runtime.freeMemory());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        long stop() throws InterruptedException {
+            running = false;
+            thread.join();
+            return peak;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.PFM.CD.benchmark;
+
+import com.PFM.CD.utils.validation.FieldRule;
+import com.PFM.CD.utils.validation.RecordValidator;
+import com.PFM.CD.utils.validation.RegexPatterns;
+import com.PFM.CD.utils.validation.ValidationResult;
+import com.PFM.CD.utils.validation.ValidatorRegistry;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+/**
+ * 输入验证基准测试
+ * 生成带有一定比例错误数据的注册记录（用户名、邮箱、密码、手机号、金额、日期），对比
+ * 原来每次调用Pattern.matches / Pattern.compile的逐字段验证与ValidatorRegistry预编译规则组成的
+ * RecordValidator批量验证，报告每秒验证的记录数，并校验两种方式判为无效的记录数一致。
+ * 最后演示设置错误数量上限后批量验证提前停止。
+ *
+ * 用法: ValidationBenchmark [记录数] [重复次数] [错误比例%]
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ValidationBenchmark {
+
+    private static final String[] HEADER = {"用户名", "邮箱", "密码", "手机号", "金额", "日期"};
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int errorPercent = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        List<String[]> rows = generate(count, errorPercent, new Random(42));
+        System.out.printf("记录数=%d 重复=%d 错误比例=%d%% 预编译正则=%d个%n",
+                count, rounds, errorPercent, ValidatorRegistry.getPatternCount());
+
+        RecordValidator validator = RecordValidator.builder()
+                .required("用户名", ValidatorRegistry.USERNAME)
+                .required("邮箱", ValidatorRegistry.EMAIL)
+                .required("密码", ValidatorRegistry.STRONG_PASSWORD)
+                .optional("手机号", ValidatorRegistry.CHINA_MOBILE)
+                .required("金额", FieldRule.amount())
+                .required("日期", ValidatorRegistry.DATE)
+                .build();
+
+        for (int round = 1; round <= rounds; round++) {
+            long baseline = run("每次调用Pattern.matches#" + round, count, () -> {
+                long invalid = 0;
+                for (String[] row : rows) {
+                    if (!legacyValid(row)) {
+                        invalid++;
+                    }
+                }
+                return invalid;
+            });
+            long compiled = run("RecordValidator批量#" + round, count, () -> {
+                ValidationResult result = new ValidationResult();
+                validator.validateRows(HEADER, rows, result);
+                return result.getInvalidRowCount();
+            });
+            if (baseline != compiled) {
+                System.out.printf("无效记录数不一致: %d != %d%n", baseline, compiled);
+            }
+        }
+
+        List<String> emails = new ArrayList<>(count);
+        for (String[] row : rows) {
+            emails.add(row[1]);
+        }
+        run("按列验证邮箱", count, () -> {
+            ValidationResult result = new ValidationResult();
+            validator.validateColumn("邮箱", emails, result);
+            return result.getInvalidRowCount();
+        });
+
+        ValidationResult limited = new ValidationResult(100);
+        long begin = System.nanoTime();
+        long validated = validator.validateRows(HEADER, rows, limited);
+        System.out.printf("错误上限100: 验证%d行后停止 耗时=%.2fms 第一个错误: %s%n",
+                validated, (System.nanoTime() - begin) / 1e6,
+                limited.isValid() ? "无" : limited.getErrors().get(0));
+    }
+
+    private static long run(String name, int count, Callable<Long> task) throws Exception {
+        long begin = System.nanoTime();
+        long invalid = task.call();
+        long nanos = System.nanoTime() - begin;
+        System.out.printf("%-28s 耗时=%8.1fms 吞吐=%,12.0f条/秒 无效记录=%d%n",
+                name, nanos / 1e6, count / (nanos / 1e9), invalid);
+        return invalid;
+    }
+
+    /**
+     * 改造前的验证方式：每个字段调用Pattern.matches，密码强度每次编译四个正则
+     */
+    private static boolean legacyValid(String[] row) {
+        boolean valid = true;
+        String username = row[0];
+        if (isBlank(username) || username.length() < 3 || username.length() > 50
+                || !Pattern.matches(RegexPatterns.USERNAME_PATTERN, username)) {
+            valid = false;
+        }
+        if (isBlank(row[1]) || !Pattern.matches(RegexPatterns.EMAIL_PATTERN, row[1])) {
+            valid = false;
+        }
+        String password = row[2];
+        if (isBlank(password) || password.length() < 8
+                || !Pattern.compile("[a-z]").matcher(password).find()
+                || !Pattern.compile("[A-Z]").matcher(password).find()
+                || !Pattern.compile("\\d").matcher(password).find()
+                || !Pattern.compile("[!@#$%^&*(),.?\":{}|<>]").matcher(password).find()) {
+            valid = false;
+        }
+        if (!isBlank(row[3]) && !Pattern.matches(RegexPatterns.CHINA_MOBILE_PATTERN, row[3])) {
+            valid = false;
+        }
+        if (isBlank(row[4]) || !Pattern.matches(RegexPatterns.AMOUNT_PATTERN, row[4])) {
+            valid = false;
+        }
+        if (isBlank(row[5]) || !Pattern.matches(RegexPatterns.DATE_PATTERN, row[5])
+                || !validDate(row[5])) {
+            valid = false;
+        }
+        return valid;
+    }
+
+    private static boolean validDate(String value) {
+        try {
+            LocalDate.parse(value, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static List<String[]> generate(int count, int errorPercent, Random random) {
+        List<String[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] row = {
+                    "user_" + i,
+                    "user" + i + "@example.com",
+                    "Passw0rd!" + i,
+                    i % 3 == 0 ? "" : "13" + String.format("%09d", random.nextInt(1_000_000_000)),
+                    (random.nextInt(1_000_000)) + "." + String.format("%02d", random.nextInt(100)),
+                    String.format("2025-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28))
+            };
+            if (random.nextInt(100) < errorPercent) {
+                switch (random.nextInt(6)) {
+                    case 0:
+                        row[0] = "u";
+                        break;
+                    case 1:
+                        row[1] = "user" + i + "#example.com";
+                        break;
+                    case 2:
+                        row[2] = "password" + i;
+                        break;
+                    case 3:
+                        row[3] = "2" + i;
+                        break;
+                    case 4:
+                        row[4] = "-" + row[4];
+                        break;
+                    default:
+                        row[5] = "2025-13-01";
+                        break;
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
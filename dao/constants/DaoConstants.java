@@ -68,6 +68,42 @@ public class DaoConstants {
     public static final String COLUMN_REPORT_TYPE = "report_type";
     public static final String COLUMN_GENERATED_DATE = "generated_date";
     public static final String COLUMN_PARAMETERS = "parameters";
+    public static final String COLUMN_REQUEST_KEY = "request_key";
+    public static final String COLUMN_CONTENT_HASH = "content_hash";
+
+    // 报表内容表
+    public static final String TABLE_REPORT_CONTENTS = "report_contents";
+    public static final String COLUMN_ORIGINAL_SIZE = "original_size";
+    public static final String COLUMN_COMPRESSED_DATA = "compressed_data";
+
+    // 缓存版本表
+    public static final String TABLE_CACHE_VERSIONS = "cache_versions";
+    public static final String COLUMN_CACHE_NAME = "cache_name";
+    public static final String COLUMN_VERSION = "version";
+    public static final String CACHE_NAME_CATEGORIES = "categories";
+    // 每个用户的交易数据版本，缓存名为前缀加用户ID
+    public static final String CACHE_NAME_TRANSACTIONS_PREFIX = "transactions:";
+
+    // 分类使用计数表
+    public static final String TABLE_CATEGORY_USAGE_COUNTERS = "category_usage_counters";
+    public static final String COLUMN_USAGE_COUNT = "usage_count";
+
+    // 报表任务表
+    public static final String TABLE_REPORT_JOBS = "report_jobs";
+    public static final String COLUMN_JOB_ID = "job_id";
+    public static final String COLUMN_PHASE = "phase";
+    public static final String COLUMN_ERROR_MESSAGE = "error_message";
+
+    // 定时报表表
+    public static final String TABLE_REPORT_SCHEDULES = "report_schedules";
+    public static final String COLUMN_SCHEDULE_ID = "schedule_id";
+    public static final String COLUMN_PERIOD = "period";
+    public static final String COLUMN_CRON_EXPRESSION = "cron_expression";
+    public static final String COLUMN_ENABLED = "enabled";
+    public static final String COLUMN_NEXT_RUN_AT = "next_run_at";
+    public static final String COLUMN_LAST_RUN_AT = "last_run_at";
+    public static final String COLUMN_LAST_JOB_ID = "last_job_id";
+    public static final String COLUMN_LAST_REPORT_ID = "last_report_id";
 
     // SQL常量
     public static final int BATCH_SIZE = 100;
@@ -29,6 +29,9 @@ public class DaoFactory {
     private BudgetDao budgetDao;
     private BudgetCategoryDao budgetCategoryDao;
     private ReportDao reportDao;
+    private ReportJobDao reportJobDao;
+    private ReportScheduleDao reportScheduleDao;
+    private CategorizationRuleDao categorizationRuleDao;
 
     /**
      * 私有构造函数
@@ -166,6 +169,54 @@ public class DaoFactory {
         return reportDao;
     }
 
+    /**
+     * 获取ReportJobDao实例
+     *
+     * @return ReportJobDao实例
+     */
+    public ReportJobDao getReportJobDao() {
+        if (reportJobDao == null) {
+            synchronized (LOCK) {
+                if (reportJobDao == null) {
+                    reportJobDao = new ReportJobDaoImpl(connectionManager);
+                }
+            }
+        }
+        return reportJobDao;
+    }
+
+    /**
+     * 获取ReportScheduleDao实例
+     *
+     * @return ReportScheduleDao实例
+     */
+    public ReportScheduleDao getReportScheduleDao() {
+        if (reportScheduleDao == null) {
+            synchronized (LOCK) {
+                if (reportScheduleDao == null) {
+                    reportScheduleDao = new ReportScheduleDaoImpl(connectionManager);
+                }
+            }
+        }
+        return reportScheduleDao;
+    }
+
+    /**
+     * 获取CategorizationRuleDao实例
+     *
+     * @return CategorizationRuleDao实例
+     */
+    public CategorizationRuleDao getCategorizationRuleDao() {
+        if (categorizationRuleDao == null) {
+            synchronized (LOCK) {
+                if (categorizationRuleDao == null) {
+                    categorizationRuleDao = new CategorizationRuleDaoImpl(connectionManager);
+                }
+            }
+        }
+        return categorizationRuleDao;
+    }
+
     /**
      * 关闭连接池
      */
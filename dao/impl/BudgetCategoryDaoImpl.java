@@ -300,10 +300,12 @@ public class BudgetCategoryDaoImpl extends BaseDaoImpl<BudgetCategory, Integer>
     public boolean updateBudgetCategorySpentAmountByTransaction(int userId, int categoryId,
                                                                 BigDecimal amount,
                                                                 LocalDate transactionDate) throws SQLException {
+        // 通过分类闭包表同时更新该分类及其所有祖先分类的预算
         String sql = "UPDATE budget_categories bc " +
                 "JOIN budgets b ON bc.budget_id = b.budget_id " +
+                "JOIN category_closure cc ON cc.ancestor_id = bc.category_id " +
                 "SET bc.spent_amount = bc.spent_amount + ? " +
-                "WHERE b.user_id = ? AND bc.category_id = ? " +
+                "WHERE b.user_id = ? AND cc.descendant_id = ? " +
                 "AND ? BETWEEN b.start_date AND b.end_date";
 
         try (Connection conn = getConnection();
@@ -0,0 +1,230 @@
+package com.PFM.CD.dao.impl;
+
+import com.PFM.CD.dao.interfaces.CategorizationRuleDao;
+import com.PFM.CD.dao.interfaces.ConnectionManager;
+import com.PFM.CD.entity.CategorizationRule;
+import com.PFM.CD.entity.enums.RuleMatchType;
+import com.PFM.CD.entity.enums.TransactionType;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 自动分类规则数据访问实现类
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CategorizationRuleDaoImpl extends BaseDaoImpl<CategorizationRule, Integer>
+        implements CategorizationRuleDao {
+
+    public CategorizationRuleDaoImpl(ConnectionManager connectionManager) {
+        super();
+    }
+
+    @Override
+    public boolean save(CategorizationRule rule) throws SQLException {
+        String sql = "INSERT INTO categorization_rules (user_id, match_type, pattern, transaction_type, account_id, " +
+                "min_amount, max_amount, category_id, priority, enabled, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        return executeWithTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                setNullableInteger(ps, 1, rule.getUserId());
+                ps.setString(2, rule.getMatchType().toString());
+                ps.setString(3, rule.getPattern());
+                ps.setString(4, rule.getTransactionType() != null ? rule.getTransactionType().toString() : null);
+                setNullableInteger(ps, 5, rule.getAccountId());
+                ps.setBigDecimal(6, rule.getMinAmount());
+                ps.setBigDecimal(7, rule.getMaxAmount());
+                ps.setInt(8, rule.getCategoryId());
+                ps.setInt(9, rule.getPriority());
+                ps.setBoolean(10, rule.isEnabled());
+                ps.setTimestamp(11, Timestamp.valueOf(rule.getCreatedAt()));
+
+                int affectedRows = ps.executeUpdate();
+
+                if (affectedRows > 0) {
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            rule.setRuleId(rs.getInt(1));
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public CategorizationRule findById(Integer ruleId) throws SQLException {
+        String sql = "SELECT * FROM categorization_rules WHERE rule_id = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, ruleId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToRule(rs);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean update(CategorizationRule rule) throws SQLException {
+        String sql = "UPDATE categorization_rules SET match_type = ?, pattern = ?, transaction_type = ?, " +
+                "account_id = ?, min_amount = ?, max_amount = ?, category_id = ?, priority = ?, enabled = ? " +
+                "WHERE rule_id = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, rule.getMatchType().toString());
+            ps.setString(2, rule.getPattern());
+            ps.setString(3, rule.getTransactionType() != null ? rule.getTransactionType().toString() : null);
+            setNullableInteger(ps, 4, rule.getAccountId());
+            ps.setBigDecimal(5, rule.getMinAmount());
+            ps.setBigDecimal(6, rule.getMaxAmount());
+            ps.setInt(7, rule.getCategoryId());
+            ps.setInt(8, rule.getPriority());
+            ps.setBoolean(9, rule.isEnabled());
+            ps.setInt(10, rule.getRuleId());
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean delete(Integer ruleId) throws SQLException {
+        String sql = "DELETE FROM categorization_rules WHERE rule_id = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, ruleId);
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public List<CategorizationRule> findAll() throws SQLException {
+        String sql = "SELECT * FROM categorization_rules ORDER BY rule_id";
+        List<CategorizationRule> rules = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                rules.add(mapResultSetToRule(rs));
+            }
+        }
+
+        return rules;
+    }
+
+    @Override
+    public List<CategorizationRule> findApplicable(int userId) throws SQLException {
+        String sql = "SELECT * FROM categorization_rules " +
+                "WHERE enabled = TRUE AND (user_id = ? OR user_id IS NULL) ORDER BY rule_id";
+        List<CategorizationRule> rules = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rules.add(mapResultSetToRule(rs));
+                }
+            }
+        }
+
+        return rules;
+    }
+
+    @Override
+    public List<CategorizationRule> findByUserId(int userId) throws SQLException {
+        String sql = "SELECT * FROM categorization_rules WHERE user_id = ? ORDER BY rule_id";
+        List<CategorizationRule> rules = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rules.add(mapResultSetToRule(rs));
+                }
+            }
+        }
+
+        return rules;
+    }
+
+    @Override
+    public List<CategorizationRule> findGlobal() throws SQLException {
+        String sql = "SELECT * FROM categorization_rules WHERE user_id IS NULL ORDER BY rule_id";
+        List<CategorizationRule> rules = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                rules.add(mapResultSetToRule(rs));
+            }
+        }
+
+        return rules;
+    }
+
+    /**
+     * 设置可为空的整数参数
+     */
+    private void setNullableInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    /**
+     * 将ResultSet映射为CategorizationRule对象
+     */
+    private CategorizationRule mapResultSetToRule(ResultSet rs) throws SQLException {
+        CategorizationRule rule = new CategorizationRule();
+        rule.setRuleId(rs.getInt("rule_id"));
+
+        int userId = rs.getInt("user_id");
+        rule.setUserId(rs.wasNull() ? null : userId);
+
+        rule.setMatchType(RuleMatchType.valueOf(rs.getString("match_type")));
+        rule.setPattern(rs.getString("pattern"));
+
+        String transactionType = rs.getString("transaction_type");
+        rule.setTransactionType(transactionType != null ? TransactionType.valueOf(transactionType) : null);
+
+        int accountId = rs.getInt("account_id");
+        rule.setAccountId(rs.wasNull() ? null : accountId);
+
+        rule.setMinAmount(rs.getBigDecimal("min_amount"));
+        rule.setMaxAmount(rs.getBigDecimal("max_amount"));
+        rule.setCategoryId(rs.getInt("category_id"));
+        rule.setPriority(rs.getInt("priority"));
+        rule.setEnabled(rs.getBoolean("enabled"));
+        rule.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return rule;
+    }
+}
@@ -1,5 +1,6 @@
 package com.PFM.CD.dao.impl;
 
+import com.PFM.CD.dao.constants.DaoConstants;
 import com.PFM.CD.dao.interfaces.CategoryDao;
 import com.PFM.CD.dao.interfaces.ConnectionManager;
 import com.PFM.CD.entity.Category;
@@ -7,7 +8,9 @@ import com.PFM.CD.entity.enums.CategoryType;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 分类数据访问实现类
@@ -27,12 +30,13 @@ public class CategoryDaoImpl extends BaseDaoImpl<Category, Integer> implements C
 
     @Override
     public boolean save(Category category) throws SQLException {
-        String sql = "INSERT INTO categories (category_name, category_type) VALUES (?, ?)";
+        String sql = "INSERT INTO categories (category_name, category_type, parent_id) VALUES (?, ?, ?)";
 
         return executeWithTransaction(conn -> {
             try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
                 ps.setString(1, category.getCategoryName());
                 ps.setString(2, category.getCategoryType().toString());
+                setNullableInteger(ps, 3, category.getParentId());
 
                 int affectedRows = ps.executeUpdate();
 
@@ -40,6 +44,8 @@ public class CategoryDaoImpl extends BaseDaoImpl<Category, Integer> implements C
                     try (ResultSet rs = ps.getGeneratedKeys()) {
                         if (rs.next()) {
                             category.setCategoryId(rs.getInt(1));
+                            insertClosurePaths(conn, category.getCategoryId(), category.getParentId());
+                            incrementCatalogVersion(conn);
                             return true;
                         }
                     }
@@ -72,28 +78,65 @@ public class CategoryDaoImpl extends BaseDaoImpl<Category, Integer> implements C
     public boolean update(Category category) throws SQLException {
         String sql = "UPDATE categories SET category_name = ?, category_type = ? WHERE category_id = ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, category.getCategoryName());
-            ps.setString(2, category.getCategoryType().toString());
-            ps.setInt(3, category.getCategoryId());
+        return executeWithTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, category.getCategoryName());
+                ps.setString(2, category.getCategoryType().toString());
+                ps.setInt(3, category.getCategoryId());
 
-            return ps.executeUpdate() > 0;
-        }
+                boolean updated = ps.executeUpdate() > 0;
+                if (updated) {
+                    incrementCatalogVersion(conn);
+                }
+                return updated;
+            }
+        });
     }
 
+    /**
+     * 删除分类，其子分类提升到被删除分类的父分类下
+     */
     @Override
     public boolean delete(Integer categoryId) throws SQLException {
+        // 经过被删除节点的路径长度减一
+        String shortenSql = "UPDATE category_closure p " +
+                "JOIN category_closure up ON up.ancestor_id = p.ancestor_id " +
+                "AND up.descendant_id = ? AND up.depth > 0 " +
+                "JOIN category_closure down ON down.descendant_id = p.descendant_id " +
+                "AND down.ancestor_id = ? AND down.depth > 0 " +
+                "SET p.depth = p.depth - 1";
+        String removePathsSql = "DELETE FROM category_closure WHERE ancestor_id = ? OR descendant_id = ?";
+        String reparentSql = "UPDATE categories c " +
+                "JOIN categories d ON d.category_id = ? " +
+                "SET c.parent_id = d.parent_id WHERE c.parent_id = d.category_id";
         String sql = "DELETE FROM categories WHERE category_id = ?";
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        return executeWithTransaction(conn -> {
+            try (PreparedStatement shortenPs = conn.prepareStatement(shortenSql);
+                 PreparedStatement removePathsPs = conn.prepareStatement(removePathsSql);
+                 PreparedStatement reparentPs = conn.prepareStatement(reparentSql);
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setInt(1, categoryId);
+                shortenPs.setInt(1, categoryId);
+                shortenPs.setInt(2, categoryId);
+                shortenPs.executeUpdate();
 
-            return ps.executeUpdate() > 0;
-        }
+                removePathsPs.setInt(1, categoryId);
+                removePathsPs.setInt(2, categoryId);
+                removePathsPs.executeUpdate();
+
+                reparentPs.setInt(1, categoryId);
+                reparentPs.executeUpdate();
+
+                ps.setInt(1, categoryId);
+
+                boolean deleted = ps.executeUpdate() > 0;
+                if (deleted) {
+                    incrementCatalogVersion(conn);
+                }
+                return deleted;
+            }
+        });
     }
 
     @Override
@@ -232,7 +275,7 @@ public class CategoryDaoImpl extends BaseDaoImpl<Category, Integer> implements C
 
     @Override
     public int batchSave(List<Category> categories) throws SQLException {
-        String sql = "INSERT INTO categories (category_name, category_type) VALUES (?, ?)";
+        String sql = "INSERT INTO categories (category_name, category_type, parent_id) VALUES (?, ?, ?)";
         int count = 0;
 
         try (Connection conn = getConnection()) {
@@ -242,6 +285,7 @@ public class CategoryDaoImpl extends BaseDaoImpl<Category, Integer> implements C
                 for (Category category : categories) {
                     ps.setString(1, category.getCategoryName());
                     ps.setString(2, category.getCategoryType().toString());
+                    setNullableInteger(ps, 3, category.getParentId());
                     ps.addBatch();
                 }
 
@@ -262,6 +306,15 @@ public class CategoryDaoImpl extends BaseDaoImpl<Category, Integer> implements C
                     }
                 }
 
+                // 父分类必须已存在，因此逐条写入闭包路径即可
+                for (Category category : categories) {
+                    insertClosurePaths(conn, category.getCategoryId(), category.getParentId());
+                }
+
+                if (count > 0) {
+                    incrementCatalogVersion(conn);
+                }
+
                 commitTransaction(conn);
             } catch (SQLException e) {
                 rollbackTransaction(conn);
@@ -272,6 +325,266 @@ public class CategoryDaoImpl extends BaseDaoImpl<Category, Integer> implements C
         return count;
     }
 
+    @Override
+    public boolean moveCategory(int categoryId, Integer newParentId) throws SQLException {
+        // 断开子树与原祖先之间的路径
+        String detachSql = "DELETE p FROM category_closure p " +
+                "JOIN category_closure sub ON sub.descendant_id = p.descendant_id " +
+                "LEFT JOIN category_closure inner_path ON inner_path.ancestor_id = sub.ancestor_id " +
+                "AND inner_path.descendant_id = p.ancestor_id " +
+                "WHERE sub.ancestor_id = ? AND inner_path.ancestor_id IS NULL";
+        // 把子树挂到新父分类的所有祖先下
+        String attachSql = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                "SELECT sup.ancestor_id, sub.descendant_id, sup.depth + sub.depth + 1 " +
+                "FROM category_closure sup CROSS JOIN category_closure sub " +
+                "WHERE sup.descendant_id = ? AND sub.ancestor_id = ?";
+        String updateSql = "UPDATE categories SET parent_id = ? WHERE category_id = ?";
+
+        return executeWithTransaction(conn -> {
+            try (PreparedStatement detachPs = conn.prepareStatement(detachSql);
+                 PreparedStatement updatePs = conn.prepareStatement(updateSql)) {
+
+                detachPs.setInt(1, categoryId);
+                detachPs.executeUpdate();
+
+                if (newParentId != null) {
+                    try (PreparedStatement attachPs = conn.prepareStatement(attachSql)) {
+                        attachPs.setInt(1, newParentId);
+                        attachPs.setInt(2, categoryId);
+                        attachPs.executeUpdate();
+                    }
+                }
+
+                setNullableInteger(updatePs, 1, newParentId);
+                updatePs.setInt(2, categoryId);
+
+                boolean moved = updatePs.executeUpdate() > 0;
+                if (moved) {
+                    incrementCatalogVersion(conn);
+                }
+                return moved;
+            }
+        });
+    }
+
+    @Override
+    public boolean isDescendant(int ancestorId, int descendantId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM category_closure WHERE ancestor_id = ? AND descendant_id = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, ancestorId);
+            ps.setInt(2, descendantId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1) > 0;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public List<Integer> findDescendantIds(int categoryId) throws SQLException {
+        String sql = "SELECT descendant_id FROM category_closure WHERE ancestor_id = ? ORDER BY depth";
+        List<Integer> categoryIds = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, categoryId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    categoryIds.add(rs.getInt(1));
+                }
+            }
+        }
+
+        return categoryIds;
+    }
+
+    @Override
+    public int rebuildClosure() throws SQLException {
+        String deleteSql = "DELETE FROM category_closure";
+        String selfSql = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                "SELECT category_id, category_id, 0 FROM categories";
+        // 每轮把上一层路径向下延伸一级，直到没有新路径
+        String extendSql = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                "SELECT p.ancestor_id, c.category_id, p.depth + 1 " +
+                "FROM category_closure p JOIN categories c ON c.parent_id = p.descendant_id " +
+                "WHERE p.depth = ?";
+        int[] rows = new int[1];
+
+        executeWithTransaction(conn -> {
+            try (Statement stmt = conn.createStatement();
+                 PreparedStatement extendPs = conn.prepareStatement(extendSql)) {
+
+                stmt.executeUpdate(deleteSql);
+                rows[0] = stmt.executeUpdate(selfSql);
+
+                int depth = 0;
+                int inserted;
+                do {
+                    extendPs.setInt(1, depth++);
+                    inserted = extendPs.executeUpdate();
+                    rows[0] += inserted;
+                } while (inserted > 0);
+
+                incrementCatalogVersion(conn);
+                return true;
+            }
+        });
+
+        return rows[0];
+    }
+
+    @Override
+    public long getCatalogVersion() throws SQLException {
+        String sql = "SELECT version FROM cache_versions WHERE cache_name = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, DaoConstants.CACHE_NAME_CATEGORIES);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    @Override
+    public Map<Integer, Long> findUsageCounts(int userId) throws SQLException {
+        String sql = "SELECT category_id, usage_count FROM category_usage_counters WHERE user_id = ?";
+        Map<Integer, Long> counts = new HashMap<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getInt("category_id"), rs.getLong("usage_count"));
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    @Override
+    public void addUsageCounts(Map<Integer, Map<Integer, Long>> deltasByUser) throws SQLException {
+        String sql = "INSERT INTO category_usage_counters (user_id, category_id, usage_count) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE usage_count = GREATEST(usage_count + VALUES(usage_count), 0)";
+
+        executeWithTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int batched = 0;
+                for (Map.Entry<Integer, Map<Integer, Long>> userEntry : deltasByUser.entrySet()) {
+                    for (Map.Entry<Integer, Long> entry : userEntry.getValue().entrySet()) {
+                        ps.setInt(1, userEntry.getKey());
+                        ps.setInt(2, entry.getKey());
+                        ps.setLong(3, entry.getValue());
+                        ps.addBatch();
+
+                        if (++batched % DaoConstants.BATCH_SIZE == 0) {
+                            ps.executeBatch();
+                        }
+                    }
+                }
+                ps.executeBatch();
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public int rebuildUsageCounts() throws SQLException {
+        String deleteSql = "DELETE FROM category_usage_counters";
+        String userSql = "INSERT INTO category_usage_counters (user_id, category_id, usage_count) " +
+                "SELECT user_id, category_id, COUNT(*) FROM transactions GROUP BY user_id, category_id";
+        String globalSql = "INSERT INTO category_usage_counters (user_id, category_id, usage_count) " +
+                "SELECT 0, category_id, COUNT(*) FROM transactions GROUP BY category_id";
+        int[] rows = new int[1];
+
+        executeWithTransaction(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(deleteSql);
+                rows[0] = stmt.executeUpdate(userSql) + stmt.executeUpdate(globalSql);
+                return true;
+            }
+        });
+
+        return rows[0];
+    }
+
+    @Override
+    public int seedUsageCountsIfEmpty() throws SQLException {
+        // 并发初始化时后写入的一方遇到重复键不做修改
+        String sql = "INSERT INTO category_usage_counters (user_id, category_id, usage_count) " +
+                "SELECT user_id, category_id, usage_count FROM (" +
+                "SELECT user_id, category_id, COUNT(*) AS usage_count FROM transactions " +
+                "GROUP BY user_id, category_id " +
+                "UNION ALL SELECT 0, category_id, COUNT(*) FROM transactions GROUP BY category_id) seed " +
+                "WHERE NOT EXISTS (SELECT 1 FROM category_usage_counters) " +
+                "ON DUPLICATE KEY UPDATE usage_count = category_usage_counters.usage_count";
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * 为新分类写入闭包路径：自身路径以及父分类所有祖先到它的路径
+     */
+    private void insertClosurePaths(Connection conn, int categoryId, Integer parentId) throws SQLException {
+        String sql = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                "SELECT ancestor_id, ?, depth + 1 FROM category_closure WHERE descendant_id = ? " +
+                "UNION ALL SELECT ?, ?, 0";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, categoryId);
+            setNullableInteger(ps, 2, parentId);
+            ps.setInt(3, categoryId);
+            ps.setInt(4, categoryId);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * 设置可为null的整数参数
+     */
+    private void setNullableInteger(PreparedStatement ps, int parameterIndex, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(parameterIndex, Types.INTEGER);
+        } else {
+            ps.setInt(parameterIndex, value);
+        }
+    }
+
+    /**
+     * 递增分类目录版本号，必须在写入分类的同一事务中调用
+     */
+    private void incrementCatalogVersion(Connection conn) throws SQLException {
+        String sql = "INSERT INTO cache_versions (cache_name, version) VALUES (?, 1) " +
+                "ON DUPLICATE KEY UPDATE version = version + 1";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, DaoConstants.CACHE_NAME_CATEGORIES);
+            ps.executeUpdate();
+        }
+    }
+
     /**
      * 将ResultSet映射为Category对象
      */
@@ -280,6 +593,11 @@ public class CategoryDaoImpl extends BaseDaoImpl<Category, Integer> implements C
         category.setCategoryId(rs.getInt("category_id"));
         category.setCategoryName(rs.getString("category_name"));
         category.setCategoryType(CategoryType.valueOf(rs.getString("category_type")));
+
+        int parentId = rs.getInt("parent_id");
+        if (!rs.wasNull()) {
+            category.setParentId(parentId);
+        }
         return category;
     }
 }
\ No newline at end of file
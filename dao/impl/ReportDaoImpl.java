@@ -18,38 +18,67 @@ import java.util.List;
  */
 public class ReportDaoImpl extends BaseDaoImpl<Report, Integer> implements ReportDao {
 
+    /**
+     * 清理未引用内容时跳过最近写入或复用的内容，防止删掉正在保存的报表刚写入的内容
+     */
+    private static final int CONTENT_GRACE_MINUTES = 10;
+
     public ReportDaoImpl(ConnectionManager connectionManager) {
         super();
     }
 
     @Override
     public boolean save(Report report) throws SQLException {
-        String sql = "INSERT INTO reports (user_id, report_type, start_date, end_date, generated_date, parameters) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
+        return executeWithTransaction(conn -> insertReport(conn, report));
+    }
+
+    @Override
+    public boolean saveWithContent(Report report, byte[] compressedData, int originalSize) throws SQLException {
+        // 内容已存在时刷新created_at并对该行加排他锁，清理任务在提交前无法删除它
+        String sql = "INSERT INTO report_contents (content_hash, original_size, compressed_data, created_at) " +
+                "VALUES (?, ?, ?, NOW()) ON DUPLICATE KEY UPDATE created_at = NOW()";
 
         return executeWithTransaction(conn -> {
-            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setInt(1, report.getUserId());
-                ps.setString(2, report.getReportType().toString());
-                ps.setDate(3, Date.valueOf(report.getStartDate()));
-                ps.setDate(4, Date.valueOf(report.getEndDate()));
-                ps.setDate(5, Date.valueOf(report.getGeneratedDate() != null ?
-                        report.getGeneratedDate() : LocalDate.now()));
-                ps.setString(6, report.getParameters());
-
-                int affectedRows = ps.executeUpdate();
-
-                if (affectedRows > 0) {
-                    try (ResultSet rs = ps.getGeneratedKeys()) {
-                        if (rs.next()) {
-                            report.setReportId(rs.getInt(1));
-                            return true;
-                        }
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, report.getContentHash());
+                ps.setInt(2, originalSize);
+                ps.setBytes(3, compressedData);
+                ps.executeUpdate();
+            }
+            return insertReport(conn, report);
+        });
+    }
+
+    /**
+     * 在给定连接上插入报表记录并回填报表ID
+     */
+    private boolean insertReport(Connection conn, Report report) throws SQLException {
+        String sql = "INSERT INTO reports (user_id, report_type, start_date, end_date, generated_date, parameters, " +
+                "request_key, content_hash) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, report.getUserId());
+            ps.setString(2, report.getReportType().toString());
+            ps.setDate(3, Date.valueOf(report.getStartDate()));
+            ps.setDate(4, Date.valueOf(report.getEndDate()));
+            ps.setDate(5, Date.valueOf(report.getGeneratedDate() != null ?
+                    report.getGeneratedDate() : LocalDate.now()));
+            ps.setString(6, report.getParameters());
+            ps.setString(7, report.getRequestKey());
+            ps.setString(8, report.getContentHash());
+
+            int affectedRows = ps.executeUpdate();
+
+            if (affectedRows > 0) {
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        report.setReportId(rs.getInt(1));
+                        return true;
                     }
                 }
-                return false;
             }
-        });
+            return false;
+        }
     }
 
     @Override
@@ -74,7 +103,7 @@ public class ReportDaoImpl extends BaseDaoImpl<Report, Integer> implements Repor
     @Override
     public boolean update(Report report) throws SQLException {
         String sql = "UPDATE reports SET report_type = ?, start_date = ?, end_date = ?, " +
-                "parameters = ? WHERE report_id = ? AND user_id = ?";
+                "parameters = ?, request_key = ?, content_hash = ? WHERE report_id = ? AND user_id = ?";
 
         try (Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -83,8 +112,10 @@ public class ReportDaoImpl extends BaseDaoImpl<Report, Integer> implements Repor
             ps.setDate(2, Date.valueOf(report.getStartDate()));
             ps.setDate(3, Date.valueOf(report.getEndDate()));
             ps.setString(4, report.getParameters());
-            ps.setInt(5, report.getReportId());
-            ps.setInt(6, report.getUserId());
+            ps.setString(5, report.getRequestKey());
+            ps.setString(6, report.getContentHash());
+            ps.setInt(7, report.getReportId());
+            ps.setInt(8, report.getUserId());
 
             return ps.executeUpdate() > 0;
         }
@@ -270,6 +301,193 @@ public class ReportDaoImpl extends BaseDaoImpl<Report, Integer> implements Repor
         }
     }
 
+    @Override
+    public Report findLatestByRequestKey(int userId, String requestKey) throws SQLException {
+        String sql = "SELECT * FROM reports WHERE user_id = ? AND request_key = ? " +
+                "ORDER BY generated_date DESC, report_id DESC LIMIT 1";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+            ps.setString(2, requestKey);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToReport(rs);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public byte[] findContent(String contentHash) throws SQLException {
+        String sql = "SELECT compressed_data FROM report_contents WHERE content_hash = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, contentHash);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getBytes(1);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public int deleteUnreferencedContent() throws SQLException {
+        String sql = "DELETE rc FROM report_contents rc " +
+                "LEFT JOIN reports r ON r.content_hash = rc.content_hash " +
+                "WHERE r.report_id IS NULL AND rc.created_at < NOW() - INTERVAL ? MINUTE";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, CONTENT_GRACE_MINUTES);
+            return ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public List<Integer> findUserIdsWithReports(int afterUserId, int limit) throws SQLException {
+        String sql = "SELECT DISTINCT user_id FROM reports WHERE user_id > ? ORDER BY user_id LIMIT ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, afterUserId);
+            ps.setInt(2, limit);
+
+            return readIds(ps);
+        }
+    }
+
+    @Override
+    public List<Integer> findIdsOlderThan(int userId, LocalDate date, int limit) throws SQLException {
+        String sql = "SELECT r.report_id FROM reports r WHERE r.user_id = ? AND r.generated_date < ? " +
+                "AND NOT EXISTS (SELECT 1 FROM report_schedules s WHERE s.last_report_id = r.report_id) " +
+                "ORDER BY r.report_id LIMIT ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+            ps.setDate(2, Date.valueOf(date));
+            ps.setInt(3, limit);
+
+            return readIds(ps);
+        }
+    }
+
+    @Override
+    public List<Integer> findIdsBeyondKeepCount(int userId, int keepCount, int limit) throws SQLException {
+        String sql = "SELECT r.report_id FROM reports r WHERE r.user_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM report_schedules s WHERE s.last_report_id = r.report_id) " +
+                "ORDER BY r.generated_date DESC, r.report_id DESC LIMIT ?, ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+            ps.setInt(2, keepCount);
+            ps.setInt(3, limit);
+
+            return readIds(ps);
+        }
+    }
+
+    @Override
+    public int deleteByIds(List<Integer> reportIds) throws SQLException {
+        if (reportIds == null || reportIds.isEmpty()) {
+            return 0;
+        }
+
+        String placeholders = placeholders(reportIds.size());
+        int[] deleted = new int[1];
+
+        executeWithTransaction(conn -> {
+            // 先记下这批报表引用的内容，删除报表后只检查这些内容是否还被引用
+            List<String> contentHashes = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement("SELECT DISTINCT content_hash FROM reports " +
+                    "WHERE content_hash IS NOT NULL AND report_id IN (" + placeholders + ")")) {
+                setIds(ps, reportIds);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        contentHashes.add(rs.getString(1));
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "DELETE FROM report_jobs WHERE report_id IN (" + placeholders + ")")) {
+                setIds(ps, reportIds);
+                ps.executeUpdate();
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "DELETE FROM reports WHERE report_id IN (" + placeholders + ")")) {
+                setIds(ps, reportIds);
+                deleted[0] = ps.executeUpdate();
+            }
+
+            if (!contentHashes.isEmpty()) {
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM report_contents " +
+                        "WHERE content_hash IN (" + placeholders(contentHashes.size()) + ") " +
+                        "AND created_at < NOW() - INTERVAL ? MINUTE " +
+                        "AND NOT EXISTS (SELECT 1 FROM reports r WHERE r.content_hash = report_contents.content_hash)")) {
+                    for (int i = 0; i < contentHashes.size(); i++) {
+                        ps.setString(i + 1, contentHashes.get(i));
+                    }
+                    ps.setInt(contentHashes.size() + 1, CONTENT_GRACE_MINUTES);
+                    ps.executeUpdate();
+                }
+            }
+            return true;
+        });
+
+        return deleted[0];
+    }
+
+    /**
+     * 读取查询结果第一列的ID
+     */
+    private List<Integer> readIds(PreparedStatement ps) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 设置IN子句的ID参数
+     */
+    private void setIds(PreparedStatement ps, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            ps.setInt(i + 1, ids.get(i));
+        }
+    }
+
+    /**
+     * 生成IN子句的占位符
+     */
+    private String placeholders(int count) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i > 0 ? ", ?" : "?");
+        }
+        return placeholders.toString();
+    }
+
     /**
      * 将ResultSet映射为Report对象
      */
@@ -282,6 +500,8 @@ public class ReportDaoImpl extends BaseDaoImpl<Report, Integer> implements Repor
         report.setEndDate(rs.getDate("end_date").toLocalDate());
         report.setGeneratedDate(rs.getDate("generated_date").toLocalDate());
         report.setParameters(rs.getString("parameters"));
+        report.setRequestKey(rs.getString("request_key"));
+        report.setContentHash(rs.getString("content_hash"));
         return report;
     }
 }
\ No newline at end of file
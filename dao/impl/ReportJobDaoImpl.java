@@ -0,0 +1,218 @@
+package com.PFM.CD.dao.impl;
+
+import com.PFM.CD.dao.interfaces.ConnectionManager;
+import com.PFM.CD.dao.interfaces.ReportJobDao;
+import com.PFM.CD.entity.ReportJob;
+import com.PFM.CD.entity.enums.ReportJobPhase;
+import com.PFM.CD.entity.enums.ReportJobStatus;
+import com.PFM.CD.entity.enums.ReportType;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 报表任务数据访问实现类
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ReportJobDaoImpl extends BaseDaoImpl<ReportJob, Integer> implements ReportJobDao {
+
+    public ReportJobDaoImpl(ConnectionManager connectionManager) {
+        super();
+    }
+
+    @Override
+    public boolean save(ReportJob job) throws SQLException {
+        String sql = "INSERT INTO report_jobs (user_id, report_type, start_date, end_date, parameters, " +
+                "status, phase, report_id, error_message, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        return executeWithTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setInt(1, job.getUserId());
+                ps.setString(2, job.getReportType().toString());
+                ps.setDate(3, Date.valueOf(job.getStartDate()));
+                ps.setDate(4, Date.valueOf(job.getEndDate()));
+                ps.setString(5, job.getParameters());
+                ps.setString(6, job.getStatus().toString());
+                ps.setString(7, job.getPhase().toString());
+                setNullableInteger(ps, 8, job.getReportId());
+                ps.setString(9, job.getErrorMessage());
+                ps.setTimestamp(10, Timestamp.valueOf(job.getCreatedAt()));
+                ps.setTimestamp(11, Timestamp.valueOf(job.getUpdatedAt()));
+
+                int affectedRows = ps.executeUpdate();
+
+                if (affectedRows > 0) {
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            job.setJobId(rs.getInt(1));
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public ReportJob findById(Integer jobId) throws SQLException {
+        String sql = "SELECT * FROM report_jobs WHERE job_id = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, jobId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToReportJob(rs);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean update(ReportJob job) throws SQLException {
+        return updateState(job);
+    }
+
+    @Override
+    public boolean updateState(ReportJob job) throws SQLException {
+        String sql = "UPDATE report_jobs SET status = ?, phase = ?, report_id = ?, error_message = ?, " +
+                "updated_at = ? WHERE job_id = ?";
+
+        job.setUpdatedAt(LocalDateTime.now());
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, job.getStatus().toString());
+            ps.setString(2, job.getPhase().toString());
+            setNullableInteger(ps, 3, job.getReportId());
+            ps.setString(4, job.getErrorMessage());
+            ps.setTimestamp(5, Timestamp.valueOf(job.getUpdatedAt()));
+            ps.setInt(6, job.getJobId());
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean delete(Integer jobId) throws SQLException {
+        String sql = "DELETE FROM report_jobs WHERE job_id = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, jobId);
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public List<ReportJob> findAll() throws SQLException {
+        String sql = "SELECT * FROM report_jobs ORDER BY created_at DESC";
+        List<ReportJob> jobs = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                jobs.add(mapResultSetToReportJob(rs));
+            }
+        }
+
+        return jobs;
+    }
+
+    @Override
+    public List<ReportJob> findByUserId(int userId) throws SQLException {
+        String sql = "SELECT * FROM report_jobs WHERE user_id = ? ORDER BY created_at DESC, job_id DESC";
+        List<ReportJob> jobs = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    jobs.add(mapResultSetToReportJob(rs));
+                }
+            }
+        }
+
+        return jobs;
+    }
+
+    @Override
+    public List<ReportJob> findByStatuses(List<ReportJobStatus> statuses) throws SQLException {
+        List<ReportJob> jobs = new ArrayList<>();
+        if (statuses == null || statuses.isEmpty()) {
+            return jobs;
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM report_jobs WHERE status IN (");
+        for (int i = 0; i < statuses.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY job_id");
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < statuses.size(); i++) {
+                ps.setString(i + 1, statuses.get(i).toString());
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    jobs.add(mapResultSetToReportJob(rs));
+                }
+            }
+        }
+
+        return jobs;
+    }
+
+    /**
+     * 设置可为空的整数参数
+     */
+    private void setNullableInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    /**
+     * 将ResultSet映射为ReportJob对象
+     */
+    private ReportJob mapResultSetToReportJob(ResultSet rs) throws SQLException {
+        ReportJob job = new ReportJob();
+        job.setJobId(rs.getInt("job_id"));
+        job.setUserId(rs.getInt("user_id"));
+        job.setReportType(ReportType.valueOf(rs.getString("report_type")));
+        job.setStartDate(rs.getDate("start_date").toLocalDate());
+        job.setEndDate(rs.getDate("end_date").toLocalDate());
+        job.setParameters(rs.getString("parameters"));
+        job.setStatus(ReportJobStatus.valueOf(rs.getString("status")));
+        job.setPhase(ReportJobPhase.valueOf(rs.getString("phase")));
+        int reportId = rs.getInt("report_id");
+        job.setReportId(rs.wasNull() ? null : reportId);
+        job.setErrorMessage(rs.getString("error_message"));
+        job.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        job.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        return job;
+    }
+}
@@ -0,0 +1,300 @@
+package com.PFM.CD.dao.impl;
+
+import com.PFM.CD.dao.interfaces.ConnectionManager;
+import com.PFM.CD.dao.interfaces.ReportScheduleDao;
+import com.PFM.CD.entity.ReportSchedule;
+import com.PFM.CD.entity.enums.ReportPeriod;
+import com.PFM.CD.entity.enums.ReportType;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 定时报表数据访问实现类
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ReportScheduleDaoImpl extends BaseDaoImpl<ReportSchedule, Integer> implements ReportScheduleDao {
+
+    public ReportScheduleDaoImpl(ConnectionManager connectionManager) {
+        super();
+    }
+
+    @Override
+    public boolean save(ReportSchedule schedule) throws SQLException {
+        String sql = "INSERT INTO report_schedules (user_id, name, report_type, period, cron_expression, " +
+                "enabled, next_run_at, last_run_at, last_job_id, last_report_id, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        return executeWithTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setInt(1, schedule.getUserId());
+                ps.setString(2, schedule.getName());
+                ps.setString(3, schedule.getReportType().toString());
+                ps.setString(4, schedule.getPeriod().toString());
+                ps.setString(5, schedule.getCronExpression());
+                ps.setBoolean(6, schedule.isEnabled());
+                setNullableTimestamp(ps, 7, schedule.getNextRunAt());
+                setNullableTimestamp(ps, 8, schedule.getLastRunAt());
+                setNullableInteger(ps, 9, schedule.getLastJobId());
+                setNullableInteger(ps, 10, schedule.getLastReportId());
+                ps.setTimestamp(11, Timestamp.valueOf(schedule.getCreatedAt()));
+                ps.setTimestamp(12, Timestamp.valueOf(schedule.getUpdatedAt()));
+
+                int affectedRows = ps.executeUpdate();
+
+                if (affectedRows > 0) {
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            schedule.setScheduleId(rs.getInt(1));
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public ReportSchedule findById(Integer scheduleId) throws SQLException {
+        String sql = "SELECT * FROM report_schedules WHERE schedule_id = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, scheduleId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToReportSchedule(rs);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean update(ReportSchedule schedule) throws SQLException {
+        String sql = "UPDATE report_schedules SET name = ?, report_type = ?, period = ?, cron_expression = ?, " +
+                "enabled = ?, next_run_at = ?, updated_at = ? WHERE schedule_id = ?";
+
+        schedule.setUpdatedAt(LocalDateTime.now());
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, schedule.getName());
+            ps.setString(2, schedule.getReportType().toString());
+            ps.setString(3, schedule.getPeriod().toString());
+            ps.setString(4, schedule.getCronExpression());
+            ps.setBoolean(5, schedule.isEnabled());
+            setNullableTimestamp(ps, 6, schedule.getNextRunAt());
+            ps.setTimestamp(7, Timestamp.valueOf(schedule.getUpdatedAt()));
+            ps.setInt(8, schedule.getScheduleId());
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean updateRunState(ReportSchedule schedule) throws SQLException {
+        String sql = "UPDATE report_schedules SET next_run_at = ?, last_run_at = ?, last_job_id = ?, " +
+                "last_report_id = ?, updated_at = ? WHERE schedule_id = ?";
+
+        schedule.setUpdatedAt(LocalDateTime.now());
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            setNullableTimestamp(ps, 1, schedule.getNextRunAt());
+            setNullableTimestamp(ps, 2, schedule.getLastRunAt());
+            setNullableInteger(ps, 3, schedule.getLastJobId());
+            setNullableInteger(ps, 4, schedule.getLastReportId());
+            ps.setTimestamp(5, Timestamp.valueOf(schedule.getUpdatedAt()));
+            ps.setInt(6, schedule.getScheduleId());
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean updateLastReportId(int scheduleId, int reportId) throws SQLException {
+        String sql = "UPDATE report_schedules SET last_report_id = ?, updated_at = ? WHERE schedule_id = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, reportId);
+            ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setInt(3, scheduleId);
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean delete(Integer scheduleId) throws SQLException {
+        String sql = "DELETE FROM report_schedules WHERE schedule_id = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, scheduleId);
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public List<ReportSchedule> findAll() throws SQLException {
+        String sql = "SELECT * FROM report_schedules ORDER BY schedule_id";
+        List<ReportSchedule> schedules = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                schedules.add(mapResultSetToReportSchedule(rs));
+            }
+        }
+
+        return schedules;
+    }
+
+    @Override
+    public List<ReportSchedule> findByUserId(int userId) throws SQLException {
+        String sql = "SELECT * FROM report_schedules WHERE user_id = ? ORDER BY schedule_id";
+        List<ReportSchedule> schedules = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    schedules.add(mapResultSetToReportSchedule(rs));
+                }
+            }
+        }
+
+        return schedules;
+    }
+
+    @Override
+    public List<ReportSchedule> findDue(LocalDateTime now, Collection<Integer> excludedUserIds, int limit)
+            throws SQLException {
+        List<Integer> excluded = excludedUserIds != null
+                ? new ArrayList<>(excludedUserIds) : Collections.<Integer>emptyList();
+        StringBuilder sql = new StringBuilder("SELECT * FROM report_schedules WHERE enabled = TRUE AND next_run_at <= ?");
+        if (!excluded.isEmpty()) {
+            sql.append(" AND user_id NOT IN (");
+            for (int i = 0; i < excluded.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+        }
+        sql.append(" ORDER BY next_run_at, schedule_id LIMIT ?");
+        List<ReportSchedule> schedules = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            ps.setTimestamp(index++, Timestamp.valueOf(now));
+            for (int userId : excluded) {
+                ps.setInt(index++, userId);
+            }
+            ps.setInt(index, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    schedules.add(mapResultSetToReportSchedule(rs));
+                }
+            }
+        }
+
+        return schedules;
+    }
+
+    @Override
+    public List<ReportSchedule> findAwaitingResult() throws SQLException {
+        String sql = "SELECT s.* FROM report_schedules s " +
+                "JOIN report_jobs j ON s.last_job_id = j.job_id " +
+                "WHERE j.status IN ('QUEUED', 'RUNNING') " +
+                "OR (j.status = 'SUCCEEDED' AND (s.last_report_id IS NULL OR s.last_report_id <> j.report_id))";
+        List<ReportSchedule> schedules = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                schedules.add(mapResultSetToReportSchedule(rs));
+            }
+        }
+
+        return schedules;
+    }
+
+    /**
+     * 设置可为空的整数参数
+     */
+    private void setNullableInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    /**
+     * 设置可为空的时间参数
+     */
+    private void setNullableTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    /**
+     * 读取可为空的时间列
+     */
+    private LocalDateTime getNullableTimestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * 将ResultSet映射为ReportSchedule对象
+     */
+    private ReportSchedule mapResultSetToReportSchedule(ResultSet rs) throws SQLException {
+        ReportSchedule schedule = new ReportSchedule();
+        schedule.setScheduleId(rs.getInt("schedule_id"));
+        schedule.setUserId(rs.getInt("user_id"));
+        schedule.setName(rs.getString("name"));
+        schedule.setReportType(ReportType.valueOf(rs.getString("report_type")));
+        schedule.setPeriod(ReportPeriod.valueOf(rs.getString("period")));
+        schedule.setCronExpression(rs.getString("cron_expression"));
+        schedule.setEnabled(rs.getBoolean("enabled"));
+        schedule.setNextRunAt(getNullableTimestamp(rs, "next_run_at"));
+        schedule.setLastRunAt(getNullableTimestamp(rs, "last_run_at"));
+        int lastJobId = rs.getInt("last_job_id");
+        schedule.setLastJobId(rs.wasNull() ? null : lastJobId);
+        int lastReportId = rs.getInt("last_report_id");
+        schedule.setLastReportId(rs.wasNull() ? null : lastReportId);
+        schedule.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        schedule.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        return schedule;
+    }
+}
@@ -1,17 +1,25 @@
 package com.PFM.CD.dao.impl;
 
+import com.PFM.CD.dao.constants.DaoConstants;
 import com.PFM.CD.dao.interfaces.ConnectionManager;
+import com.PFM.CD.dao.interfaces.RowHandler;
 import com.PFM.CD.dao.interfaces.TransactionDao;
+import com.PFM.CD.dao.util.SqlUtils;
 import com.PFM.CD.entity.Transaction;
 import com.PFM.CD.entity.enums.TransactionType;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 交易数据访问实现类
@@ -21,6 +29,11 @@ import java.util.Map;
  */
 public class TransactionDaoImpl extends BaseDaoImpl<Transaction, Integer> implements TransactionDao {
 
+    // 服务器不允许LOCAL INFILE（MySQL 5.7）
+    private static final int ER_NOT_ALLOWED_COMMAND = 1148;
+    // 客户端或服务器禁用了LOCAL INFILE（MySQL 8.0）
+    private static final int ER_CLIENT_LOCAL_FILES_DISABLED = 3948;
+
     public TransactionDaoImpl(ConnectionManager connectionManager) {
         super();
     }
@@ -48,6 +61,7 @@ public class TransactionDaoImpl extends BaseDaoImpl<Transaction, Integer> implem
                     try (ResultSet rs = ps.getGeneratedKeys()) {
                         if (rs.next()) {
                             transaction.setTransactionId(rs.getInt(1));
+                            incrementDataVersion(conn, transaction.getUserId());
                             return true;
                         }
                     }
@@ -101,16 +115,29 @@ public class TransactionDaoImpl extends BaseDaoImpl<Transaction, Integer> implem
                 ps.setInt(8, transaction.getTransactionId());
                 ps.setInt(9, transaction.getUserId());
 
-                return ps.executeUpdate() > 0;
+                if (ps.executeUpdate() == 0) {
+                    return false;
+                }
             }
+            incrementDataVersion(conn, transaction.getUserId());
+            return true;
         });
     }
 
     @Override
     public boolean delete(Integer transactionId) throws SQLException {
         String sql = "DELETE FROM transactions WHERE transaction_id = ?";
+        // 删除前按交易所属用户递增数据版本，交易不存在时不写入
+        String versionSql = "INSERT INTO cache_versions (cache_name, version) " +
+                "SELECT CONCAT(?, user_id), 1 FROM transactions WHERE transaction_id = ? " +
+                "ON DUPLICATE KEY UPDATE version = version + 1";
 
         return executeWithTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(versionSql)) {
+                ps.setString(1, DaoConstants.CACHE_NAME_TRANSACTIONS_PREFIX);
+                ps.setInt(2, transactionId);
+                ps.executeUpdate();
+            }
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setInt(1, transactionId);
                 return ps.executeUpdate() > 0;
@@ -203,6 +230,42 @@ public class TransactionDaoImpl extends BaseDaoImpl<Transaction, Integer> implem
         return transactions;
     }
 
+    @Override
+    public int streamByUserIdAndDateRange(int userId, LocalDate startDate, LocalDate endDate,
+                                          RowHandler<Transaction> handler) throws SQLException {
+        String sql = "SELECT t.*, c.category_name, " +
+                "sa.account_name as source_account_name, " +
+                "da.account_name as destination_account_name " +
+                "FROM transactions t " +
+                "LEFT JOIN categories c ON t.category_id = c.category_id " +
+                "LEFT JOIN accounts sa ON t.source_account_id = sa.account_id " +
+                "LEFT JOIN accounts da ON t.destination_account_id = da.account_id " +
+                "WHERE t.user_id = ? AND t.transaction_date BETWEEN ? AND ? " +
+                "ORDER BY t.transaction_date, t.transaction_id";
+
+        int count = 0;
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // MySQL驱动在只进、只读且fetchSize为Integer.MIN_VALUE时逐行读取结果
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setInt(1, userId);
+            ps.setDate(2, Date.valueOf(startDate));
+            ps.setDate(3, Date.valueOf(endDate));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(mapResultSetToTransaction(rs));
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
     @Override
     public List<Transaction> findByUserIdAndType(int userId, TransactionType type) throws SQLException {
         String sql = "SELECT t.*, c.category_name, " +
@@ -427,6 +490,78 @@ public class TransactionDaoImpl extends BaseDaoImpl<Transaction, Integer> implem
         return result;
     }
 
+    @Override
+    public Map<Integer, BigDecimal> calculateRollupByCategory(int userId, TransactionType type,
+                                                              LocalDate startDate, LocalDate endDate) throws SQLException {
+        String sql = "SELECT cc.ancestor_id AS category_id, SUM(t.amount) as total " +
+                "FROM transactions t " +
+                "JOIN category_closure cc ON cc.descendant_id = t.category_id " +
+                "WHERE t.user_id = ? AND t.transaction_type = ? " +
+                "AND t.transaction_date BETWEEN ? AND ? " +
+                "GROUP BY cc.ancestor_id";
+
+        Map<Integer, BigDecimal> result = new HashMap<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+            ps.setString(2, type.toString());
+            ps.setDate(3, Date.valueOf(startDate));
+            ps.setDate(4, Date.valueOf(endDate));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.put(rs.getInt("category_id"), rs.getBigDecimal("total"));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void aggregateForComparison(int userId, LocalDate currentStartDate, LocalDate currentEndDate,
+                                       LocalDate previousStartDate, LocalDate previousEndDate,
+                                       PeriodAggregateHandler handler) throws SQLException {
+        String sql = "SELECT CASE WHEN transaction_date BETWEEN ? AND ? THEN 1 ELSE 0 END AS current_period, " +
+                "transaction_type, category_id, " +
+                "CASE WHEN transaction_type = 'INCOME' " +
+                "THEN COALESCE(destination_account_id, source_account_id) " +
+                "ELSE COALESCE(source_account_id, destination_account_id) END AS account_id, " +
+                "SUM(amount) AS total, COUNT(*) AS transaction_count " +
+                "FROM transactions " +
+                "WHERE user_id = ? " +
+                "AND (transaction_date BETWEEN ? AND ? OR transaction_date BETWEEN ? AND ?) " +
+                "GROUP BY current_period, transaction_type, category_id, account_id";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setDate(1, Date.valueOf(currentStartDate));
+            ps.setDate(2, Date.valueOf(currentEndDate));
+            ps.setInt(3, userId);
+            ps.setDate(4, Date.valueOf(currentStartDate));
+            ps.setDate(5, Date.valueOf(currentEndDate));
+            ps.setDate(6, Date.valueOf(previousStartDate));
+            ps.setDate(7, Date.valueOf(previousEndDate));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // wasNull只反映最近读取的列，必须紧跟在读取账户ID之后
+                    int accountId = rs.getInt("account_id");
+                    Integer nullableAccountId = rs.wasNull() ? null : accountId;
+                    handler.handle(rs.getInt("current_period") == 1,
+                            TransactionType.valueOf(rs.getString("transaction_type")),
+                            rs.getInt("category_id"),
+                            nullableAccountId,
+                            rs.getBigDecimal("total"),
+                            rs.getInt("transaction_count"));
+                }
+            }
+        }
+    }
+
     @Override
     public List<Transaction> searchTransactions(int userId, String keyword) throws SQLException {
         String sql = "SELECT t.*, c.category_name, " +
@@ -467,55 +602,293 @@ public class TransactionDaoImpl extends BaseDaoImpl<Transaction, Integer> implem
 
     @Override
     public int batchSave(List<Transaction> transactions) throws SQLException {
-        String sql = "INSERT INTO transactions (user_id, source_account_id, destination_account_id, " +
-                "category_id, amount, transaction_type, transaction_date, description) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = getConnection()) {
+            beginTransaction(conn);
 
-        int count = 0;
+            try {
+                int count = insertBatch(conn, transactions);
+                commitTransaction(conn);
+                return count;
+            } catch (SQLException e) {
+                rollbackTransaction(conn);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Set<String> findExistingFingerprints(int userId, Collection<String> fingerprints) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        if (fingerprints.isEmpty()) {
+            return existing;
+        }
+
+        String sql = "SELECT fingerprint FROM transactions WHERE user_id = ? AND fingerprint IN " +
+                SqlUtils.generateInClausePlaceholders(fingerprints.size());
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+            int index = 2;
+            for (String fingerprint : fingerprints) {
+                ps.setString(index++, fingerprint);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1));
+                }
+            }
+        }
+
+        return existing;
+    }
+
+    @Override
+    public int importBatch(int userId, List<Transaction> transactions, Map<Integer, BigDecimal> balanceDeltas,
+                           Map<Integer, Map<LocalDate, BigDecimal>> spentDeltas) throws SQLException {
+        String balanceSql = "UPDATE accounts SET balance = balance + ? WHERE account_id = ? AND user_id = ?";
+        // 与BudgetCategoryDao.updateBudgetCategorySpentAmountByTransaction相同的闭包表更新
+        String spentSql = "UPDATE budget_categories bc " +
+                "JOIN budgets b ON bc.budget_id = b.budget_id " +
+                "JOIN category_closure cc ON cc.ancestor_id = bc.category_id " +
+                "SET bc.spent_amount = bc.spent_amount + ? " +
+                "WHERE b.user_id = ? AND cc.descendant_id = ? " +
+                "AND ? BETWEEN b.start_date AND b.end_date";
 
         try (Connection conn = getConnection()) {
             beginTransaction(conn);
 
-            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                for (Transaction transaction : transactions) {
-                    ps.setInt(1, transaction.getUserId());
-                    setNullableInteger(ps, 2, transaction.getSourceAccountId());
-                    setNullableInteger(ps, 3, transaction.getDestinationAccountId());
-                    ps.setInt(4, transaction.getCategoryId());
-                    ps.setBigDecimal(5, transaction.getAmount());
-                    ps.setString(6, transaction.getTransactionType().toString());
-                    ps.setDate(7, Date.valueOf(transaction.getTransactionDate()));
-                    ps.setString(8, transaction.getDescription());
-                    ps.addBatch();
-                }
+            try {
+                int count = insertBatch(conn, transactions);
 
-                int[] results = ps.executeBatch();
+                if (!balanceDeltas.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement(balanceSql)) {
+                        for (Map.Entry<Integer, BigDecimal> entry : balanceDeltas.entrySet()) {
+                            ps.setBigDecimal(1, entry.getValue());
+                            ps.setInt(2, entry.getKey());
+                            ps.setInt(3, userId);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
 
-                // Get the generated keys for all inserted records
-                try (ResultSet rs = ps.getGeneratedKeys()) {
-                    int i = 0;
-                    while (rs.next() && i < transactions.size()) {
-                        transactions.get(i).setTransactionId(rs.getInt(1));
-                        i++;
+                if (!spentDeltas.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement(spentSql)) {
+                        for (Map.Entry<Integer, Map<LocalDate, BigDecimal>> category : spentDeltas.entrySet()) {
+                            for (Map.Entry<LocalDate, BigDecimal> day : category.getValue().entrySet()) {
+                                ps.setBigDecimal(1, day.getValue());
+                                ps.setInt(2, userId);
+                                ps.setInt(3, category.getKey());
+                                ps.setDate(4, Date.valueOf(day.getKey()));
+                                ps.addBatch();
+                            }
+                        }
+                        ps.executeBatch();
                     }
                 }
 
-                for (int result : results) {
-                    if (result > 0) {
-                        count++;
+                commitTransaction(conn);
+                return count;
+            } catch (SQLException e) {
+                rollbackTransaction(conn);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public int bulkLoad(int userId, Path tsvFile) throws SQLException {
+        // 暂存表按交易表的列定义创建，临时表只对当前连接可见
+        String createStagingSql = "CREATE TEMPORARY TABLE import_staging AS " +
+                "SELECT source_account_id, destination_account_id, category_id, amount, " +
+                "transaction_type, transaction_date, description, fingerprint FROM transactions LIMIT 0";
+        String loadSql = "LOAD DATA LOCAL INFILE '" + escapeSqlString(tsvFile.toAbsolutePath().toString()) + "' " +
+                "INTO TABLE import_staging CHARACTER SET utf8mb4 " +
+                "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' " +
+                "(source_account_id, destination_account_id, category_id, amount, " +
+                "transaction_type, transaction_date, description, fingerprint)";
+        String mergeSql = "INSERT INTO transactions (user_id, source_account_id, destination_account_id, " +
+                "category_id, amount, transaction_type, transaction_date, description, fingerprint) " +
+                "SELECT ?, source_account_id, destination_account_id, category_id, amount, " +
+                "transaction_type, transaction_date, description, fingerprint FROM import_staging";
+        // MySQL的一条语句中不能两次引用同一个临时表，收入和支出在一次扫描中用CASE区分
+        String balanceSql = "UPDATE accounts a JOIN (" +
+                "SELECT CASE WHEN transaction_type = 'INCOME' THEN destination_account_id " +
+                "ELSE source_account_id END AS account_id, " +
+                "SUM(CASE WHEN transaction_type = 'INCOME' THEN amount ELSE -amount END) AS delta " +
+                "FROM import_staging GROUP BY 1) d ON a.account_id = d.account_id " +
+                "SET a.balance = a.balance + d.delta WHERE a.user_id = ?";
+        // 多表UPDATE中每行只更新一次，先按预算分类汇总到第二个临时表
+        String spentSql = "CREATE TEMPORARY TABLE import_budget_spent AS " +
+                "SELECT bc.budget_category_id, SUM(s.amount) AS total " +
+                "FROM budget_categories bc " +
+                "JOIN budgets b ON bc.budget_id = b.budget_id " +
+                "JOIN category_closure cc ON cc.ancestor_id = bc.category_id " +
+                "JOIN import_staging s ON s.category_id = cc.descendant_id " +
+                "AND s.transaction_date BETWEEN b.start_date AND b.end_date " +
+                "WHERE b.user_id = ? AND s.transaction_type = 'EXPENSE' " +
+                "GROUP BY bc.budget_category_id";
+        String budgetSql = "UPDATE budget_categories bc " +
+                "JOIN import_budget_spent x ON bc.budget_category_id = x.budget_category_id " +
+                "SET bc.spent_amount = bc.spent_amount + x.total";
+
+        try (Connection conn = getConnection()) {
+            dropImportTables(conn);
+            try (Statement st = conn.createStatement()) {
+                st.execute(createStagingSql);
+            }
+
+            beginTransaction(conn);
+
+            try {
+                try (Statement st = conn.createStatement()) {
+                    st.execute(loadSql);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() == ER_NOT_ALLOWED_COMMAND
+                            || e.getErrorCode() == ER_CLIENT_LOCAL_FILES_DISABLED) {
+                        throw new SQLFeatureNotSupportedException("不允许LOAD DATA LOCAL INFILE: " + e.getMessage(),
+                                e.getSQLState(), e.getErrorCode(), e);
                     }
+                    throw e;
+                }
+
+                int count;
+                try (PreparedStatement ps = conn.prepareStatement(mergeSql)) {
+                    ps.setInt(1, userId);
+                    count = ps.executeUpdate();
                 }
 
+                try (PreparedStatement ps = conn.prepareStatement(balanceSql)) {
+                    ps.setInt(1, userId);
+                    ps.executeUpdate();
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement(spentSql)) {
+                    ps.setInt(1, userId);
+                    ps.executeUpdate();
+                }
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate(budgetSql);
+                }
+
+                incrementDataVersion(conn, userId);
                 commitTransaction(conn);
+                return count;
             } catch (SQLException e) {
                 rollbackTransaction(conn);
                 throw e;
+            } finally {
+                dropImportTables(conn);
             }
         }
+    }
+
+    /**
+     * 删除导入用的临时表，连接归还连接池后临时表仍然存在
+     */
+    private void dropImportTables(Connection conn) {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TEMPORARY TABLE IF EXISTS import_staging, import_budget_spent");
+        } catch (SQLException e) {
+            System.err.println("删除导入临时表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 转义SQL字符串字面量中的反斜杠和单引号
+     */
+    private static String escapeSqlString(String value) {
+        return value.replace("\\", "\\\\").replace("'", "\\'");
+    }
+
+    /**
+     * 在给定连接上批量插入交易并回填生成的交易ID
+     */
+    private int insertBatch(Connection conn, List<Transaction> transactions) throws SQLException {
+        String sql = "INSERT INTO transactions (user_id, source_account_id, destination_account_id, " +
+                "category_id, amount, transaction_type, transaction_date, description, fingerprint) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        int count = 0;
+
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Transaction transaction : transactions) {
+                ps.setInt(1, transaction.getUserId());
+                setNullableInteger(ps, 2, transaction.getSourceAccountId());
+                setNullableInteger(ps, 3, transaction.getDestinationAccountId());
+                ps.setInt(4, transaction.getCategoryId());
+                ps.setBigDecimal(5, transaction.getAmount());
+                ps.setString(6, transaction.getTransactionType().toString());
+                ps.setDate(7, Date.valueOf(transaction.getTransactionDate()));
+                ps.setString(8, transaction.getDescription());
+                ps.setString(9, transaction.getFingerprint());
+                ps.addBatch();
+            }
+
+            int[] results = ps.executeBatch();
+
+            // Get the generated keys for all inserted records
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                int i = 0;
+                while (rs.next() && i < transactions.size()) {
+                    transactions.get(i).setTransactionId(rs.getInt(1));
+                    i++;
+                }
+            }
+
+            for (int result : results) {
+                if (result > 0) {
+                    count++;
+                }
+            }
+        }
+
+        Set<Integer> userIds = new LinkedHashSet<>();
+        for (Transaction transaction : transactions) {
+            userIds.add(transaction.getUserId());
+        }
+        for (int userId : userIds) {
+            incrementDataVersion(conn, userId);
+        }
 
         return count;
     }
 
+    @Override
+    public long getDataVersion(int userId) throws SQLException {
+        String sql = "SELECT version FROM cache_versions WHERE cache_name = ?";
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, DaoConstants.CACHE_NAME_TRANSACTIONS_PREFIX + userId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * 在给定连接上递增用户的交易数据版本，与交易写入在同一事务中提交
+     */
+    private void incrementDataVersion(Connection conn, int userId) throws SQLException {
+        String sql = "INSERT INTO cache_versions (cache_name, version) VALUES (?, 1) " +
+                "ON DUPLICATE KEY UPDATE version = version + 1";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, DaoConstants.CACHE_NAME_TRANSACTIONS_PREFIX + userId);
+            ps.executeUpdate();
+        }
+    }
+
     /**
      * 设置可为null的整数参数
      */
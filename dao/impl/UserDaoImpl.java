@@ -221,6 +221,34 @@ public class UserDaoImpl extends BaseDaoImpl<User, Integer> implements UserDao {
         return false;
     }
 
+    @Override
+    public List<String> findAllUsernames() throws SQLException {
+        return findColumnValues("SELECT username FROM users");
+    }
+
+    @Override
+    public List<String> findAllEmails() throws SQLException {
+        return findColumnValues("SELECT email FROM users");
+    }
+
+    /**
+     * 查询单列字符串值
+     */
+    private List<String> findColumnValues(String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+
+        return values;
+    }
+
     /**
      * 将ResultSet映射为User对象
      */
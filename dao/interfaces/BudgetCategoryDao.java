@@ -84,6 +84,7 @@ public interface BudgetCategoryDao extends BaseDao<BudgetCategory, Integer> {
 
     /**
      * 根据交易更新相关预算类别的已用金额
+     * 该分类及其所有祖先分类下的预算类别都会累加
      *
      * @param userId 用户ID
      * @param categoryId 分类ID
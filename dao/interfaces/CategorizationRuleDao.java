@@ -0,0 +1,38 @@
+package com.PFM.CD.dao.interfaces;
+
+import com.PFM.CD.entity.CategorizationRule;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 自动分类规则数据访问接口
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public interface CategorizationRuleDao extends BaseDao<CategorizationRule, Integer> {
+
+    /**
+     * 查找对用户生效的规则：用户自己启用的规则和启用的全局规则
+     *
+     * @param userId 用户ID
+     * @return 规则列表
+     */
+    List<CategorizationRule> findApplicable(int userId) throws SQLException;
+
+    /**
+     * 查找用户自己的规则（包括停用的）
+     *
+     * @param userId 用户ID
+     * @return 规则列表
+     */
+    List<CategorizationRule> findByUserId(int userId) throws SQLException;
+
+    /**
+     * 查找全局规则（包括停用的）
+     *
+     * @return 规则列表
+     */
+    List<CategorizationRule> findGlobal() throws SQLException;
+}
@@ -5,6 +5,7 @@ import com.PFM.CD.entity.enums.CategoryType;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 分类数据访问接口
@@ -63,4 +64,75 @@ public interface CategoryDao extends BaseDao<Category, Integer> {
      * @return 成功保存的数量
      */
     int batchSave(List<Category> categories) throws SQLException;
+
+    /**
+     * 移动分类到新的父分类下，同时维护分类闭包表
+     *
+     * @param categoryId 分类ID
+     * @param newParentId 新父分类ID，为null时移动为顶级分类
+     * @return 是否成功
+     */
+    boolean moveCategory(int categoryId, Integer newParentId) throws SQLException;
+
+    /**
+     * 检查一个分类是否是另一个分类的后代（包括自身）
+     *
+     * @param ancestorId 祖先分类ID
+     * @param descendantId 后代分类ID
+     * @return 如果是后代或同一分类返回true，否则返回false
+     */
+    boolean isDescendant(int ancestorId, int descendantId) throws SQLException;
+
+    /**
+     * 查找分类子树中的所有分类ID（包括自身），按层级由浅到深排列
+     *
+     * @param categoryId 分类ID
+     * @return 分类ID列表
+     */
+    List<Integer> findDescendantIds(int categoryId) throws SQLException;
+
+    /**
+     * 根据categories表的parent_id重建分类闭包表
+     *
+     * @return 写入的闭包路径数量
+     */
+    int rebuildClosure() throws SQLException;
+
+    /**
+     * 获取分类目录版本号
+     * 每次分类数据发生写入时版本号递增，用于判断各节点的分类缓存是否过期
+     *
+     * @return 当前版本号，如果尚未记录返回0
+     */
+    long getCatalogVersion() throws SQLException;
+
+    /**
+     * 查找分类使用次数计数
+     *
+     * @param userId 用户ID，0表示全局计数
+     * @return 分类ID到使用次数的映射
+     */
+    Map<Integer, Long> findUsageCounts(int userId) throws SQLException;
+
+    /**
+     * 批量累加分类使用次数计数
+     *
+     * @param deltasByUser 用户ID（0表示全局）到分类ID增量映射的映射
+     */
+    void addUsageCounts(Map<Integer, Map<Integer, Long>> deltasByUser) throws SQLException;
+
+    /**
+     * 根据交易表重建分类使用次数计数表
+     *
+     * @return 写入的计数行数
+     */
+    int rebuildUsageCounts() throws SQLException;
+
+    /**
+     * 计数表为空时根据交易表初始化分类使用次数计数，已有计数时不做任何修改
+     * 判断和写入在同一条语句中完成，不会删除其他节点已经写入的计数
+     *
+     * @return 写入的计数行数，计数表不为空时返回0
+     */
+    int seedUsageCountsIfEmpty() throws SQLException;
 }
\ No newline at end of file
@@ -81,4 +81,78 @@ public interface ReportDao extends BaseDao<Report, Integer> {
      * @return 删除的记录数
      */
     int deleteOlderThan(int userId, LocalDate date) throws SQLException;
+
+    /**
+     * 按请求摘要查找用户最近生成的报表
+     *
+     * @param userId 用户ID
+     * @param requestKey 请求摘要
+     * @return 报表，如果不存在返回null
+     */
+    Report findLatestByRequestKey(int userId, String requestKey) throws SQLException;
+
+    /**
+     * 在同一事务中保存压缩后的报表内容和引用它的报表记录，相同摘要的内容只保存一份
+     * 内容已存在时刷新其写入时间，使清理任务在宽限期内不会删除它
+     *
+     * @param report 报表，contentHash为原始内容的SHA-256摘要
+     * @param compressedData 压缩后的内容
+     * @param originalSize 原始内容字节数
+     * @return 是否保存成功
+     */
+    boolean saveWithContent(Report report, byte[] compressedData, int originalSize) throws SQLException;
+
+    /**
+     * 读取压缩后的报表内容
+     *
+     * @param contentHash 内容摘要
+     * @return 压缩后的内容，如果不存在返回null
+     */
+    byte[] findContent(String contentHash) throws SQLException;
+
+    /**
+     * 删除不再被任何报表引用的内容，最近写入或复用的内容在宽限期内保留
+     *
+     * @return 删除的记录数
+     */
+    int deleteUnreferencedContent() throws SQLException;
+
+    /**
+     * 按用户ID升序分页获取拥有报表的用户
+     *
+     * @param afterUserId 上一页最后一个用户ID，首页传0
+     * @param limit 最多返回的用户数
+     * @return 用户ID列表
+     */
+    List<Integer> findUserIdsWithReports(int afterUserId, int limit) throws SQLException;
+
+    /**
+     * 查找指定日期之前生成的报表ID，按报表ID升序
+     * 被定时报表作为最近一次结果引用的报表不在其中
+     *
+     * @param userId 用户ID
+     * @param date 日期
+     * @param limit 最多返回的记录数
+     * @return 报表ID列表
+     */
+    List<Integer> findIdsOlderThan(int userId, LocalDate date, int limit) throws SQLException;
+
+    /**
+     * 查找超出保留份数的报表ID：按生成时间从新到旧保留最近keepCount份，返回其后的报表
+     * 被定时报表作为最近一次结果引用的报表不在其中，也不占保留份数
+     *
+     * @param userId 用户ID
+     * @param keepCount 保留份数
+     * @param limit 最多返回的记录数
+     * @return 报表ID列表
+     */
+    List<Integer> findIdsBeyondKeepCount(int userId, int keepCount, int limit) throws SQLException;
+
+    /**
+     * 在一个短事务内删除一批报表，连同引用这些报表的任务记录和不再被引用的报表内容
+     *
+     * @param reportIds 报表ID列表
+     * @return 删除的报表数
+     */
+    int deleteByIds(List<Integer> reportIds) throws SQLException;
 }
\ No newline at end of file
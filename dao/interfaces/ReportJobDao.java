@@ -0,0 +1,40 @@
+package com.PFM.CD.dao.interfaces;
+
+import com.PFM.CD.entity.ReportJob;
+import com.PFM.CD.entity.enums.ReportJobStatus;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 报表任务数据访问接口
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public interface ReportJobDao extends BaseDao<ReportJob, Integer> {
+
+    /**
+     * 查找用户的所有报表任务
+     *
+     * @param userId 用户ID
+     * @return 任务列表，按创建时间倒序
+     */
+    List<ReportJob> findByUserId(int userId) throws SQLException;
+
+    /**
+     * 按状态查找报表任务
+     *
+     * @param statuses 状态列表
+     * @return 任务列表，按任务ID升序
+     */
+    List<ReportJob> findByStatuses(List<ReportJobStatus> statuses) throws SQLException;
+
+    /**
+     * 更新任务状态、阶段、结果报表和错误信息
+     *
+     * @param job 报表任务
+     * @return 是否成功
+     */
+    boolean updateState(ReportJob job) throws SQLException;
+}
@@ -0,0 +1,61 @@
+package com.PFM.CD.dao.interfaces;
+
+import com.PFM.CD.entity.ReportSchedule;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 定时报表数据访问接口
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public interface ReportScheduleDao extends BaseDao<ReportSchedule, Integer> {
+
+    /**
+     * 查找用户的所有定时报表
+     *
+     * @param userId 用户ID
+     * @return 定时报表列表
+     */
+    List<ReportSchedule> findByUserId(int userId) throws SQLException;
+
+    /**
+     * 查找已到运行时间的启用定时报表
+     *
+     * @param now 当前时间
+     * @param excludedUserIds 跳过这些用户的计划（如并发已满的用户），可为空
+     * @param limit 返回数量上限
+     * @return 定时报表列表，按计划运行时间升序
+     */
+    List<ReportSchedule> findDue(LocalDateTime now, Collection<Integer> excludedUserIds, int limit)
+            throws SQLException;
+
+    /**
+     * 查找最近一次提交的任务尚未回写结果的定时报表
+     * 即任务仍在排队或执行中，或任务已成功但报表ID尚未记录
+     *
+     * @return 定时报表列表
+     */
+    List<ReportSchedule> findAwaitingResult() throws SQLException;
+
+    /**
+     * 更新运行状态：下次运行时间、上次运行时间、任务ID和报表ID
+     *
+     * @param schedule 定时报表
+     * @return 是否成功
+     */
+    boolean updateRunState(ReportSchedule schedule) throws SQLException;
+
+    /**
+     * 记录最近一次成功生成的报表
+     *
+     * @param scheduleId 定时报表ID
+     * @param reportId 报表ID
+     * @return 是否成功
+     */
+    boolean updateLastReportId(int scheduleId, int reportId) throws SQLException;
+}
@@ -0,0 +1,25 @@
+package com.PFM.CD.dao.interfaces;
+
+import java.sql.SQLException;
+
+/**
+ * 逐行处理查询结果的回调
+ * 用于流式读取大量数据，结果集不会整体加载到内存中
+ *
+ * @param <T> 行对象类型
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+
+    /**
+     * 处理一行数据
+     * 回调在数据库连接占用期间执行，应尽快返回
+     *
+     * @param row 行对象
+     * @throws SQLException 如果处理失败，将中止读取
+     */
+    void handle(T row) throws SQLException;
+}
@@ -4,10 +4,14 @@ import com.PFM.CD.entity.Transaction;
 import com.PFM.CD.entity.enums.TransactionType;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 交易数据访问接口
@@ -35,6 +39,19 @@ public interface TransactionDao extends BaseDao<Transaction, Integer> {
      */
     List<Transaction> findByUserIdAndDateRange(int userId, LocalDate startDate, LocalDate endDate) throws SQLException;
 
+    /**
+     * 按日期范围流式读取用户交易
+     * 使用服务器端游标逐行读取，按日期升序回调，不在内存中保留结果列表
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param handler 行处理回调
+     * @return 读取的交易数量
+     */
+    int streamByUserIdAndDateRange(int userId, LocalDate startDate, LocalDate endDate,
+                                   RowHandler<Transaction> handler) throws SQLException;
+
     /**
      * 按类型查找用户交易
      *
@@ -111,6 +128,34 @@ public interface TransactionDao extends BaseDao<Transaction, Integer> {
      */
     Map<Integer, BigDecimal> calculateIncomeByCategory(int userId, LocalDate startDate, LocalDate endDate) throws SQLException;
 
+    /**
+     * 按分类层级汇总用户在指定日期范围内的交易金额
+     * 通过分类闭包表一次连接完成汇总，每个分类的金额包含其所有子分类的金额
+     *
+     * @param userId 用户ID
+     * @param type 交易类型
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 分类ID到子树汇总金额的映射
+     */
+    Map<Integer, BigDecimal> calculateRollupByCategory(int userId, TransactionType type,
+                                                       LocalDate startDate, LocalDate endDate) throws SQLException;
+
+    /**
+     * 一次分组查询同时汇总本期和上一期的收支，按期间、交易类型、分类和账户分组逐行回调
+     * 收入归入转入账户，支出归入转出账户；两个期间重叠时重叠部分计入本期
+     *
+     * @param userId 用户ID
+     * @param currentStartDate 本期开始日期
+     * @param currentEndDate 本期结束日期
+     * @param previousStartDate 上期开始日期
+     * @param previousEndDate 上期结束日期
+     * @param handler 分组结果回调
+     */
+    void aggregateForComparison(int userId, LocalDate currentStartDate, LocalDate currentEndDate,
+                                LocalDate previousStartDate, LocalDate previousEndDate,
+                                PeriodAggregateHandler handler) throws SQLException;
+
     /**
      * 搜索用户交易
      *
@@ -127,4 +172,68 @@ public interface TransactionDao extends BaseDao<Transaction, Integer> {
      * @return 成功保存的数量
      */
     int batchSave(List<Transaction> transactions) throws SQLException;
+
+    /**
+     * 查找用户已存在的导入指纹，使用(user_id, fingerprint)唯一索引，一次查询完成
+     *
+     * @param userId 用户ID
+     * @param fingerprints 待检查的指纹
+     * @return 其中已存在的指纹
+     */
+    Set<String> findExistingFingerprints(int userId, Collection<String> fingerprints) throws SQLException;
+
+    /**
+     * 在一个数据库事务中批量保存导入的交易，并按汇总后的金额更新账户余额和预算使用情况
+     * 每个账户只更新一次余额；预算按分类和交易日期汇总，通过分类闭包表同时更新祖先分类的预算
+     *
+     * @param userId 用户ID
+     * @param transactions 交易列表，保存后回填交易ID
+     * @param balanceDeltas 账户ID到余额变化量的映射
+     * @param spentDeltas 分类ID到（交易日期到支出金额）的映射
+     * @return 成功保存的数量
+     */
+    int importBatch(int userId, List<Transaction> transactions, Map<Integer, BigDecimal> balanceDeltas,
+                    Map<Integer, Map<LocalDate, BigDecimal>> spentDeltas) throws SQLException;
+
+    /**
+     * 用LOAD DATA LOCAL INFILE把TSV文件装入临时暂存表，再用集合SQL合并到交易表，
+     * 并按暂存的交易汇总更新受影响账户的余额和预算使用情况，全部在一个数据库事务中完成
+     * 文件格式见TsvWriter，每行依次为：转出账户ID、转入账户ID、分类ID、金额、交易类型、交易日期、备注、指纹
+     *
+     * @param userId 用户ID
+     * @param tsvFile TSV文件（UTF-8编码）
+     * @return 保存的交易数量
+     * @throws SQLFeatureNotSupportedException 如果客户端或服务器不允许LOCAL INFILE，此时没有写入任何数据
+     */
+    int bulkLoad(int userId, Path tsvFile) throws SQLException;
+
+    /**
+     * 获取用户的交易数据版本号
+     * 该用户的交易每次新增、修改、删除或导入时版本号在同一事务中递增，用于判断基于交易生成的结果是否过期
+     *
+     * @param userId 用户ID
+     * @return 当前版本号，如果尚未记录返回0
+     */
+    long getDataVersion(int userId) throws SQLException;
+
+    /**
+     * 逐行处理对比汇总结果的回调
+     */
+    @FunctionalInterface
+    interface PeriodAggregateHandler {
+
+        /**
+         * 处理一组汇总结果
+         *
+         * @param currentPeriod 是否属于本期
+         * @param type 交易类型
+         * @param categoryId 分类ID
+         * @param accountId 账户ID，可能为null
+         * @param amount 金额合计
+         * @param count 交易笔数
+         * @throws SQLException 如果处理失败，将中止读取
+         */
+        void handle(boolean currentPeriod, TransactionType type, int categoryId, Integer accountId,
+                    BigDecimal amount, int count) throws SQLException;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.PFM.CD.dao.interfaces;
 import com.PFM.CD.entity.User;
 
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * 用户数据访问接口
@@ -61,4 +62,18 @@ public interface UserDao extends BaseDao<User, Integer> {
      * @return 如果存在返回true，否则返回false
      */
     boolean isEmailExists(String email) throws SQLException;
+
+    /**
+     * 获取所有用户名
+     *
+     * @return 用户名列表
+     */
+    List<String> findAllUsernames() throws SQLException;
+
+    /**
+     * 获取所有邮箱
+     *
+     * @return 邮箱列表
+     */
+    List<String> findAllEmails() throws SQLException;
 }
\ No newline at end of file
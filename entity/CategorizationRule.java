@@ -0,0 +1,188 @@
+package com.PFM.CD.entity;
+
+import com.PFM.CD.entity.enums.RuleMatchType;
+import com.PFM.CD.entity.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 自动分类规则实体类
+ * 对应数据库categorization_rules表。规则是决策表中的一行：备注匹配方式和关键词、交易类型、账户、
+ * 金额范围都满足时把交易归入指定分类，为null的条件不限制。
+ * 用户规则优先于全局规则（userId为null），同一层中priority大的优先，相同时先创建的优先。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CategorizationRule {
+
+    private int ruleId;
+    private Integer userId;                 // 为null表示全局规则
+    private RuleMatchType matchType;
+    private String pattern;                 // 关键词，matchType为ANY时为null
+    private TransactionType transactionType; // 为null表示不限
+    private Integer accountId;              // 为null表示不限
+    private BigDecimal minAmount;           // 包含，为null表示不限
+    private BigDecimal maxAmount;           // 包含，为null表示不限
+    private int categoryId;
+    private int priority;
+    private boolean enabled;
+    private LocalDateTime createdAt;
+
+    /**
+     * 默认构造函数
+     */
+    public CategorizationRule() {
+        this.matchType = RuleMatchType.KEYWORD;
+        this.enabled = true;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * 创建关键词规则的构造函数
+     */
+    public CategorizationRule(Integer userId, String pattern, TransactionType transactionType, int categoryId) {
+        this();
+        this.userId = userId;
+        this.pattern = pattern;
+        this.transactionType = transactionType;
+        this.categoryId = categoryId;
+    }
+
+    // Getters and Setters
+
+    public int getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(int ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public RuleMatchType getMatchType() {
+        return matchType;
+    }
+
+    public void setMatchType(RuleMatchType matchType) {
+        this.matchType = matchType;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public TransactionType getTransactionType() {
+        return transactionType;
+    }
+
+    public void setTransactionType(TransactionType transactionType) {
+        this.transactionType = transactionType;
+    }
+
+    public Integer getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Integer accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(int categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * 判断是否为全局规则
+     * @return userId为null时返回true
+     */
+    public boolean isGlobal() {
+        return userId == null;
+    }
+
+    @Override
+    public String toString() {
+        return "CategorizationRule{" +
+                "ruleId=" + ruleId +
+                ", userId=" + userId +
+                ", matchType=" + matchType +
+                ", pattern='" + pattern + '\'' +
+                ", transactionType=" + transactionType +
+                ", accountId=" + accountId +
+                ", minAmount=" + minAmount +
+                ", maxAmount=" + maxAmount +
+                ", categoryId=" + categoryId +
+                ", priority=" + priority +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CategorizationRule that = (CategorizationRule) o;
+        return ruleId == that.ruleId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ruleId);
+    }
+}
@@ -16,6 +16,7 @@ public class Category {
     private int categoryId;
     private String categoryName;
     private CategoryType categoryType;
+    private Integer parentId;
 
     /**
      * 默认构造函数
@@ -32,7 +33,7 @@ public class Category {
     }
 
     /**
-     * 完整构造函数
+     * 顶级分类构造函数
      */
     public Category(int categoryId, String categoryName, CategoryType categoryType) {
         this.categoryId = categoryId;
@@ -40,6 +41,16 @@ public class Category {
         this.categoryType = categoryType;
     }
 
+    /**
+     * 完整构造函数
+     */
+    public Category(int categoryId, String categoryName, CategoryType categoryType, Integer parentId) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.categoryType = categoryType;
+        this.parentId = parentId;
+    }
+
     // Getters and Setters
 
     public int getCategoryId() {
@@ -66,6 +77,22 @@ public class Category {
         this.categoryType = categoryType;
     }
 
+    public Integer getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Integer parentId) {
+        this.parentId = parentId;
+    }
+
+    /**
+     * 判断是否为顶级分类
+     * @return 如果没有父分类返回true，否则返回false
+     */
+    public boolean isTopLevel() {
+        return parentId == null;
+    }
+
     /**
      * 判断是否为支出类别
      * @return 如果是支出类别返回true，否则返回false
@@ -88,6 +115,7 @@ public class Category {
                 "categoryId=" + categoryId +
                 ", categoryName='" + categoryName + '\'' +
                 ", categoryType=" + categoryType +
+                ", parentId=" + parentId +
                 '}';
     }
 
@@ -98,12 +126,13 @@ public class Category {
         Category category = (Category) o;
         return categoryId == category.categoryId &&
                 Objects.equals(categoryName, category.categoryName) &&
-                categoryType == category.categoryType;
+                categoryType == category.categoryType &&
+                Objects.equals(parentId, category.parentId);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(categoryId, categoryName, categoryType);
+        return Objects.hash(categoryId, categoryName, categoryType, parentId);
     }
 
     /**
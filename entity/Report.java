@@ -21,6 +21,9 @@ public class Report {
     private LocalDate endDate;
     private LocalDate generatedDate;
     private String parameters;  // JSON格式参数
+    private String requestKey;  // 用户、类型、日期范围和参数的摘要，相同请求可复用已生成的报表
+    private String contentHash; // 报表内容的SHA-256摘要，对应report_contents表
+    private String content;     // 报表内容，不随reports表加载
 
     /**
      * 默认构造函数
@@ -112,6 +115,32 @@ public class Report {
         this.parameters = parameters;
     }
 
+    public String getRequestKey() {
+        return requestKey;
+    }
+
+    public void setRequestKey(String requestKey) {
+        this.requestKey = requestKey;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * 获取报表内容
+     * 从数据库加载的报表不包含内容，需要通过ReportService.getReportContent按需读取
+     *
+     * @return 报表内容，未加载时返回null
+     */
+    public String getContent() {
+        return content;
+    }
+
     /**
      * 获取报表周期名称
      * @return 报表周期名称，例如"2025年6月"
@@ -169,7 +198,6 @@ public class Report {
     }
 
     public void setContent(String reportContent) {
-        // 设置报表内容，通常用于存储生成的报表数据
-        this.parameters = reportContent; // 假设content是JSON格式的字符串
+        this.content = reportContent;
     }
 }
\ No newline at end of file
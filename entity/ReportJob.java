@@ -0,0 +1,185 @@
+package com.PFM.CD.entity;
+
+import com.PFM.CD.entity.enums.ReportJobPhase;
+import com.PFM.CD.entity.enums.ReportJobStatus;
+import com.PFM.CD.entity.enums.ReportType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 报表任务实体类
+ * 对应数据库report_jobs表
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ReportJob {
+
+    private int jobId;
+    private int userId;
+    private ReportType reportType;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String parameters;  // JSON格式参数
+    private ReportJobStatus status;
+    private ReportJobPhase phase;
+    private Integer reportId;   // 完成后生成的报表ID
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /**
+     * 默认构造函数
+     */
+    public ReportJob() {
+        this.status = ReportJobStatus.QUEUED;
+        this.phase = ReportJobPhase.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    /**
+     * 带参数构造函数
+     */
+    public ReportJob(int userId, ReportType reportType, LocalDate startDate, LocalDate endDate, String parameters) {
+        this();
+        this.userId = userId;
+        this.reportType = reportType;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.parameters = parameters;
+    }
+
+    // Getters and Setters
+
+    public int getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(int jobId) {
+        this.jobId = jobId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public ReportType getReportType() {
+        return reportType;
+    }
+
+    public void setReportType(ReportType reportType) {
+        this.reportType = reportType;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(String parameters) {
+        this.parameters = parameters;
+    }
+
+    public ReportJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReportJobStatus status) {
+        this.status = status;
+    }
+
+    public ReportJobPhase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(ReportJobPhase phase) {
+        this.phase = phase;
+    }
+
+    public Integer getReportId() {
+        return reportId;
+    }
+
+    public void setReportId(Integer reportId) {
+        this.reportId = reportId;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * 获取任务进度百分比
+     * @return 进度百分比
+     */
+    public int getProgress() {
+        return status == ReportJobStatus.SUCCEEDED ? 100 : phase.getProgress();
+    }
+
+    @Override
+    public String toString() {
+        return "ReportJob{" +
+                "jobId=" + jobId +
+                ", userId=" + userId +
+                ", reportType=" + reportType +
+                ", status=" + status +
+                ", phase=" + phase +
+                ", reportId=" + reportId +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReportJob reportJob = (ReportJob) o;
+        return jobId == reportJob.jobId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jobId);
+    }
+}
@@ -0,0 +1,185 @@
+package com.PFM.CD.entity;
+
+import com.PFM.CD.entity.enums.ReportPeriod;
+import com.PFM.CD.entity.enums.ReportType;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 定时报表实体类
+ * 对应数据库report_schedules表，按cron表达式定期生成指定周期的报表
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ReportSchedule {
+
+    private int scheduleId;
+    private int userId;
+    private String name;
+    private ReportType reportType;
+    private ReportPeriod period;
+    private String cronExpression;
+    private boolean enabled;
+    private LocalDateTime nextRunAt;
+    private LocalDateTime lastRunAt;
+    private Integer lastJobId;      // 最近一次提交的报表任务ID
+    private Integer lastReportId;   // 最近一次成功生成的报表ID
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /**
+     * 默认构造函数
+     */
+    public ReportSchedule() {
+        this.enabled = true;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    /**
+     * 带参数构造函数
+     */
+    public ReportSchedule(int userId, String name, ReportType reportType, ReportPeriod period, String cronExpression) {
+        this();
+        this.userId = userId;
+        this.name = name;
+        this.reportType = reportType;
+        this.period = period;
+        this.cronExpression = cronExpression;
+    }
+
+    // Getters and Setters
+
+    public int getScheduleId() {
+        return scheduleId;
+    }
+
+    public void setScheduleId(int scheduleId) {
+        this.scheduleId = scheduleId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public ReportType getReportType() {
+        return reportType;
+    }
+
+    public void setReportType(ReportType reportType) {
+        this.reportType = reportType;
+    }
+
+    public ReportPeriod getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(ReportPeriod period) {
+        this.period = period;
+    }
+
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public void setCronExpression(String cronExpression) {
+        this.cronExpression = cronExpression;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public LocalDateTime getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public void setNextRunAt(LocalDateTime nextRunAt) {
+        this.nextRunAt = nextRunAt;
+    }
+
+    public LocalDateTime getLastRunAt() {
+        return lastRunAt;
+    }
+
+    public void setLastRunAt(LocalDateTime lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+
+    public Integer getLastJobId() {
+        return lastJobId;
+    }
+
+    public void setLastJobId(Integer lastJobId) {
+        this.lastJobId = lastJobId;
+    }
+
+    public Integer getLastReportId() {
+        return lastReportId;
+    }
+
+    public void setLastReportId(Integer lastReportId) {
+        this.lastReportId = lastReportId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportSchedule{" +
+                "scheduleId=" + scheduleId +
+                ", userId=" + userId +
+                ", name='" + name + '\'' +
+                ", reportType=" + reportType +
+                ", period=" + period +
+                ", cronExpression='" + cronExpression + '\'' +
+                ", enabled=" + enabled +
+                ", nextRunAt=" + nextRunAt +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReportSchedule that = (ReportSchedule) o;
+        return scheduleId == that.scheduleId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scheduleId);
+    }
+}
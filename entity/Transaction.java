@@ -24,6 +24,7 @@ public class Transaction {
     private TransactionType transactionType;
     private LocalDate transactionDate;
     private String description;
+    private String fingerprint;  // 导入指纹，只在导入时写入，可为null
 
     // 非数据库字段，用于展示
     private String categoryName;
@@ -161,6 +162,14 @@ public class Transaction {
         this.description = description;
     }
 
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
     public String getCategoryName() {
         return categoryName;
     }
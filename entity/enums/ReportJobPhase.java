@@ -0,0 +1,42 @@
+package com.PFM.CD.entity.enums;
+
+/**
+ * 报表生成阶段枚举
+ * 对应数据库report_jobs表的phase字段
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public enum ReportJobPhase {
+
+    PENDING("等待执行", 0),
+    FETCH("读取数据", 10),
+    AGGREGATE("汇总统计", 40),
+    RENDER("生成内容", 70),
+    STORE("保存报表", 90),
+    DONE("完成", 100);
+
+    private final String displayName;
+    private final int progress;
+
+    ReportJobPhase(String displayName, int progress) {
+        this.displayName = displayName;
+        this.progress = progress;
+    }
+
+    /**
+     * 获取阶段的显示名称
+     * @return 中文显示名称
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 获取进入该阶段时的进度百分比
+     * @return 进度百分比
+     */
+    public int getProgress() {
+        return progress;
+    }
+}
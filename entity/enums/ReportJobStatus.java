@@ -0,0 +1,39 @@
+package com.PFM.CD.entity.enums;
+
+/**
+ * 报表任务状态枚举
+ * 对应数据库report_jobs表的status字段
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public enum ReportJobStatus {
+
+    QUEUED("排队中"),
+    RUNNING("执行中"),
+    SUCCEEDED("已完成"),
+    FAILED("失败"),
+    CANCELLED("已取消");
+
+    private final String displayName;
+
+    ReportJobStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * 获取状态的显示名称
+     * @return 中文显示名称
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 检查任务是否已结束
+     * @return 如果任务已完成、失败或取消返回true，否则返回false
+     */
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,76 @@
+package com.PFM.CD.entity.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * 定时报表覆盖的周期枚举
+ * 对应数据库report_schedules表的period字段，周期相对于计划运行日期计算
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public enum ReportPeriod {
+
+    PREVIOUS_DAY("前一天"),
+    PREVIOUS_WEEK("上周"),
+    PREVIOUS_MONTH("上月"),
+    PREVIOUS_QUARTER("上季度"),
+    PREVIOUS_YEAR("上一年");
+
+    private final String displayName;
+
+    ReportPeriod(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * 获取周期的显示名称
+     * @return 中文显示名称
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 计算周期开始日期
+     * @param runDate 计划运行日期
+     * @return 开始日期
+     */
+    public LocalDate getStartDate(LocalDate runDate) {
+        switch (this) {
+            case PREVIOUS_DAY:
+                return runDate.minusDays(1);
+            case PREVIOUS_WEEK:
+                return runDate.minusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case PREVIOUS_MONTH:
+                return runDate.minusMonths(1).withDayOfMonth(1);
+            case PREVIOUS_QUARTER:
+                LocalDate previous = runDate.minusMonths(3);
+                return previous.withMonth((previous.getMonthValue() - 1) / 3 * 3 + 1).withDayOfMonth(1);
+            default:
+                return runDate.minusYears(1).withDayOfYear(1);
+        }
+    }
+
+    /**
+     * 计算周期结束日期
+     * @param runDate 计划运行日期
+     * @return 结束日期
+     */
+    public LocalDate getEndDate(LocalDate runDate) {
+        switch (this) {
+            case PREVIOUS_DAY:
+                return runDate.minusDays(1);
+            case PREVIOUS_WEEK:
+                return getStartDate(runDate).plusDays(6);
+            case PREVIOUS_MONTH:
+                return getStartDate(runDate).with(TemporalAdjusters.lastDayOfMonth());
+            case PREVIOUS_QUARTER:
+                return getStartDate(runDate).plusMonths(3).minusDays(1);
+            default:
+                return getStartDate(runDate).with(TemporalAdjusters.lastDayOfYear());
+        }
+    }
+}
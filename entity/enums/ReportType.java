@@ -15,7 +15,8 @@ public enum ReportType {
 
     BUDGET("预算报表", "展示指定期间的预算信息"),
     CATEGORY("分类报表", "展示各分类的收支统计"),
-    ACCOUNT("账户报表", "展示账户相关的交易与余额");
+    ACCOUNT("账户报表", "展示账户相关的交易与余额"),
+    PERIOD_COMPARISON("对比报表", "对比本期与上一期的收支、分类和账户变化");
 
 
     private final String displayName;
@@ -60,6 +61,8 @@ public enum ReportType {
                 return "category_report";
             case ACCOUNT:
                 return "account_report";
+            case PERIOD_COMPARISON:
+                return "period_comparison_report";
             default:
                 return "report"; // 不应该发生
         }
@@ -73,6 +76,16 @@ public enum ReportType {
         return this == BUDGET_EVALUATION || this == BUDGET;
     }
 
+    /**
+     * 检查指定报表类型是否可以按任意日期范围生成（自定义报表、后台任务、定时报表）
+     * 分类分析（CATEGORY_ANALYSIS）报表没有生成实现，预算评估（BUDGET_EVALUATION）报表由预算报表入口生成，
+     * 二者都不能作为自定义报表类型请求
+     * @return 如果可以返回true，否则返回false
+     */
+    public boolean supportsCustomGeneration() {
+        return this != CATEGORY_ANALYSIS && this != BUDGET_EVALUATION;
+    }
+
     /**
      * 根据名称获取枚举值（不区分大小写）
      * @param name 枚举名称
@@ -0,0 +1,37 @@
+package com.PFM.CD.entity.enums;
+
+/**
+ * 分类规则的文本匹配方式枚举
+ * 对应数据库categorization_rules表的match_type字段
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public enum RuleMatchType {
+
+    KEYWORD("包含关键词"),
+    PREFIX("以关键词开头"),
+    ANY("不限备注");
+
+    private final String displayName;
+
+    RuleMatchType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * 获取匹配方式的显示名称
+     * @return 中文显示名称
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 判断该匹配方式是否需要关键词
+     * @return KEYWORD和PREFIX返回true
+     */
+    public boolean requiresPattern() {
+        return this != ANY;
+    }
+}
@@ -0,0 +1,137 @@
+package com.PFM.CD.service.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 字符串布隆过滤器
+ * 判断"一定不存在"时没有误判，判断"可能存在"时有一定误判率。
+ * 位数组使用{@link AtomicLongArray}，添加操作用CAS置位，可并发读写。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder insertions = new LongAdder();
+
+    /**
+     * 按预期元素数和误判率创建过滤器
+     *
+     * @param expectedInsertions 预期元素数
+     * @param falsePositiveRate 期望误判率，取值(0, 1)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("误判率必须在0和1之间");
+        }
+        long n = Math.max(1, expectedInsertions);
+        // m = -n·ln(p) / (ln2)²，k = m/n·ln2
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) >>> 6));
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray(words);
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     */
+    public void put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0) {
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    break;
+                }
+            }
+        }
+        insertions.increment();
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param value 元素
+     * @return 返回false表示一定不存在，返回true表示可能存在
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取已添加的元素数（重复添加会重复计数）
+     *
+     * @return 添加次数
+     */
+    public long getInsertionCount() {
+        return insertions.sum();
+    }
+
+    /**
+     * 获取位数组大小
+     *
+     * @return 位数
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * 获取哈希函数个数
+     *
+     * @return 哈希函数个数
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 按当前添加数估算的误判率
+     *
+     * @return 估算误判率
+     */
+    public double expectedFalsePositiveRate() {
+        double fill = 1 - Math.exp(-(double) hashCount * getInsertionCount() / bitCount);
+        return Math.pow(fill, hashCount);
+    }
+
+    /**
+     * 64位FNV-1a哈希，再经过MurmurHash3的混合函数打散
+     */
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
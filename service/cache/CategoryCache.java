@@ -0,0 +1,297 @@
+package com.PFM.CD.service.cache;
+
+import com.PFM.CD.dao.interfaces.CategoryDao;
+import com.PFM.CD.entity.Category;
+import com.PFM.CD.entity.enums.CategoryType;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分类目录缓存
+ * 全量加载categories表并构建不可变快照，按ID、(名称,类型)和类型建立索引。
+ * 读操作只读取volatile快照，不加锁；写操作后由服务层调用{@link #reload()}整体替换快照。
+ * 多节点部署时依靠数据库中的目录版本号判断快照是否过期。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CategoryCache {
+
+    /**
+     * 默认版本检查间隔（毫秒）
+     */
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 5000;
+
+    private final CategoryDao categoryDao;
+    private final long refreshIntervalNanos;
+    private final AtomicLong nextVersionCheck = new AtomicLong();
+    private final Object reloadLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 构造函数
+     *
+     * @param categoryDao 分类DAO接口
+     */
+    public CategoryCache(CategoryDao categoryDao) {
+        this(categoryDao, DEFAULT_REFRESH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param categoryDao 分类DAO接口
+     * @param refreshIntervalMillis 检查数据库版本号的最小间隔（毫秒），小于等于0表示每次读取都检查
+     */
+    public CategoryCache(CategoryDao categoryDao, long refreshIntervalMillis) {
+        this.categoryDao = categoryDao;
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, refreshIntervalMillis));
+    }
+
+    /**
+     * 通过ID查找分类
+     * 返回的对象为缓存共享实例，调用方不得修改
+     *
+     * @param categoryId 分类ID
+     * @return 分类，如果不存在返回null
+     * @throws SQLException 如果加载缓存失败
+     */
+    public Category findById(int categoryId) throws SQLException {
+        Category[] byId = current().byId;
+        return categoryId >= 0 && categoryId < byId.length ? byId[categoryId] : null;
+    }
+
+    /**
+     * 通过名称和类型查找分类
+     *
+     * @param categoryName 分类名称
+     * @param type 分类类型
+     * @return 分类，如果不存在返回null
+     * @throws SQLException 如果加载缓存失败
+     */
+    public Category findByNameAndType(String categoryName, CategoryType type) throws SQLException {
+        if (categoryName == null || type == null) {
+            return null;
+        }
+        return current().byNameAndType.get(nameTypeKey(categoryName, type));
+    }
+
+    /**
+     * 按类型查找分类（按名称排序）
+     *
+     * @param type 分类类型
+     * @return 不可修改的分类列表
+     * @throws SQLException 如果加载缓存失败
+     */
+    public List<Category> findByType(CategoryType type) throws SQLException {
+        List<Category> categories = current().byType.get(type);
+        return categories != null ? categories : Collections.emptyList();
+    }
+
+    /**
+     * 获取所有分类（按类型、名称排序）
+     *
+     * @return 不可修改的分类列表
+     * @throws SQLException 如果加载缓存失败
+     */
+    public List<Category> findAll() throws SQLException {
+        return current().all;
+    }
+
+    /**
+     * 查找直接子分类（按类型、名称排序）
+     *
+     * @param parentId 父分类ID，为null时返回所有顶级分类
+     * @return 不可修改的分类列表
+     * @throws SQLException 如果加载缓存失败
+     */
+    public List<Category> findChildren(Integer parentId) throws SQLException {
+        Snapshot current = current();
+        if (parentId == null) {
+            return current.topLevel;
+        }
+        List<Category> children = current.childrenByParent.get(parentId);
+        return children != null ? children : Collections.emptyList();
+    }
+
+    /**
+     * 通过ID列表查找分类，忽略不存在的ID
+     *
+     * @param categoryIds ID列表
+     * @return 分类列表
+     * @throws SQLException 如果加载缓存失败
+     */
+    public List<Category> findByIds(List<Integer> categoryIds) throws SQLException {
+        List<Category> categories = new ArrayList<>();
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return categories;
+        }
+
+        Category[] byId = current().byId;
+        for (Integer categoryId : categoryIds) {
+            if (categoryId != null && categoryId >= 0 && categoryId < byId.length && byId[categoryId] != null) {
+                categories.add(byId[categoryId]);
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * 检查分类名称和类型组合是否已存在
+     * 缓存按原样比较名称，数据库按排序规则比较（通常不区分大小写和重音），
+     * 因此缓存命中即可确定存在，未命中时由数据库确认
+     *
+     * @param categoryName 分类名称
+     * @param type 分类类型
+     * @return 如果存在返回true，否则返回false
+     * @throws SQLException 如果加载缓存或查询数据库失败
+     */
+    public boolean exists(String categoryName, CategoryType type) throws SQLException {
+        if (categoryName == null || type == null) {
+            return false;
+        }
+        return findByNameAndType(categoryName, type) != null || categoryDao.isCategoryExists(categoryName, type);
+    }
+
+    /**
+     * 获取当前快照对应的目录版本号
+     *
+     * @return 版本号，如果尚未加载返回-1
+     */
+    public long getVersion() {
+        Snapshot current = snapshot;
+        return current != null ? current.version : -1;
+    }
+
+    /**
+     * 从数据库重新加载全部分类，并原子替换快照
+     *
+     * @throws SQLException 如果加载失败
+     */
+    public void reload() throws SQLException {
+        synchronized (reloadLock) {
+            // 先读版本号再读数据：如果两者之间发生写入，下次检查时会再次刷新
+            long version = categoryDao.getCatalogVersion();
+            List<Category> categories = categoryDao.findAll();
+            snapshot = new Snapshot(version, categories);
+            nextVersionCheck.set(System.nanoTime() + refreshIntervalNanos);
+        }
+    }
+
+    /**
+     * 丢弃当前快照，下次读取时重新加载
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * 获取当前快照，必要时加载或检查数据库版本号
+     */
+    private Snapshot current() throws SQLException {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (reloadLock) {
+                current = snapshot;
+                if (current == null) {
+                    reload();
+                    current = snapshot;
+                }
+            }
+            return current;
+        }
+
+        long now = System.nanoTime();
+        long deadline = nextVersionCheck.get();
+        // 只有抢到本轮检查的线程访问数据库，其余线程继续使用当前快照
+        if (now - deadline >= 0 && nextVersionCheck.compareAndSet(deadline, now + refreshIntervalNanos)) {
+            if (categoryDao.getCatalogVersion() != current.version) {
+                reload();
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 生成(名称,类型)索引键
+     */
+    private static String nameTypeKey(String categoryName, CategoryType type) {
+        return type.name() + '\u0000' + categoryName;
+    }
+
+    /**
+     * 复制分类对象，避免缓存内容被外部修改
+     */
+    private static Category copyOf(Category category) {
+        return new Category(category.getCategoryId(), category.getCategoryName(),
+                category.getCategoryType(), category.getParentId());
+    }
+
+    /**
+     * 分类目录的不可变快照
+     */
+    private static final class Snapshot {
+
+        private final long version;
+        private final Category[] byId;
+        private final Map<String, Category> byNameAndType;
+        private final Map<CategoryType, List<Category>> byType;
+        private final List<Category> all;
+        private final Map<Integer, List<Category>> childrenByParent;
+        private final List<Category> topLevel;
+
+        private Snapshot(long version, List<Category> categories) {
+            this.version = version;
+
+            int maxId = 0;
+            for (Category category : categories) {
+                maxId = Math.max(maxId, category.getCategoryId());
+            }
+
+            Category[] ids = new Category[maxId + 1];
+            Map<String, Category> nameIndex = new HashMap<>(categories.size() * 2);
+            Map<CategoryType, List<Category>> typeIndex = new EnumMap<>(CategoryType.class);
+            List<Category> ordered = new ArrayList<>(categories.size());
+            Map<Integer, List<Category>> childIndex = new HashMap<>();
+            List<Category> roots = new ArrayList<>();
+
+            // findAll已按类型、名称排序，按原顺序追加即可保持各类型列表按名称有序
+            for (Category source : categories) {
+                Category category = copyOf(source);
+                ids[category.getCategoryId()] = category;
+                nameIndex.put(nameTypeKey(category.getCategoryName(), category.getCategoryType()), category);
+                typeIndex.computeIfAbsent(category.getCategoryType(), k -> new ArrayList<>()).add(category);
+                ordered.add(category);
+                if (category.getParentId() == null) {
+                    roots.add(category);
+                } else {
+                    childIndex.computeIfAbsent(category.getParentId(), k -> new ArrayList<>()).add(category);
+                }
+            }
+
+            for (Map.Entry<CategoryType, List<Category>> entry : typeIndex.entrySet()) {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+            for (Map.Entry<Integer, List<Category>> entry : childIndex.entrySet()) {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+
+            this.byId = ids;
+            this.byNameAndType = nameIndex;
+            this.byType = typeIndex;
+            this.all = Collections.unmodifiableList(ordered);
+            this.childrenByParent = childIndex;
+            this.topLevel = Collections.unmodifiableList(roots);
+        }
+    }
+}
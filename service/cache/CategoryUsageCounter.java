@@ -0,0 +1,357 @@
+package com.PFM.CD.service.cache;
+
+import com.PFM.CD.dao.interfaces.CategoryDao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * 分类使用次数计数器
+ * 在内存中按分类维护全局及每个用户的使用次数，交易新增/删除时增量更新，
+ * 并定期把增量刷写到计数表，使"最常用分类"查询变为内存中的Top-K读取。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CategoryUsageCounter {
+
+    /**
+     * 计数表中表示全局计数的用户ID
+     */
+    public static final int GLOBAL_USER_ID = 0;
+
+    /**
+     * 默认刷写间隔（秒）
+     */
+    public static final int DEFAULT_FLUSH_INTERVAL_SECONDS = 30;
+
+    private final CategoryDao categoryDao;
+    private final int flushIntervalSeconds;
+    private final Counts global = new Counts(GLOBAL_USER_ID);
+    private final ConcurrentHashMap<Integer, Counts> users = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 构造函数
+     *
+     * @param categoryDao 分类DAO接口
+     */
+    public CategoryUsageCounter(CategoryDao categoryDao) {
+        this(categoryDao, DEFAULT_FLUSH_INTERVAL_SECONDS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param categoryDao 分类DAO接口
+     * @param flushIntervalSeconds 刷写间隔（秒）
+     */
+    public CategoryUsageCounter(CategoryDao categoryDao, int flushIntervalSeconds) {
+        this.categoryDao = categoryDao;
+        this.flushIntervalSeconds = Math.max(1, flushIntervalSeconds);
+    }
+
+    /**
+     * 启动定期刷写任务
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "category-usage-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止定期刷写任务并刷写剩余增量
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+        flushQuietly();
+    }
+
+    /**
+     * 记录一次分类使用（新增交易后调用）
+     *
+     * @param userId 用户ID
+     * @param categoryId 分类ID
+     * @throws SQLException 如果首次加载计数失败
+     */
+    public void increment(int userId, int categoryId) throws SQLException {
+        add(userId, categoryId, 1);
+    }
+
+    /**
+     * 撤销一次分类使用（删除交易后调用）
+     *
+     * @param userId 用户ID
+     * @param categoryId 分类ID
+     * @throws SQLException 如果首次加载计数失败
+     */
+    public void decrement(int userId, int categoryId) throws SQLException {
+        add(userId, categoryId, -1);
+    }
+
+    /**
+     * 按增量更新分类使用次数
+     *
+     * @param userId 用户ID
+     * @param categoryId 分类ID
+     * @param delta 增量
+     * @throws SQLException 如果首次加载计数失败
+     */
+    public void add(int userId, int categoryId, long delta) throws SQLException {
+        if (delta == 0) {
+            return;
+        }
+        loaded(global).cell(categoryId).add(delta);
+        loaded(userCounts(userId)).cell(categoryId).add(delta);
+    }
+
+    /**
+     * 获取全局最常用的分类ID
+     *
+     * @param limit 返回数量限制
+     * @return 按使用次数降序排列的分类ID
+     * @throws SQLException 如果首次加载计数失败
+     */
+    public List<Integer> topCategoryIds(int limit) throws SQLException {
+        return topK(loaded(global), limit, categoryId -> true);
+    }
+
+    /**
+     * 获取用户最常用的分类ID
+     *
+     * @param userId 用户ID
+     * @param limit 返回数量限制
+     * @return 按使用次数降序排列的分类ID
+     * @throws SQLException 如果首次加载计数失败
+     */
+    public List<Integer> topCategoryIds(int userId, int limit) throws SQLException {
+        return topK(loaded(userCounts(userId)), limit, categoryId -> true);
+    }
+
+    /**
+     * 获取用户最常用的、满足过滤条件的分类ID
+     *
+     * @param userId 用户ID
+     * @param limit 返回数量限制
+     * @param filter 分类ID过滤条件
+     * @return 按使用次数降序排列的分类ID
+     * @throws SQLException 如果首次加载计数失败
+     */
+    public List<Integer> topCategoryIds(int userId, int limit, IntPredicate filter) throws SQLException {
+        return topK(loaded(userCounts(userId)), limit, filter);
+    }
+
+    /**
+     * 获取分类的全局使用次数
+     *
+     * @param categoryId 分类ID
+     * @return 使用次数
+     * @throws SQLException 如果首次加载计数失败
+     */
+    public long getUsageCount(int categoryId) throws SQLException {
+        Cell cell = loaded(global).cells.get(categoryId);
+        return cell != null ? cell.total.sum() : 0;
+    }
+
+    /**
+     * 把未刷写的增量写入计数表
+     *
+     * @throws SQLException 如果写入失败（增量会保留到下次刷写）
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            Map<Integer, Map<Integer, Long>> deltas = new HashMap<>();
+            drainPending(global, deltas);
+            for (Counts counts : users.values()) {
+                drainPending(counts, deltas);
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                categoryDao.addUsageCounts(deltas);
+            } catch (SQLException e) {
+                restorePending(deltas);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 根据交易表重建计数表，并丢弃内存中的计数
+     *
+     * @return 重建的计数行数
+     * @throws SQLException 如果重建失败
+     */
+    public int rebuild() throws SQLException {
+        synchronized (flushLock) {
+            int rows = categoryDao.rebuildUsageCounts();
+            global.reset();
+            users.clear();
+            return rows;
+        }
+    }
+
+    /**
+     * 刷写增量，失败时只记录日志
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException e) {
+            System.err.println("刷写分类使用计数失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取用户计数容器
+     */
+    private Counts userCounts(int userId) {
+        return users.computeIfAbsent(userId, Counts::new);
+    }
+
+    /**
+     * 确保计数容器已从计数表加载基数
+     * 用户计数加载前先加载全局计数：计数表为空时由全局计数的首次加载从交易表补齐初始计数，
+     * 否则先访问的用户会读到空的基数。这里只在计数表为空时插入，不删除已有计数，
+     * 完整重建由{@link #rebuild()}显式执行
+     */
+    private Counts loaded(Counts counts) throws SQLException {
+        if (!counts.loaded) {
+            if (counts != global) {
+                loaded(global);
+            }
+            synchronized (counts) {
+                if (!counts.loaded) {
+                    Map<Integer, Long> base = categoryDao.findUsageCounts(counts.userId);
+                    if (base.isEmpty() && counts.userId == GLOBAL_USER_ID) {
+                        // 计数表为空时从交易表初始化一次
+                        // 其他节点可能同时完成了初始化，无论本次是否写入都重新读取
+                        categoryDao.seedUsageCountsIfEmpty();
+                        base = categoryDao.findUsageCounts(counts.userId);
+                    }
+                    for (Map.Entry<Integer, Long> entry : base.entrySet()) {
+                        counts.cell(entry.getKey()).total.add(entry.getValue());
+                    }
+                    counts.loaded = true;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 取出计数容器中待刷写的增量
+     */
+    private static void drainPending(Counts counts, Map<Integer, Map<Integer, Long>> deltas) {
+        for (Map.Entry<Integer, Cell> entry : counts.cells.entrySet()) {
+            long pending = entry.getValue().pending.sumThenReset();
+            if (pending != 0) {
+                deltas.computeIfAbsent(counts.userId, k -> new HashMap<>()).put(entry.getKey(), pending);
+            }
+        }
+    }
+
+    /**
+     * 刷写失败时把增量放回待刷写计数
+     */
+    private void restorePending(Map<Integer, Map<Integer, Long>> deltas) {
+        for (Map.Entry<Integer, Map<Integer, Long>> userEntry : deltas.entrySet()) {
+            Counts counts = userEntry.getKey() == GLOBAL_USER_ID ? global : userCounts(userEntry.getKey());
+            for (Map.Entry<Integer, Long> entry : userEntry.getValue().entrySet()) {
+                counts.cells.computeIfAbsent(entry.getKey(), k -> new Cell()).pending.add(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 使用小顶堆选出使用次数最多的K个分类
+     */
+    private static List<Integer> topK(Counts counts, int limit, IntPredicate filter) {
+        List<Integer> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+
+        PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1,
+                (a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(b[0], a[0]));
+        for (Map.Entry<Integer, Cell> entry : counts.cells.entrySet()) {
+            long total = entry.getValue().total.sum();
+            if (total <= 0 || !filter.test(entry.getKey())) {
+                continue;
+            }
+            heap.offer(new long[]{entry.getKey(), total});
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            result.add((int) heap.poll()[0]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * 单个分类的计数
+     */
+    private static final class Cell {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder pending = new LongAdder();
+
+        private void add(long delta) {
+            total.add(delta);
+            pending.add(delta);
+        }
+    }
+
+    /**
+     * 某个用户（或全局）的分类计数集合
+     */
+    private static final class Counts {
+        private final int userId;
+        private final ConcurrentHashMap<Integer, Cell> cells = new ConcurrentHashMap<>();
+        private volatile boolean loaded;
+
+        private Counts(int userId) {
+            this.userId = userId;
+        }
+
+        private Cell cell(int categoryId) {
+            return cells.computeIfAbsent(categoryId, k -> new Cell());
+        }
+
+        private void reset() {
+            synchronized (this) {
+                cells.clear();
+                loaded = false;
+            }
+        }
+    }
+}
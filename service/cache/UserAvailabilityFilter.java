@@ -0,0 +1,251 @@
+package com.PFM.CD.service.cache;
+
+import com.PFM.CD.dao.interfaces.UserDao;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 用户名/邮箱可用性预检过滤器
+ * 用布隆过滤器记录所有已注册的用户名和邮箱：过滤器判定"一定不存在"时直接返回可用，
+ * 只有可能命中时才查询数据库确认。首次使用时从users表构建。
+ * 布隆过滤器不支持删除，用户改名后旧值仍会命中并退回到精确查询，可通过{@link #rebuild()}清理。
+ * users表使用不区分重音和大小写的排序规则（_ai_ci），写入和探测前按同样的规则折叠
+ * （兼容分解后去掉组合附加符号、转小写、展开常见连字），"jos\u00E9"与"jose"得到同一个键；
+ * 折叠后仍含非ASCII字符的值无法保证与排序规则一致，不信任过滤器的否定结果，直接查询数据库。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class UserAvailabilityFilter {
+
+    /**
+     * 默认预期用户数
+     */
+    public static final int DEFAULT_EXPECTED_USERS = 100000;
+
+    /**
+     * 默认误判率
+     */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final UserDao userDao;
+    private final int expectedUsers;
+    private final double falsePositiveRate;
+    private final Object rebuildLock = new Object();
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    private volatile Filters filters;
+
+    /**
+     * 新的过滤器构建期间的写入会同时记录到这里，避免替换时丢失
+     */
+    private volatile Filters building;
+
+    /**
+     * 构造函数
+     *
+     * @param userDao 用户DAO接口
+     */
+    public UserAvailabilityFilter(UserDao userDao) {
+        this(userDao, DEFAULT_EXPECTED_USERS, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param userDao 用户DAO接口
+     * @param expectedUsers 预期用户数，重建时已知用户数更多则按其两倍分配
+     * @param falsePositiveRate 误判率
+     */
+    public UserAvailabilityFilter(UserDao userDao, int expectedUsers, double falsePositiveRate) {
+        this.userDao = userDao;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * 检查用户名是否已存在，过滤器未命中时不访问数据库
+     *
+     * @param username 用户名
+     * @return 如果存在返回true，否则返回false
+     * @throws SQLException 如果加载过滤器或精确查询失败
+     */
+    public boolean isUsernameTaken(String username) throws SQLException {
+        if (username == null) {
+            return false;
+        }
+        String key = normalize(username);
+        if (isAscii(key) && !current().usernames.mightContain(key)) {
+            filtered.increment();
+            return false;
+        }
+        fallbacks.increment();
+        return userDao.isUsernameExists(username);
+    }
+
+    /**
+     * 检查邮箱是否已存在，过滤器未命中时不访问数据库
+     *
+     * @param email 邮箱
+     * @return 如果存在返回true，否则返回false
+     * @throws SQLException 如果加载过滤器或精确查询失败
+     */
+    public boolean isEmailTaken(String email) throws SQLException {
+        if (email == null) {
+            return false;
+        }
+        String key = normalize(email);
+        if (isAscii(key) && !current().emails.mightContain(key)) {
+            filtered.increment();
+            return false;
+        }
+        fallbacks.increment();
+        return userDao.isEmailExists(email);
+    }
+
+    /**
+     * 注册或修改用户信息后记录新的用户名和邮箱
+     *
+     * @param username 用户名
+     * @param email 邮箱
+     */
+    public void add(String username, String email) {
+        Filters current = filters;
+        if (current != null) {
+            current.put(username, email);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.put(username, email);
+        }
+    }
+
+    /**
+     * 从users表重新构建过滤器，清除已删除或已修改的旧值
+     *
+     * @throws SQLException 如果加载失败
+     */
+    public void rebuild() throws SQLException {
+        synchronized (rebuildLock) {
+            // 先登记新过滤器再查询，查询期间注册的用户也会写入新过滤器
+            Filters current = filters;
+            long known = current != null ? current.usernames.getInsertionCount() : 0;
+            Filters next = new Filters((int) Math.min(Integer.MAX_VALUE, Math.max(expectedUsers, known * 2)),
+                    falsePositiveRate);
+            building = next;
+            try {
+                for (String username : userDao.findAllUsernames()) {
+                    next.usernames.put(normalize(username));
+                }
+                for (String email : userDao.findAllEmails()) {
+                    next.emails.put(normalize(email));
+                }
+                filters = next;
+            } finally {
+                building = null;
+            }
+        }
+    }
+
+    /**
+     * 获取被过滤器直接判定为可用、未访问数据库的检查次数
+     */
+    public long getFilteredCount() {
+        return filtered.sum();
+    }
+
+    /**
+     * 获取过滤器可能命中、退回到数据库查询的检查次数
+     */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * 获取当前用户名过滤器的估算误判率
+     *
+     * @return 误判率，如果尚未加载返回0
+     */
+    public double getExpectedFalsePositiveRate() {
+        Filters current = filters;
+        return current != null ? current.usernames.expectedFalsePositiveRate() : 0;
+    }
+
+    /**
+     * 获取当前过滤器，首次使用时加载
+     */
+    private Filters current() throws SQLException {
+        Filters current = filters;
+        if (current == null) {
+            synchronized (rebuildLock) {
+                if (filters == null) {
+                    rebuild();
+                }
+                current = filters;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 按users表的排序规则折叠：不区分大小写，也不区分重音
+     */
+    private static String normalize(String value) {
+        String trimmed = value.trim();
+        if (isAscii(trimmed)) {
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(trimmed, Normalizer.Form.NFKD)).replaceAll("");
+        folded = folded.toLowerCase(Locale.ROOT);
+        if (isAscii(folded)) {
+            return folded;
+        }
+        // 排序规则中按多个字母比较的常见字符
+        return folded.replace("\u00DF", "ss")
+                .replace("\u00E6", "ae")
+                .replace("\u0153", "oe")
+                .replace("\u00F8", "o")
+                .replace("\u0111", "d")
+                .replace("\u0142", "l")
+                .replace("\u00FE", "th");
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 用户名和邮箱两个过滤器
+     */
+    private static final class Filters {
+
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        private Filters(int expectedUsers, double falsePositiveRate) {
+            this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+            this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+        }
+
+        private void put(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.PFM.CD.service.categorization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick多模式匹配器
+ * 把所有模式编译为一个自动机，对文本只扫描一遍就能找出所有模式的全部出现位置，
+ * 耗时只与文本长度和匹配次数有关，与模式数量无关。
+ * 转移表是以（状态, 字符）为键的开放寻址散列表；构建时把失败链上的输出合并到每个状态，
+ * 匹配时不需要沿失败链收集输出。匹配不区分大小写，全角ASCII字符按半角处理。
+ * 构建后不可变，可以在多个线程中同时使用。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public final class AhoCorasickMatcher {
+
+    private static final int[] NO_OUTPUT = new int[0];
+    private static final long EMPTY_KEY = -1L;
+
+    private final int[] patternLengths;
+    private final long[] keys;
+    private final int[] targets;
+    private final int mask;
+    private final int[] fail;
+    private final int[][] outputs;
+
+    /**
+     * 匹配回调
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+
+        /**
+         * 处理一次匹配
+         *
+         * @param patternIndex 模式在构造参数列表中的下标
+         * @param start 匹配的起始位置（包含）
+         * @param end 匹配的结束位置（不包含）
+         * @return 返回false停止匹配
+         */
+        boolean onMatch(int patternIndex, int start, int end);
+    }
+
+    /**
+     * 构建自动机
+     *
+     * @param patterns 模式列表，不能包含空字符串
+     */
+    public AhoCorasickMatcher(List<String> patterns) {
+        // 构建字典树
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        children.add(new HashMap<>());
+        nodeOutputs.add(new ArrayList<>());
+
+        patternLengths = new int[patterns.size()];
+        int edges = 0;
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException("模式不能为空: 第" + (p + 1) + "个");
+            }
+            patternLengths[p] = pattern.length();
+
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = fold(pattern.charAt(i));
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(c, next);
+                    children.add(new HashMap<>());
+                    nodeOutputs.add(new ArrayList<>());
+                    edges++;
+                }
+                state = next;
+            }
+            nodeOutputs.get(state).add(p);
+        }
+
+        // 按层次计算失败链接，并把失败状态的输出合并进来
+        int states = children.size();
+        fail = new int[states];
+        outputs = new int[states][];
+        outputs[0] = NO_OUTPUT;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> own = nodeOutputs.get(state);
+            int[] inherited = outputs[fail[state]];
+            if (own.isEmpty()) {
+                outputs[state] = inherited;
+            } else {
+                int[] merged = new int[own.size() + inherited.length];
+                for (int i = 0; i < own.size(); i++) {
+                    merged[i] = own.get(i);
+                }
+                System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+                outputs[state] = merged;
+            }
+
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                char c = edge.getKey();
+                int child = edge.getValue();
+                int f = fail[state];
+                while (f != 0 && !children.get(f).containsKey(c)) {
+                    f = fail[f];
+                }
+                Integer target = children.get(f).get(c);
+                fail[child] = target != null ? target : 0;
+                queue.add(child);
+            }
+        }
+
+        // 转移表，装载因子不超过0.5
+        int capacity = Integer.highestOneBit(Math.max(16, edges * 2 - 1)) << 1;
+        keys = new long[capacity];
+        targets = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY_KEY);
+        for (int state = 0; state < states; state++) {
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                long key = key(state, edge.getKey());
+                int slot = slot(key);
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                targets[slot] = edge.getValue();
+            }
+        }
+    }
+
+    /**
+     * 获取模式数量
+     *
+     * @return 模式数量
+     */
+    public int getPatternCount() {
+        return patternLengths.length;
+    }
+
+    /**
+     * 扫描文本，按结束位置顺序回调每次匹配；同一位置结束的多个匹配中较长的模式在前
+     *
+     * @param text 文本
+     * @param handler 匹配回调
+     */
+    public void match(CharSequence text, MatchHandler handler) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            int next;
+            while ((next = transition(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next < 0 ? 0 : next;
+
+            for (int pattern : outputs[state]) {
+                if (!handler.onMatch(pattern, i + 1 - patternLengths[pattern], i + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 判断文本是否包含任一模式
+     *
+     * @param text 文本
+     * @return 包含时返回true
+     */
+    public boolean containsAny(CharSequence text) {
+        boolean[] found = new boolean[1];
+        match(text, (pattern, start, end) -> {
+            found[0] = true;
+            return false;
+        });
+        return found[0];
+    }
+
+    /**
+     * 字符折叠：全角ASCII转半角，再转小写
+     *
+     * @param c 字符
+     * @return 折叠后的字符
+     */
+    static char fold(char c) {
+        if (c >= '\uFF01' && c <= '\uFF5E') {
+            c = (char) (c - 0xFEE0);
+        } else if (c == '\u3000') {
+            c = ' ';
+        }
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private int transition(int state, char c) {
+        long key = key(state, c);
+        int slot = slot(key);
+        long k;
+        while ((k = keys[slot]) != EMPTY_KEY) {
+            if (k == key) {
+                return targets[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static long key(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,284 @@
+package com.PFM.CD.service.categorization;
+
+import com.PFM.CD.dao.interfaces.CategorizationRuleDao;
+import com.PFM.CD.entity.CategorizationRule;
+import com.PFM.CD.entity.enums.RuleMatchType;
+import com.PFM.CD.entity.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自动分类引擎
+ * 把对用户生效的规则（用户规则和全局规则）编译为一个RuleSet并按用户缓存：
+ * 所有关键词和前缀放进一个Aho-Corasick自动机，其余条件按优先级顺序排成决策表（按列存放的数组）。
+ * 对一条交易只扫描一遍备注，自动机每命中一个关键词就检查引用它的规则，
+ * 不限备注的规则按优先级顺序检查到第一个满足条件的为止，最终取优先级最高的命中规则。
+ * 规则修改后由服务层调用invalidate使缓存失效。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CategorizationEngine {
+
+    private final CategorizationRuleDao ruleDao;
+    private final Map<Integer, RuleSet> ruleSets = new ConcurrentHashMap<>();
+
+    // 每次失效加一，编译期间发生失效时不缓存编译结果
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 构造函数
+     *
+     * @param ruleDao 分类规则DAO接口
+     */
+    public CategorizationEngine(CategorizationRuleDao ruleDao) {
+        this.ruleDao = ruleDao;
+    }
+
+    /**
+     * 获取用户的已编译规则集，批量分类时应只获取一次
+     *
+     * @param userId 用户ID
+     * @return 规则集
+     * @throws SQLException 如果加载规则失败
+     */
+    public RuleSet getRuleSet(int userId) throws SQLException {
+        RuleSet ruleSet = ruleSets.get(userId);
+        if (ruleSet != null) {
+            return ruleSet;
+        }
+
+        long before = generation.get();
+        ruleSet = RuleSet.compile(ruleDao.findApplicable(userId));
+        if (generation.get() == before) {
+            RuleSet existing = ruleSets.putIfAbsent(userId, ruleSet);
+            if (existing != null) {
+                return existing;
+            }
+            // 检查和放入之间可能发生了失效，此时撤回刚放入的过期结果
+            if (generation.get() != before) {
+                ruleSets.remove(userId, ruleSet);
+            }
+        }
+        return ruleSet;
+    }
+
+    /**
+     * 为一笔交易选择分类
+     *
+     * @param userId 用户ID
+     * @param type 交易类型
+     * @param accountId 账户ID，可为null
+     * @param amount 金额
+     * @param description 备注，可为null
+     * @return 分类ID，没有命中的规则时返回null
+     * @throws SQLException 如果加载规则失败
+     */
+    public Integer categorize(int userId, TransactionType type, Integer accountId, BigDecimal amount,
+                              String description) throws SQLException {
+        int categoryId = getRuleSet(userId).categorize(type, accountId == null ? 0 : accountId,
+                RuleSet.toCents(amount), description);
+        return categoryId < 0 ? null : categoryId;
+    }
+
+    /**
+     * 用户规则变化后使该用户的缓存失效
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(int userId) {
+        generation.incrementAndGet();
+        ruleSets.remove(userId);
+    }
+
+    /**
+     * 全局规则变化后使所有缓存失效
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        ruleSets.clear();
+    }
+
+    /**
+     * 编译后的规则集，不可变，可以在多个线程中同时使用
+     * 规则按“用户规则优先、priority大的优先、先创建的优先”排序，下标越小优先级越高
+     */
+    public static final class RuleSet {
+
+        private static final int NO_MATCH = -1;
+
+        private final int size;
+        private final int[] categoryIds;
+        private final TransactionType[] types;
+        private final int[] accountIds;
+        private final long[] minCents;
+        private final long[] maxCents;
+        private final boolean[] prefixOnly;
+
+        // 关键词自动机；第i个关键词被rulesByPattern[i]中的规则引用，按优先级升序
+        private final AhoCorasickMatcher matcher;
+        private final int[][] rulesByPattern;
+
+        // 不限备注的规则，按优先级升序
+        private final int[] textFreeRules;
+
+        private RuleSet(List<CategorizationRule> rules) {
+            size = rules.size();
+            categoryIds = new int[size];
+            types = new TransactionType[size];
+            accountIds = new int[size];
+            minCents = new long[size];
+            maxCents = new long[size];
+            prefixOnly = new boolean[size];
+
+            Map<String, List<Integer>> byPattern = new HashMap<>();
+            List<String> patterns = new ArrayList<>();
+            List<Integer> textFree = new ArrayList<>();
+
+            for (int rank = 0; rank < size; rank++) {
+                CategorizationRule rule = rules.get(rank);
+                categoryIds[rank] = rule.getCategoryId();
+                types[rank] = rule.getTransactionType();
+                accountIds[rank] = rule.getAccountId() == null ? 0 : rule.getAccountId();
+                minCents[rank] = rule.getMinAmount() == null ? Long.MIN_VALUE : toCents(rule.getMinAmount());
+                maxCents[rank] = rule.getMaxAmount() == null ? Long.MAX_VALUE : toCents(rule.getMaxAmount());
+                prefixOnly[rank] = rule.getMatchType() == RuleMatchType.PREFIX;
+
+                String pattern = fold(rule.getPattern());
+                if (rule.getMatchType().requiresPattern() && !pattern.isEmpty()) {
+                    List<Integer> referencing = byPattern.get(pattern);
+                    if (referencing == null) {
+                        referencing = new ArrayList<>();
+                        byPattern.put(pattern, referencing);
+                        patterns.add(pattern);
+                    }
+                    referencing.add(rank);
+                } else if (!rule.getMatchType().requiresPattern()) {
+                    textFree.add(rank);
+                }
+            }
+
+            matcher = patterns.isEmpty() ? null : new AhoCorasickMatcher(patterns);
+            rulesByPattern = new int[patterns.size()][];
+            for (int i = 0; i < patterns.size(); i++) {
+                rulesByPattern[i] = toArray(byPattern.get(patterns.get(i)));
+            }
+            textFreeRules = toArray(textFree);
+        }
+
+        /**
+         * 编译规则
+         *
+         * @param rules 对用户生效的规则，会被排序
+         * @return 规则集
+         */
+        public static RuleSet compile(List<CategorizationRule> rules) {
+            List<CategorizationRule> sorted = new ArrayList<>(rules);
+            sorted.removeIf(rule -> !rule.isEnabled());
+            sorted.sort(Comparator.comparing(CategorizationRule::isGlobal)
+                    .thenComparing(Comparator.comparingInt(CategorizationRule::getPriority).reversed())
+                    .thenComparingInt(CategorizationRule::getRuleId));
+            return new RuleSet(sorted);
+        }
+
+        /**
+         * 获取规则数量
+         *
+         * @return 规则数量
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 为一笔交易选择分类
+         *
+         * @param type 交易类型
+         * @param accountId 账户ID，没有时传0
+         * @param amountCents 金额（分）
+         * @param description 备注，可为null
+         * @return 分类ID，没有命中的规则时返回-1
+         */
+        public int categorize(TransactionType type, int accountId, long amountCents, CharSequence description) {
+            int best = Integer.MAX_VALUE;
+
+            // 不限备注的规则已按优先级排序，第一个满足条件的就是其中最好的
+            for (int rank : textFreeRules) {
+                if (conditionsHold(rank, type, accountId, amountCents)) {
+                    best = rank;
+                    break;
+                }
+            }
+
+            if (matcher != null && description != null && best > 0) {
+                int offset = 0;
+                while (offset < description.length() && Character.isWhitespace(description.charAt(offset))) {
+                    offset++;
+                }
+                int textStart = offset;
+                int[] result = {best};
+                matcher.match(description, (pattern, start, end) -> {
+                    for (int rank : rulesByPattern[pattern]) {
+                        if (rank >= result[0]) {
+                            break;
+                        }
+                        if ((!prefixOnly[rank] || start == textStart)
+                                && conditionsHold(rank, type, accountId, amountCents)) {
+                            result[0] = rank;
+                            break;
+                        }
+                    }
+                    return result[0] > 0;
+                });
+                best = result[0];
+            }
+
+            return best == Integer.MAX_VALUE ? NO_MATCH : categoryIds[best];
+        }
+
+        private boolean conditionsHold(int rank, TransactionType type, int accountId, long amountCents) {
+            return (types[rank] == null || types[rank] == type)
+                    && (accountIds[rank] == 0 || accountIds[rank] == accountId)
+                    && amountCents >= minCents[rank]
+                    && amountCents <= maxCents[rank];
+        }
+
+        /**
+         * 金额转换为分，超过两位的小数四舍五入
+         *
+         * @param amount 金额
+         * @return 分
+         */
+        public static long toCents(BigDecimal amount) {
+            return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        }
+
+        private static String fold(String pattern) {
+            if (pattern == null) {
+                return "";
+            }
+            StringBuilder sb = new StringBuilder(pattern.length());
+            for (int i = 0; i < pattern.length(); i++) {
+                sb.append(AhoCorasickMatcher.fold(pattern.charAt(i)));
+            }
+            return sb.toString().trim();
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            int[] array = new int[values.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = values.get(i);
+            }
+            return array;
+        }
+    }
+}
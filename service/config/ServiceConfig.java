@@ -2,7 +2,9 @@ package com.PFM.CD.service.config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashSet;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * 服务配置类
@@ -67,6 +69,46 @@ public class ServiceConfig {
         return defaultValue;
     }
 
+    /**
+     * 获取浮点数属性
+     *
+     * @param key 属性键
+     * @param defaultValue 默认值
+     * @return 属性值
+     */
+    public double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * 获取逗号分隔的整数集合属性，无法解析的项被忽略
+     *
+     * @param key 属性键
+     * @return 属性值，未配置时返回空集合
+     */
+    public Set<Integer> getIntSet(String key) {
+        Set<Integer> values = new HashSet<>();
+        String value = properties.getProperty(key);
+        if (value != null) {
+            for (String item : value.split(",")) {
+                try {
+                    values.add(Integer.parseInt(item.trim()));
+                } catch (NumberFormatException e) {
+                    // 忽略无效项
+                }
+            }
+        }
+        return values;
+    }
+
     /**
      * 获取布尔属性
      *
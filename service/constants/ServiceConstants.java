@@ -35,6 +35,12 @@ public class ServiceConstants {
     public static final int MAX_REPORTS_TO_KEEP = 50;
     public static final int DEFAULT_REPORTS_EXPIRY_DAYS = 90;
 
+    // 对比报表参数：周期类型（daily/weekly/monthly/quarterly/yearly），不指定时与等长的前一段时间对比
+    public static final String REPORT_PARAM_PERIOD_TYPE = "periodType";
+    // 对比报表参数：取值为COMPARE_WITH_LAST_YEAR时与去年同期对比
+    public static final String REPORT_PARAM_COMPARE_WITH = "compareWith";
+    public static final String COMPARE_WITH_LAST_YEAR = "lastYear";
+
     // 统计相关常量
     public static final String INTERVAL_TYPE_DAY = "day";
     public static final String INTERVAL_TYPE_WEEK = "week";
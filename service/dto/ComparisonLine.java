@@ -0,0 +1,134 @@
+package com.PFM.CD.service.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 对比报表中的一行：某个分类、账户或汇总项在本期和上一期的金额及变化
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ComparisonLine {
+
+    private final int id;
+    private String name;
+    private BigDecimal current = BigDecimal.ZERO;
+    private BigDecimal previous = BigDecimal.ZERO;
+    private int currentCount;
+    private int previousCount;
+
+    /**
+     * 构造函数
+     *
+     * @param id 分类ID或账户ID，汇总项为0
+     * @param name 名称
+     */
+    public ComparisonLine(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * 累加一组金额
+     *
+     * @param currentPeriod 是否属于本期
+     * @param amount 金额
+     * @param count 交易笔数
+     */
+    public void add(boolean currentPeriod, BigDecimal amount, int count) {
+        if (currentPeriod) {
+            current = current.add(amount);
+            currentCount += count;
+        } else {
+            previous = previous.add(amount);
+            previousCount += count;
+        }
+    }
+
+    /**
+     * 获取分类ID或账户ID
+     *
+     * @return ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * 获取名称
+     *
+     * @return 名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 设置名称
+     *
+     * @param name 名称
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 获取本期金额
+     *
+     * @return 本期金额
+     */
+    public BigDecimal getCurrent() {
+        return current;
+    }
+
+    /**
+     * 获取上期金额
+     *
+     * @return 上期金额
+     */
+    public BigDecimal getPrevious() {
+        return previous;
+    }
+
+    /**
+     * 获取本期交易笔数
+     *
+     * @return 交易笔数
+     */
+    public int getCurrentCount() {
+        return currentCount;
+    }
+
+    /**
+     * 获取上期交易笔数
+     *
+     * @return 交易笔数
+     */
+    public int getPreviousCount() {
+        return previousCount;
+    }
+
+    /**
+     * 获取变化金额（本期减上期）
+     *
+     * @return 变化金额
+     */
+    public BigDecimal getDelta() {
+        return current.subtract(previous);
+    }
+
+    /**
+     * 获取变化百分比（如12.5表示增长12.5%）
+     *
+     * @return 变化百分比，上期为0时无法计算，返回null
+     */
+    public Double getChangePercentage() {
+        if (previous.signum() == 0) {
+            return null;
+        }
+        return getDelta().multiply(BigDecimal.valueOf(100))
+                .divide(previous.abs(), 2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+}
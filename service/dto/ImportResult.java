@@ -0,0 +1,240 @@
+package com.PFM.CD.service.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 交易导入结果
+ * 只保留前若干条错误信息，避免大文件中大量错误行占满内存；完整的被拒绝行写入拒绝文件
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ImportResult {
+
+    private long totalRows;
+    private long importedRows;
+    private long rejectedRows;
+    private long duplicateRows;
+    private long autoCategorizedRows;
+    private int chunkCount;
+    private long elapsedMillis;
+    private String rejectFile;
+    private boolean bulkLoaded;
+    private List<String> errors = new ArrayList<>();
+    private List<ImportStageStats> stages = new ArrayList<>();
+
+    /**
+     * 获取数据行数（不含标题行和空行）
+     *
+     * @return 数据行数
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * 设置数据行数
+     *
+     * @param totalRows 数据行数
+     */
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    /**
+     * 获取导入的行数
+     *
+     * @return 导入的行数
+     */
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    /**
+     * 设置导入的行数
+     *
+     * @param importedRows 导入的行数
+     */
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    /**
+     * 获取因格式或校验错误被拒绝的行数
+     *
+     * @return 被拒绝的行数
+     */
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    /**
+     * 设置被拒绝的行数
+     *
+     * @param rejectedRows 被拒绝的行数
+     */
+    public void setRejectedRows(long rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    /**
+     * 获取与已有交易重复而跳过的行数
+     *
+     * @return 重复的行数
+     */
+    public long getDuplicateRows() {
+        return duplicateRows;
+    }
+
+    /**
+     * 设置重复的行数
+     *
+     * @param duplicateRows 重复的行数
+     */
+    public void setDuplicateRows(long duplicateRows) {
+        this.duplicateRows = duplicateRows;
+    }
+
+    /**
+     * 获取按自动分类规则选择分类的行数
+     *
+     * @return 自动分类的行数
+     */
+    public long getAutoCategorizedRows() {
+        return autoCategorizedRows;
+    }
+
+    /**
+     * 设置按自动分类规则选择分类的行数
+     *
+     * @param autoCategorizedRows 自动分类的行数
+     */
+    public void setAutoCategorizedRows(long autoCategorizedRows) {
+        this.autoCategorizedRows = autoCategorizedRows;
+    }
+
+    /**
+     * 获取文件切分的块数
+     *
+     * @return 块数
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * 设置文件切分的块数
+     *
+     * @param chunkCount 块数
+     */
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    /**
+     * 获取耗时
+     *
+     * @return 毫秒数
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * 设置耗时
+     *
+     * @param elapsedMillis 毫秒数
+     */
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * 获取拒绝文件路径，其中包含所有被拒绝和重复的原始行及原因
+     *
+     * @return 拒绝文件路径，没有被拒绝的行时为null
+     */
+    public String getRejectFile() {
+        return rejectFile;
+    }
+
+    /**
+     * 设置拒绝文件路径
+     *
+     * @param rejectFile 拒绝文件路径
+     */
+    public void setRejectFile(String rejectFile) {
+        this.rejectFile = rejectFile;
+    }
+
+    /**
+     * 是否通过LOAD DATA LOCAL INFILE批量装载了交易
+     *
+     * @return 至少有一次批量装载成功时返回true
+     */
+    public boolean isBulkLoaded() {
+        return bulkLoaded;
+    }
+
+    /**
+     * 设置是否批量装载了交易
+     *
+     * @param bulkLoaded 是否批量装载
+     */
+    public void setBulkLoaded(boolean bulkLoaded) {
+        this.bulkLoaded = bulkLoaded;
+    }
+
+    /**
+     * 获取保留的错误信息
+     *
+     * @return 错误信息列表
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * 设置保留的错误信息
+     *
+     * @param errors 错误信息列表
+     */
+    public void setErrors(List<String> errors) {
+        this.errors = new ArrayList<>(errors);
+    }
+
+    /**
+     * 获取各阶段的运行统计
+     *
+     * @return 按流水线顺序排列的阶段统计
+     */
+    public List<ImportStageStats> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * 设置各阶段的运行统计
+     *
+     * @param stages 阶段统计
+     */
+    public void setStages(List<ImportStageStats> stages) {
+        this.stages = new ArrayList<>(stages);
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "totalRows=" + totalRows +
+                ", importedRows=" + importedRows +
+                ", rejectedRows=" + rejectedRows +
+                ", duplicateRows=" + duplicateRows +
+                ", autoCategorizedRows=" + autoCategorizedRows +
+                ", chunkCount=" + chunkCount +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rejectFile=" + rejectFile +
+                ", bulkLoaded=" + bulkLoaded +
+                '}';
+    }
+}
@@ -0,0 +1,121 @@
+package com.PFM.CD.service.dto;
+
+/**
+ * 导入流水线中一个阶段的运行统计
+ * 处理时间只计阶段自身的工作；等待时间是批次在该阶段输入队列中排队的时间，
+ * 反映该阶段落后于上游的程度；阻塞时间是下游队列已满时等待放入的时间，反映下游的背压。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ImportStageStats {
+
+    private final String name;
+    private final long batches;
+    private final long rows;
+    private final long busyNanos;
+    private final long blockedNanos;
+    private final long totalLagNanos;
+    private final long maxLagNanos;
+
+    /**
+     * 构造函数
+     *
+     * @param name 阶段名称
+     * @param batches 处理的批次数
+     * @param rows 输出的行数
+     * @param busyNanos 处理时间（纳秒）
+     * @param blockedNanos 等待下游的时间（纳秒）
+     * @param totalLagNanos 批次在输入队列中的累计等待时间（纳秒）
+     * @param maxLagNanos 批次在输入队列中的最长等待时间（纳秒）
+     */
+    public ImportStageStats(String name, long batches, long rows, long busyNanos, long blockedNanos,
+                            long totalLagNanos, long maxLagNanos) {
+        this.name = name;
+        this.batches = batches;
+        this.rows = rows;
+        this.busyNanos = busyNanos;
+        this.blockedNanos = blockedNanos;
+        this.totalLagNanos = totalLagNanos;
+        this.maxLagNanos = maxLagNanos;
+    }
+
+    /**
+     * 获取阶段名称
+     *
+     * @return 阶段名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取处理的批次数
+     *
+     * @return 批次数
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * 获取输出的行数
+     *
+     * @return 行数
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * 获取处理时间
+     *
+     * @return 毫秒数
+     */
+    public long getBusyMillis() {
+        return busyNanos / 1_000_000;
+    }
+
+    /**
+     * 获取等待下游的时间
+     *
+     * @return 毫秒数
+     */
+    public long getBlockedMillis() {
+        return blockedNanos / 1_000_000;
+    }
+
+    /**
+     * 获取批次在输入队列中的平均等待时间
+     *
+     * @return 毫秒数
+     */
+    public double getAverageLagMillis() {
+        return batches == 0 ? 0 : totalLagNanos / 1_000_000.0 / batches;
+    }
+
+    /**
+     * 获取批次在输入队列中的最长等待时间
+     *
+     * @return 毫秒数
+     */
+    public long getMaxLagMillis() {
+        return maxLagNanos / 1_000_000;
+    }
+
+    /**
+     * 获取吞吐量（按处理时间计算）
+     *
+     * @return 每秒行数
+     */
+    public double getRowsPerSecond() {
+        return busyNanos == 0 ? 0 : rows * 1_000_000_000.0 / busyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: 批次=%d 行数=%d 处理=%dms 吞吐量=%.0f行/秒 阻塞=%dms 平均等待=%.1fms 最长等待=%dms",
+                name, batches, rows, getBusyMillis(), getRowsPerSecond(), getBlockedMillis(),
+                getAverageLagMillis(), getMaxLagMillis());
+    }
+}
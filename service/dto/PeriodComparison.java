@@ -0,0 +1,189 @@
+package com.PFM.CD.service.dto;
+
+import com.PFM.CD.entity.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * 本期与上一期的对比数据
+ * 按分组查询结果逐行累加，一次遍历同时得到收支汇总、分类和账户三个维度的对比
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class PeriodComparison {
+
+    // 变化金额绝对值大的排在前面，相同时按ID排列，保证输出稳定
+    private static final Comparator<ComparisonLine> BY_DELTA = Comparator
+            .comparing((ComparisonLine line) -> line.getDelta().abs()).reversed()
+            .thenComparingInt(ComparisonLine::getId);
+
+    private final LocalDate currentStartDate;
+    private final LocalDate currentEndDate;
+    private final LocalDate previousStartDate;
+    private final LocalDate previousEndDate;
+
+    private final ComparisonLine income = new ComparisonLine(0, "总收入");
+    private final ComparisonLine expense = new ComparisonLine(0, "总支出");
+    private final Map<Integer, ComparisonLine> incomeByCategory = new HashMap<>();
+    private final Map<Integer, ComparisonLine> expenseByCategory = new HashMap<>();
+    private final Map<Integer, ComparisonLine> netFlowByAccount = new HashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param currentStartDate 本期开始日期
+     * @param currentEndDate 本期结束日期
+     * @param previousStartDate 上期开始日期
+     * @param previousEndDate 上期结束日期
+     */
+    public PeriodComparison(LocalDate currentStartDate, LocalDate currentEndDate,
+                            LocalDate previousStartDate, LocalDate previousEndDate) {
+        this.currentStartDate = currentStartDate;
+        this.currentEndDate = currentEndDate;
+        this.previousStartDate = previousStartDate;
+        this.previousEndDate = previousEndDate;
+    }
+
+    /**
+     * 累加一组分组汇总结果
+     *
+     * @param currentPeriod 是否属于本期
+     * @param type 交易类型
+     * @param categoryId 分类ID
+     * @param accountId 账户ID，可能为null
+     * @param amount 金额合计
+     * @param count 交易笔数
+     */
+    public void add(boolean currentPeriod, TransactionType type, int categoryId, Integer accountId,
+                    BigDecimal amount, int count) {
+        boolean isIncome = type == TransactionType.INCOME;
+
+        (isIncome ? income : expense).add(currentPeriod, amount, count);
+        (isIncome ? incomeByCategory : expenseByCategory)
+                .computeIfAbsent(categoryId, id -> new ComparisonLine(id, null))
+                .add(currentPeriod, amount, count);
+        if (accountId != null) {
+            netFlowByAccount.computeIfAbsent(accountId, id -> new ComparisonLine(id, null))
+                    .add(currentPeriod, isIncome ? amount : amount.negate(), count);
+        }
+    }
+
+    /**
+     * 填充分类和账户名称
+     *
+     * @param categoryNames 分类ID到名称的映射
+     * @param accountNames 账户ID到名称的映射
+     */
+    public void resolveNames(IntFunction<String> categoryNames, IntFunction<String> accountNames) {
+        incomeByCategory.values().forEach(line -> line.setName(categoryNames.apply(line.getId())));
+        expenseByCategory.values().forEach(line -> line.setName(categoryNames.apply(line.getId())));
+        netFlowByAccount.values().forEach(line -> line.setName(accountNames.apply(line.getId())));
+    }
+
+    /**
+     * 获取本期开始日期
+     *
+     * @return 本期开始日期
+     */
+    public LocalDate getCurrentStartDate() {
+        return currentStartDate;
+    }
+
+    /**
+     * 获取本期结束日期
+     *
+     * @return 本期结束日期
+     */
+    public LocalDate getCurrentEndDate() {
+        return currentEndDate;
+    }
+
+    /**
+     * 获取上期开始日期
+     *
+     * @return 上期开始日期
+     */
+    public LocalDate getPreviousStartDate() {
+        return previousStartDate;
+    }
+
+    /**
+     * 获取上期结束日期
+     *
+     * @return 上期结束日期
+     */
+    public LocalDate getPreviousEndDate() {
+        return previousEndDate;
+    }
+
+    /**
+     * 获取总收入对比
+     *
+     * @return 总收入对比
+     */
+    public ComparisonLine getIncome() {
+        return income;
+    }
+
+    /**
+     * 获取总支出对比
+     *
+     * @return 总支出对比
+     */
+    public ComparisonLine getExpense() {
+        return expense;
+    }
+
+    /**
+     * 获取结余（收入减支出）对比
+     *
+     * @return 结余对比
+     */
+    public ComparisonLine getBalance() {
+        ComparisonLine balance = new ComparisonLine(0, "结余");
+        balance.add(true, income.getCurrent().subtract(expense.getCurrent()), 0);
+        balance.add(false, income.getPrevious().subtract(expense.getPrevious()), 0);
+        return balance;
+    }
+
+    /**
+     * 获取各收入分类的对比，按变化金额绝对值降序
+     *
+     * @return 分类对比列表
+     */
+    public List<ComparisonLine> getIncomeByCategory() {
+        return sorted(incomeByCategory);
+    }
+
+    /**
+     * 获取各支出分类的对比，按变化金额绝对值降序
+     *
+     * @return 分类对比列表
+     */
+    public List<ComparisonLine> getExpenseByCategory() {
+        return sorted(expenseByCategory);
+    }
+
+    /**
+     * 获取各账户净流入（收入减支出）的对比，按变化金额绝对值降序
+     *
+     * @return 账户对比列表
+     */
+    public List<ComparisonLine> getNetFlowByAccount() {
+        return sorted(netFlowByAccount);
+    }
+
+    private static List<ComparisonLine> sorted(Map<Integer, ComparisonLine> lines) {
+        List<ComparisonLine> result = new ArrayList<>(lines.values());
+        result.sort(BY_DELTA);
+        return result;
+    }
+}
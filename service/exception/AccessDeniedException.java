@@ -113,4 +113,37 @@ public class AccessDeniedException extends ServiceException {
     public static AccessDeniedException reportOwnership(int userId, int reportId) {
         return new AccessDeniedException("报表不属于当前用户", userId, "报表", reportId);
     }
+
+    /**
+     * 创建一个报表任务所有权错误的访问拒绝异常
+     *
+     * @param userId 用户ID
+     * @param jobId 任务ID
+     * @return 访问拒绝异常实例
+     */
+    public static AccessDeniedException reportJobOwnership(int userId, int jobId) {
+        return new AccessDeniedException("报表任务不属于当前用户", userId, "报表任务", jobId);
+    }
+
+    /**
+     * 创建一个分类规则所有权错误的访问拒绝异常
+     *
+     * @param userId 用户ID
+     * @param ruleId 规则ID
+     * @return 访问拒绝异常实例
+     */
+    public static AccessDeniedException ruleOwnership(int userId, int ruleId) {
+        return new AccessDeniedException("分类规则不属于当前用户", userId, "分类规则", ruleId);
+    }
+
+    /**
+     * 创建一个没有全局分类规则管理权限的访问拒绝异常
+     *
+     * @param userId 用户ID
+     * @param ruleId 规则ID，新增规则时为null
+     * @return 访问拒绝异常实例
+     */
+    public static AccessDeniedException globalRuleManagement(int userId, Integer ruleId) {
+        return new AccessDeniedException("没有管理全局分类规则的权限", userId, "全局分类规则", ruleId);
+    }
 }
\ No newline at end of file
@@ -65,4 +65,13 @@ public class AuthenticationException extends ServiceException {
     public static AuthenticationException sessionExpired() {
         return new AuthenticationException("会话已过期，请重新登录");
     }
+
+    /**
+     * 创建一个登录尝试过于频繁的认证异常
+     *
+     * @return 认证异常实例
+     */
+    public static AuthenticationException tooManyAttempts() {
+        return new AuthenticationException("登录尝试过于频繁，请稍后再试");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.PFM.CD.service.exception;
+
+/**
+ * 操作取消异常，当长时间运行的操作被用户取消时抛出
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class OperationCancelledException extends ServiceException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 构造一个带有错误消息的操作取消异常
+     *
+     * @param message 错误消息
+     */
+    public OperationCancelledException(String message) {
+        super(message);
+    }
+}
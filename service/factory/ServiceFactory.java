@@ -1,12 +1,26 @@
 package com.PFM.CD.service.factory;
 
 import com.PFM.CD.dao.factory.DaoFactory;
+import com.PFM.CD.service.cache.CategoryCache;
+import com.PFM.CD.service.cache.CategoryUsageCounter;
+import com.PFM.CD.service.cache.UserAvailabilityFilter;
+import com.PFM.CD.service.categorization.CategorizationEngine;
 import com.PFM.CD.service.config.ServiceConfig;
+import com.PFM.CD.service.constants.ServiceConstants;
 import com.PFM.CD.service.impl.*;
+import com.PFM.CD.service.importer.ParallelCsvImporter;
 import com.PFM.CD.service.interfaces.*;
+import com.PFM.CD.service.job.ReportRetentionCompactor;
+import com.PFM.CD.service.session.SessionManager;
+import com.PFM.CD.utils.file.MappedCsvSplitter;
 import com.PFM.CD.utils.report.ExcelExporter;
 import com.PFM.CD.utils.report.PdfExporter;
 import com.PFM.CD.utils.report.ReportGenerator;
+import com.PFM.CD.utils.security.LoginRateLimiter;
+import com.PFM.CD.utils.security.PasswordHasher;
+import com.PFM.CD.utils.security.PasswordHashingPool;
+
+import java.time.LocalTime;
 
 /**
  * 服务工厂类，用于创建Service实例
@@ -21,6 +35,15 @@ public class ServiceFactory {
 
     private final DaoFactory daoFactory;
     private final ServiceConfig serviceConfig;
+    private final CategoryCache categoryCache;
+    private final CategoryUsageCounter categoryUsageCounter;
+    private final PasswordHashingPool passwordHashingPool;
+    private final SessionManager sessionManager;
+    private final LoginRateLimiter loginRateLimiter;
+    private final UserAvailabilityFilter userAvailabilityFilter;
+    private final ReportRetentionCompactor reportRetentionCompactor;
+    private final CategorizationEngine categorizationEngine;
+    private final ParallelCsvImporter csvImporter;
 
     private UserService userService;
     private AccountService accountService;
@@ -29,6 +52,9 @@ public class ServiceFactory {
     private BudgetService budgetService;
     private ReportService reportService;
     private StatisticsService statisticsService;
+    private ReportJobService reportJobService;
+    private ReportScheduleService reportScheduleService;
+    private CategorizationService categorizationService;
 
     /**
      * 私有构造函数
@@ -36,6 +62,54 @@ public class ServiceFactory {
     private ServiceFactory() {
         this.daoFactory = DaoFactory.getInstance();
         this.serviceConfig = new ServiceConfig();
+        this.categoryCache = new CategoryCache(daoFactory.getCategoryDao(),
+                serviceConfig.getInt("cache.category.refreshIntervalMillis",
+                        (int) CategoryCache.DEFAULT_REFRESH_INTERVAL_MILLIS));
+        this.categoryUsageCounter = new CategoryUsageCounter(daoFactory.getCategoryDao(),
+                serviceConfig.getInt("category.usage.flushIntervalSeconds",
+                        CategoryUsageCounter.DEFAULT_FLUSH_INTERVAL_SECONDS));
+        this.categoryUsageCounter.start();
+        PasswordHasher.HashAlgorithm hashAlgorithm = PasswordHasher.HashAlgorithm.valueOf(
+                serviceConfig.getString("security.hash.algorithm", "BCRYPT"));
+        this.passwordHashingPool = new PasswordHashingPool(
+                new PasswordHasher(hashAlgorithm),
+                serviceConfig.getInt("security.hash.threads", Runtime.getRuntime().availableProcessors()),
+                serviceConfig.getInt("security.hash.queueCapacity", PasswordHashingPool.DEFAULT_QUEUE_CAPACITY));
+        this.sessionManager = new SessionManager(daoFactory.getAccountDao(), daoFactory.getBudgetDao(),
+                serviceConfig.getInt("session.idleTimeoutMinutes", SessionManager.DEFAULT_IDLE_TIMEOUT_MINUTES),
+                serviceConfig.getInt("session.maxSessions", SessionManager.DEFAULT_MAX_SESSIONS));
+        this.sessionManager.start();
+        this.loginRateLimiter = new LoginRateLimiter(
+                serviceConfig.getInt("security.login.usernameBurst", LoginRateLimiter.DEFAULT_USERNAME_BURST),
+                serviceConfig.getInt("security.login.usernameRefillSeconds",
+                        LoginRateLimiter.DEFAULT_USERNAME_REFILL_SECONDS),
+                serviceConfig.getInt("security.login.sourceBurst", LoginRateLimiter.DEFAULT_SOURCE_BURST),
+                serviceConfig.getInt("security.login.sourceRefillSeconds",
+                        LoginRateLimiter.DEFAULT_SOURCE_REFILL_SECONDS),
+                serviceConfig.getInt("security.login.maxTrackedKeys", LoginRateLimiter.DEFAULT_MAX_TRACKED_KEYS));
+        this.userAvailabilityFilter = new UserAvailabilityFilter(daoFactory.getUserDao(),
+                serviceConfig.getInt("cache.user.expectedUsers", UserAvailabilityFilter.DEFAULT_EXPECTED_USERS),
+                serviceConfig.getDouble("cache.user.falsePositiveRate",
+                        UserAvailabilityFilter.DEFAULT_FALSE_POSITIVE_RATE));
+        this.reportRetentionCompactor = new ReportRetentionCompactor(daoFactory.getReportDao(),
+                serviceConfig.getInt("report.retention.keepCount", ServiceConstants.MAX_REPORTS_TO_KEEP),
+                serviceConfig.getInt("report.retention.expiryDays", ServiceConstants.DEFAULT_REPORTS_EXPIRY_DAYS),
+                serviceConfig.getInt("report.retention.batchSize", ReportRetentionCompactor.DEFAULT_BATCH_SIZE),
+                serviceConfig.getInt("report.retention.pauseMillis",
+                        (int) ReportRetentionCompactor.DEFAULT_PAUSE_MILLIS),
+                serviceConfig.getInt("report.retention.intervalMinutes",
+                        ReportRetentionCompactor.DEFAULT_INTERVAL_MINUTES));
+        if (serviceConfig.getBoolean("report.retention.enabled", true)) {
+            this.reportRetentionCompactor.start();
+        }
+        this.categorizationEngine = new CategorizationEngine(daoFactory.getCategorizationRuleDao());
+        this.csvImporter = new ParallelCsvImporter(daoFactory.getTransactionDao(), daoFactory.getAccountDao(),
+                categoryCache, categoryUsageCounter, categorizationEngine,
+                serviceConfig.getInt("import.parallelism", ParallelCsvImporter.DEFAULT_PARALLELISM),
+                serviceConfig.getInt("import.chunkSizeKB", MappedCsvSplitter.DEFAULT_CHUNK_SIZE / 1024) * 1024,
+                serviceConfig.getInt("import.batchSize", ParallelCsvImporter.DEFAULT_BATCH_SIZE),
+                serviceConfig.getInt("import.queueCapacity", ParallelCsvImporter.DEFAULT_QUEUE_CAPACITY),
+                serviceConfig.getInt("import.bulkLoadRows", ParallelCsvImporter.DEFAULT_BULK_LOAD_ROWS));
     }
 
     /**
@@ -63,7 +137,8 @@ public class ServiceFactory {
         if (userService == null) {
             synchronized (LOCK) {
                 if (userService == null) {
-                    userService = new UserServiceImpl(daoFactory.getUserDao());
+                    userService = new UserServiceImpl(daoFactory.getUserDao(), passwordHashingPool, sessionManager,
+                            loginRateLimiter, userAvailabilityFilter);
                 }
             }
         }
@@ -81,7 +156,8 @@ public class ServiceFactory {
                 if (accountService == null) {
                     accountService = new AccountServiceImpl(
                             daoFactory.getAccountDao(),
-                            daoFactory.getTransactionDao());
+                            daoFactory.getTransactionDao(),
+                            sessionManager);
                 }
             }
         }
@@ -97,13 +173,32 @@ public class ServiceFactory {
         if (categoryService == null) {
             synchronized (LOCK) {
                 if (categoryService == null) {
-                    categoryService = new CategoryServiceImpl(daoFactory.getCategoryDao());
+                    categoryService = new CategoryServiceImpl(daoFactory.getCategoryDao(), categoryCache,
+                            categoryUsageCounter);
                 }
             }
         }
         return categoryService;
     }
 
+    /**
+     * 获取CategorizationService实例
+     *
+     * @return CategorizationService实例
+     */
+    public CategorizationService getCategorizationService() {
+        if (categorizationService == null) {
+            synchronized (LOCK) {
+                if (categorizationService == null) {
+                    categorizationService = new CategorizationServiceImpl(daoFactory.getCategorizationRuleDao(),
+                            daoFactory.getAccountDao(), categoryCache, categorizationEngine,
+                            serviceConfig.getIntSet("categorization.globalRuleAdmins"));
+                }
+            }
+        }
+        return categorizationService;
+    }
+
     /**
      * 获取TransactionService实例
      *
@@ -116,8 +211,12 @@ public class ServiceFactory {
                     transactionService = new TransactionServiceImpl(
                             daoFactory.getTransactionDao(),
                             daoFactory.getAccountDao(),
-                            daoFactory.getCategoryDao(),
-                            daoFactory.getBudgetCategoryDao());
+                            categoryCache,
+                            daoFactory.getBudgetCategoryDao(),
+                            categoryUsageCounter,
+                            csvImporter,
+                            categorizationEngine,
+                            sessionManager);
                 }
             }
         }
@@ -136,7 +235,8 @@ public class ServiceFactory {
                     budgetService = new BudgetServiceImpl(
                             daoFactory.getBudgetDao(),
                             daoFactory.getBudgetCategoryDao(),
-                            daoFactory.getCategoryDao());
+                            categoryCache,
+                            sessionManager);
                 }
             }
         }
@@ -155,18 +255,82 @@ public class ServiceFactory {
                     reportService = new ReportServiceImpl(
                             daoFactory.getReportDao(),
                             daoFactory.getTransactionDao(),
-                            daoFactory.getCategoryDao(),
+                            categoryCache,
                             daoFactory.getAccountDao(),
                             daoFactory.getBudgetDao(),
                             new ReportGenerator(),
                             new ExcelExporter(),
-                            new PdfExporter());
+                            new PdfExporter(),
+                            serviceConfig.getInt("report.bundle.threads", ReportServiceImpl.DEFAULT_BUNDLE_THREADS));
                 }
             }
         }
         return reportService;
     }
 
+    /**
+     * 获取ReportJobService实例，首次获取时启动服务并恢复未完成的任务
+     *
+     * @return ReportJobService实例
+     */
+    public ReportJobService getReportJobService() {
+        if (reportJobService == null) {
+            ReportService reports = getReportService();
+            synchronized (LOCK) {
+                if (reportJobService == null) {
+                    ReportJobService service = new ReportJobServiceImpl(
+                            daoFactory.getReportJobDao(),
+                            reports,
+                            serviceConfig.getInt("report.jobs.threads", ReportJobServiceImpl.DEFAULT_THREADS),
+                            serviceConfig.getInt("report.jobs.queueCapacity",
+                                    ReportJobServiceImpl.DEFAULT_QUEUE_CAPACITY),
+                            serviceConfig.getInt("report.jobs.maxConcurrentPerUser",
+                                    ReportJobServiceImpl.DEFAULT_MAX_CONCURRENT_PER_USER),
+                            serviceConfig.getInt("report.jobs.maxQueuedPerUser",
+                                    ReportJobServiceImpl.DEFAULT_MAX_QUEUED_PER_USER));
+                    service.start();
+                    reportJobService = service;
+                }
+            }
+        }
+        return reportJobService;
+    }
+
+    /**
+     * 获取ReportScheduleService实例，首次获取时启动定时调度
+     *
+     * @return ReportScheduleService实例
+     */
+    public ReportScheduleService getReportScheduleService() {
+        if (reportScheduleService == null) {
+            ReportJobService jobs = getReportJobService();
+            ReportService reports = getReportService();
+            synchronized (LOCK) {
+                if (reportScheduleService == null) {
+                    ReportScheduleService service = new ReportScheduleServiceImpl(
+                            daoFactory.getReportScheduleDao(),
+                            jobs,
+                            reports,
+                            serviceConfig.getInt("report.schedule.pollIntervalSeconds",
+                                    ReportScheduleServiceImpl.DEFAULT_POLL_INTERVAL_SECONDS),
+                            LocalTime.parse(serviceConfig.getString("report.schedule.windowStart",
+                                    ReportScheduleServiceImpl.DEFAULT_WINDOW_START)),
+                            LocalTime.parse(serviceConfig.getString("report.schedule.windowEnd",
+                                    ReportScheduleServiceImpl.DEFAULT_WINDOW_END)),
+                            serviceConfig.getInt("report.schedule.jitterMinutes",
+                                    ReportScheduleServiceImpl.DEFAULT_JITTER_MINUTES),
+                            serviceConfig.getInt("report.schedule.maxInFlight",
+                                    ReportScheduleServiceImpl.DEFAULT_MAX_IN_FLIGHT),
+                            serviceConfig.getInt("report.schedule.maxInFlightPerUser",
+                                    ReportScheduleServiceImpl.DEFAULT_MAX_IN_FLIGHT_PER_USER));
+                    service.start();
+                    reportScheduleService = service;
+                }
+            }
+        }
+        return reportScheduleService;
+    }
+
     /**
      * 获取StatisticsService实例
      *
@@ -179,7 +343,7 @@ public class ServiceFactory {
                     statisticsService = new StatisticsServiceImpl(
                             daoFactory.getTransactionDao(),
                             daoFactory.getAccountDao(),
-                            daoFactory.getCategoryDao(),
+                            categoryCache,
                             daoFactory.getBudgetDao());
                 }
             }
@@ -198,5 +362,79 @@ public class ServiceFactory {
         budgetService = null;
         reportService = null;
         statisticsService = null;
+        categorizationService = null;
+        categoryCache.invalidate();
+        categorizationEngine.invalidateAll();
+    }
+
+    /**
+     * 获取分类目录缓存
+     *
+     * @return 分类目录缓存
+     */
+    public CategoryCache getCategoryCache() {
+        return categoryCache;
+    }
+
+    /**
+     * 获取分类使用次数计数器
+     *
+     * @return 分类使用次数计数器
+     */
+    public CategoryUsageCounter getCategoryUsageCounter() {
+        return categoryUsageCounter;
+    }
+
+    /**
+     * 获取会话管理器
+     *
+     * @return 会话管理器
+     */
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    /**
+     * 获取登录限流器
+     *
+     * @return 登录限流器
+     */
+    public LoginRateLimiter getLoginRateLimiter() {
+        return loginRateLimiter;
+    }
+
+    /**
+     * 获取用户名/邮箱可用性预检过滤器
+     *
+     * @return 可用性预检过滤器
+     */
+    public UserAvailabilityFilter getUserAvailabilityFilter() {
+        return userAvailabilityFilter;
+    }
+
+    /**
+     * 获取报表保留策略压缩器
+     *
+     * @return 报表保留策略压缩器
+     */
+    public ReportRetentionCompactor getReportRetentionCompactor() {
+        return reportRetentionCompactor;
+    }
+
+    /**
+     * 停止后台任务并刷写未持久化的数据，应用退出前调用
+     */
+    public void shutdown() {
+        categoryUsageCounter.shutdown();
+        reportRetentionCompactor.shutdown();
+        csvImporter.shutdown();
+        passwordHashingPool.shutdown();
+        sessionManager.shutdown();
+        if (reportScheduleService != null) {
+            reportScheduleService.shutdown();
+        }
+        if (reportJobService != null) {
+            reportJobService.shutdown();
+        }
     }
 }
\ No newline at end of file
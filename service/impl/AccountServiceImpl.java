@@ -10,9 +10,11 @@ import com.PFM.CD.entity.Category;
 import com.PFM.CD.entity.enums.AccountStatus;
 import com.PFM.CD.entity.enums.CategoryType;
 import com.PFM.CD.entity.enums.TransactionType;
+import com.PFM.CD.service.exception.AccessDeniedException;
 import com.PFM.CD.service.exception.InsufficientBalanceException;
 import com.PFM.CD.service.exception.ServiceException;
 import com.PFM.CD.service.interfaces.AccountService;
+import com.PFM.CD.service.session.SessionManager;
 
 
 import java.math.BigDecimal;
@@ -31,16 +33,19 @@ public class AccountServiceImpl implements AccountService {
 
     private final AccountDao accountDao;
     private final TransactionDao transactionDao;
+    private final SessionManager sessionManager;
 
     /**
      * 构造函数
      *
      * @param accountDao 账户DAO接口
      * @param transactionDao 交易DAO接口
+     * @param sessionManager 会话管理器
      */
-    public AccountServiceImpl(AccountDao accountDao, TransactionDao transactionDao) {
+    public AccountServiceImpl(AccountDao accountDao, TransactionDao transactionDao, SessionManager sessionManager) {
         this.accountDao = accountDao;
         this.transactionDao = transactionDao;
+        this.sessionManager = sessionManager;
     }
 
     @Override
@@ -89,6 +94,7 @@ public class AccountServiceImpl implements AccountService {
                 }
 
                 accountDao.commitTransaction(conn);
+                sessionManager.accountCreated(userId, account.getAccountId());
                 return account;
             } catch (SQLException e) {
                 if (conn != null) {
@@ -119,6 +125,11 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public Account updateAccount(Account account) throws ServiceException {
         try {
+            // 所有权先查会话中的账户集合，未命中时再查询数据库
+            if (!sessionManager.isAccountOwner(account.getUserId(), account.getAccountId())) {
+                throw AccessDeniedException.accountOwnership(account.getUserId(), account.getAccountId());
+            }
+
             // 检查账户是否存在
             Account existingAccount = accountDao.findById(account.getAccountId());
             if (existingAccount == null) {
@@ -174,8 +185,13 @@ public class AccountServiceImpl implements AccountService {
      * @throws ServiceException 如果删除过程中发生错误
      */
     @Override
-    public boolean deleteAccount(int accountId, Integer transferAccountId) throws ServiceException {
+    public boolean deleteAccount(int userId, int accountId, Integer transferAccountId) throws ServiceException {
         try {
+            // 所有权先查会话中的账户集合，未命中时再查询数据库
+            if (!sessionManager.isAccountOwner(userId, accountId)) {
+                throw AccessDeniedException.accountOwnership(userId, accountId);
+            }
+
             // 检查账户是否存在
             Account account = accountDao.findById(accountId);
             if (account == null) {
@@ -242,6 +258,9 @@ public class AccountServiceImpl implements AccountService {
                     boolean deleted = accountDao.delete(accountId);
 
                     accountDao.commitTransaction(conn);
+                    if (deleted) {
+                        sessionManager.accountRemoved(account.getUserId(), accountId);
+                    }
                     return deleted;
                 } catch (SQLException e) {
                     if (conn != null) {
@@ -253,7 +272,11 @@ public class AccountServiceImpl implements AccountService {
                 }
             } else {
                 // 账户余额为零，直接删除
-                return accountDao.delete(accountId);
+                boolean deleted = accountDao.delete(accountId);
+                if (deleted) {
+                    sessionManager.accountRemoved(account.getUserId(), accountId);
+                }
+                return deleted;
             }
         } catch (SQLException e) {
             throw new ServiceException("删除账户过程中发生数据库错误", e);
@@ -2,14 +2,16 @@ package com.PFM.CD.service.impl;
 
 import com.PFM.CD.dao.interfaces.BudgetDao;
 import com.PFM.CD.dao.interfaces.BudgetCategoryDao;
-import com.PFM.CD.dao.interfaces.CategoryDao;
 import com.PFM.CD.entity.Budget;
 import com.PFM.CD.entity.BudgetCategory;
 import com.PFM.CD.entity.Category;
 import com.PFM.CD.entity.enums.CategoryType;
 import com.PFM.CD.entity.enums.PeriodType;
+import com.PFM.CD.service.cache.CategoryCache;
+import com.PFM.CD.service.exception.AccessDeniedException;
 import com.PFM.CD.service.exception.ServiceException;
 import com.PFM.CD.service.interfaces.BudgetService;
+import com.PFM.CD.service.session.SessionManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -31,19 +33,23 @@ public class BudgetServiceImpl implements BudgetService {
 
     private final BudgetDao budgetDao;
     private final BudgetCategoryDao budgetCategoryDao;
-    private final CategoryDao categoryDao;
+    private final CategoryCache categoryCache;
+    private final SessionManager sessionManager;
 
     /**
      * 构造函数
      *
      * @param budgetDao 预算DAO接口
      * @param budgetCategoryDao 预算分类DAO接口
-     * @param categoryDao 分类DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param sessionManager 会话管理器
      */
-    public BudgetServiceImpl(BudgetDao budgetDao, BudgetCategoryDao budgetCategoryDao, CategoryDao categoryDao) {
+    public BudgetServiceImpl(BudgetDao budgetDao, BudgetCategoryDao budgetCategoryDao, CategoryCache categoryCache,
+                             SessionManager sessionManager) {
         this.budgetDao = budgetDao;
         this.budgetCategoryDao = budgetCategoryDao;
-        this.categoryDao = categoryDao;
+        this.categoryCache = categoryCache;
+        this.sessionManager = sessionManager;
     }
 
     @Override
@@ -78,6 +84,7 @@ public class BudgetServiceImpl implements BudgetService {
                 throw new ServiceException("创建预算失败");
             }
 
+            sessionManager.budgetCreated(userId, budget.getBudgetId());
             return budget;
         } catch (SQLException e) {
             throw new ServiceException("创建预算过程中发生数据库错误", e);
@@ -100,6 +107,11 @@ public class BudgetServiceImpl implements BudgetService {
     @Override
     public Budget updateBudget(Budget budget) throws ServiceException {
         try {
+            // 所有权先查会话中的预算集合，未命中时再查询数据库
+            if (!sessionManager.isBudgetOwner(budget.getUserId(), budget.getBudgetId())) {
+                throw AccessDeniedException.budgetOwnership(budget.getUserId(), budget.getBudgetId());
+            }
+
             // 检查预算是否存在
             Budget existingBudget = budgetDao.findById(budget.getBudgetId());
             if (existingBudget == null) {
@@ -137,8 +149,13 @@ public class BudgetServiceImpl implements BudgetService {
     }
 
     @Override
-    public boolean deleteBudget(int budgetId) throws ServiceException {
+    public boolean deleteBudget(int userId, int budgetId) throws ServiceException {
         try {
+            // 所有权先查会话中的预算集合，未命中时再查询数据库
+            if (!sessionManager.isBudgetOwner(userId, budgetId)) {
+                throw AccessDeniedException.budgetOwnership(userId, budgetId);
+            }
+
             // 检查预算是否存在
             Budget budget = budgetDao.findById(budgetId);
             if (budget == null) {
@@ -157,6 +174,9 @@ public class BudgetServiceImpl implements BudgetService {
                 boolean deleted = budgetDao.delete(budgetId);
 
                 budgetDao.commitTransaction(conn);
+                if (deleted) {
+                    sessionManager.budgetRemoved(budget.getUserId(), budgetId);
+                }
                 return deleted;
             } catch (SQLException e) {
                 if (conn != null) {
@@ -209,7 +229,7 @@ public class BudgetServiceImpl implements BudgetService {
             }
 
             // 检查分类是否存在
-            Category category = categoryDao.findById(categoryId);
+            Category category = categoryCache.findById(categoryId);
             if (category == null) {
                 throw new ServiceException("分类不存在: " + categoryId);
             }
@@ -436,6 +456,7 @@ public class BudgetServiceImpl implements BudgetService {
                 throw new ServiceException("获取新预算信息失败");
             }
 
+            sessionManager.budgetCreated(newBudget.getUserId(), newBudgetId);
             return newBudget;
         } catch (SQLException e) {
             throw new ServiceException("复制预算过程中发生数据库错误", e);
@@ -476,7 +497,7 @@ public class BudgetServiceImpl implements BudgetService {
 
             // 获取所有分类ID
             List<Integer> categoryIds = new ArrayList<>(categoryAllocations.keySet());
-            List<Category> categories = categoryDao.findByIds(categoryIds);
+            List<Category> categories = categoryCache.findByIds(categoryIds);
 
             // 检查所有分类是否都是支出类型
             for (Category category : categories) {
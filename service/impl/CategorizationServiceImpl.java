@@ -0,0 +1,324 @@
+package com.PFM.CD.service.impl;
+
+import com.PFM.CD.dao.interfaces.AccountDao;
+import com.PFM.CD.dao.interfaces.CategorizationRuleDao;
+import com.PFM.CD.entity.Account;
+import com.PFM.CD.entity.CategorizationRule;
+import com.PFM.CD.entity.Category;
+import com.PFM.CD.entity.enums.CategoryType;
+import com.PFM.CD.entity.enums.TransactionType;
+import com.PFM.CD.service.cache.CategoryCache;
+import com.PFM.CD.service.categorization.CategorizationEngine;
+import com.PFM.CD.service.exception.AccessDeniedException;
+import com.PFM.CD.service.exception.ServiceException;
+import com.PFM.CD.service.interfaces.CategorizationService;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 自动分类服务实现类
+ * 规则修改后使自动分类引擎中的已编译规则集失效，全局规则修改影响所有用户，
+ * 因此全局规则只能由配置的管理员通过单独的接口维护，普通接口只能操作用户自己的规则
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CategorizationServiceImpl implements CategorizationService {
+
+    // 关键词的最大长度，与数据库列定义一致
+    private static final int MAX_PATTERN_LENGTH = 100;
+
+    private final CategorizationRuleDao ruleDao;
+    private final AccountDao accountDao;
+    private final CategoryCache categoryCache;
+    private final CategorizationEngine categorizationEngine;
+    private final Set<Integer> globalRuleAdmins;
+
+    /**
+     * 构造函数，不允许任何用户维护全局规则
+     *
+     * @param ruleDao 分类规则DAO接口
+     * @param accountDao 账户DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param categorizationEngine 自动分类引擎
+     */
+    public CategorizationServiceImpl(CategorizationRuleDao ruleDao, AccountDao accountDao,
+                                     CategoryCache categoryCache, CategorizationEngine categorizationEngine) {
+        this(ruleDao, accountDao, categoryCache, categorizationEngine, Collections.<Integer>emptySet());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param ruleDao 分类规则DAO接口
+     * @param accountDao 账户DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param categorizationEngine 自动分类引擎
+     * @param globalRuleAdmins 可以维护全局规则的用户ID
+     */
+    public CategorizationServiceImpl(CategorizationRuleDao ruleDao, AccountDao accountDao,
+                                     CategoryCache categoryCache, CategorizationEngine categorizationEngine,
+                                     Set<Integer> globalRuleAdmins) {
+        this.ruleDao = ruleDao;
+        this.accountDao = accountDao;
+        this.categoryCache = categoryCache;
+        this.categorizationEngine = categorizationEngine;
+        this.globalRuleAdmins = Collections.unmodifiableSet(globalRuleAdmins);
+    }
+
+    @Override
+    public CategorizationRule addRule(CategorizationRule rule) throws ServiceException {
+        if (rule.getUserId() == null) {
+            throw new ServiceException("用户ID不能为空，全局规则需要通过管理员接口添加");
+        }
+        return saveRule(rule);
+    }
+
+    @Override
+    public CategorizationRule addGlobalRule(int adminUserId, CategorizationRule rule) throws ServiceException {
+        checkGlobalRuleAdmin(adminUserId, null);
+        rule.setUserId(null);
+        return saveRule(rule);
+    }
+
+    /**
+     * 校验并保存新规则
+     */
+    private CategorizationRule saveRule(CategorizationRule rule) throws ServiceException {
+        try {
+            validateRule(rule);
+
+            boolean success = ruleDao.save(rule);
+            if (!success) {
+                throw new ServiceException("添加分类规则失败");
+            }
+
+            invalidate(rule);
+            return rule;
+        } catch (SQLException e) {
+            throw new ServiceException("添加分类规则过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public CategorizationRule updateRule(int userId, CategorizationRule rule) throws ServiceException {
+        try {
+            CategorizationRule existing = ruleDao.findById(rule.getRuleId());
+            if (existing == null) {
+                throw new ServiceException("分类规则不存在: " + rule.getRuleId());
+            }
+            // 全局规则的userId为null，只能通过updateGlobalRule修改
+            if (existing.isGlobal() || existing.getUserId() != userId) {
+                throw AccessDeniedException.ruleOwnership(userId, rule.getRuleId());
+            }
+            return replaceRule(existing, rule);
+        } catch (SQLException e) {
+            throw new ServiceException("更新分类规则过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public CategorizationRule updateGlobalRule(int adminUserId, CategorizationRule rule) throws ServiceException {
+        checkGlobalRuleAdmin(adminUserId, rule.getRuleId());
+        try {
+            CategorizationRule existing = ruleDao.findById(rule.getRuleId());
+            if (existing == null) {
+                throw new ServiceException("分类规则不存在: " + rule.getRuleId());
+            }
+            if (!existing.isGlobal()) {
+                throw new ServiceException("分类规则不是全局规则: " + rule.getRuleId());
+            }
+            return replaceRule(existing, rule);
+        } catch (SQLException e) {
+            throw new ServiceException("更新分类规则过程中发生数据库错误", e);
+        }
+    }
+
+    /**
+     * 用新内容替换已有规则，规则的归属不能修改
+     */
+    private CategorizationRule replaceRule(CategorizationRule existing, CategorizationRule rule)
+            throws ServiceException {
+        try {
+            rule.setUserId(existing.getUserId());
+            validateRule(rule);
+
+            boolean success = ruleDao.update(rule);
+            if (!success) {
+                throw new ServiceException("更新分类规则失败");
+            }
+
+            invalidate(rule);
+            return rule;
+        } catch (SQLException e) {
+            throw new ServiceException("更新分类规则过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public boolean deleteRule(int userId, int ruleId) throws ServiceException {
+        try {
+            CategorizationRule rule = ruleDao.findById(ruleId);
+            if (rule == null) {
+                throw new ServiceException("分类规则不存在: " + ruleId);
+            }
+            if (rule.isGlobal() || rule.getUserId() != userId) {
+                throw AccessDeniedException.ruleOwnership(userId, ruleId);
+            }
+            return removeRule(rule);
+        } catch (SQLException e) {
+            throw new ServiceException("删除分类规则过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public boolean deleteGlobalRule(int adminUserId, int ruleId) throws ServiceException {
+        checkGlobalRuleAdmin(adminUserId, ruleId);
+        try {
+            CategorizationRule rule = ruleDao.findById(ruleId);
+            if (rule == null) {
+                throw new ServiceException("分类规则不存在: " + ruleId);
+            }
+            if (!rule.isGlobal()) {
+                throw new ServiceException("分类规则不是全局规则: " + ruleId);
+            }
+            return removeRule(rule);
+        } catch (SQLException e) {
+            throw new ServiceException("删除分类规则过程中发生数据库错误", e);
+        }
+    }
+
+    /**
+     * 删除规则并使受影响的规则集失效
+     */
+    private boolean removeRule(CategorizationRule rule) throws ServiceException {
+        int ruleId = rule.getRuleId();
+        try {
+            boolean success = ruleDao.delete(ruleId);
+            if (success) {
+                invalidate(rule);
+            }
+            return success;
+        } catch (SQLException e) {
+            throw new ServiceException("删除分类规则过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public List<CategorizationRule> getRules(int userId) throws ServiceException {
+        try {
+            return ruleDao.findByUserId(userId);
+        } catch (SQLException e) {
+            throw new ServiceException("获取分类规则过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public List<CategorizationRule> getGlobalRules() throws ServiceException {
+        try {
+            return ruleDao.findGlobal();
+        } catch (SQLException e) {
+            throw new ServiceException("获取全局分类规则过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public Category suggestCategory(int userId, TransactionType type, Integer accountId, BigDecimal amount,
+                                    String description) throws ServiceException {
+        if (type == null || amount == null) {
+            throw new ServiceException("交易类型和金额不能为空");
+        }
+
+        try {
+            Integer categoryId = categorizationEngine.categorize(userId, type, accountId, amount, description);
+            if (categoryId == null) {
+                return null;
+            }
+
+            // 规则指向的分类可能已被删除
+            Category category = categoryCache.findById(categoryId);
+            if (category == null || category.getCategoryType() != type.toCategoryType()) {
+                return null;
+            }
+            return category;
+        } catch (SQLException e) {
+            throw new ServiceException("推荐分类过程中发生数据库错误", e);
+        }
+    }
+
+    /**
+     * 校验规则，交易类型为空时取目标分类的类型
+     */
+    private void validateRule(CategorizationRule rule) throws ServiceException, SQLException {
+        if (rule.getMatchType() == null) {
+            throw new ServiceException("匹配方式不能为空");
+        }
+
+        String pattern = rule.getPattern() == null ? null : rule.getPattern().trim();
+        if (rule.getMatchType().requiresPattern()) {
+            if (pattern == null || pattern.isEmpty()) {
+                throw new ServiceException(rule.getMatchType().getDisplayName() + "规则的关键词不能为空");
+            }
+            if (pattern.length() > MAX_PATTERN_LENGTH) {
+                throw new ServiceException("关键词不能超过" + MAX_PATTERN_LENGTH + "个字符");
+            }
+            rule.setPattern(pattern);
+        } else {
+            rule.setPattern(null);
+        }
+
+        BigDecimal min = rule.getMinAmount();
+        BigDecimal max = rule.getMaxAmount();
+        if ((min != null && min.signum() < 0) || (max != null && max.signum() < 0)) {
+            throw new ServiceException("金额范围不能为负数");
+        }
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            throw new ServiceException("最小金额不能大于最大金额");
+        }
+
+        Category category = categoryCache.findById(rule.getCategoryId());
+        if (category == null) {
+            throw new ServiceException("分类不存在: " + rule.getCategoryId());
+        }
+        if (rule.getTransactionType() == null) {
+            rule.setTransactionType(category.getCategoryType() == CategoryType.INCOME
+                    ? TransactionType.INCOME : TransactionType.EXPENSE);
+        } else if (rule.getTransactionType().toCategoryType() != category.getCategoryType()) {
+            throw new ServiceException("分类类型与交易类型不符");
+        }
+
+        if (rule.getAccountId() != null) {
+            if (rule.isGlobal()) {
+                throw new ServiceException("全局规则不能限定账户");
+            }
+            Account account = accountDao.findById(rule.getAccountId());
+            if (account == null || account.getUserId() != rule.getUserId()) {
+                throw AccessDeniedException.accountOwnership(rule.getUserId(), rule.getAccountId());
+            }
+        }
+    }
+
+    /**
+     * 检查用户是否可以维护全局规则
+     */
+    private void checkGlobalRuleAdmin(int userId, Integer ruleId) throws AccessDeniedException {
+        if (!globalRuleAdmins.contains(userId)) {
+            throw AccessDeniedException.globalRuleManagement(userId, ruleId);
+        }
+    }
+
+    /**
+     * 使受影响的已编译规则集失效
+     */
+    private void invalidate(CategorizationRule rule) {
+        if (rule.isGlobal()) {
+            categorizationEngine.invalidateAll();
+        } else {
+            categorizationEngine.invalidate(rule.getUserId());
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.PFM.CD.service.impl;
 import com.PFM.CD.dao.interfaces.CategoryDao;
 import com.PFM.CD.entity.Category;
 import com.PFM.CD.entity.enums.CategoryType;
+import com.PFM.CD.service.cache.CategoryCache;
+import com.PFM.CD.service.cache.CategoryUsageCounter;
 import com.PFM.CD.service.exception.ServiceException;
 import com.PFM.CD.service.interfaces.CategoryService;
 
@@ -10,7 +12,9 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 分类服务实现类
@@ -21,28 +25,53 @@ import java.util.List;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryDao categoryDao;
+    private final CategoryCache categoryCache;
+    private final CategoryUsageCounter categoryUsageCounter;
 
     /**
      * 构造函数
      *
      * @param categoryDao 分类DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param categoryUsageCounter 分类使用次数计数器
      */
-    public CategoryServiceImpl(CategoryDao categoryDao) {
+    public CategoryServiceImpl(CategoryDao categoryDao, CategoryCache categoryCache,
+                               CategoryUsageCounter categoryUsageCounter) {
         this.categoryDao = categoryDao;
+        this.categoryCache = categoryCache;
+        this.categoryUsageCounter = categoryUsageCounter;
     }
 
     @Override
     public Category createCategory(String categoryName, CategoryType categoryType) throws ServiceException {
+        return createCategory(categoryName, categoryType, null);
+    }
+
+    @Override
+    public Category createCategory(String categoryName, CategoryType categoryType, Integer parentId)
+            throws ServiceException {
         try {
             // 检查分类名称是否已存在
-            if (categoryDao.isCategoryExists(categoryName, categoryType)) {
+            if (categoryCache.exists(categoryName, categoryType)) {
                 throw new ServiceException("分类名称已存在: " + categoryName);
             }
 
+            // 检查父分类
+            if (parentId != null) {
+                Category parent = categoryCache.findById(parentId);
+                if (parent == null) {
+                    throw new ServiceException("父分类不存在: " + parentId);
+                }
+                if (parent.getCategoryType() != categoryType) {
+                    throw new ServiceException("子分类类型必须与父分类一致");
+                }
+            }
+
             // 创建新分类对象
             Category category = new Category();
             category.setCategoryName(categoryName);
             category.setCategoryType(categoryType);
+            category.setParentId(parentId);
 
             // 保存分类
             boolean success = categoryDao.save(category);
@@ -50,6 +79,7 @@ public class CategoryServiceImpl implements CategoryService {
                 throw new ServiceException("创建分类失败");
             }
 
+            categoryCache.reload();
             return category;
         } catch (SQLException e) {
             throw new ServiceException("创建分类过程中发生数据库错误", e);
@@ -59,11 +89,11 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public Category getCategoryById(int categoryId) throws ServiceException {
         try {
-            Category category = categoryDao.findById(categoryId);
+            Category category = categoryCache.findById(categoryId);
             if (category == null) {
                 throw new ServiceException("分类不存在: " + categoryId);
             }
-            return category;
+            return copyOf(category);
         } catch (SQLException e) {
             throw new ServiceException("获取分类信息过程中发生数据库错误", e);
         }
@@ -73,25 +103,34 @@ public class CategoryServiceImpl implements CategoryService {
     public Category updateCategory(Category category) throws ServiceException {
         try {
             // 检查分类是否存在
-            Category existingCategory = categoryDao.findById(category.getCategoryId());
+            Category existingCategory = categoryCache.findById(category.getCategoryId());
             if (existingCategory == null) {
                 throw new ServiceException("分类不存在: " + category.getCategoryId());
             }
 
             // 检查分类名称是否已被其他分类使用
-            Category categoryWithSameName = categoryDao.findByNameAndType(
+            Category categoryWithSameName = categoryCache.findByNameAndType(
                     category.getCategoryName(), category.getCategoryType());
             if (categoryWithSameName != null &&
                     categoryWithSameName.getCategoryId() != category.getCategoryId()) {
                 throw new ServiceException("分类名称已存在: " + category.getCategoryName());
             }
 
+            // 层级中的分类类型必须一致，修改父分类请使用moveCategory
+            if (existingCategory.getCategoryType() != category.getCategoryType()
+                    && (!existingCategory.isTopLevel()
+                    || !categoryCache.findChildren(existingCategory.getCategoryId()).isEmpty())) {
+                throw new ServiceException("已加入层级的分类不能修改类型");
+            }
+            category.setParentId(existingCategory.getParentId());
+
             // 更新分类信息
             boolean success = categoryDao.update(category);
             if (!success) {
                 throw new ServiceException("更新分类信息失败");
             }
 
+            categoryCache.reload();
             return category;
         } catch (SQLException e) {
             throw new ServiceException("更新分类信息过程中发生数据库错误", e);
@@ -102,22 +141,80 @@ public class CategoryServiceImpl implements CategoryService {
     public boolean deleteCategory(int categoryId) throws ServiceException {
         try {
             // 检查分类是否存在
-            Category category = categoryDao.findById(categoryId);
+            Category category = categoryCache.findById(categoryId);
             if (category == null) {
                 throw new ServiceException("分类不存在: " + categoryId);
             }
 
             // 删除分类
-            return categoryDao.delete(categoryId);
+            boolean deleted = categoryDao.delete(categoryId);
+            if (deleted) {
+                categoryCache.reload();
+            }
+            return deleted;
         } catch (SQLException e) {
             throw new ServiceException("删除分类过程中发生数据库错误", e);
         }
     }
 
+    @Override
+    public Category moveCategory(int categoryId, Integer newParentId) throws ServiceException {
+        try {
+            Category category = categoryCache.findById(categoryId);
+            if (category == null) {
+                throw new ServiceException("分类不存在: " + categoryId);
+            }
+
+            if (newParentId != null) {
+                Category parent = categoryCache.findById(newParentId);
+                if (parent == null) {
+                    throw new ServiceException("父分类不存在: " + newParentId);
+                }
+                if (parent.getCategoryType() != category.getCategoryType()) {
+                    throw new ServiceException("子分类类型必须与父分类一致");
+                }
+                // 不能移动到自身或自身的后代下，否则会形成环
+                if (categoryDao.isDescendant(categoryId, newParentId)) {
+                    throw new ServiceException("不能把分类移动到自身或其子分类下");
+                }
+            }
+
+            boolean success = categoryDao.moveCategory(categoryId, newParentId);
+            if (!success) {
+                throw new ServiceException("移动分类失败");
+            }
+
+            categoryCache.reload();
+            return copyOf(categoryCache.findById(categoryId));
+        } catch (SQLException e) {
+            throw new ServiceException("移动分类过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public List<Category> getChildCategories(Integer parentId) throws ServiceException {
+        try {
+            return copyOf(categoryCache.findChildren(parentId));
+        } catch (SQLException e) {
+            throw new ServiceException("获取子分类过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public int rebuildCategoryHierarchy() throws ServiceException {
+        try {
+            int paths = categoryDao.rebuildClosure();
+            categoryCache.reload();
+            return paths;
+        } catch (SQLException e) {
+            throw new ServiceException("重建分类层级过程中发生数据库错误", e);
+        }
+    }
+
     @Override
     public List<Category> getAllCategories() throws ServiceException {
         try {
-            return categoryDao.findAll();
+            return copyOf(categoryCache.findAll());
         } catch (SQLException e) {
             throw new ServiceException("获取所有分类过程中发生数据库错误", e);
         }
@@ -126,7 +223,7 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public List<Category> getCategoriesByType(CategoryType type) throws ServiceException {
         try {
-            return categoryDao.findByType(type);
+            return copyOf(categoryCache.findByType(type));
         } catch (SQLException e) {
             throw new ServiceException("获取指定类型分类过程中发生数据库错误", e);
         }
@@ -135,16 +232,36 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public List<Category> getMostUsedCategories(int limit) throws ServiceException {
         try {
-            return categoryDao.findMostUsedCategories(limit);
+            return toCategories(categoryUsageCounter.topCategoryIds(limit));
         } catch (SQLException e) {
             throw new ServiceException("获取最常用分类过程中发生数据库错误", e);
         }
     }
 
+    @Override
+    public List<Category> getUserMostUsedCategories(int userId, CategoryType type, int limit)
+            throws ServiceException {
+        try {
+            List<Integer> categoryIds;
+            if (type == null) {
+                categoryIds = categoryUsageCounter.topCategoryIds(userId, limit);
+            } else {
+                Set<Integer> typeIds = new HashSet<>();
+                for (Category category : categoryCache.findByType(type)) {
+                    typeIds.add(category.getCategoryId());
+                }
+                categoryIds = categoryUsageCounter.topCategoryIds(userId, limit, typeIds::contains);
+            }
+            return toCategories(categoryIds);
+        } catch (SQLException e) {
+            throw new ServiceException("获取用户常用分类过程中发生数据库错误", e);
+        }
+    }
+
     @Override
     public boolean isCategoryNameAvailable(String categoryName, CategoryType categoryType) throws ServiceException {
         try {
-            return !categoryDao.isCategoryExists(categoryName, categoryType);
+            return !categoryCache.exists(categoryName, categoryType);
         } catch (SQLException e) {
             throw new ServiceException("检查分类名称可用性过程中发生数据库错误", e);
         }
@@ -190,6 +307,7 @@ public class CategoryServiceImpl implements CategoryService {
                 int count = categoryDao.batchSave(categoriesToSave);
 
                 categoryDao.commitTransaction(conn);
+                categoryCache.reload();
                 return count;
             } catch (SQLException e) {
                 if (conn != null) {
@@ -207,7 +325,8 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public Category findByNameAndType(String categoryName, CategoryType categoryType) throws ServiceException {
         try {
-            return categoryDao.findByNameAndType(categoryName, categoryType);
+            Category category = categoryCache.findByNameAndType(categoryName, categoryType);
+            return category != null ? copyOf(category) : null;
         } catch (SQLException e) {
             throw new ServiceException("查找分类过程中发生数据库错误", e);
         }
@@ -216,9 +335,42 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public List<Category> getCategoriesByIds(List<Integer> categoryIds) throws ServiceException {
         try {
-            return categoryDao.findByIds(categoryIds);
+            return copyOf(categoryCache.findByIds(categoryIds));
         } catch (SQLException e) {
             throw new ServiceException("获取多个分类过程中发生数据库错误", e);
         }
     }
+
+    /**
+     * 复制缓存中的分类对象，避免调用方修改共享快照
+     */
+    private Category copyOf(Category category) {
+        return new Category(category.getCategoryId(), category.getCategoryName(),
+                category.getCategoryType(), category.getParentId());
+    }
+
+    /**
+     * 按给定顺序把分类ID转换为分类对象，忽略已删除的分类
+     */
+    private List<Category> toCategories(List<Integer> categoryIds) throws SQLException {
+        List<Category> categories = new ArrayList<>(categoryIds.size());
+        for (Integer categoryId : categoryIds) {
+            Category category = categoryCache.findById(categoryId);
+            if (category != null) {
+                categories.add(copyOf(category));
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * 复制缓存中的分类列表
+     */
+    private List<Category> copyOf(List<Category> categories) {
+        List<Category> copies = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            copies.add(copyOf(category));
+        }
+        return copies;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,496 @@
+package com.PFM.CD.service.impl;
+
+import com.PFM.CD.dao.interfaces.ReportJobDao;
+import com.PFM.CD.entity.Report;
+import com.PFM.CD.entity.ReportJob;
+import com.PFM.CD.entity.enums.ReportJobPhase;
+import com.PFM.CD.entity.enums.ReportJobStatus;
+import com.PFM.CD.entity.enums.ReportType;
+import com.PFM.CD.service.exception.AccessDeniedException;
+import com.PFM.CD.service.exception.OperationCancelledException;
+import com.PFM.CD.service.exception.ServiceException;
+import com.PFM.CD.service.interfaces.ReportJobService;
+import com.PFM.CD.service.interfaces.ReportService;
+import com.PFM.CD.utils.format.JsonUtils;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 报表任务服务实现类
+ * 任务状态持久化到report_jobs表，由固定大小的工作线程池执行。
+ * 全局排队任务数有上限，每个用户同时执行的任务数和排队任务数也有上限，
+ * 超出并发上限的任务在用户自己的等待队列中按提交顺序等待，避免单个用户占满所有工作线程。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ReportJobServiceImpl implements ReportJobService {
+
+    /**
+     * 默认工作线程数
+     */
+    public static final int DEFAULT_THREADS = 2;
+
+    /**
+     * 默认全局未完成任务上限
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+
+    /**
+     * 默认每个用户同时执行的任务数
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_PER_USER = 1;
+
+    /**
+     * 默认每个用户未完成任务上限
+     */
+    public static final int DEFAULT_MAX_QUEUED_PER_USER = 10;
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 500;
+
+    private final ReportJobDao reportJobDao;
+    private final ReportService reportService;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final int maxConcurrentPerUser;
+    private final int maxQueuedPerUser;
+
+    private final Map<Integer, JobHandle> activeJobs = new ConcurrentHashMap<>();
+    private final Map<Integer, UserQueue> userQueues = new ConcurrentHashMap<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean stopped;
+
+    /**
+     * 使用默认配置创建服务
+     *
+     * @param reportJobDao 报表任务DAO
+     * @param reportService 报表服务
+     */
+    public ReportJobServiceImpl(ReportJobDao reportJobDao, ReportService reportService) {
+        this(reportJobDao, reportService, DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY,
+                DEFAULT_MAX_CONCURRENT_PER_USER, DEFAULT_MAX_QUEUED_PER_USER);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param reportJobDao 报表任务DAO
+     * @param reportService 报表服务
+     * @param threads 工作线程数
+     * @param queueCapacity 全局未完成任务上限
+     * @param maxConcurrentPerUser 每个用户同时执行的任务数
+     * @param maxQueuedPerUser 每个用户未完成任务上限
+     */
+    public ReportJobServiceImpl(ReportJobDao reportJobDao, ReportService reportService, int threads,
+                                int queueCapacity, int maxConcurrentPerUser, int maxQueuedPerUser) {
+        if (threads <= 0 || queueCapacity <= 0 || maxConcurrentPerUser <= 0 || maxQueuedPerUser <= 0) {
+            throw new IllegalArgumentException("线程数、队列容量和用户任务上限必须为正数");
+        }
+        this.reportJobDao = reportJobDao;
+        this.reportService = reportService;
+        this.queueCapacity = queueCapacity;
+        this.maxConcurrentPerUser = maxConcurrentPerUser;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+
+        // 提交前已按queueCapacity限制未完成任务总数，线程池队列无需再设上限
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "report-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public int submitReportJob(int userId, ReportType reportType, LocalDate startDate, LocalDate endDate,
+                               Map<String, String> parameters) throws ServiceException {
+        if (reportType == null || startDate == null || endDate == null) {
+            throw new ServiceException("报表类型和日期范围不能为空");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new ServiceException("结束日期不能早于开始日期");
+        }
+        if (!reportType.supportsCustomGeneration()) {
+            throw new ServiceException("不支持的报表类型: " + reportType);
+        }
+        if (stopped) {
+            throw new ServiceException("报表任务服务已关闭");
+        }
+
+        // 先占用用户和全局名额，再写入数据库，保证并发提交时也不会超过上限
+        UserQueue userQueue = userQueues.computeIfAbsent(userId, id -> new UserQueue());
+        synchronized (userQueue) {
+            if (userQueue.running + userQueue.pending.size() + userQueue.reserved >= maxQueuedPerUser) {
+                throw new ServiceException("未完成的报表任务过多，请等待已提交的任务完成");
+            }
+            userQueue.reserved++;
+        }
+        if (outstanding.incrementAndGet() > queueCapacity) {
+            outstanding.decrementAndGet();
+            synchronized (userQueue) {
+                userQueue.reserved--;
+            }
+            throw new ServiceException("报表任务队列已满，请稍后重试");
+        }
+
+        boolean enqueued = false;
+        try {
+            ReportJob job = new ReportJob(userId, reportType, startDate, endDate, JsonUtils.mapToJson(parameters));
+            if (!reportJobDao.save(job)) {
+                throw new ServiceException("保存报表任务失败");
+            }
+
+            enqueue(new JobHandle(job), userQueue, true);
+            enqueued = true;
+            return job.getJobId();
+        } catch (SQLException e) {
+            throw new ServiceException("提交报表任务过程中发生数据库错误", e);
+        } finally {
+            if (!enqueued) {
+                outstanding.decrementAndGet();
+                synchronized (userQueue) {
+                    userQueue.reserved--;
+                }
+            }
+        }
+    }
+
+    @Override
+    public ReportJob getJob(int userId, int jobId) throws ServiceException {
+        ReportJob job;
+        JobHandle handle = activeJobs.get(jobId);
+        if (handle != null) {
+            job = handle.snapshot();
+        } else {
+            try {
+                job = reportJobDao.findById(jobId);
+            } catch (SQLException e) {
+                throw new ServiceException("获取报表任务过程中发生数据库错误", e);
+            }
+        }
+
+        if (job != null && job.getUserId() != userId) {
+            throw AccessDeniedException.reportJobOwnership(userId, jobId);
+        }
+        return job;
+    }
+
+    @Override
+    public List<ReportJob> getUserJobs(int userId) throws ServiceException {
+        try {
+            List<ReportJob> jobs = reportJobDao.findByUserId(userId);
+            // 用内存中的最新状态替换数据库中可能稍旧的记录
+            for (int i = 0; i < jobs.size(); i++) {
+                JobHandle handle = activeJobs.get(jobs.get(i).getJobId());
+                if (handle != null) {
+                    jobs.set(i, handle.snapshot());
+                }
+            }
+            return jobs;
+        } catch (SQLException e) {
+            throw new ServiceException("获取报表任务列表过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public boolean cancelJob(int userId, int jobId) throws ServiceException {
+        JobHandle handle = activeJobs.get(jobId);
+        boolean marked = false;
+        if (handle != null) {
+            ReportJob job = handle.job;
+            // 与finish在同一把锁下判断：已确定最终状态的任务不能再取消，标记取消后最终状态一定是已取消
+            synchronized (job) {
+                if (job.getUserId() != userId) {
+                    throw AccessDeniedException.reportJobOwnership(userId, jobId);
+                }
+                if (!handle.done) {
+                    handle.cancelled = true;
+                    marked = true;
+                } else if (job.getStatus().isFinished()) {
+                    return false;
+                }
+            }
+        }
+
+        if (!marked) {
+            // 不在本进程中执行的任务（如服务启动前遗留或因关闭退回排队的任务），直接修改持久化状态
+            try {
+                ReportJob job = reportJobDao.findById(jobId);
+                if (job == null) {
+                    return false;
+                }
+                if (job.getUserId() != userId) {
+                    throw AccessDeniedException.reportJobOwnership(userId, jobId);
+                }
+                if (job.getStatus().isFinished()) {
+                    return false;
+                }
+                job.setStatus(ReportJobStatus.CANCELLED);
+                return reportJobDao.updateState(job);
+            } catch (SQLException e) {
+                throw new ServiceException("取消报表任务过程中发生数据库错误", e);
+            }
+        }
+
+        // 仍在用户等待队列中的任务直接取消，执行中的任务在进入下一阶段时中止
+        UserQueue userQueue = userQueues.get(handle.job.getUserId());
+        boolean removed;
+        synchronized (userQueue) {
+            removed = userQueue.pending.remove(handle);
+        }
+        if (removed) {
+            finish(handle, userQueue, ReportJobStatus.CANCELLED, null);
+        }
+        return true;
+    }
+
+    @Override
+    public Report getJobResult(int userId, int jobId) throws ServiceException {
+        ReportJob job = getJob(userId, jobId);
+        if (job == null) {
+            throw new ServiceException("报表任务不存在");
+        }
+        if (job.getStatus() != ReportJobStatus.SUCCEEDED) {
+            throw new ServiceException("报表任务尚未完成，当前状态: " + job.getStatus().getDisplayName());
+        }
+        return reportService.getReportById(job.getReportId());
+    }
+
+    @Override
+    public void start() {
+        try {
+            List<ReportJob> unfinished = reportJobDao.findByStatuses(
+                    Arrays.asList(ReportJobStatus.QUEUED, ReportJobStatus.RUNNING));
+            for (ReportJob job : unfinished) {
+                if (activeJobs.containsKey(job.getJobId())) {
+                    continue;
+                }
+                // 中断时执行到一半的任务从头重新生成，已保存的相同报表会被直接复用
+                job.setStatus(ReportJobStatus.QUEUED);
+                job.setPhase(ReportJobPhase.PENDING);
+                reportJobDao.updateState(job);
+
+                outstanding.incrementAndGet();
+                enqueue(new JobHandle(job), userQueues.computeIfAbsent(job.getUserId(), id -> new UserQueue()), false);
+            }
+        } catch (SQLException e) {
+            System.err.println("恢复未完成的报表任务失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        stopped = true;
+        executor.shutdown();
+    }
+
+    /**
+     * 获取未完成的任务数
+     */
+    public int getOutstandingCount() {
+        return outstanding.get();
+    }
+
+    /**
+     * 加入用户等待队列并尝试调度
+     *
+     * @param reserved 是否在提交时已占用了用户名额
+     */
+    private void enqueue(JobHandle handle, UserQueue userQueue, boolean reserved) {
+        activeJobs.put(handle.job.getJobId(), handle);
+        synchronized (userQueue) {
+            if (reserved) {
+                userQueue.reserved--;
+            }
+            userQueue.pending.addLast(handle);
+        }
+        dispatch(userQueue);
+    }
+
+    /**
+     * 在用户并发上限内把等待队列中的任务交给线程池
+     */
+    private void dispatch(UserQueue userQueue) {
+        synchronized (userQueue) {
+            while (!stopped && userQueue.running < maxConcurrentPerUser && !userQueue.pending.isEmpty()) {
+                JobHandle handle = userQueue.pending.pollFirst();
+                handle.started = true;
+                userQueue.running++;
+                executor.execute(() -> run(handle, userQueue));
+            }
+        }
+    }
+
+    /**
+     * 在工作线程中执行任务
+     */
+    private void run(JobHandle handle, UserQueue userQueue) {
+        ReportJob job = handle.job;
+        if (handle.cancelled) {
+            finish(handle, userQueue, ReportJobStatus.CANCELLED, null);
+            return;
+        }
+
+        synchronized (job) {
+            job.setStatus(ReportJobStatus.RUNNING);
+        }
+        persist(job);
+
+        ReportJobStatus status;
+        String errorMessage = null;
+        try {
+            Report report = reportService.generateCustomReport(job.getUserId(), job.getReportType(),
+                    job.getStartDate(), job.getEndDate(), JsonUtils.jsonToMap(job.getParameters()), phase -> {
+                        if (handle.cancelled || stopped) {
+                            throw new OperationCancelledException("报表任务已取消");
+                        }
+                        synchronized (job) {
+                            job.setPhase(phase);
+                        }
+                        persist(job);
+                    });
+            synchronized (job) {
+                job.setReportId(report.getReportId());
+                job.setPhase(ReportJobPhase.DONE);
+            }
+            status = ReportJobStatus.SUCCEEDED;
+        } catch (OperationCancelledException e) {
+            boolean requeue;
+            synchronized (job) {
+                requeue = !handle.cancelled;
+                if (requeue) {
+                    // 服务关闭导致中止，保持排队状态以便下次启动时恢复
+                    handle.done = true;
+                    job.setStatus(ReportJobStatus.QUEUED);
+                    job.setPhase(ReportJobPhase.PENDING);
+                }
+            }
+            if (requeue) {
+                persist(job);
+                release(handle, userQueue);
+                return;
+            }
+            status = ReportJobStatus.CANCELLED;
+        } catch (ServiceException | RuntimeException e) {
+            status = ReportJobStatus.FAILED;
+            errorMessage = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+
+        finish(handle, userQueue, status, errorMessage);
+    }
+
+    /**
+     * 记录任务结束状态并调度该用户的下一个任务
+     * 最终状态与取消标记在同一把锁下确定：已标记取消的任务一律以已取消结束
+     */
+    private void finish(JobHandle handle, UserQueue userQueue, ReportJobStatus status, String errorMessage) {
+        ReportJob job = handle.job;
+        synchronized (job) {
+            handle.done = true;
+            if (handle.cancelled && status != ReportJobStatus.CANCELLED) {
+                status = ReportJobStatus.CANCELLED;
+                errorMessage = null;
+            }
+            job.setStatus(status);
+            if (errorMessage != null && errorMessage.length() > MAX_ERROR_MESSAGE_LENGTH) {
+                errorMessage = errorMessage.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+            }
+            job.setErrorMessage(errorMessage);
+        }
+        persist(job);
+        release(handle, userQueue);
+    }
+
+    /**
+     * 释放任务占用的名额
+     */
+    private void release(JobHandle handle, UserQueue userQueue) {
+        activeJobs.remove(handle.job.getJobId());
+        outstanding.decrementAndGet();
+        boolean wasRunning;
+        synchronized (userQueue) {
+            wasRunning = handle.started;
+            if (wasRunning) {
+                userQueue.running--;
+            }
+        }
+        if (wasRunning) {
+            dispatch(userQueue);
+        }
+    }
+
+    /**
+     * 持久化任务状态，失败时只记录日志，内存中的状态仍然有效
+     */
+    private void persist(ReportJob job) {
+        try {
+            ReportJob copy;
+            synchronized (job) {
+                copy = copyOf(job);
+            }
+            reportJobDao.updateState(copy);
+        } catch (SQLException e) {
+            System.err.println("保存报表任务状态失败: jobId=" + job.getJobId() + ", " + e.getMessage());
+        }
+    }
+
+    /**
+     * 复制任务对象
+     */
+    private static ReportJob copyOf(ReportJob job) {
+        ReportJob copy = new ReportJob(job.getUserId(), job.getReportType(), job.getStartDate(),
+                job.getEndDate(), job.getParameters());
+        copy.setJobId(job.getJobId());
+        copy.setStatus(job.getStatus());
+        copy.setPhase(job.getPhase());
+        copy.setReportId(job.getReportId());
+        copy.setErrorMessage(job.getErrorMessage());
+        copy.setCreatedAt(job.getCreatedAt());
+        copy.setUpdatedAt(job.getUpdatedAt());
+        return copy;
+    }
+
+    /**
+     * 内存中的任务句柄
+     */
+    private static final class JobHandle {
+
+        private final ReportJob job;
+        private volatile boolean cancelled;
+        private boolean done;       // 已确定最终状态或已退回排队，由job的锁保护
+        private boolean started;    // 由所属UserQueue的锁保护
+
+        private JobHandle(ReportJob job) {
+            this.job = job;
+        }
+
+        private ReportJob snapshot() {
+            synchronized (job) {
+                return copyOf(job);
+            }
+        }
+    }
+
+    /**
+     * 单个用户的执行计数、等待队列和提交中占用的名额，均由该对象的锁保护
+     */
+    private static final class UserQueue {
+
+        private final Deque<JobHandle> pending = new ArrayDeque<>();
+        private int running;
+        private int reserved;
+    }
+}
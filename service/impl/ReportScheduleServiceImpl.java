@@ -0,0 +1,507 @@
+package com.PFM.CD.service.impl;
+
+import com.PFM.CD.dao.interfaces.ReportScheduleDao;
+import com.PFM.CD.entity.Report;
+import com.PFM.CD.entity.ReportJob;
+import com.PFM.CD.entity.ReportSchedule;
+import com.PFM.CD.entity.enums.ReportJobStatus;
+import com.PFM.CD.entity.enums.ReportPeriod;
+import com.PFM.CD.entity.enums.ReportType;
+import com.PFM.CD.service.exception.ResourceNotFoundException;
+import com.PFM.CD.service.exception.ServiceException;
+import com.PFM.CD.service.exception.ValidationException;
+import com.PFM.CD.service.interfaces.ReportJobService;
+import com.PFM.CD.service.interfaces.ReportScheduleService;
+import com.PFM.CD.service.interfaces.ReportService;
+import com.PFM.CD.utils.date.CronExpression;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时报表服务实现类
+ * 后台线程定期检查到期的定时报表，只在闲时窗口内通过ReportJobService提交报表任务：
+ * <ul>
+ *     <li>窗口外到期的计划顺延到下一个窗口开始时运行</li>
+ *     <li>每个计划的运行时间加上按ID固定的随机偏移，避免大量计划在同一分钟同时提交</li>
+ *     <li>定时任务的全局并发数和每个用户的并发数都有上限，超出的计划保持到期状态，下一轮再提交</li>
+ * </ul>
+ * 任务完成后记录生成的报表ID，用户打开定时报表时直接读取已生成的报表。
+ * 应用停机期间错过的多次运行只补跑一次。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ReportScheduleServiceImpl implements ReportScheduleService {
+
+    /**
+     * 默认检查间隔（秒）
+     */
+    public static final int DEFAULT_POLL_INTERVAL_SECONDS = 60;
+
+    /**
+     * 默认闲时窗口开始时间
+     */
+    public static final String DEFAULT_WINDOW_START = "01:00";
+
+    /**
+     * 默认闲时窗口结束时间
+     */
+    public static final String DEFAULT_WINDOW_END = "06:00";
+
+    /**
+     * 默认最大随机偏移（分钟）
+     */
+    public static final int DEFAULT_JITTER_MINUTES = 30;
+
+    /**
+     * 默认同时执行的定时任务数
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    /**
+     * 默认每个用户同时执行的定时任务数
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_USER = 1;
+
+    // 每轮最多读取的到期计划数
+    private static final int DUE_BATCH_SIZE = 100;
+
+    private final ReportScheduleDao reportScheduleDao;
+    private final ReportJobService reportJobService;
+    private final ReportService reportService;
+    private final int pollIntervalSeconds;
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final int jitterMinutes;
+    private final int maxInFlight;
+    private final int maxInFlightPerUser;
+
+    // 已提交但尚未回写结果的定时任务：计划ID -> 任务，只在调度线程中修改
+    private final Map<Integer, InFlightRun> inFlight = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 使用默认配置创建服务
+     *
+     * @param reportScheduleDao 定时报表DAO
+     * @param reportJobService 报表任务服务
+     * @param reportService 报表服务
+     */
+    public ReportScheduleServiceImpl(ReportScheduleDao reportScheduleDao, ReportJobService reportJobService,
+                                     ReportService reportService) {
+        this(reportScheduleDao, reportJobService, reportService, DEFAULT_POLL_INTERVAL_SECONDS,
+                LocalTime.parse(DEFAULT_WINDOW_START), LocalTime.parse(DEFAULT_WINDOW_END),
+                DEFAULT_JITTER_MINUTES, DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_IN_FLIGHT_PER_USER);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param reportScheduleDao 定时报表DAO
+     * @param reportJobService 报表任务服务
+     * @param reportService 报表服务
+     * @param pollIntervalSeconds 检查间隔（秒）
+     * @param windowStart 闲时窗口开始时间
+     * @param windowEnd 闲时窗口结束时间，早于开始时间表示跨越午夜；与开始时间相同表示全天
+     * @param jitterMinutes 最大随机偏移（分钟），0表示不偏移
+     * @param maxInFlight 同时执行的定时任务数
+     * @param maxInFlightPerUser 每个用户同时执行的定时任务数
+     */
+    public ReportScheduleServiceImpl(ReportScheduleDao reportScheduleDao, ReportJobService reportJobService,
+                                     ReportService reportService, int pollIntervalSeconds,
+                                     LocalTime windowStart, LocalTime windowEnd, int jitterMinutes,
+                                     int maxInFlight, int maxInFlightPerUser) {
+        if (pollIntervalSeconds <= 0 || maxInFlight <= 0 || maxInFlightPerUser <= 0 || jitterMinutes < 0) {
+            throw new IllegalArgumentException("检查间隔和并发上限必须为正数，随机偏移不能为负数");
+        }
+        this.reportScheduleDao = reportScheduleDao;
+        this.reportJobService = reportJobService;
+        this.reportService = reportService;
+        this.pollIntervalSeconds = pollIntervalSeconds;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.jitterMinutes = jitterMinutes;
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightPerUser = maxInFlightPerUser;
+    }
+
+    @Override
+    public ReportSchedule createSchedule(int userId, String name, ReportType reportType, ReportPeriod period,
+                                         String cronExpression) throws ServiceException {
+        ReportSchedule schedule = new ReportSchedule(userId, name, reportType, period, cronExpression);
+        CronExpression cron = validate(schedule);
+
+        try {
+            // 偏移量依赖计划ID，保存后再计算下次运行时间
+            if (!reportScheduleDao.save(schedule)) {
+                throw new ServiceException("保存定时报表失败");
+            }
+            schedule.setNextRunAt(computeNextRun(schedule.getScheduleId(), cron, LocalDateTime.now()));
+            reportScheduleDao.updateRunState(schedule);
+            return schedule;
+        } catch (SQLException e) {
+            throw new ServiceException("创建定时报表过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public ReportSchedule updateSchedule(ReportSchedule schedule) throws ServiceException {
+        CronExpression cron = validate(schedule);
+
+        try {
+            if (reportScheduleDao.findById(schedule.getScheduleId()) == null) {
+                throw new ResourceNotFoundException("定时报表", schedule.getScheduleId());
+            }
+            schedule.setNextRunAt(schedule.isEnabled()
+                    ? computeNextRun(schedule.getScheduleId(), cron, LocalDateTime.now()) : null);
+            if (!reportScheduleDao.update(schedule)) {
+                throw new ServiceException("更新定时报表失败");
+            }
+            return schedule;
+        } catch (SQLException e) {
+            throw new ServiceException("更新定时报表过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public boolean setScheduleEnabled(int scheduleId, boolean enabled) throws ServiceException {
+        try {
+            ReportSchedule schedule = reportScheduleDao.findById(scheduleId);
+            if (schedule == null) {
+                return false;
+            }
+            schedule.setEnabled(enabled);
+            // 重新启用时从当前时间开始计算，不补跑停用期间的运行
+            schedule.setNextRunAt(enabled
+                    ? computeNextRun(scheduleId, CronExpression.parse(schedule.getCronExpression()),
+                    LocalDateTime.now()) : null);
+            return reportScheduleDao.update(schedule);
+        } catch (SQLException e) {
+            throw new ServiceException("修改定时报表状态过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public boolean deleteSchedule(int scheduleId) throws ServiceException {
+        try {
+            return reportScheduleDao.delete(scheduleId);
+        } catch (SQLException e) {
+            throw new ServiceException("删除定时报表过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public ReportSchedule getSchedule(int scheduleId) throws ServiceException {
+        try {
+            return reportScheduleDao.findById(scheduleId);
+        } catch (SQLException e) {
+            throw new ServiceException("获取定时报表过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public List<ReportSchedule> getUserSchedules(int userId) throws ServiceException {
+        try {
+            return reportScheduleDao.findByUserId(userId);
+        } catch (SQLException e) {
+            throw new ServiceException("获取定时报表列表过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public Report getLatestReport(int scheduleId) throws ServiceException {
+        ReportSchedule schedule = getSchedule(scheduleId);
+        if (schedule == null) {
+            throw new ResourceNotFoundException("定时报表", scheduleId);
+        }
+        if (schedule.getLastReportId() == null) {
+            return null;
+        }
+        return reportService.getReportById(schedule.getLastReportId());
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+
+        // 恢复重启前已提交的任务，避免在其完成前重复提交，也保证结果能被记录
+        try {
+            for (ReportSchedule schedule : reportScheduleDao.findAwaitingResult()) {
+                inFlight.put(schedule.getScheduleId(),
+                        new InFlightRun(schedule.getScheduleId(), schedule.getUserId(), schedule.getLastJobId()));
+            }
+        } catch (SQLException e) {
+            System.err.println("恢复定时报表任务失败: " + e.getMessage());
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "report-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::tickQuietly, 0, pollIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 执行一轮调度：先回收已结束的任务，再在闲时窗口内提交到期的计划
+     */
+    void tick(LocalDateTime now) {
+        collectFinishedRuns();
+
+        if (!isInWindow(now.toLocalTime()) || inFlight.size() >= maxInFlight) {
+            return;
+        }
+
+        // 并发已满的用户在查询中排除，避免某个用户大量积压的计划占满每一批，使其他用户的计划一直读不到
+        while (inFlight.size() < maxInFlight) {
+            List<ReportSchedule> due;
+            try {
+                due = reportScheduleDao.findDue(now, usersAtCapacity(), DUE_BATCH_SIZE);
+            } catch (SQLException e) {
+                System.err.println("读取到期的定时报表失败: " + e.getMessage());
+                return;
+            }
+
+            int submitted = 0;
+            for (ReportSchedule schedule : due) {
+                if (inFlight.size() >= maxInFlight) {
+                    break;
+                }
+                // 上一次运行尚未结束或用户并发已满，保持到期状态等待下一轮
+                if (inFlight.containsKey(schedule.getScheduleId())
+                        || countInFlight(schedule.getUserId()) >= maxInFlightPerUser) {
+                    continue;
+                }
+                if (submit(schedule, now)) {
+                    submitted++;
+                }
+            }
+            // 没有更多到期计划，或本批没有可提交的计划（提交失败等），留到下一轮
+            if (due.size() < DUE_BATCH_SIZE || submitted == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 获取已提交但尚未回写结果的定时任务数
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private void tickQuietly() {
+        try {
+            tick(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            System.err.println("定时报表调度失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 提交一次定时报表任务并计算下次运行时间
+     *
+     * @return 是否已提交
+     */
+    private boolean submit(ReportSchedule schedule, LocalDateTime now) {
+        CronExpression cron;
+        try {
+            cron = CronExpression.parse(schedule.getCronExpression());
+        } catch (IllegalArgumentException e) {
+            System.err.println("定时报表表达式无效，已跳过: scheduleId=" + schedule.getScheduleId()
+                    + ", " + e.getMessage());
+            return false;
+        }
+
+        // 报表周期按计划运行日期计算，顺延到窗口内执行时也不会错位
+        LocalDate runDate = schedule.getNextRunAt().toLocalDate();
+        int jobId;
+        try {
+            jobId = reportJobService.submitReportJob(schedule.getUserId(), schedule.getReportType(),
+                    schedule.getPeriod().getStartDate(runDate), schedule.getPeriod().getEndDate(runDate),
+                    Collections.emptyMap());
+        } catch (ServiceException e) {
+            // 任务队列已满等情况，保持到期状态下一轮重试
+            System.err.println("提交定时报表任务失败: scheduleId=" + schedule.getScheduleId()
+                    + ", " + e.getMessage());
+            return false;
+        }
+
+        inFlight.put(schedule.getScheduleId(), new InFlightRun(schedule.getScheduleId(), schedule.getUserId(), jobId));
+
+        schedule.setLastRunAt(now);
+        schedule.setLastJobId(jobId);
+        schedule.setNextRunAt(computeNextRun(schedule.getScheduleId(), cron, now));
+        try {
+            reportScheduleDao.updateRunState(schedule);
+        } catch (SQLException e) {
+            System.err.println("保存定时报表运行状态失败: scheduleId=" + schedule.getScheduleId()
+                    + ", " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * 回收已结束的任务，成功时记录生成的报表ID
+     */
+    private void collectFinishedRuns() {
+        Iterator<InFlightRun> iterator = inFlight.values().iterator();
+        while (iterator.hasNext()) {
+            InFlightRun run = iterator.next();
+            try {
+                ReportJob job = reportJobService.getJob(run.userId, run.jobId);
+                if (job == null) {
+                    iterator.remove();
+                    continue;
+                }
+                if (!job.getStatus().isFinished()) {
+                    continue;
+                }
+                if (job.getStatus() == ReportJobStatus.SUCCEEDED && job.getReportId() != null) {
+                    reportScheduleDao.updateLastReportId(run.scheduleId, job.getReportId());
+                }
+                iterator.remove();
+            } catch (ServiceException | SQLException e) {
+                // 保留记录，下一轮重试
+                System.err.println("回写定时报表结果失败: scheduleId=" + run.scheduleId + ", " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return 同时执行的任务数已达上限的用户
+     */
+    private Set<Integer> usersAtCapacity() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (InFlightRun run : inFlight.values()) {
+            counts.merge(run.userId, 1, Integer::sum);
+        }
+        Set<Integer> users = new HashSet<>();
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() >= maxInFlightPerUser) {
+                users.add(entry.getKey());
+            }
+        }
+        return users;
+    }
+
+    private int countInFlight(int userId) {
+        int count = 0;
+        for (InFlightRun run : inFlight.values()) {
+            if (run.userId == userId) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 计算下次运行时间：cron触发时间顺延到闲时窗口内，再加上按计划ID固定的偏移
+     *
+     * @return 下次运行时间，表达式永远不会触发时返回null
+     */
+    LocalDateTime computeNextRun(int scheduleId, CronExpression cron, LocalDateTime after) {
+        LocalDateTime fire = cron.next(after);
+        if (fire == null) {
+            return null;
+        }
+
+        LocalDateTime start = alignToWindow(fire);
+        long jitterSeconds = jitterMinutes * 60L;
+        if (!windowStart.equals(windowEnd)) {
+            // 偏移不超过窗口剩余时间，保证顺延后的时间仍在窗口内
+            LocalDateTime end = start.toLocalDate().atTime(windowEnd);
+            if (!end.isAfter(start)) {
+                end = end.plusDays(1);
+            }
+            jitterSeconds = Math.min(jitterSeconds, Duration.between(start, end).getSeconds());
+        }
+        if (jitterSeconds <= 0) {
+            return start;
+        }
+
+        long hash = Long.rotateLeft(scheduleId * 0x9E3779B97F4A7C15L, 32);
+        return start.plusSeconds(Math.floorMod(hash, jitterSeconds));
+    }
+
+    /**
+     * 窗口外的时间顺延到下一个窗口的开始时间
+     */
+    private LocalDateTime alignToWindow(LocalDateTime time) {
+        if (isInWindow(time.toLocalTime())) {
+            return time;
+        }
+        LocalDateTime start = time.toLocalDate().atTime(windowStart);
+        return start.isBefore(time) ? start.plusDays(1) : start;
+    }
+
+    private boolean isInWindow(LocalTime time) {
+        if (windowStart.equals(windowEnd)) {
+            return true;
+        }
+        if (windowStart.isBefore(windowEnd)) {
+            return !time.isBefore(windowStart) && time.isBefore(windowEnd);
+        }
+        // 跨越午夜的窗口，如22:00-05:00
+        return !time.isBefore(windowStart) || time.isBefore(windowEnd);
+    }
+
+    private CronExpression validate(ReportSchedule schedule) throws ServiceException {
+        if (schedule.getName() == null || schedule.getName().trim().isEmpty()) {
+            throw new ValidationException("name", "名称不能为空");
+        }
+        if (schedule.getReportType() == null || schedule.getPeriod() == null) {
+            throw new ValidationException("reportType", "报表类型和周期不能为空");
+        }
+        if (!schedule.getReportType().supportsCustomGeneration()) {
+            throw new ValidationException("reportType",
+                    "不支持定时生成的报表类型: " + schedule.getReportType().getDisplayName());
+        }
+        try {
+            return CronExpression.parse(schedule.getCronExpression());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("cronExpression", e.getMessage());
+        }
+    }
+
+    /**
+     * 已提交的定时任务
+     */
+    private static final class InFlightRun {
+
+        private final int scheduleId;
+        private final int userId;
+        private final int jobId;
+
+        private InFlightRun(int scheduleId, int userId, int jobId) {
+            this.scheduleId = scheduleId;
+            this.userId = userId;
+            this.jobId = jobId;
+        }
+    }
+}
@@ -6,20 +6,47 @@ import com.PFM.CD.entity.Budget;
 import com.PFM.CD.entity.Report;
 import com.PFM.CD.entity.Transaction;
 import com.PFM.CD.entity.Category;
+import com.PFM.CD.entity.enums.ReportJobPhase;
 import com.PFM.CD.entity.enums.ReportType;
+import com.PFM.CD.service.cache.CategoryCache;
+import com.PFM.CD.service.constants.ServiceConstants;
+import com.PFM.CD.service.dto.PeriodComparison;
+import com.PFM.CD.service.exception.ExportException;
 import com.PFM.CD.service.exception.ServiceException;
 import com.PFM.CD.service.interfaces.ReportService;
+import com.PFM.CD.service.job.ReportProgress;
+import com.PFM.CD.service.job.ReportRetentionCompactor;
+import com.PFM.CD.utils.date.PeriodCalculator;
+import com.PFM.CD.utils.file.CompressingContentWriter;
+import com.PFM.CD.utils.file.CompressionUtils;
+import com.PFM.CD.utils.file.ParallelZipWriter;
+import com.PFM.CD.utils.format.JsonUtils;
 import com.PFM.CD.utils.report.ExcelExporter;
 import com.PFM.CD.utils.report.PdfExporter;
 import com.PFM.CD.utils.report.ReportGenerator;
+import com.PFM.CD.utils.security.EncryptionUtils;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
 
 /**
  * 报表服务实现类
@@ -29,21 +56,28 @@ import java.util.Map;
  */
 public class ReportServiceImpl implements ReportService {
 
+    /**
+     * 默认同时生成的打包报表数
+     */
+    public static final int DEFAULT_BUNDLE_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
     private final ReportDao reportDao;
     private final TransactionDao transactionDao;
-    private final CategoryDao categoryDao;
+    private final CategoryCache categoryCache;
     private final AccountDao accountDao;
     private final BudgetDao budgetDao;
     private final ReportGenerator reportGenerator;
     private final ExcelExporter excelExporter;
     private final PdfExporter pdfExporter;
+    private final int bundleThreads;
+    private final ExecutorService bundleExecutor;
 
     /**
      * 构造函数
      *
      * @param reportDao 报表DAO接口
      * @param transactionDao 交易DAO接口
-     * @param categoryDao 分类DAO接口
+     * @param categoryCache 分类目录缓存
      * @param accountDao 账户DAO接口
      * @param budgetDao 预算DAO接口
      * @param reportGenerator 报表生成器
@@ -51,23 +85,70 @@ public class ReportServiceImpl implements ReportService {
      * @param pdfExporter PDF导出器
      */
     public ReportServiceImpl(ReportDao reportDao, TransactionDao transactionDao,
-                             CategoryDao categoryDao, AccountDao accountDao,
+                             CategoryCache categoryCache, AccountDao accountDao,
                              BudgetDao budgetDao, ReportGenerator reportGenerator,
                              ExcelExporter excelExporter, PdfExporter pdfExporter) {
+        this(reportDao, transactionDao, categoryCache, accountDao, budgetDao, reportGenerator,
+                excelExporter, pdfExporter, DEFAULT_BUNDLE_THREADS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param reportDao 报表DAO接口
+     * @param transactionDao 交易DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param accountDao 账户DAO接口
+     * @param budgetDao 预算DAO接口
+     * @param reportGenerator 报表生成器
+     * @param excelExporter Excel导出器
+     * @param pdfExporter PDF导出器
+     * @param bundleThreads 打包导出时同时生成的报表数
+     */
+    public ReportServiceImpl(ReportDao reportDao, TransactionDao transactionDao,
+                             CategoryCache categoryCache, AccountDao accountDao,
+                             BudgetDao budgetDao, ReportGenerator reportGenerator,
+                             ExcelExporter excelExporter, PdfExporter pdfExporter, int bundleThreads) {
         this.reportDao = reportDao;
         this.transactionDao = transactionDao;
-        this.categoryDao = categoryDao;
+        this.categoryCache = categoryCache;
         this.accountDao = accountDao;
         this.budgetDao = budgetDao;
         this.reportGenerator = reportGenerator;
         this.excelExporter = excelExporter;
         this.pdfExporter = pdfExporter;
+        this.bundleThreads = Math.max(1, bundleThreads);
+
+        // 空闲线程超时退出，没有打包导出时不占用线程
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(this.bundleThreads, this.bundleThreads,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "report-bundle-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        this.bundleExecutor = executor;
     }
 
     @Override
     public Report generateIncomeExpenseReport(int userId, LocalDate startDate, LocalDate endDate,
                                               Map<String, String> parameters) throws ServiceException {
+        return generateIncomeExpenseReport(userId, startDate, endDate, parameters, ReportProgress.NONE);
+    }
+
+    private Report generateIncomeExpenseReport(int userId, LocalDate startDate, LocalDate endDate,
+                                               Map<String, String> parameters, ReportProgress progress)
+            throws ServiceException {
         try {
+            // 相同请求且报表生成时统计期间已结束，直接复用已保存的报表
+            String requestKey = buildRequestKey(userId, ReportType.INCOME_EXPENSE, startDate, endDate, parameters);
+            Report reusable = findReusableReport(userId, requestKey, endDate);
+            if (reusable != null) {
+                return reusable;
+            }
+
+            progress.enterPhase(ReportJobPhase.FETCH);
             // 获取指定日期范围内的交易
             List<Transaction> transactions = transactionDao.findByUserIdAndDateRange(userId, startDate, endDate);
 
@@ -79,6 +160,7 @@ public class ReportServiceImpl implements ReportService {
             Map<Integer, BigDecimal> incomeByCategory = transactionDao.calculateIncomeByCategory(userId, startDate, endDate);
             Map<Integer, BigDecimal> expenseByCategory = transactionDao.calculateExpenseByCategory(userId, startDate, endDate);
 
+            progress.enterPhase(ReportJobPhase.AGGREGATE);
             // 准备报表数据
             Map<String, Object> reportData = new HashMap<>();
             reportData.put("transactions", transactions);
@@ -89,9 +171,14 @@ public class ReportServiceImpl implements ReportService {
             reportData.put("startDate", startDate);
             reportData.put("endDate", endDate);
 
-            // 生成报表内容
-            String reportContent = reportGenerator.generateIncomeExpenseReport(reportData);
+            progress.enterPhase(ReportJobPhase.RENDER);
+            // 生成报表内容，边渲染边压缩，不在内存中拼出完整的报表文本
+            CompressingContentWriter content = new CompressingContentWriter();
+            try (Writer out = content) {
+                reportGenerator.generateIncomeExpenseReport(reportData, out);
+            }
 
+            progress.enterPhase(ReportJobPhase.STORE);
             // 创建报表记录
             Report report = new Report();
             report.setUserId(userId);
@@ -99,16 +186,18 @@ public class ReportServiceImpl implements ReportService {
             report.setStartDate(startDate);
             report.setEndDate(endDate);
             report.setGeneratedDate(LocalDate.now());
-            report.setParameters(mapToJson(parameters));
-            report.setContent(reportContent);
+            report.setParameters(JsonUtils.mapToJson(parameters));
+            report.setRequestKey(requestKey);
 
-            // 保存报表
-            boolean success = reportDao.save(report);
+            // 保存压缩后的报表内容和报表记录
+            boolean success = saveReport(report, content);
             if (!success) {
                 throw new ServiceException("保存报表失败");
             }
 
             return report;
+        } catch (ServiceException e) {
+            throw e;
         } catch (SQLException e) {
             throw new ServiceException("生成收支报表过程中发生数据库错误", e);
         } catch (Exception e) {
@@ -119,19 +208,39 @@ public class ReportServiceImpl implements ReportService {
     @Override
     public Report generateBudgetReport(int userId, LocalDate startDate, LocalDate endDate,
                                        Map<String, String> parameters) throws ServiceException {
+        return generateBudgetReport(userId, startDate, endDate, parameters, ReportProgress.NONE);
+    }
+
+    private Report generateBudgetReport(int userId, LocalDate startDate, LocalDate endDate,
+                                        Map<String, String> parameters, ReportProgress progress)
+            throws ServiceException {
         try {
+            // 相同请求且报表生成时统计期间已结束，直接复用已保存的报表
+            String requestKey = buildRequestKey(userId, ReportType.BUDGET_EVALUATION, startDate, endDate, parameters);
+            Report reusable = findReusableReport(userId, requestKey, endDate);
+            if (reusable != null) {
+                return reusable;
+            }
+
+            progress.enterPhase(ReportJobPhase.FETCH);
             // 获取指定日期范围内的预算
             List<Budget> budgets = budgetDao.findByUserIdAndDateRange(userId, startDate, endDate);
 
+            progress.enterPhase(ReportJobPhase.AGGREGATE);
             // 准备报表数据
             Map<String, Object> reportData = new HashMap<>();
             reportData.put("budgets", budgets);
             reportData.put("startDate", startDate);
             reportData.put("endDate", endDate);
 
-            // 生成报表内容
-            String reportContent = reportGenerator.generateBudgetReport(reportData);
+            progress.enterPhase(ReportJobPhase.RENDER);
+            // 生成报表内容，边渲染边压缩，不在内存中拼出完整的报表文本
+            CompressingContentWriter content = new CompressingContentWriter();
+            try (Writer out = content) {
+                reportGenerator.generateBudgetReport(reportData, out);
+            }
 
+            progress.enterPhase(ReportJobPhase.STORE);
             // 创建报表记录
             Report report = new Report();
             report.setUserId(userId);
@@ -139,16 +248,18 @@ public class ReportServiceImpl implements ReportService {
             report.setStartDate(startDate);
             report.setEndDate(endDate);
             report.setGeneratedDate(LocalDate.now());
-            report.setParameters(mapToJson(parameters));
-            report.setContent(reportContent);
+            report.setParameters(JsonUtils.mapToJson(parameters));
+            report.setRequestKey(requestKey);
 
-            // 保存报表
-            boolean success = reportDao.save(report);
+            // 保存压缩后的报表内容和报表记录
+            boolean success = saveReport(report, content);
             if (!success) {
                 throw new ServiceException("保存报表失败");
             }
 
             return report;
+        } catch (ServiceException e) {
+            throw e;
         } catch (SQLException e) {
             throw new ServiceException("生成预算报表过程中发生数据库错误", e);
         } catch (Exception e) {
@@ -159,14 +270,29 @@ public class ReportServiceImpl implements ReportService {
     @Override
     public Report generateCategoryReport(int userId, LocalDate startDate, LocalDate endDate,
                                          Map<String, String> parameters) throws ServiceException {
+        return generateCategoryReport(userId, startDate, endDate, parameters, ReportProgress.NONE);
+    }
+
+    private Report generateCategoryReport(int userId, LocalDate startDate, LocalDate endDate,
+                                          Map<String, String> parameters, ReportProgress progress)
+            throws ServiceException {
         try {
+            // 相同请求且报表生成时统计期间已结束，直接复用已保存的报表
+            String requestKey = buildRequestKey(userId, ReportType.CATEGORY, startDate, endDate, parameters);
+            Report reusable = findReusableReport(userId, requestKey, endDate);
+            if (reusable != null) {
+                return reusable;
+            }
+
+            progress.enterPhase(ReportJobPhase.FETCH);
             // 按分类统计收入和支出
             Map<Integer, BigDecimal> incomeByCategory = transactionDao.calculateIncomeByCategory(userId, startDate, endDate);
             Map<Integer, BigDecimal> expenseByCategory = transactionDao.calculateExpenseByCategory(userId, startDate, endDate);
 
             // 获取所有分类信息
-            List<Category> categories = categoryDao.findAll();
+            List<Category> categories = categoryCache.findAll();
 
+            progress.enterPhase(ReportJobPhase.AGGREGATE);
             // 准备报表数据
             Map<String, Object> reportData = new HashMap<>();
             reportData.put("incomeByCategory", incomeByCategory);
@@ -175,9 +301,14 @@ public class ReportServiceImpl implements ReportService {
             reportData.put("startDate", startDate);
             reportData.put("endDate", endDate);
 
-            // 生成报表内容
-            String reportContent = reportGenerator.generateCategoryReport(reportData);
+            progress.enterPhase(ReportJobPhase.RENDER);
+            // 生成报表内容，边渲染边压缩，不在内存中拼出完整的报表文本
+            CompressingContentWriter content = new CompressingContentWriter();
+            try (Writer out = content) {
+                reportGenerator.generateCategoryReport(reportData, out);
+            }
 
+            progress.enterPhase(ReportJobPhase.STORE);
             // 创建报表记录
             Report report = new Report();
             report.setUserId(userId);
@@ -185,16 +316,18 @@ public class ReportServiceImpl implements ReportService {
             report.setStartDate(startDate);
             report.setEndDate(endDate);
             report.setGeneratedDate(LocalDate.now());
-            report.setParameters(mapToJson(parameters));
-            report.setContent(reportContent);
+            report.setParameters(JsonUtils.mapToJson(parameters));
+            report.setRequestKey(requestKey);
 
-            // 保存报表
-            boolean success = reportDao.save(report);
+            // 保存压缩后的报表内容和报表记录
+            boolean success = saveReport(report, content);
             if (!success) {
                 throw new ServiceException("保存报表失败");
             }
 
             return report;
+        } catch (ServiceException e) {
+            throw e;
         } catch (SQLException e) {
             throw new ServiceException("生成分类报表过程中发生数据库错误", e);
         } catch (Exception e) {
@@ -205,13 +338,28 @@ public class ReportServiceImpl implements ReportService {
     @Override
     public Report generateAccountReport(int userId, LocalDate startDate, LocalDate endDate,
                                         Map<String, String> parameters) throws ServiceException {
+        return generateAccountReport(userId, startDate, endDate, parameters, ReportProgress.NONE);
+    }
+
+    private Report generateAccountReport(int userId, LocalDate startDate, LocalDate endDate,
+                                         Map<String, String> parameters, ReportProgress progress)
+            throws ServiceException {
         try {
+            // 相同请求且报表生成时统计期间已结束，直接复用已保存的报表
+            String requestKey = buildRequestKey(userId, ReportType.ACCOUNT, startDate, endDate, parameters);
+            Report reusable = findReusableReport(userId, requestKey, endDate);
+            if (reusable != null) {
+                return reusable;
+            }
+
+            progress.enterPhase(ReportJobPhase.FETCH);
             // 获取用户的所有账户
             List<Account> accounts = accountDao.findByUserId(userId);
 
             // 获取指定日期范围内的交易
             List<Transaction> transactions = transactionDao.findByUserIdAndDateRange(userId, startDate, endDate);
 
+            progress.enterPhase(ReportJobPhase.AGGREGATE);
             // 准备报表数据
             Map<String, Object> reportData = new HashMap<>();
             reportData.put("accounts", accounts);
@@ -219,9 +367,14 @@ public class ReportServiceImpl implements ReportService {
             reportData.put("startDate", startDate);
             reportData.put("endDate", endDate);
 
-            // 生成报表内容
-            String reportContent = reportGenerator.generateAccountReport(reportData);
+            progress.enterPhase(ReportJobPhase.RENDER);
+            // 生成报表内容，边渲染边压缩，不在内存中拼出完整的报表文本
+            CompressingContentWriter content = new CompressingContentWriter();
+            try (Writer out = content) {
+                reportGenerator.generateAccountReport(reportData, out);
+            }
 
+            progress.enterPhase(ReportJobPhase.STORE);
             // 创建报表记录
             Report report = new Report();
             report.setUserId(userId);
@@ -229,16 +382,18 @@ public class ReportServiceImpl implements ReportService {
             report.setStartDate(startDate);
             report.setEndDate(endDate);
             report.setGeneratedDate(LocalDate.now());
-            report.setParameters(mapToJson(parameters));
-            report.setContent(reportContent);
+            report.setParameters(JsonUtils.mapToJson(parameters));
+            report.setRequestKey(requestKey);
 
-            // 保存报表
-            boolean success = reportDao.save(report);
+            // 保存压缩后的报表内容和报表记录
+            boolean success = saveReport(report, content);
             if (!success) {
                 throw new ServiceException("保存报表失败");
             }
 
             return report;
+        } catch (ServiceException e) {
+            throw e;
         } catch (SQLException e) {
             throw new ServiceException("生成账户报表过程中发生数据库错误", e);
         } catch (Exception e) {
@@ -246,20 +401,103 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
+    @Override
+    public Report generatePeriodComparisonReport(int userId, LocalDate startDate, LocalDate endDate,
+                                                 Map<String, String> parameters) throws ServiceException {
+        return generatePeriodComparisonReport(userId, startDate, endDate, parameters, ReportProgress.NONE);
+    }
+
+    private Report generatePeriodComparisonReport(int userId, LocalDate startDate, LocalDate endDate,
+                                                  Map<String, String> parameters, ReportProgress progress)
+            throws ServiceException {
+        try {
+            // 相同请求且报表生成时统计期间已结束，直接复用已保存的报表
+            String requestKey = buildRequestKey(userId, ReportType.PERIOD_COMPARISON, startDate, endDate, parameters);
+            Report reusable = findReusableReport(userId, requestKey, endDate);
+            if (reusable != null) {
+                return reusable;
+            }
+
+            Map<String, LocalDate> previousPeriod = getComparedPeriod(startDate, endDate, parameters);
+            PeriodComparison comparison = new PeriodComparison(startDate, endDate,
+                    previousPeriod.get("startDate"), previousPeriod.get("endDate"));
+
+            progress.enterPhase(ReportJobPhase.FETCH);
+            // 分类和账户名称先取出，之后只做内存查找
+            Map<Integer, String> categoryNames = new HashMap<>();
+            for (Category category : categoryCache.findAll()) {
+                categoryNames.put(category.getCategoryId(), category.getCategoryName());
+            }
+            Map<Integer, String> accountNames = new HashMap<>();
+            for (Account account : accountDao.findByUserId(userId)) {
+                accountNames.put(account.getAccountId(), account.getAccountName());
+            }
+
+            // 一次分组查询取出两个期间的汇总，逐行累加到分类、账户和收支汇总
+            transactionDao.aggregateForComparison(userId, startDate, endDate,
+                    comparison.getPreviousStartDate(), comparison.getPreviousEndDate(), comparison::add);
+
+            progress.enterPhase(ReportJobPhase.AGGREGATE);
+            comparison.resolveNames(categoryId -> categoryNames.getOrDefault(categoryId, "未知分类"),
+                    accountId -> accountNames.getOrDefault(accountId, "未知账户"));
+
+            progress.enterPhase(ReportJobPhase.RENDER);
+            // 生成报表内容，边渲染边压缩，不在内存中拼出完整的报表文本
+            CompressingContentWriter content = new CompressingContentWriter();
+            try (Writer out = content) {
+                reportGenerator.generatePeriodComparisonReport(comparison, out);
+            }
+
+            progress.enterPhase(ReportJobPhase.STORE);
+            // 创建报表记录
+            Report report = new Report();
+            report.setUserId(userId);
+            report.setReportType(ReportType.PERIOD_COMPARISON);
+            report.setStartDate(startDate);
+            report.setEndDate(endDate);
+            report.setGeneratedDate(LocalDate.now());
+            report.setParameters(JsonUtils.mapToJson(parameters));
+            report.setRequestKey(requestKey);
+
+            // 保存压缩后的报表内容和报表记录
+            boolean success = saveReport(report, content);
+            if (!success) {
+                throw new ServiceException("保存报表失败");
+            }
+
+            return report;
+        } catch (ServiceException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new ServiceException("生成对比报表过程中发生数据库错误", e);
+        } catch (Exception e) {
+            throw new ServiceException("生成对比报表失败", e);
+        }
+    }
+
     @Override
     public Report generateCustomReport(int userId, ReportType reportType, LocalDate startDate,
                                        LocalDate endDate, Map<String, String> parameters) throws ServiceException {
+        return generateCustomReport(userId, reportType, startDate, endDate, parameters, ReportProgress.NONE);
+    }
+
+    @Override
+    public Report generateCustomReport(int userId, ReportType reportType, LocalDate startDate,
+                                       LocalDate endDate, Map<String, String> parameters,
+                                       ReportProgress progress) throws ServiceException {
         try {
             // 根据报表类型选择不同的生成方法
             switch (reportType) {
                 case INCOME_EXPENSE:
-                    return generateIncomeExpenseReport(userId, startDate, endDate, parameters);
+                    return generateIncomeExpenseReport(userId, startDate, endDate, parameters, progress);
                 case BUDGET:
-                    return generateBudgetReport(userId, startDate, endDate, parameters);
+                    return generateBudgetReport(userId, startDate, endDate, parameters, progress);
                 case CATEGORY:
-                    return generateCategoryReport(userId, startDate, endDate, parameters);
+                    return generateCategoryReport(userId, startDate, endDate, parameters, progress);
                 case ACCOUNT:
-                    return generateAccountReport(userId, startDate, endDate, parameters);
+                    return generateAccountReport(userId, startDate, endDate, parameters, progress);
+                case PERIOD_COMPARISON:
+                    return generatePeriodComparisonReport(userId, startDate, endDate, parameters, progress);
                 default:
                     throw new ServiceException("不支持的报表类型: " + reportType);
             }
@@ -283,6 +521,19 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
+    @Override
+    public String getReportContent(int reportId) throws ServiceException {
+        try {
+            Report report = reportDao.findById(reportId);
+            if (report == null) {
+                throw new ServiceException("报表不存在: " + reportId);
+            }
+            return loadContent(report);
+        } catch (SQLException e) {
+            throw new ServiceException("读取报表内容过程中发生数据库错误", e);
+        }
+    }
+
     @Override
     public boolean deleteReport(int reportId) throws ServiceException {
         try {
@@ -292,7 +543,8 @@ public class ReportServiceImpl implements ReportService {
                 throw new ServiceException("报表不存在: " + reportId);
             }
 
-            return reportDao.delete(reportId);
+            // 只检查被删除报表引用的内容，全表清理留给保留策略压缩器
+            return reportDao.deleteByIds(Collections.singletonList(reportId)) > 0;
         } catch (SQLException e) {
             throw new ServiceException("删除报表过程中发生数据库错误", e);
         }
@@ -334,8 +586,7 @@ public class ReportServiceImpl implements ReportService {
                 throw new ServiceException("报表不存在: " + reportId);
             }
 
-            // 导出为PDF
-            pdfExporter.export(report, outputStream);
+            writePdf(report, outputStream);
         } catch (SQLException e) {
             throw new ServiceException("导出报表过程中发生数据库错误", e);
         } catch (Exception e) {
@@ -352,8 +603,7 @@ public class ReportServiceImpl implements ReportService {
                 throw new ServiceException("报表不存在: " + reportId);
             }
 
-            // 导出为Excel
-            excelExporter.export(report, outputStream);
+            writeExcel(report, outputStream);
         } catch (SQLException e) {
             throw new ServiceException("导出报表过程中发生数据库错误", e);
         } catch (Exception e) {
@@ -361,36 +611,183 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
+    @Override
+    public void exportReportsToPdfZip(List<Integer> reportIds, OutputStream outputStream) throws ServiceException {
+        exportReportsToZip(reportIds, "PDF", ".pdf", this::writePdf, outputStream);
+    }
+
+    @Override
+    public void exportReportsToExcelZip(List<Integer> reportIds, OutputStream outputStream) throws ServiceException {
+        exportReportsToZip(reportIds, "Excel", ".xlsx", this::writeExcel, outputStream);
+    }
+
     @Override
     public int deleteOldReports(int userId, LocalDate olderThan) throws ServiceException {
         try {
-            return reportDao.deleteOlderThan(userId, olderThan);
+            // 分批删除，每批一个短事务，避免一次大范围删除长时间锁表
+            int deleted = 0;
+            List<Integer> ids;
+            do {
+                ids = reportDao.findIdsOlderThan(userId, olderThan, ReportRetentionCompactor.DEFAULT_BATCH_SIZE);
+                deleted += reportDao.deleteByIds(ids);
+            } while (ids.size() == ReportRetentionCompactor.DEFAULT_BATCH_SIZE);
+            return deleted;
         } catch (SQLException e) {
             throw new ServiceException("删除旧报表过程中发生数据库错误", e);
         }
     }
 
     /**
-     * 将Map转换为JSON字符串
+     * 查找可复用的报表：同一请求已生成过，且生成时统计期间已经结束
+     * 请求键包含用户的交易数据版本，补录历史交易、修改、删除或导入后键随之变化，不会复用过期的报表
      */
-    private String mapToJson(Map<String, String> map) {
-        if (map == null || map.isEmpty()) {
-            return "{}";
+    private Report findReusableReport(int userId, String requestKey, LocalDate endDate) throws SQLException {
+        Report existing = reportDao.findLatestByRequestKey(userId, requestKey);
+        if (existing == null || existing.getContentHash() == null) {
+            return null;
         }
+        return existing.getGeneratedDate().isAfter(endDate) ? existing : null;
+    }
+
+    /**
+     * 按内容摘要保存渲染时已压缩的报表内容，与报表记录在同一事务中写入
+     * 报表对象不保留内容文本，需要时从数据库读取并解压
+     */
+    private boolean saveReport(Report report, CompressingContentWriter content) throws SQLException {
+        report.setContentHash(content.getContentHash());
+        return reportDao.saveWithContent(report, content.toByteArray(), Math.toIntExact(content.getRawLength()));
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("{");
+    /**
+     * 先校验所有报表存在再开始写出，各报表在打包线程池中并行生成并直接写入ZIP条目
+     * 重复的报表ID只导出一次。每次打包最多占用线程池的一半，下载方停止接收时生成线程在停滞超时后释放，
+     * 一个停滞的导出不会挂起其他导出
+     */
+    private void exportReportsToZip(List<Integer> reportIds, String format, String extension,
+                                    ReportWriter writer, OutputStream outputStream) throws ServiceException {
+        if (reportIds == null || reportIds.isEmpty()) {
+            throw new ServiceException("没有需要导出的报表");
+        }
 
-        boolean first = true;
-        for (Map.Entry<String, String> entry : map.entrySet()) {
-            if (!first) {
-                sb.append(",");
+        try {
+            ParallelZipWriter zip = new ParallelZipWriter(bundleExecutor, Math.max(1, bundleThreads / 2));
+            for (int reportId : new LinkedHashSet<>(reportIds)) {
+                Report report = reportDao.findById(reportId);
+                if (report == null) {
+                    throw new ServiceException("报表不存在: " + reportId);
+                }
+
+                String entryName = report.getReportType().name().toLowerCase() + "_" + report.getStartDate()
+                        + "_" + report.getEndDate() + "_" + reportId + extension;
+                zip.addEntry(entryName, out -> writer.write(report, out));
             }
-            sb.append("\"").append(entry.getKey()).append("\":\"").append(entry.getValue()).append("\"");
-            first = false;
+
+            zip.writeTo(outputStream);
+        } catch (SQLException e) {
+            throw new ServiceException("导出报表过程中发生数据库错误", e);
+        } catch (IOException e) {
+            throw new ExportException("打包导出报表为" + format + "失败", format, "报表ID=" + reportIds, e);
         }
+    }
+
+    /**
+     * 边解压边导出为PDF，不在内存中展开完整的报表内容
+     */
+    private void writePdf(Report report, OutputStream outputStream)
+            throws SQLException, ServiceException, IOException {
+        try (Reader content = openContentReader(report)) {
+            pdfExporter.export(report, content, outputStream);
+        }
+    }
 
-        sb.append("}");
-        return sb.toString();
+    /**
+     * 边解压边导出为Excel，不在内存中展开完整的报表内容
+     */
+    private void writeExcel(Report report, OutputStream outputStream)
+            throws SQLException, ServiceException, IOException {
+        try (Reader content = openContentReader(report)) {
+            excelExporter.export(report, content, outputStream);
+        }
+    }
+
+    /**
+     * 读取并解压报表内容
+     */
+    private String loadContent(Report report) throws SQLException, ServiceException {
+        if (report.getContent() != null) {
+            return report.getContent();
+        }
+        if (report.getContentHash() == null) {
+            throw new ServiceException("报表没有保存内容: " + report.getReportId());
+        }
+
+        byte[] compressed = reportDao.findContent(report.getContentHash());
+        if (compressed == null) {
+            throw new ServiceException("报表内容不存在: " + report.getReportId());
+        }
+        try {
+            String content = CompressionUtils.inflateToString(compressed);
+            report.setContent(content);
+            return content;
+        } catch (DataFormatException e) {
+            throw new ServiceException("报表内容已损坏: " + report.getReportId(), e);
+        }
+    }
+
+    /**
+     * 以字符流打开报表内容
+     */
+    private Reader openContentReader(Report report) throws SQLException, ServiceException {
+        if (report.getContent() != null) {
+            return new StringReader(report.getContent());
+        }
+        if (report.getContentHash() == null) {
+            throw new ServiceException("报表没有保存内容: " + report.getReportId());
+        }
+
+        byte[] compressed = reportDao.findContent(report.getContentHash());
+        if (compressed == null) {
+            throw new ServiceException("报表内容不存在: " + report.getReportId());
+        }
+        return new InputStreamReader(CompressionUtils.inflatingStream(compressed), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 根据报表参数确定对比的上一期
+     */
+    private Map<String, LocalDate> getComparedPeriod(LocalDate startDate, LocalDate endDate,
+                                                     Map<String, String> parameters) throws ServiceException {
+        String compareWith = parameters != null ? parameters.get(ServiceConstants.REPORT_PARAM_COMPARE_WITH) : null;
+        String periodType = parameters != null ? parameters.get(ServiceConstants.REPORT_PARAM_PERIOD_TYPE) : null;
+
+        if (ServiceConstants.COMPARE_WITH_LAST_YEAR.equals(compareWith)) {
+            return PeriodCalculator.getSamePeriodLastYear(startDate, endDate);
+        }
+        if (periodType == null || periodType.isEmpty()) {
+            return PeriodCalculator.getPrecedingPeriod(startDate, endDate);
+        }
+        try {
+            return PeriodCalculator.getPreviousPeriod(startDate, endDate, periodType);
+        } catch (IllegalArgumentException e) {
+            throw new ServiceException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 计算报表请求摘要：用户、类型、日期范围、交易数据版本和按键排序的参数
+     */
+    private String buildRequestKey(int userId, ReportType reportType, LocalDate startDate, LocalDate endDate,
+                                   Map<String, String> parameters) throws SQLException {
+        long dataVersion = transactionDao.getDataVersion(userId);
+        return EncryptionUtils.sha256Hex(userId + "|" + reportType + "|" + startDate + "|" + endDate + "|"
+                + dataVersion + "|" + JsonUtils.mapToJson(parameters));
+    }
+
+    /**
+     * 将报表写出为某种格式
+     */
+    @FunctionalInterface
+    private interface ReportWriter {
+        void write(Report report, OutputStream outputStream) throws SQLException, ServiceException, IOException;
     }
 }
\ No newline at end of file
@@ -2,11 +2,11 @@ package com.PFM.CD.service.impl;
 
 import com.PFM.CD.dao.interfaces.AccountDao;
 import com.PFM.CD.dao.interfaces.BudgetDao;
-import com.PFM.CD.dao.interfaces.CategoryDao;
 import com.PFM.CD.dao.interfaces.TransactionDao;
 import com.PFM.CD.entity.*;
 import com.PFM.CD.entity.enums.CategoryType;
 import com.PFM.CD.entity.enums.TransactionType;
+import com.PFM.CD.service.cache.CategoryCache;
 import com.PFM.CD.service.dto.AccountBalanceTrend;
 import com.PFM.CD.service.dto.CategoryDistribution;
 import com.PFM.CD.service.dto.IncomeExpenseTrend;
@@ -38,7 +38,7 @@ public class StatisticsServiceImpl implements StatisticsService {
 
     private final TransactionDao transactionDao;
     private final AccountDao accountDao;
-    private final CategoryDao categoryDao;
+    private final CategoryCache categoryCache;
     private final BudgetDao budgetDao;
 
     /**
@@ -46,14 +46,14 @@ public class StatisticsServiceImpl implements StatisticsService {
      *
      * @param transactionDao 交易DAO接口
      * @param accountDao 账户DAO接口
-     * @param categoryDao 分类DAO接口
+     * @param categoryCache 分类目录缓存
      * @param budgetDao 预算DAO接口
      */
     public StatisticsServiceImpl(TransactionDao transactionDao, AccountDao accountDao,
-                                 CategoryDao categoryDao, BudgetDao budgetDao) {
+                                 CategoryCache categoryCache, BudgetDao budgetDao) {
         this.transactionDao = transactionDao;
         this.accountDao = accountDao;
-        this.categoryDao = categoryDao;
+        this.categoryCache = categoryCache;
         this.budgetDao = budgetDao;
     }
 
@@ -204,7 +204,7 @@ public class StatisticsServiceImpl implements StatisticsService {
             // 获取分类信息
             List<Category> categories = new ArrayList<>();
             for (Integer categoryId : expenseByCategory.keySet()) {
-                Category category = categoryDao.findById(categoryId);
+                Category category = categoryCache.findById(categoryId);
                 if (category != null) {
                     categories.add(category);
                 }
@@ -251,7 +251,7 @@ public class StatisticsServiceImpl implements StatisticsService {
             // 获取分类信息
             List<Category> categories = new ArrayList<>();
             for (Integer categoryId : incomeByCategory.keySet()) {
-                Category category = categoryDao.findById(categoryId);
+                Category category = categoryCache.findById(categoryId);
                 if (category != null) {
                     categories.add(category);
                 }
@@ -287,6 +287,71 @@ public class StatisticsServiceImpl implements StatisticsService {
         }
     }
 
+    @Override
+    public List<CategoryDistribution> getExpenseCategoryDistribution(int userId, LocalDate startDate,
+                                                                     LocalDate endDate, Integer parentCategoryId)
+            throws ServiceException {
+        try {
+            return buildRollupDistribution(userId, TransactionType.EXPENSE, startDate, endDate, parentCategoryId);
+        } catch (SQLException e) {
+            throw new ServiceException("获取分类支出分布过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public List<CategoryDistribution> getIncomeCategoryDistribution(int userId, LocalDate startDate,
+                                                                    LocalDate endDate, Integer parentCategoryId)
+            throws ServiceException {
+        try {
+            return buildRollupDistribution(userId, TransactionType.INCOME, startDate, endDate, parentCategoryId);
+        } catch (SQLException e) {
+            throw new ServiceException("获取分类收入分布过程中发生数据库错误", e);
+        }
+    }
+
+    /**
+     * 基于分类层级汇总金额构建某一层级的分类分布
+     */
+    private List<CategoryDistribution> buildRollupDistribution(int userId, TransactionType type,
+                                                               LocalDate startDate, LocalDate endDate,
+                                                               Integer parentCategoryId) throws SQLException {
+        // 一次查询得到每个分类（含子树）的汇总金额
+        Map<Integer, BigDecimal> rollup = transactionDao.calculateRollupByCategory(userId, type, startDate, endDate);
+        CategoryType categoryType = type.toCategoryType();
+
+        List<CategoryDistribution> result = new ArrayList<>();
+        BigDecimal childrenTotal = BigDecimal.ZERO;
+        for (Category child : categoryCache.findChildren(parentCategoryId)) {
+            BigDecimal amount = rollup.get(child.getCategoryId());
+            if (child.getCategoryType() == categoryType && amount != null && amount.compareTo(BigDecimal.ZERO) > 0) {
+                result.add(new CategoryDistribution(child.getCategoryId(), child.getCategoryName(), amount, 0));
+                childrenTotal = childrenTotal.add(amount);
+            }
+        }
+
+        BigDecimal total = childrenTotal;
+        if (parentCategoryId != null) {
+            // 直接记在父分类上的金额单独列出
+            BigDecimal parentTotal = rollup.getOrDefault(parentCategoryId, BigDecimal.ZERO);
+            BigDecimal direct = parentTotal.subtract(childrenTotal);
+            Category parent = categoryCache.findById(parentCategoryId);
+            if (parent != null && direct.compareTo(BigDecimal.ZERO) > 0) {
+                result.add(new CategoryDistribution(parent.getCategoryId(), parent.getCategoryName(), direct, 0));
+            }
+            total = parentTotal;
+        }
+
+        if (total.compareTo(BigDecimal.ZERO) > 0) {
+            for (CategoryDistribution distribution : result) {
+                distribution.setPercentage(distribution.getAmount().divide(total, 4, RoundingMode.HALF_UP)
+                        .multiply(new BigDecimal("100"))
+                        .doubleValue());
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public List<TransactionFrequency> getTransactionFrequency(int userId, LocalDate startDate,
                                                               LocalDate endDate)
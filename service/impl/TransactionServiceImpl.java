@@ -2,24 +2,41 @@ package com.PFM.CD.service.impl;
 
 import com.PFM.CD.dao.interfaces.AccountDao;
 import com.PFM.CD.dao.interfaces.BudgetCategoryDao;
-import com.PFM.CD.dao.interfaces.CategoryDao;
 import com.PFM.CD.dao.interfaces.TransactionDao;
 import com.PFM.CD.entity.Account;
 import com.PFM.CD.entity.Category;
 import com.PFM.CD.entity.Transaction;
 import com.PFM.CD.entity.enums.AccountStatus;
 import com.PFM.CD.entity.enums.TransactionType;
+import com.PFM.CD.service.cache.CategoryCache;
+import com.PFM.CD.service.cache.CategoryUsageCounter;
+import com.PFM.CD.service.categorization.CategorizationEngine;
+import com.PFM.CD.service.dto.ImportResult;
+import com.PFM.CD.service.exception.AccessDeniedException;
+import com.PFM.CD.service.exception.ExportException;
 import com.PFM.CD.service.exception.InsufficientBalanceException;
 import com.PFM.CD.service.exception.ServiceException;
+import com.PFM.CD.service.importer.ParallelCsvImporter;
 import com.PFM.CD.service.interfaces.TransactionService;
+import com.PFM.CD.service.session.SessionManager;
+import com.PFM.CD.utils.file.CsvWriter;
 
 
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 交易服务实现类
@@ -29,39 +46,117 @@ import java.util.Map;
  */
 public class TransactionServiceImpl implements TransactionService {
 
+    // CSV导出的写缓冲大小
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+
+    // 每导出多少行刷新一次输出，使下载端尽早收到数据
+    private static final int CSV_FLUSH_INTERVAL = 1000;
+
+    private static final String[] CSV_HEADER = {
+            "交易ID", "日期", "类型", "分类", "金额", "转出账户", "转入账户", "备注"
+    };
+
     private final TransactionDao transactionDao;
     private final AccountDao accountDao;
-    private final CategoryDao categoryDao;
+    private final CategoryCache categoryCache;
     private final BudgetCategoryDao budgetCategoryDao;
+    private final CategoryUsageCounter categoryUsageCounter;
+    private final ParallelCsvImporter csvImporter;
+    private final CategorizationEngine categorizationEngine;
+    private final SessionManager sessionManager;
+
+    /**
+     * 构造函数
+     *
+     * @param transactionDao 交易DAO接口
+     * @param accountDao 账户DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param budgetCategoryDao 预算分类DAO接口
+     * @param categoryUsageCounter 分类使用次数计数器
+     */
+    public TransactionServiceImpl(TransactionDao transactionDao, AccountDao accountDao,
+                                  CategoryCache categoryCache, BudgetCategoryDao budgetCategoryDao,
+                                  CategoryUsageCounter categoryUsageCounter) {
+        this(transactionDao, accountDao, categoryCache, budgetCategoryDao, categoryUsageCounter,
+                new ParallelCsvImporter(transactionDao, accountDao, categoryCache, categoryUsageCounter));
+    }
 
     /**
      * 构造函数
      *
      * @param transactionDao 交易DAO接口
      * @param accountDao 账户DAO接口
-     * @param categoryDao 分类DAO接口
+     * @param categoryCache 分类目录缓存
      * @param budgetCategoryDao 预算分类DAO接口
+     * @param categoryUsageCounter 分类使用次数计数器
+     * @param csvImporter CSV交易导入器
      */
     public TransactionServiceImpl(TransactionDao transactionDao, AccountDao accountDao,
-                                  CategoryDao categoryDao, BudgetCategoryDao budgetCategoryDao) {
+                                  CategoryCache categoryCache, BudgetCategoryDao budgetCategoryDao,
+                                  CategoryUsageCounter categoryUsageCounter,
+                                  ParallelCsvImporter csvImporter) {
+        this(transactionDao, accountDao, categoryCache, budgetCategoryDao, categoryUsageCounter,
+                csvImporter, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param transactionDao 交易DAO接口
+     * @param accountDao 账户DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param budgetCategoryDao 预算分类DAO接口
+     * @param categoryUsageCounter 分类使用次数计数器
+     * @param csvImporter CSV交易导入器
+     * @param categorizationEngine 自动分类引擎，为null时不支持不指定分类的记账
+     */
+    public TransactionServiceImpl(TransactionDao transactionDao, AccountDao accountDao,
+                                  CategoryCache categoryCache, BudgetCategoryDao budgetCategoryDao,
+                                  CategoryUsageCounter categoryUsageCounter,
+                                  ParallelCsvImporter csvImporter, CategorizationEngine categorizationEngine) {
+        this(transactionDao, accountDao, categoryCache, budgetCategoryDao, categoryUsageCounter,
+                csvImporter, categorizationEngine, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param transactionDao 交易DAO接口
+     * @param accountDao 账户DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param budgetCategoryDao 预算分类DAO接口
+     * @param categoryUsageCounter 分类使用次数计数器
+     * @param csvImporter CSV交易导入器
+     * @param categorizationEngine 自动分类引擎，为null时不支持不指定分类的记账
+     * @param sessionManager 会话管理器，用于不需要加载账户的所有权校验；为null时查询数据库
+     */
+    public TransactionServiceImpl(TransactionDao transactionDao, AccountDao accountDao,
+                                  CategoryCache categoryCache, BudgetCategoryDao budgetCategoryDao,
+                                  CategoryUsageCounter categoryUsageCounter,
+                                  ParallelCsvImporter csvImporter, CategorizationEngine categorizationEngine,
+                                  SessionManager sessionManager) {
         this.transactionDao = transactionDao;
         this.accountDao = accountDao;
-        this.categoryDao = categoryDao;
+        this.categoryCache = categoryCache;
         this.budgetCategoryDao = budgetCategoryDao;
+        this.categoryUsageCounter = categoryUsageCounter;
+        this.csvImporter = csvImporter;
+        this.categorizationEngine = categorizationEngine;
+        this.sessionManager = sessionManager;
     }
 
     @Override
     public Transaction recordIncome(int userId, int accountId, int categoryId, BigDecimal amount,
                                     LocalDate transactionDate, String description) throws ServiceException {
         try {
-            // 验证账户
+            // 验证账户，所有权和状态都用同一次查询的结果检查
             Account account = accountDao.findById(accountId);
             if (account == null) {
                 throw new ServiceException("账户不存在: " + accountId);
             }
 
             if (account.getUserId() != userId) {
-                throw new ServiceException("账户不属于当前用户");
+                throw AccessDeniedException.accountOwnership(userId, accountId);
             }
 
             if (account.getStatus() != AccountStatus.ACTIVE) {
@@ -69,7 +164,7 @@ public class TransactionServiceImpl implements TransactionService {
             }
 
             // 验证分类
-            Category category = categoryDao.findById(categoryId);
+            Category category = categoryCache.findById(categoryId);
             if (category == null) {
                 throw new ServiceException("分类不存在: " + categoryId);
             }
@@ -118,6 +213,7 @@ public class TransactionServiceImpl implements TransactionService {
                 accountDao.updateBalance(accountId, newBalance);
 
                 transactionDao.commitTransaction(conn);
+                recordCategoryUsage(userId, categoryId, 1);
                 return transaction;
             } catch (SQLException e) {
                 if (conn != null) {
@@ -132,19 +228,43 @@ public class TransactionServiceImpl implements TransactionService {
         }
     }
 
+    @Override
+    public Transaction recordExpense(int userId, int accountId, BigDecimal amount,
+                                     LocalDate transactionDate, String description)
+            throws InsufficientBalanceException, ServiceException {
+        if (categorizationEngine == null) {
+            throw new ServiceException("未启用自动分类，请指定分类");
+        }
+        if (amount == null) {
+            throw new ServiceException("金额不能为空");
+        }
+
+        Integer categoryId;
+        try {
+            categoryId = categorizationEngine.categorize(userId, TransactionType.EXPENSE, accountId, amount,
+                    description);
+        } catch (SQLException e) {
+            throw new ServiceException("加载分类规则过程中发生数据库错误", e);
+        }
+        if (categoryId == null) {
+            throw new ServiceException("没有匹配的分类规则，请指定分类");
+        }
+        return recordExpense(userId, accountId, categoryId, amount, transactionDate, description);
+    }
+
     @Override
     public Transaction recordExpense(int userId, int accountId, int categoryId, BigDecimal amount,
                                      LocalDate transactionDate, String description)
             throws InsufficientBalanceException, ServiceException {
         try {
-            // 验证账户
+            // 验证账户，所有权和状态都用同一次查询的结果检查
             Account account = accountDao.findById(accountId);
             if (account == null) {
                 throw new ServiceException("账户不存在: " + accountId);
             }
 
             if (account.getUserId() != userId) {
-                throw new ServiceException("账户不属于当前用户");
+                throw AccessDeniedException.accountOwnership(userId, accountId);
             }
 
             if (account.getStatus() != AccountStatus.ACTIVE) {
@@ -152,7 +272,7 @@ public class TransactionServiceImpl implements TransactionService {
             }
 
             // 验证分类
-            Category category = categoryDao.findById(categoryId);
+            Category category = categoryCache.findById(categoryId);
             if (category == null) {
                 throw new ServiceException("分类不存在: " + categoryId);
             }
@@ -210,6 +330,7 @@ public class TransactionServiceImpl implements TransactionService {
                         userId, categoryId, amount, transactionDate);
 
                 transactionDao.commitTransaction(conn);
+                recordCategoryUsage(userId, categoryId, 1);
                 return transaction;
             } catch (SQLException e) {
                 if (conn != null) {
@@ -236,7 +357,7 @@ public class TransactionServiceImpl implements TransactionService {
             }
 
             if (fromAccount.getUserId() != userId) {
-                throw new ServiceException("源账户不属于当前用户");
+                throw AccessDeniedException.accountOwnership(userId, fromAccountId);
             }
 
             if (fromAccount.getStatus() != AccountStatus.ACTIVE) {
@@ -250,7 +371,7 @@ public class TransactionServiceImpl implements TransactionService {
             }
 
             if (toAccount.getUserId() != userId) {
-                throw new ServiceException("目标账户不属于当前用户");
+                throw AccessDeniedException.accountOwnership(userId, toAccountId);
             }
 
             if (toAccount.getStatus() != AccountStatus.ACTIVE) {
@@ -354,7 +475,7 @@ public class TransactionServiceImpl implements TransactionService {
             }
 
             // 检查分类是否与交易类型匹配
-            Category category = categoryDao.findById(transaction.getCategoryId());
+            Category category = categoryCache.findById(transaction.getCategoryId());
             if (category == null) {
                 throw new ServiceException("分类不存在: " + transaction.getCategoryId());
             }
@@ -372,6 +493,11 @@ public class TransactionServiceImpl implements TransactionService {
                 throw new ServiceException("更新交易记录失败");
             }
 
+            if (existingTransaction.getCategoryId() != transaction.getCategoryId()) {
+                recordCategoryUsage(existingTransaction.getUserId(), existingTransaction.getCategoryId(), -1);
+                recordCategoryUsage(existingTransaction.getUserId(), transaction.getCategoryId(), 1);
+            }
+
             return transaction;
         } catch (SQLException e) {
             throw new ServiceException("更新交易记录过程中发生数据库错误", e);
@@ -447,6 +573,9 @@ public class TransactionServiceImpl implements TransactionService {
                 boolean deleted = transactionDao.delete(transactionId);
 
                 transactionDao.commitTransaction(conn);
+                if (deleted) {
+                    recordCategoryUsage(transaction.getUserId(), transaction.getCategoryId(), -1);
+                }
                 return deleted;
             } catch (SQLException e) {
                 if (conn != null) {
@@ -501,6 +630,9 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public List<Transaction> getTransactionsByAccount(int userId, int accountId) throws ServiceException {
         try {
+            if (!isAccountOwner(userId, accountId)) {
+                throw AccessDeniedException.accountOwnership(userId, accountId);
+            }
             return transactionDao.findByUserIdAndAccount(userId, accountId);
         } catch (SQLException e) {
             throw new ServiceException("按账户获取交易记录过程中发生数据库错误", e);
@@ -566,9 +698,130 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public int importTransactions(List<Transaction> transactions) throws ServiceException {
         try {
-            return transactionDao.batchSave(transactions);
+            int count = transactionDao.batchSave(transactions);
+            for (Transaction transaction : transactions) {
+                recordCategoryUsage(transaction.getUserId(), transaction.getCategoryId(), 1);
+            }
+            return count;
         } catch (SQLException e) {
             throw new ServiceException("批量导入交易记录过程中发生数据库错误", e);
         }
     }
+
+    @Override
+    public ImportResult importTransactionsFromCsv(int userId, String filePath) throws ServiceException {
+        return importTransactionsFromCsv(userId, filePath, false);
+    }
+
+    @Override
+    public ImportResult importTransactionsFromCsv(int userId, String filePath, boolean bulkLoad)
+            throws ServiceException {
+        try {
+            return csvImporter.importCsv(userId, Paths.get(filePath), bulkLoad);
+        } catch (SQLException e) {
+            throw new ServiceException("导入交易记录过程中发生数据库错误", e);
+        } catch (IOException e) {
+            throw new ServiceException("读取导入文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int exportTransactionsToCsv(int userId, LocalDate startDate, LocalDate endDate,
+                                       OutputStream outputStream, boolean gzip) throws ServiceException {
+        if (startDate.isAfter(endDate)) {
+            throw new ServiceException("开始日期不能晚于结束日期");
+        }
+
+        try {
+            // 压缩时使用同步刷新，每次flush都能把已压缩的数据交给输出流
+            OutputStream target = gzip
+                    ? new GZIPOutputStream(new NonClosingOutputStream(outputStream), CSV_BUFFER_SIZE, true)
+                    : new NonClosingOutputStream(outputStream);
+
+            try (CsvWriter csv = new CsvWriter(new BufferedWriter(
+                    new OutputStreamWriter(target, StandardCharsets.UTF_8), CSV_BUFFER_SIZE))) {
+                csv.writeRow(CSV_HEADER);
+
+                int count;
+                try {
+                    count = transactionDao.streamByUserIdAndDateRange(userId, startDate, endDate, transaction -> {
+                        try {
+                            writeCsvRow(csv, transaction);
+                            if (csv.getRowCount() % CSV_FLUSH_INTERVAL == 0) {
+                                csv.flush();
+                            }
+                        } catch (IOException e) {
+                            // 回调只能抛出SQLException，写出失败包装后在外层还原
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                return count;
+            }
+        } catch (SQLException e) {
+            throw new ServiceException("导出交易记录过程中发生数据库错误", e);
+        } catch (IOException e) {
+            throw new ExportException("导出交易记录为CSV失败", "CSV", "user:" + userId, e);
+        }
+    }
+
+    /**
+     * 写入一条交易记录
+     */
+    private void writeCsvRow(CsvWriter csv, Transaction transaction) throws IOException {
+        csv.writeField(transaction.getTransactionId())
+                .writeField(transaction.getTransactionDate())
+                .writeField(transaction.getTransactionType().name())
+                .writeField(transaction.getCategoryName())
+                .writeField(transaction.getAmount())
+                .writeField(transaction.getSourceAccountName())
+                .writeField(transaction.getDestinationAccountName())
+                .writeField(transaction.getDescription())
+                .endRow();
+    }
+
+    /**
+     * 关闭时只刷新不关闭的输出流，输出流的生命周期由调用方管理
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * 检查账户是否属于用户：有会话管理器时先查会话中的账户集合，否则按ID查询
+     */
+    private boolean isAccountOwner(int userId, int accountId) throws SQLException {
+        if (sessionManager != null) {
+            return sessionManager.isAccountOwner(userId, accountId);
+        }
+        Account account = accountDao.findById(accountId);
+        return account != null && account.getUserId() == userId;
+    }
+
+    /**
+     * 更新分类使用次数计数
+     * 计数仅用于常用分类推荐，更新失败不影响已提交的交易
+     */
+    private void recordCategoryUsage(int userId, int categoryId, long delta) {
+        try {
+            categoryUsageCounter.add(userId, categoryId, delta);
+        } catch (SQLException e) {
+            System.err.println("更新分类使用计数失败: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -2,13 +2,24 @@ package com.PFM.CD.service.impl;
 
 import com.PFM.CD.dao.interfaces.UserDao;
 import com.PFM.CD.entity.User;
+import com.PFM.CD.service.cache.UserAvailabilityFilter;
 import com.PFM.CD.service.exception.AuthenticationException;
 import com.PFM.CD.service.exception.ServiceException;
 import com.PFM.CD.service.interfaces.UserService;
+import com.PFM.CD.service.session.Session;
+import com.PFM.CD.service.session.SessionManager;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
-import com.PFM.CD.utils.security.PasswordHasher;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.PFM.CD.utils.security.LoginRateLimiter;
+import com.PFM.CD.utils.security.PasswordHashingPool;
 /**
  * 用户服务实现类
  *
@@ -17,33 +28,51 @@ import com.PFM.CD.utils.security.PasswordHasher;
  */
 public class UserServiceImpl implements UserService {
 
+    /**
+     * 等待密码哈希结果的最长时间（秒）
+     */
+    private static final long HASHING_TIMEOUT_SECONDS = 10;
+
     private final UserDao userDao;
+    private final PasswordHashingPool hashingPool;
+    private final SessionManager sessionManager;
+    private final LoginRateLimiter loginRateLimiter;
+    private final UserAvailabilityFilter availabilityFilter;
 
     /**
      * 构造函数
      *
      * @param userDao 用户DAO接口
+     * @param hashingPool 密码哈希线程池
+     * @param sessionManager 会话管理器
+     * @param loginRateLimiter 登录限流器
+     * @param availabilityFilter 用户名/邮箱可用性预检过滤器
      */
-    public UserServiceImpl(UserDao userDao) {
+    public UserServiceImpl(UserDao userDao, PasswordHashingPool hashingPool, SessionManager sessionManager,
+                           LoginRateLimiter loginRateLimiter, UserAvailabilityFilter availabilityFilter) {
         this.userDao = userDao;
+        this.hashingPool = hashingPool;
+        this.sessionManager = sessionManager;
+        this.loginRateLimiter = loginRateLimiter;
+        this.availabilityFilter = availabilityFilter;
     }
 
     @Override
     public User register(String username, String password, String email) throws ServiceException {
         try {
             // 检查用户名和邮箱是否已存在
-            if (userDao.isUsernameExists(username)) {
+            if (availabilityFilter.isUsernameTaken(username)) {
                 throw new ServiceException("用户名已存在: " + username);
             }
 
-            if (userDao.isEmailExists(email)) {
+            if (availabilityFilter.isEmailTaken(email)) {
                 throw new ServiceException("邮箱已存在: " + email);
             }
 
             // 创建新用户对象
             User user = new User();
             user.setUsername(username);
-            user.setPasswordHash(PasswordHasher.hashPassword(password));
+            user.setPasswordHash(await(hashingPool.hash(password)));
             user.setEmail(email);
             user.setCreatedAt(LocalDate.now());
 
@@ -53,6 +82,7 @@ public class UserServiceImpl implements UserService {
                 throw new ServiceException("创建用户失败");
             }
 
+            availabilityFilter.add(username, email);
             return user;
         } catch (SQLException e) {
             throw new ServiceException("注册过程中发生数据库错误", e);
@@ -61,22 +91,72 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User login(String username, String password) throws AuthenticationException, ServiceException {
+        return await(loginAsync(username, password));
+    }
+
+    @Override
+    public CompletableFuture<User> loginAsync(String username, String password) {
+        return loginAsync(username, password, null);
+    }
+
+    @Override
+    public User login(String username, String password, String source) throws AuthenticationException, ServiceException {
+        return await(loginAsync(username, password, source));
+    }
+
+    @Override
+    public CompletableFuture<User> loginAsync(String username, String password, String source) {
+        // 在查询数据库和验证密码之前拒绝超额尝试
+        if (!loginRateLimiter.tryAcquire(username, source)) {
+            return failedFuture(AuthenticationException.tooManyAttempts());
+        }
+
+        // 获取用户信息
+        User user;
         try {
-            // 获取用户信息
-            User user = userDao.findByUsername(username);
-            if (user == null) {
-                throw new AuthenticationException("用户名或密码不正确");
-            }
+            user = userDao.findByUsername(username);
+        } catch (SQLException e) {
+            return failedFuture(new ServiceException("登录过程中发生数据库错误", e));
+        }
+        if (user == null) {
+            return failedFuture(new AuthenticationException("用户名或密码不正确"));
+        }
 
-            // 验证密码
-            if (!PasswordHasher.verifyPassword(password, user.getPasswordHash())) {
-                throw new AuthenticationException("用户名或密码不正确");
+        // 在哈希线程池中验证密码
+        return hashingPool.verify(password, user.getPasswordHash()).thenApply(result -> {
+            if (!result.isMatched()) {
+                throw new CompletionException(new AuthenticationException("用户名或密码不正确"));
+            }
+            loginRateLimiter.recordSuccess(username);
+            if (result.isUpgradeNeeded()) {
+                upgradePasswordHash(user, password);
             }
-
             return user;
+        });
+    }
+
+    @Override
+    public Session openSession(String username, String password) throws AuthenticationException, ServiceException {
+        User user = login(username, password);
+        try {
+            return sessionManager.createSession(user);
         } catch (SQLException e) {
-            throw new ServiceException("登录过程中发生数据库错误", e);
+            throw new ServiceException("创建会话过程中发生数据库错误", e);
+        }
+    }
+
+    @Override
+    public Session getSession(String token) throws AuthenticationException {
+        Session session = sessionManager.getSession(token);
+        if (session == null) {
+            throw AuthenticationException.sessionExpired();
         }
+        return session;
+    }
+
+    @Override
+    public void closeSession(String token) {
+        sessionManager.invalidate(token);
     }
 
     @Override
@@ -89,14 +169,24 @@ public class UserServiceImpl implements UserService {
                 throw new ServiceException("用户不存在: " + userId);
             }
 
+            // 修改密码没有来源标识，只按用户名限流
+            if (!loginRateLimiter.tryAcquire(user.getUsername(), null)) {
+                throw AuthenticationException.tooManyAttempts();
+            }
+
             // 验证旧密码
-            if (!PasswordHasher.verifyPassword(oldPassword, user.getPasswordHash())) {
+            if (!await(hashingPool.verify(oldPassword, user.getPasswordHash())).isMatched()) {
                 throw new AuthenticationException("旧密码不正确");
             }
 
             // 更新密码
-            String newPasswordHash = PasswordHasher.hashPassword(newPassword);
-            return userDao.updatePassword(userId, newPasswordHash);
+            String newPasswordHash = await(hashingPool.hash(newPassword));
+            boolean updated = userDao.updatePassword(userId, newPasswordHash);
+            if (updated) {
+                // 旧密码下签发的令牌（包括可能被盗用的）全部作废
+                sessionManager.invalidateUser(userId);
+            }
+            return updated;
         } catch (SQLException e) {
             throw new ServiceException("修改密码过程中发生数据库错误", e);
         }
@@ -133,6 +223,7 @@ public class UserServiceImpl implements UserService {
                 throw new ServiceException("更新用户信息失败");
             }
 
+            availabilityFilter.add(user.getUsername(), user.getEmail());
             return user;
         } catch (SQLException e) {
             throw new ServiceException("更新用户信息过程中发生数据库错误", e);
@@ -173,7 +264,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean isUsernameAvailable(String username) throws ServiceException {
         try {
-            return !userDao.isUsernameExists(username);
+            return !availabilityFilter.isUsernameTaken(username);
         } catch (SQLException e) {
             throw new ServiceException("检查用户名可用性过程中发生数据库错误", e);
         }
@@ -182,9 +273,74 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean isEmailAvailable(String email) throws ServiceException {
         try {
-            return !userDao.isEmailExists(email);
+            return !availabilityFilter.isEmailTaken(email);
         } catch (SQLException e) {
             throw new ServiceException("检查邮箱可用性过程中发生数据库错误", e);
         }
     }
+
+    @Override
+    public void rebuildAvailabilityFilter() throws ServiceException {
+        try {
+            availabilityFilter.rebuild();
+        } catch (SQLException e) {
+            throw new ServiceException("重建用户名可用性过滤器过程中发生数据库错误", e);
+        }
+    }
+
+    /**
+     * 登录成功后在后台用当前算法重新哈希密码并保存，失败时下次登录再试
+     * 保存直接在完成哈希的线程池线程上执行，不把阻塞的JDBC调用交给公共ForkJoinPool；
+     * 每个用户只升级一次，占用哈希线程的时间可以忽略
+     */
+    private void upgradePasswordHash(User user, String password) {
+        hashingPool.rehash(password).thenAccept(newHash -> {
+            try {
+                if (userDao.updatePassword(user.getUserId(), newHash)) {
+                    user.setPasswordHash(newHash);
+                }
+            } catch (SQLException e) {
+                System.err.println("升级密码哈希失败: " + e.getMessage());
+            }
+        }).exceptionally(e -> {
+            System.err.println("升级密码哈希失败: " + e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * 等待哈希线程池的结果，并把异步异常转换为服务层异常
+     */
+    private <T> T await(CompletableFuture<T> future) throws AuthenticationException, ServiceException {
+        try {
+            return future.get(HASHING_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AuthenticationException) {
+                throw (AuthenticationException) cause;
+            }
+            if (cause instanceof ServiceException) {
+                throw (ServiceException) cause;
+            }
+            if (cause instanceof RejectedExecutionException) {
+                throw new ServiceException("系统繁忙，请稍后重试", cause);
+            }
+            throw new ServiceException("密码处理失败", cause);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new ServiceException("系统繁忙，请稍后重试", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("密码处理被中断", e);
+        }
+    }
+
+    /**
+     * 创建以指定异常完成的Future
+     */
+    private static <T> CompletableFuture<T> failedFuture(Throwable cause) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,1017 @@
+package com.PFM.CD.service.importer;
+
+import com.PFM.CD.dao.interfaces.AccountDao;
+import com.PFM.CD.dao.interfaces.TransactionDao;
+import com.PFM.CD.entity.Account;
+import com.PFM.CD.entity.Category;
+import com.PFM.CD.entity.Transaction;
+import com.PFM.CD.entity.enums.TransactionType;
+import com.PFM.CD.service.cache.CategoryCache;
+import com.PFM.CD.service.cache.CategoryUsageCounter;
+import com.PFM.CD.service.categorization.CategorizationEngine;
+import com.PFM.CD.service.dto.ImportResult;
+import com.PFM.CD.service.dto.ImportStageStats;
+import com.PFM.CD.utils.file.CsvReader;
+import com.PFM.CD.utils.file.CsvRecord;
+import com.PFM.CD.utils.file.CsvWriter;
+import com.PFM.CD.utils.file.MappedCsvSplitter;
+import com.PFM.CD.utils.file.TempFileManager;
+import com.PFM.CD.utils.file.TsvWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 并行CSV交易导入流水线
+ * 导入分为六个阶段，阶段之间用有界队列连接，每个阶段在自己的线程中按文件顺序逐批处理：
+ * 1. 解析：文件通过内存映射切分为由完整记录组成的块，在ForkJoin线程池中并行解析后切成批次
+ * 2. 规范化：识别交易类型，去除名称首尾空白，合并备注中的空白，金额统一为两位小数
+ * 3. 校验：每批汇总出现的账户和分类名称后统一查找，检查账户状态和分类类型；
+ *    分类为空的行按自动分类规则（见CategorizationEngine）选择分类，规则集在导入开始时编译一次
+ * 4. 去重：计算每行的指纹（见TransactionFingerprint），每批用一次索引查询找出已导入过的指纹，跳过重复的行
+ * 5. 汇总：按账户汇总余额变化，按分类和日期汇总预算支出
+ * 6. 写入：在一个数据库事务中插入一批交易并应用汇总后的余额和预算变化
+ * 下游队列满时上游阶段阻塞等待，内存占用只与批大小、队列容量和并行度有关。
+ * 批量装载模式下写入阶段把交易写入临时TSV文件，每bulkLoadRows行用LOAD DATA LOCAL INFILE装载一次，
+ * 由数据库用集合SQL合并并更新余额和预算；数据库不允许LOCAL INFILE时自动改回逐批插入。
+ * 被拒绝和重复的行连同原因写入拒绝文件，结果中包含各阶段的吞吐量和排队等待时间。
+ *
+ * CSV格式与交易导出相同，按标题行的列名定位字段：日期、类型、分类、金额为必填列，
+ * 转出账户、转入账户、备注为可选列，其余列（如交易ID）忽略。配置了自动分类引擎时分类列也是可选列。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ParallelCsvImporter {
+
+    /**
+     * 默认并行度
+     */
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 默认每批的交易数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * 默认阶段之间队列的容量（批次数）
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    /**
+     * 默认批量装载模式下每次装载的交易数
+     */
+    public static final int DEFAULT_BULK_LOAD_ROWS = 50_000;
+
+    static final String COLUMN_DATE = "日期";
+    static final String COLUMN_TYPE = "类型";
+    static final String COLUMN_CATEGORY = "分类";
+    static final String COLUMN_AMOUNT = "金额";
+    static final String COLUMN_SOURCE_ACCOUNT = "转出账户";
+    static final String COLUMN_DESTINATION_ACCOUNT = "转入账户";
+    static final String COLUMN_DESCRIPTION = "备注";
+
+    // 结果中最多保留的错误信息条数
+    private static final int MAX_ERRORS = 100;
+
+    // 拒绝文件的保留时间（小时）
+    private static final long REJECT_FILE_EXPIRATION_HOURS = 72;
+
+    // 装载文件的保留时间（小时），装载后立即删除，只在进程异常退出时由过期清理删除
+    private static final long LOAD_FILE_EXPIRATION_HOURS = 1;
+
+    // 流水线结束标记，按引用比较
+    private static final Batch END_OF_INPUT = new Batch(Collections.emptyList());
+
+    private final TransactionDao transactionDao;
+    private final AccountDao accountDao;
+    private final CategoryCache categoryCache;
+    private final CategoryUsageCounter categoryUsageCounter;
+    private final CategorizationEngine categorizationEngine;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int bulkLoadRows;
+
+    /**
+     * 构造函数，不自动分类，使用默认的并行度、块大小、批大小、队列容量和装载行数
+     *
+     * @param transactionDao 交易DAO接口
+     * @param accountDao 账户DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param categoryUsageCounter 分类使用次数计数器
+     */
+    public ParallelCsvImporter(TransactionDao transactionDao, AccountDao accountDao, CategoryCache categoryCache,
+                               CategoryUsageCounter categoryUsageCounter) {
+        this(transactionDao, accountDao, categoryCache, categoryUsageCounter, null, DEFAULT_PARALLELISM,
+                MappedCsvSplitter.DEFAULT_CHUNK_SIZE, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY,
+                DEFAULT_BULK_LOAD_ROWS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param transactionDao 交易DAO接口
+     * @param accountDao 账户DAO接口
+     * @param categoryCache 分类目录缓存
+     * @param categoryUsageCounter 分类使用次数计数器
+     * @param categorizationEngine 自动分类引擎，为null时分类列必填
+     * @param parallelism 解析线程数
+     * @param chunkSize 块大小（字节）
+     * @param batchSize 每批的交易数
+     * @param queueCapacity 阶段之间队列的容量（批次数）
+     * @param bulkLoadRows 批量装载模式下每次装载的交易数
+     */
+    public ParallelCsvImporter(TransactionDao transactionDao, AccountDao accountDao, CategoryCache categoryCache,
+                               CategoryUsageCounter categoryUsageCounter, CategorizationEngine categorizationEngine,
+                               int parallelism, int chunkSize, int batchSize, int queueCapacity, int bulkLoadRows) {
+        this.transactionDao = transactionDao;
+        this.accountDao = accountDao;
+        this.categoryCache = categoryCache;
+        this.categoryUsageCounter = categoryUsageCounter;
+        this.categorizationEngine = categorizationEngine;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        this.chunkSize = Math.max(64 * 1024, chunkSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.bulkLoadRows = Math.max(this.batchSize, bulkLoadRows);
+    }
+
+    /**
+     * 导入CSV文件中的交易
+     * 每批交易在一个数据库事务中写入；任一阶段失败时停止导入，之前已提交的批次保留
+     *
+     * @param userId 用户ID
+     * @param file CSV文件（UTF-8编码）
+     * @return 导入结果
+     * @throws IOException 如果文件读取失败、缺少必填列或导入被中断
+     * @throws SQLException 如果查询或写入数据库失败
+     */
+    public ImportResult importCsv(int userId, Path file) throws IOException, SQLException {
+        return importCsv(userId, file, false);
+    }
+
+    /**
+     * 导入CSV文件中的交易
+     * 批量装载模式适合首次迁移大量历史数据，每次装载在一个数据库事务中完成
+     *
+     * @param userId 用户ID
+     * @param file CSV文件（UTF-8编码）
+     * @param bulkLoad 是否使用LOAD DATA LOCAL INFILE批量装载
+     * @return 导入结果
+     * @throws IOException 如果文件读取失败、缺少必填列或导入被中断
+     * @throws SQLException 如果查询或写入数据库失败
+     */
+    public ImportResult importCsv(int userId, Path file, boolean bulkLoad) throws IOException, SQLException {
+        long begin = System.currentTimeMillis();
+        ImportResult result = new ImportResult();
+
+        try (MappedCsvSplitter splitter = new MappedCsvSplitter(file, chunkSize, ',', '"',
+                StandardCharsets.UTF_8)) {
+            List<MappedCsvSplitter.Chunk> chunks = splitter.split(true);
+            if (chunks.isEmpty()) {
+                return result;
+            }
+
+            ImportRun run = new ImportRun(userId, splitter, readHeader(splitter, chunks.get(0)),
+                    chunks.subList(1, chunks.size()), bulkLoad);
+            try {
+                run.execute();
+            } finally {
+                run.closeRejects();
+                run.discardLoadFile();
+            }
+            run.fill(result);
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - begin);
+        return result;
+    }
+
+    /**
+     * 关闭解析线程池
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static String[] readHeader(MappedCsvSplitter splitter, MappedCsvSplitter.Chunk chunk)
+            throws IOException {
+        try (CsvReader reader = splitter.openReader(chunk)) {
+            CsvRecord header = reader.next();
+            String[] names = header == null ? new String[0] : header.toList().toArray(new String[0]);
+            if (reader.next() != null) {
+                // 标题块中还有数据时不能静默丢弃，否则导入会报告成功却少了记录
+                throw new IOException("无法识别标题行的结束位置，请检查文件的换行符");
+            }
+            for (int i = 0; i < names.length; i++) {
+                names[i] = names[i].trim();
+            }
+            return names;
+        }
+    }
+
+    private static int indexOf(String[] header, String column, boolean required) throws IOException {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(column)) {
+                return i;
+            }
+        }
+        if (required) {
+            throw new IOException("CSV缺少必填列: " + column);
+        }
+        return -1;
+    }
+
+    /**
+     * 把连续空白（包括换行）合并为一个空格并去除首尾空白
+     *
+     * @param value 原始文本
+     * @return 规范化后的文本，为空时返回null
+     */
+    static String normalizeText(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        boolean space = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) {
+                    sb.append(' ');
+                    space = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    private static TransactionType parseType(String value) {
+        for (TransactionType type : TransactionType.values()) {
+            if (type.getDisplayName().equals(value)) {
+                return type;
+            }
+        }
+        return TransactionType.fromString(value);
+    }
+
+    /**
+     * 一行导入数据，保留原始字段用于写入拒绝文件
+     */
+    private static final class Row {
+
+        private final long lineNumber;
+        private final String[] raw;
+        private LocalDate date;
+        private BigDecimal amount;
+        private String typeText;
+        private String categoryName;
+        private String sourceAccountName;
+        private String destinationAccountName;
+        private String description;
+        private TransactionType type;
+        private String accountName;
+        private Transaction transaction;
+
+        private Row(long lineNumber, String[] raw) {
+            this.lineNumber = lineNumber;
+            this.raw = raw;
+        }
+    }
+
+    /**
+     * 在阶段之间传递的一批数据
+     */
+    private static final class Batch {
+
+        private final List<Row> rows;
+        private long enqueuedAt;
+        private Map<Integer, BigDecimal> balanceDeltas;
+        private Map<Integer, Map<LocalDate, BigDecimal>> spentDeltas;
+        private Map<Integer, Long> categoryUsage;
+
+        private Batch(List<Row> rows) {
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * 一个块的解析结果
+     */
+    private static final class ChunkResult {
+
+        private final List<Row> rows = new ArrayList<>();
+        private final List<Row> rejects = new ArrayList<>();
+        private final List<String> reasons = new ArrayList<>();
+        private long parseNanos;
+    }
+
+    /**
+     * 阶段的批处理逻辑，从batch.rows中移除的行不再进入下游
+     */
+    @FunctionalInterface
+    private interface BatchProcessor {
+
+        void process(Batch batch) throws Exception;
+    }
+
+    /**
+     * 阶段处理完所有批次后的收尾逻辑
+     */
+    @FunctionalInterface
+    private interface StageAction {
+
+        void run() throws Exception;
+    }
+
+    /**
+     * 一次导入的运行状态
+     */
+    private final class ImportRun {
+
+        private final int userId;
+        private final MappedCsvSplitter splitter;
+        private final String[] header;
+        private final List<MappedCsvSplitter.Chunk> chunks;
+        private final int dateColumn;
+        private final int typeColumn;
+        private final int categoryColumn;
+        private final int amountColumn;
+        private final int sourceAccountColumn;
+        private final int destinationAccountColumn;
+        private final int descriptionColumn;
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final List<Stage> stages = new ArrayList<>();
+        private final List<Thread> threads = new ArrayList<>();
+
+        // 校验阶段使用的账户表，重新加载后仍找不到的名称不再触发加载
+        private final Map<String, Account> accounts = new HashMap<>();
+        private final Set<String> missingAccounts = new HashSet<>();
+
+        // 去重阶段按文件顺序计算指纹
+        private final TransactionFingerprint fingerprint;
+
+        // 自动分类规则集，导入开始时获取，没有自动分类引擎时为null
+        private CategorizationEngine.RuleSet ruleSet;
+
+        // 以下计数各由一个阶段线程写入，在所有阶段线程结束后读取
+        private long totalRows;
+        private long importedRows;
+        private long autoCategorizedRows;
+
+        // 拒绝文件由多个阶段写入，访问时同步
+        private final List<String> errors = new ArrayList<>();
+        private Path rejectFile;
+        private CsvWriter rejectWriter;
+        private long rejectedRows;
+        private long duplicateRows;
+
+        // 批量装载模式下写入装载文件、等待装载的批次，只由写入阶段访问
+        private boolean bulkLoad;
+        private boolean bulkLoaded;
+        private final List<Batch> loadBatches = new ArrayList<>();
+        private Path loadFile;
+        private TsvWriter loadWriter;
+        private long loadRows;
+
+        private ImportRun(int userId, MappedCsvSplitter splitter, String[] header,
+                          List<MappedCsvSplitter.Chunk> chunks, boolean bulkLoad) throws IOException {
+            this.userId = userId;
+            this.bulkLoad = bulkLoad;
+            this.splitter = splitter;
+            this.header = header;
+            this.chunks = chunks;
+            this.fingerprint = new TransactionFingerprint(userId);
+            this.dateColumn = indexOf(header, COLUMN_DATE, true);
+            this.typeColumn = indexOf(header, COLUMN_TYPE, true);
+            this.categoryColumn = indexOf(header, COLUMN_CATEGORY, categorizationEngine == null);
+            this.amountColumn = indexOf(header, COLUMN_AMOUNT, true);
+            this.sourceAccountColumn = indexOf(header, COLUMN_SOURCE_ACCOUNT, false);
+            this.destinationAccountColumn = indexOf(header, COLUMN_DESTINATION_ACCOUNT, false);
+            this.descriptionColumn = indexOf(header, COLUMN_DESCRIPTION, false);
+        }
+
+        /**
+         * 启动所有阶段并等待完成，任一阶段失败时抛出第一个异常
+         */
+        private void execute() throws IOException, SQLException {
+            loadAccounts();
+            if (categorizationEngine != null) {
+                ruleSet = categorizationEngine.getRuleSet(userId);
+            }
+
+            List<BlockingQueue<Batch>> queues = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                queues.add(new ArrayBlockingQueue<>(queueCapacity));
+            }
+            stages.add(new ParseStage(queues.get(0)));
+            stages.add(new Stage("规范化", queues.get(0), queues.get(1), this::normalize));
+            stages.add(new Stage("校验", queues.get(1), queues.get(2), this::validate));
+            stages.add(new Stage("去重", queues.get(2), queues.get(3), this::deduplicate));
+            stages.add(new Stage("汇总", queues.get(3), queues.get(4), this::aggregate));
+            stages.add(new Stage("写入", queues.get(4), null, this::write, this::flushLoadFile));
+
+            for (int i = 0; i < stages.size(); i++) {
+                Thread thread = new Thread(stages.get(i), "csv-import-" + userId + "-" + (i + 1));
+                thread.setDaemon(true);
+                threads.add(thread);
+            }
+            threads.forEach(Thread::start);
+
+            boolean interrupted = false;
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        fail(new InterruptedIOException("导入被中断"));
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            Throwable cause = failure.get();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else if (cause != null) {
+                throw new IOException("导入失败: " + cause.getMessage(), cause);
+            }
+        }
+
+        /**
+         * 记录第一个失败并中断所有阶段
+         */
+        private void fail(Throwable cause) {
+            if (failure.compareAndSet(null, cause)) {
+                for (Thread thread : threads) {
+                    thread.interrupt();
+                }
+            }
+        }
+
+        private void loadAccounts() throws SQLException {
+            accounts.clear();
+            for (Account account : accountDao.findByUserId(userId)) {
+                accounts.put(account.getAccountName(), account);
+            }
+        }
+
+        /**
+         * 在线程池中解析一个块，日期和金额格式错误或列数不足的行直接拒绝
+         */
+        private ChunkResult parseChunk(MappedCsvSplitter.Chunk chunk) throws IOException {
+            long begin = System.nanoTime();
+            ChunkResult result = new ChunkResult();
+
+            try (CsvReader reader = splitter.openReader(chunk)) {
+                CsvRecord record;
+                while ((record = reader.next()) != null) {
+                    if (record.size() == 0) {
+                        continue;
+                    }
+                    Row row = new Row(record.getLineNumber(), record.toList().toArray(new String[0]));
+                    try {
+                        row.date = record.getLocalDate(dateColumn);
+                        row.amount = record.getBigDecimal(amountColumn);
+                        row.typeText = row.raw[typeColumn];
+                        row.categoryName = field(row, categoryColumn);
+                        row.sourceAccountName = field(row, sourceAccountColumn);
+                        row.destinationAccountName = field(row, destinationAccountColumn);
+                        row.description = field(row, descriptionColumn);
+                        result.rows.add(row);
+                    } catch (NumberFormatException | DateTimeException e) {
+                        // 字段访问器的错误信息已包含行号和列号
+                        result.rejects.add(row);
+                        result.reasons.add(e.getMessage());
+                    } catch (IndexOutOfBoundsException e) {
+                        result.rejects.add(row);
+                        result.reasons.add("第" + row.lineNumber + "行: 列数不足");
+                    }
+                }
+            }
+
+            result.parseNanos = System.nanoTime() - begin;
+            return result;
+        }
+
+        private String field(Row row, int column) {
+            return column >= 0 && column < row.raw.length ? row.raw[column] : null;
+        }
+
+        private void normalize(Batch batch) throws IOException {
+            LocalDate today = LocalDate.now();
+            Iterator<Row> it = batch.rows.iterator();
+            while (it.hasNext()) {
+                Row row = it.next();
+                String reason = normalizeRow(row, today);
+                if (reason != null) {
+                    it.remove();
+                    reject(row, "第" + row.lineNumber + "行: " + reason, false);
+                }
+            }
+        }
+
+        private String normalizeRow(Row row, LocalDate today) {
+            String typeText = row.typeText.trim();
+            row.type = parseType(typeText);
+            if (row.type == null) {
+                return "交易类型无效: " + typeText;
+            }
+            if (row.date == null) {
+                return "日期不能为空";
+            }
+            if (row.date.isAfter(today)) {
+                return "交易日期不能是未来日期";
+            }
+            if (row.amount == null || row.amount.signum() <= 0) {
+                return "金额必须为正数";
+            }
+            if (row.amount.stripTrailingZeros().scale() > 2) {
+                return "金额最多保留两位小数: " + row.amount.toPlainString();
+            }
+            row.amount = row.amount.setScale(2);
+
+            row.categoryName = row.categoryName == null ? "" : row.categoryName.trim();
+            if (row.categoryName.isEmpty() && ruleSet == null) {
+                return "分类不能为空";
+            }
+
+            boolean source = row.type.requiresSourceAccount();
+            String accountName = source ? row.sourceAccountName : row.destinationAccountName;
+            row.accountName = accountName == null ? "" : accountName.trim();
+            if (row.accountName.isEmpty()) {
+                return (source ? COLUMN_SOURCE_ACCOUNT : COLUMN_DESTINATION_ACCOUNT) + "不能为空";
+            }
+
+            row.description = normalizeText(row.description);
+            return null;
+        }
+
+        private void validate(Batch batch) throws IOException, SQLException {
+            // 本批出现新的账户名称时只重新加载一次账户表
+            for (Row row : batch.rows) {
+                if (!accounts.containsKey(row.accountName) && !missingAccounts.contains(row.accountName)) {
+                    loadAccounts();
+                    for (Row other : batch.rows) {
+                        if (!accounts.containsKey(other.accountName)) {
+                            missingAccounts.add(other.accountName);
+                        }
+                    }
+                    break;
+                }
+            }
+
+            // 本批出现的每个分类名称只查找一次
+            Map<String, Category> categories = new HashMap<>();
+            Iterator<Row> it = batch.rows.iterator();
+            while (it.hasNext()) {
+                Row row = it.next();
+                Account account = accounts.get(row.accountName);
+                Category category = null;
+                String reason = null;
+                if (account == null) {
+                    reason = "账户不存在: " + row.accountName;
+                } else if (!account.isAvailableForTransaction()) {
+                    reason = "账户不可用: " + row.accountName;
+                } else if (row.categoryName.isEmpty()) {
+                    category = autoCategorize(row, account);
+                    if (category == null) {
+                        reason = "没有分类且没有匹配的分类规则";
+                    } else {
+                        autoCategorizedRows++;
+                    }
+                } else {
+                    String key = row.type.name() + '|' + row.categoryName;
+                    category = categories.get(key);
+                    if (category == null && !categories.containsKey(key)) {
+                        category = categoryCache.findByNameAndType(row.categoryName, row.type.toCategoryType());
+                        categories.put(key, category);
+                    }
+                    if (category == null) {
+                        reason = row.type.getDisplayName() + "分类不存在: " + row.categoryName;
+                    }
+                }
+                if (reason != null) {
+                    it.remove();
+                    reject(row, "第" + row.lineNumber + "行: " + reason, false);
+                    continue;
+                }
+
+                Transaction transaction = new Transaction();
+                transaction.setUserId(userId);
+                transaction.setTransactionType(row.type);
+                transaction.setTransactionDate(row.date);
+                transaction.setCategoryId(category.getCategoryId());
+                transaction.setAmount(row.amount);
+                if (row.type.requiresSourceAccount()) {
+                    transaction.setSourceAccountId(account.getAccountId());
+                } else {
+                    transaction.setDestinationAccountId(account.getAccountId());
+                }
+                transaction.setDescription(row.description);
+                row.transaction = transaction;
+            }
+        }
+
+        /**
+         * 按自动分类规则选择分类，规则指向的分类已删除或类型与交易不符时视为没有匹配
+         */
+        private Category autoCategorize(Row row, Account account) throws SQLException {
+            int categoryId = ruleSet.categorize(row.type, account.getAccountId(),
+                    CategorizationEngine.RuleSet.toCents(row.amount), row.description);
+            if (categoryId < 0) {
+                return null;
+            }
+            Category category = categoryCache.findById(categoryId);
+            if (category == null || category.getCategoryType() != row.type.toCategoryType()) {
+                return null;
+            }
+            return category;
+        }
+
+        private void deduplicate(Batch batch) throws IOException, SQLException {
+            if (batch.rows.isEmpty()) {
+                return;
+            }
+
+            // 本批的指纹放入内存中的集合，用一次索引查询找出已存在的指纹
+            Set<String> fingerprints = new HashSet<>(batch.rows.size() * 2);
+            for (Row row : batch.rows) {
+                row.transaction.setFingerprint(fingerprint.next(row.transaction));
+                fingerprints.add(row.transaction.getFingerprint());
+            }
+            Set<String> existing = transactionDao.findExistingFingerprints(userId, fingerprints);
+            if (existing.isEmpty()) {
+                return;
+            }
+
+            Iterator<Row> it = batch.rows.iterator();
+            while (it.hasNext()) {
+                Row row = it.next();
+                if (existing.contains(row.transaction.getFingerprint())) {
+                    it.remove();
+                    reject(row, "第" + row.lineNumber + "行: 与已导入的交易重复", true);
+                }
+            }
+        }
+
+        private void aggregate(Batch batch) {
+            batch.balanceDeltas = new HashMap<>();
+            batch.spentDeltas = new HashMap<>();
+            batch.categoryUsage = new HashMap<>();
+
+            for (Row row : batch.rows) {
+                Transaction transaction = row.transaction;
+                if (transaction.getTransactionType().requiresSourceAccount()) {
+                    batch.balanceDeltas.merge(transaction.getSourceAccountId(), transaction.getAmount().negate(),
+                            BigDecimal::add);
+                    batch.spentDeltas.computeIfAbsent(transaction.getCategoryId(), id -> new HashMap<>())
+                            .merge(transaction.getTransactionDate(), transaction.getAmount(), BigDecimal::add);
+                } else {
+                    batch.balanceDeltas.merge(transaction.getDestinationAccountId(), transaction.getAmount(),
+                            BigDecimal::add);
+                }
+                batch.categoryUsage.merge(transaction.getCategoryId(), 1L, Long::sum);
+            }
+        }
+
+        private void write(Batch batch) throws IOException, SQLException {
+            if (batch.rows.isEmpty()) {
+                return;
+            }
+            if (!bulkLoad) {
+                insert(batch);
+                return;
+            }
+
+            if (loadWriter == null) {
+                loadFile = TempFileManager.createTempFile("import_load_", ".tsv", LOAD_FILE_EXPIRATION_HOURS);
+                loadWriter = new TsvWriter(new BufferedWriter(new OutputStreamWriter(
+                        Files.newOutputStream(loadFile), StandardCharsets.UTF_8)));
+            }
+            for (Row row : batch.rows) {
+                Transaction transaction = row.transaction;
+                loadWriter.writeField(transaction.getSourceAccountId())
+                        .writeField(transaction.getDestinationAccountId())
+                        .writeField(transaction.getCategoryId())
+                        .writeField(transaction.getAmount())
+                        .writeField(transaction.getTransactionType().toString())
+                        .writeField(transaction.getTransactionDate())
+                        .writeField(transaction.getDescription())
+                        .writeField(transaction.getFingerprint())
+                        .endRow();
+            }
+            loadBatches.add(batch);
+            loadRows += batch.rows.size();
+            if (loadRows >= bulkLoadRows) {
+                flushLoadFile();
+            }
+        }
+
+        /**
+         * 装载已写入装载文件的交易；数据库不允许LOCAL INFILE时把这些批次改为逐批插入，并关闭批量装载模式
+         */
+        private void flushLoadFile() throws IOException, SQLException {
+            if (loadBatches.isEmpty()) {
+                return;
+            }
+
+            try {
+                loadWriter.close();
+                importedRows += transactionDao.bulkLoad(userId, loadFile);
+                bulkLoaded = true;
+                for (Batch batch : loadBatches) {
+                    updateUsage(batch);
+                }
+            } catch (SQLFeatureNotSupportedException e) {
+                System.err.println("数据库不允许批量装载，改用批量插入: " + e.getMessage());
+                bulkLoad = false;
+                for (Batch batch : loadBatches) {
+                    insert(batch);
+                }
+            } finally {
+                discardLoadFile();
+                loadBatches.clear();
+                loadRows = 0;
+            }
+        }
+
+        private void discardLoadFile() throws IOException {
+            if (loadWriter != null) {
+                loadWriter.close();
+                loadWriter = null;
+            }
+            if (loadFile != null) {
+                TempFileManager.deleteTempFile(loadFile);
+                loadFile = null;
+            }
+        }
+
+        /**
+         * 在一个数据库事务中插入一批交易并应用汇总后的余额和预算变化
+         */
+        private void insert(Batch batch) throws SQLException {
+            List<Transaction> transactions = new ArrayList<>(batch.rows.size());
+            for (Row row : batch.rows) {
+                transactions.add(row.transaction);
+            }
+            importedRows += transactionDao.importBatch(userId, transactions, batch.balanceDeltas,
+                    batch.spentDeltas);
+            updateUsage(batch);
+        }
+
+        private void updateUsage(Batch batch) {
+            for (Map.Entry<Integer, Long> entry : batch.categoryUsage.entrySet()) {
+                try {
+                    categoryUsageCounter.add(userId, entry.getKey(), entry.getValue());
+                } catch (SQLException e) {
+                    // 计数仅用于常用分类推荐，失败不影响已导入的交易
+                    System.err.println("更新分类使用计数失败: " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * 把被拒绝的行连同原因写入拒绝文件，第一次拒绝时创建文件
+         */
+        private synchronized void reject(Row row, String reason, boolean duplicate) throws IOException {
+            if (duplicate) {
+                duplicateRows++;
+            } else {
+                rejectedRows++;
+            }
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(reason);
+            }
+
+            if (rejectWriter == null) {
+                rejectFile = TempFileManager.createTempFile("import_rejects_", ".csv", REJECT_FILE_EXPIRATION_HOURS);
+                rejectWriter = new CsvWriter(new BufferedWriter(new OutputStreamWriter(
+                        Files.newOutputStream(rejectFile), StandardCharsets.UTF_8)));
+                rejectWriter.writeField("行号").writeField("原因");
+                for (String name : header) {
+                    rejectWriter.writeField(name);
+                }
+                rejectWriter.endRow();
+            }
+
+            rejectWriter.writeField(row.lineNumber).writeField(reason);
+            for (String value : row.raw) {
+                rejectWriter.writeField(value);
+            }
+            rejectWriter.endRow();
+        }
+
+        private synchronized void closeRejects() throws IOException {
+            if (rejectWriter != null) {
+                rejectWriter.close();
+            }
+        }
+
+        private void fill(ImportResult result) {
+            result.setTotalRows(totalRows);
+            result.setImportedRows(importedRows);
+            result.setRejectedRows(rejectedRows);
+            result.setDuplicateRows(duplicateRows);
+            result.setAutoCategorizedRows(autoCategorizedRows);
+            result.setChunkCount(chunks.size());
+            result.setRejectFile(rejectFile == null ? null : rejectFile.toString());
+            result.setErrors(errors);
+            result.setBulkLoaded(bulkLoaded);
+
+            List<ImportStageStats> stats = new ArrayList<>(stages.size());
+            for (Stage stage : stages) {
+                stats.add(stage.toStats());
+            }
+            result.setStages(stats);
+        }
+
+        /**
+         * 流水线阶段：从输入队列逐批取出数据，处理后放入输出队列
+         */
+        private class Stage implements Runnable {
+
+            private final String name;
+            private final BlockingQueue<Batch> input;
+            private final BlockingQueue<Batch> output;
+            private final BatchProcessor processor;
+            private final StageAction finisher;
+
+            long batches;
+            long rows;
+            long busyNanos;
+            private long blockedNanos;
+            private long totalLagNanos;
+            private long maxLagNanos;
+
+            private Stage(String name, BlockingQueue<Batch> input, BlockingQueue<Batch> output,
+                          BatchProcessor processor) {
+                this(name, input, output, processor, null);
+            }
+
+            private Stage(String name, BlockingQueue<Batch> input, BlockingQueue<Batch> output,
+                          BatchProcessor processor, StageAction finisher) {
+                this.name = name;
+                this.input = input;
+                this.output = output;
+                this.processor = processor;
+                this.finisher = finisher;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    Batch batch;
+                    while ((batch = input.take()) != END_OF_INPUT) {
+                        long begin = System.nanoTime();
+                        long lag = begin - batch.enqueuedAt;
+                        totalLagNanos += lag;
+                        maxLagNanos = Math.max(maxLagNanos, lag);
+
+                        processor.process(batch);
+                        batches++;
+                        rows += batch.rows.size();
+                        busyNanos += System.nanoTime() - begin;
+                        emit(batch);
+                    }
+                    if (finisher != null) {
+                        long begin = System.nanoTime();
+                        finisher.run();
+                        busyNanos += System.nanoTime() - begin;
+                    }
+                    emit(END_OF_INPUT);
+                } catch (InterruptedException e) {
+                    // 其他阶段失败时被中断，失败原因已记录
+                } catch (Throwable t) {
+                    fail(t);
+                }
+            }
+
+            /**
+             * 放入输出队列，队列满时阻塞等待
+             */
+            void emit(Batch batch) throws InterruptedException {
+                if (output == null) {
+                    return;
+                }
+                long begin = System.nanoTime();
+                batch.enqueuedAt = begin;
+                output.put(batch);
+                blockedNanos += System.nanoTime() - begin;
+            }
+
+            private ImportStageStats toStats() {
+                return new ImportStageStats(name, batches, rows, busyNanos, blockedNanos, totalLagNanos,
+                        maxLagNanos);
+            }
+        }
+
+        /**
+         * 解析阶段：在线程池中并行解析各块，按文件顺序切成批次输出
+         * 最多同时解析parallelism + 1个块，处理时间是各块解析时间之和
+         */
+        private final class ParseStage extends Stage {
+
+            private ParseStage(BlockingQueue<Batch> output) {
+                super("解析", null, output, null);
+            }
+
+            @Override
+            public void run() {
+                Iterator<MappedCsvSplitter.Chunk> it = chunks.iterator();
+                int window = pool.getParallelism() + 1;
+                Deque<ForkJoinTask<ChunkResult>> pending = new ArrayDeque<>(window);
+
+                try {
+                    while (pending.size() < window && it.hasNext()) {
+                        MappedCsvSplitter.Chunk chunk = it.next();
+                        pending.add(pool.submit(() -> parseChunk(chunk)));
+                    }
+
+                    while (!pending.isEmpty()) {
+                        ChunkResult result = await(pending.poll());
+                        if (it.hasNext()) {
+                            MappedCsvSplitter.Chunk chunk = it.next();
+                            pending.add(pool.submit(() -> parseChunk(chunk)));
+                        }
+
+                        busyNanos += result.parseNanos;
+                        totalRows += result.rows.size() + result.rejects.size();
+                        for (int i = 0; i < result.rejects.size(); i++) {
+                            reject(result.rejects.get(i), result.reasons.get(i), false);
+                        }
+                        for (int from = 0; from < result.rows.size(); from += batchSize) {
+                            int to = Math.min(from + batchSize, result.rows.size());
+                            batches++;
+                            rows += to - from;
+                            emit(new Batch(new ArrayList<>(result.rows.subList(from, to))));
+                        }
+                    }
+                    emit(END_OF_INPUT);
+                } catch (InterruptedException e) {
+                    // 其他阶段失败时被中断，失败原因已记录
+                } catch (Throwable t) {
+                    fail(t);
+                } finally {
+                    for (ForkJoinTask<ChunkResult> task : pending) {
+                        task.cancel(true);
+                    }
+                }
+            }
+
+            private ChunkResult await(ForkJoinTask<ChunkResult> task) throws InterruptedException, IOException {
+                try {
+                    return task.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException("解析CSV失败: " + cause.getMessage(), cause);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.PFM.CD.service.importer;
+
+import com.PFM.CD.entity.Transaction;
+import com.PFM.CD.utils.security.EncryptionUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 导入交易指纹生成器
+ * 指纹是（用户、账户、日期、带方向的金额、规范化备注、序号）的SHA-256摘要，存入transactions.fingerprint列，
+ * (user_id, fingerprint)上有唯一索引。分类不参与计算，重新导入时即使分类不同也能识别重复。
+ * 同一文件中完全相同的交易（如同一天两笔相同的消费）按出现顺序编号，指纹不同，都会导入；
+ * 重新导入有重叠的账单时，重叠部分按相同的顺序编号，指纹与已导入的交易一致。
+ * 序号计数只保存前一个摘要的64位前缀，每个不同的交易约占几十字节。
+ * 一个实例对应一次导入，不是线程安全的。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class TransactionFingerprint {
+
+    private final int userId;
+    private final MessageDigest digest;
+    private final Map<Long, Integer> occurrences = new HashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param userId 用户ID
+     */
+    public TransactionFingerprint(int userId) {
+        this.userId = userId;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 所有Java平台都必须支持SHA-256
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+    }
+
+    /**
+     * 计算交易的指纹，同时增加相同交易的序号
+     *
+     * @param transaction 交易，账户、日期和金额不能为空
+     * @return 64位小写十六进制指纹
+     */
+    public String next(Transaction transaction) {
+        boolean expense = transaction.getTransactionType().requiresSourceAccount();
+        Integer accountId = expense ? transaction.getSourceAccountId() : transaction.getDestinationAccountId();
+        String amount = (expense ? transaction.getAmount().negate() : transaction.getAmount())
+                .setScale(2).toPlainString();
+        String base = userId + "|" + accountId + "|" + transaction.getTransactionDate() + "|" + amount + "|"
+                + normalizeDescription(transaction.getDescription());
+
+        byte[] hash = digest.digest(base.getBytes(StandardCharsets.UTF_8));
+        long key = 0;
+        for (int i = 0; i < 8; i++) {
+            key = (key << 8) | (hash[i] & 0xFF);
+        }
+        int occurrence = occurrences.merge(key, 1, Integer::sum) - 1;
+
+        return EncryptionUtils.sha256Hex(base + "#" + occurrence);
+    }
+
+    /**
+     * 规范化备注：全角字符转半角，转小写，合并连续空白
+     *
+     * @param description 备注
+     * @return 规范化后的备注，为空时返回空字符串
+     */
+    static String normalizeDescription(String description) {
+        if (description == null) {
+            return "";
+        }
+        String text = ParallelCsvImporter.normalizeText(
+                Normalizer.normalize(description, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT));
+        return text == null ? "" : text;
+    }
+}
@@ -39,9 +39,9 @@ public interface AccountService {
     /**
      * 更新账户信息
      *
-     * @param account 需要更新的账户信息
+     * @param account 需要更新的账户信息，userId为当前用户
      * @return 更新后的账户
-     * @throws ServiceException 如果更新过程中发生错误
+     * @throws ServiceException 如果账户不属于当前用户或更新过程中发生错误
      */
     Account updateAccount(Account account) throws ServiceException;
 
@@ -58,12 +58,13 @@ public interface AccountService {
     /**
      * 删除账户
      *
+     * @param userId 当前用户ID
      * @param accountId 账户ID
      * @param transferAccountId 转移资金的目标账户ID（如果有余额）
      * @return 是否删除成功
-     * @throws ServiceException 如果删除过程中发生错误
+     * @throws ServiceException 如果账户不属于当前用户或删除过程中发生错误
      */
-    boolean deleteAccount(int accountId, Integer transferAccountId) throws ServiceException;
+    boolean deleteAccount(int userId, int accountId, Integer transferAccountId) throws ServiceException;
 
     /**
      * 获取用户的所有账户
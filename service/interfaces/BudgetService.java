@@ -44,20 +44,21 @@ public interface BudgetService {
     /**
      * 更新预算信息
      *
-     * @param budget 需要更新的预算信息
+     * @param budget 需要更新的预算信息，userId为当前用户
      * @return 更新后的预算
-     * @throws ServiceException 如果更新过程中发生错误
+     * @throws ServiceException 如果预算不属于当前用户或更新过程中发生错误
      */
     Budget updateBudget(Budget budget) throws ServiceException;
 
     /**
      * 删除预算
      *
+     * @param userId 当前用户ID
      * @param budgetId 预算ID
      * @return 是否删除成功
-     * @throws ServiceException 如果删除过程中发生错误
+     * @throws ServiceException 如果预算不属于当前用户或删除过程中发生错误
      */
-    boolean deleteBudget(int budgetId) throws ServiceException;
+    boolean deleteBudget(int userId, int budgetId) throws ServiceException;
 
     /**
      * 获取用户的所有预算
@@ -0,0 +1,109 @@
+package com.PFM.CD.service.interfaces;
+
+import com.PFM.CD.entity.CategorizationRule;
+import com.PFM.CD.entity.Category;
+import com.PFM.CD.entity.enums.TransactionType;
+import com.PFM.CD.service.exception.ServiceException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 自动分类服务接口，管理自动分类规则并为交易推荐分类
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public interface CategorizationService {
+
+    /**
+     * 添加用户自己的分类规则
+     * 交易类型为空时取目标分类的类型；全局规则只能通过{@link #addGlobalRule}添加
+     *
+     * @param rule 分类规则，userId不能为null
+     * @return 保存后的规则
+     * @throws ServiceException 如果规则无效或保存过程中发生错误
+     */
+    CategorizationRule addRule(CategorizationRule rule) throws ServiceException;
+
+    /**
+     * 更新分类规则
+     *
+     * @param userId 用户ID
+     * @param rule 分类规则
+     * @return 更新后的规则
+     * @throws ServiceException 如果规则无效、不属于该用户或更新过程中发生错误
+     */
+    CategorizationRule updateRule(int userId, CategorizationRule rule) throws ServiceException;
+
+    /**
+     * 删除分类规则
+     *
+     * @param userId 用户ID
+     * @param ruleId 规则ID
+     * @return 是否删除成功
+     * @throws ServiceException 如果规则不属于该用户或删除过程中发生错误
+     */
+    boolean deleteRule(int userId, int ruleId) throws ServiceException;
+
+    /**
+     * 添加全局分类规则，对所有用户生效，只有全局规则管理员可以操作
+     *
+     * @param adminUserId 操作的用户ID
+     * @param rule 分类规则，userId会被清空
+     * @return 保存后的规则
+     * @throws ServiceException 如果没有权限、规则无效或保存过程中发生错误
+     */
+    CategorizationRule addGlobalRule(int adminUserId, CategorizationRule rule) throws ServiceException;
+
+    /**
+     * 更新全局分类规则，只有全局规则管理员可以操作
+     *
+     * @param adminUserId 操作的用户ID
+     * @param rule 分类规则
+     * @return 更新后的规则
+     * @throws ServiceException 如果没有权限、规则不是全局规则、规则无效或更新过程中发生错误
+     */
+    CategorizationRule updateGlobalRule(int adminUserId, CategorizationRule rule) throws ServiceException;
+
+    /**
+     * 删除全局分类规则，只有全局规则管理员可以操作
+     *
+     * @param adminUserId 操作的用户ID
+     * @param ruleId 规则ID
+     * @return 是否删除成功
+     * @throws ServiceException 如果没有权限、规则不是全局规则或删除过程中发生错误
+     */
+    boolean deleteGlobalRule(int adminUserId, int ruleId) throws ServiceException;
+
+    /**
+     * 获取用户自己的分类规则（包括停用的）
+     *
+     * @param userId 用户ID
+     * @return 规则列表
+     * @throws ServiceException 如果获取过程中发生错误
+     */
+    List<CategorizationRule> getRules(int userId) throws ServiceException;
+
+    /**
+     * 获取全局分类规则（包括停用的）
+     *
+     * @return 规则列表
+     * @throws ServiceException 如果获取过程中发生错误
+     */
+    List<CategorizationRule> getGlobalRules() throws ServiceException;
+
+    /**
+     * 按分类规则为交易推荐分类
+     *
+     * @param userId 用户ID
+     * @param type 交易类型
+     * @param accountId 账户ID，可为null
+     * @param amount 金额
+     * @param description 备注
+     * @return 推荐的分类，没有匹配的规则时返回null
+     * @throws ServiceException 如果推荐过程中发生错误
+     */
+    Category suggestCategory(int userId, TransactionType type, Integer accountId, BigDecimal amount,
+                             String description) throws ServiceException;
+}
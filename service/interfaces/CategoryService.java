@@ -24,6 +24,17 @@ public interface CategoryService {
      */
     Category createCategory(String categoryName, CategoryType categoryType) throws ServiceException;
 
+    /**
+     * 创建子分类
+     *
+     * @param categoryName 分类名称
+     * @param categoryType 分类类型，必须与父分类一致
+     * @param parentId 父分类ID，为null时创建顶级分类
+     * @return 创建的分类
+     * @throws ServiceException 如果创建过程中发生错误
+     */
+    Category createCategory(String categoryName, CategoryType categoryType, Integer parentId) throws ServiceException;
+
     /**
      * 获取分类信息
      *
@@ -43,7 +54,7 @@ public interface CategoryService {
     Category updateCategory(Category category) throws ServiceException;
 
     /**
-     * 删除分类
+     * 删除分类，其子分类提升到被删除分类的父分类下
      *
      * @param categoryId 分类ID
      * @return 是否删除成功
@@ -51,6 +62,33 @@ public interface CategoryService {
      */
     boolean deleteCategory(int categoryId) throws ServiceException;
 
+    /**
+     * 移动分类到新的父分类下，子分类随之移动
+     *
+     * @param categoryId 分类ID
+     * @param newParentId 新父分类ID，为null时移动为顶级分类
+     * @return 移动后的分类
+     * @throws ServiceException 如果移动过程中发生错误
+     */
+    Category moveCategory(int categoryId, Integer newParentId) throws ServiceException;
+
+    /**
+     * 获取直接子分类
+     *
+     * @param parentId 父分类ID，为null时返回所有顶级分类
+     * @return 分类列表
+     * @throws ServiceException 如果获取过程中发生错误
+     */
+    List<Category> getChildCategories(Integer parentId) throws ServiceException;
+
+    /**
+     * 根据分类的父分类关系重建分类层级闭包表，用于数据迁移或修复
+     *
+     * @return 写入的层级路径数量
+     * @throws ServiceException 如果重建过程中发生错误
+     */
+    int rebuildCategoryHierarchy() throws ServiceException;
+
     /**
      * 获取所有分类
      *
@@ -77,6 +115,17 @@ public interface CategoryService {
      */
     List<Category> getMostUsedCategories(int limit) throws ServiceException;
 
+    /**
+     * 获取用户最常用的分类，用于新建交易时推荐默认分类
+     *
+     * @param userId 用户ID
+     * @param type 分类类型，为null时不限类型
+     * @param limit 数量限制
+     * @return 按使用次数降序排列的分类列表
+     * @throws ServiceException 如果获取过程中发生错误
+     */
+    List<Category> getUserMostUsedCategories(int userId, CategoryType type, int limit) throws ServiceException;
+
     /**
      * 检查分类名称是否可用
      *
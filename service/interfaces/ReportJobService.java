@@ -0,0 +1,84 @@
+package com.PFM.CD.service.interfaces;
+
+import com.PFM.CD.entity.Report;
+import com.PFM.CD.entity.ReportJob;
+import com.PFM.CD.entity.enums.ReportType;
+import com.PFM.CD.service.exception.ServiceException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报表任务服务接口
+ * 报表在后台线程中异步生成，提交后立即返回任务ID，通过任务ID查询进度、取消任务或获取结果
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public interface ReportJobService {
+
+    /**
+     * 提交报表生成任务
+     *
+     * @param userId 用户ID
+     * @param reportType 报表类型
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param parameters 报表参数
+     * @return 任务ID
+     * @throws ServiceException 如果任务队列已满或用户排队任务过多
+     */
+    int submitReportJob(int userId, ReportType reportType, LocalDate startDate, LocalDate endDate,
+                        Map<String, String> parameters) throws ServiceException;
+
+    /**
+     * 获取任务的当前状态和进度
+     *
+     * @param userId 用户ID
+     * @param jobId 任务ID
+     * @return 任务，不存在时返回null
+     * @throws ServiceException 如果任务不属于该用户
+     */
+    ReportJob getJob(int userId, int jobId) throws ServiceException;
+
+    /**
+     * 获取用户的所有任务
+     *
+     * @param userId 用户ID
+     * @return 任务列表，按创建时间倒序
+     */
+    List<ReportJob> getUserJobs(int userId) throws ServiceException;
+
+    /**
+     * 取消任务
+     * 排队中的任务立即取消；执行中的任务在进入下一个生成阶段时中止，
+     * 已标记取消的任务即使随后生成完成，最终状态也是已取消
+     *
+     * @param userId 用户ID
+     * @param jobId 任务ID
+     * @return 如果任务尚未结束并已标记取消返回true，否则返回false
+     * @throws ServiceException 如果任务不属于该用户
+     */
+    boolean cancelJob(int userId, int jobId) throws ServiceException;
+
+    /**
+     * 获取已完成任务生成的报表
+     *
+     * @param userId 用户ID
+     * @param jobId 任务ID
+     * @return 报表
+     * @throws ServiceException 如果任务不存在、不属于该用户或尚未成功完成
+     */
+    Report getJobResult(int userId, int jobId) throws ServiceException;
+
+    /**
+     * 启动服务，恢复重启前排队中和执行中的任务
+     */
+    void start();
+
+    /**
+     * 关闭工作线程，未完成的任务保持排队状态，下次启动时恢复
+     */
+    void shutdown();
+}
@@ -0,0 +1,94 @@
+package com.PFM.CD.service.interfaces;
+
+import com.PFM.CD.entity.Report;
+import com.PFM.CD.entity.ReportSchedule;
+import com.PFM.CD.entity.enums.ReportPeriod;
+import com.PFM.CD.entity.enums.ReportType;
+import com.PFM.CD.service.exception.ServiceException;
+
+import java.util.List;
+
+/**
+ * 定时报表服务接口
+ * 按用户定义的cron表达式在闲时窗口内提交报表任务，生成结果保存后可直接打开
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public interface ReportScheduleService {
+
+    /**
+     * 创建定时报表
+     *
+     * @param userId 用户ID
+     * @param name 名称
+     * @param reportType 报表类型
+     * @param period 报表覆盖的周期
+     * @param cronExpression cron表达式（分 时 日 月 周）
+     * @return 创建的定时报表
+     * @throws ServiceException 如果表达式无效或保存失败
+     */
+    ReportSchedule createSchedule(int userId, String name, ReportType reportType, ReportPeriod period,
+                                  String cronExpression) throws ServiceException;
+
+    /**
+     * 更新定时报表的名称、类型、周期、表达式和启用状态，并重新计算下次运行时间
+     *
+     * @param schedule 定时报表
+     * @return 更新后的定时报表
+     * @throws ServiceException 如果表达式无效或更新失败
+     */
+    ReportSchedule updateSchedule(ReportSchedule schedule) throws ServiceException;
+
+    /**
+     * 启用或停用定时报表
+     *
+     * @param scheduleId 定时报表ID
+     * @param enabled 是否启用
+     * @return 是否成功
+     */
+    boolean setScheduleEnabled(int scheduleId, boolean enabled) throws ServiceException;
+
+    /**
+     * 删除定时报表，已生成的报表保留
+     *
+     * @param scheduleId 定时报表ID
+     * @return 是否成功
+     */
+    boolean deleteSchedule(int scheduleId) throws ServiceException;
+
+    /**
+     * 获取定时报表
+     *
+     * @param scheduleId 定时报表ID
+     * @return 定时报表，不存在时返回null
+     */
+    ReportSchedule getSchedule(int scheduleId) throws ServiceException;
+
+    /**
+     * 获取用户的所有定时报表
+     *
+     * @param userId 用户ID
+     * @return 定时报表列表
+     */
+    List<ReportSchedule> getUserSchedules(int userId) throws ServiceException;
+
+    /**
+     * 获取定时报表最近一次生成的报表
+     *
+     * @param scheduleId 定时报表ID
+     * @return 报表，尚未生成过时返回null
+     * @throws ServiceException 如果定时报表不存在
+     */
+    Report getLatestReport(int scheduleId) throws ServiceException;
+
+    /**
+     * 启动定时调度，恢复重启前已提交但尚未回写结果的任务
+     */
+    void start();
+
+    /**
+     * 停止定时调度
+     */
+    void shutdown();
+}
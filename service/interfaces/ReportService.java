@@ -3,6 +3,7 @@ package com.PFM.CD.service.interfaces;
 import com.PFM.CD.entity.Report;
 import com.PFM.CD.entity.enums.ReportType;
 import com.PFM.CD.service.exception.ServiceException;
+import com.PFM.CD.service.job.ReportProgress;
 
 import java.io.OutputStream;
 import java.time.LocalDate;
@@ -29,12 +30,33 @@ public interface ReportService {
     Report generateAccountReport(int userId, LocalDate startDate, LocalDate endDate,
                                  Map<String, String> parameters) throws ServiceException;
 
+    /**
+     * 生成本期与上一期的对比报表
+     * 上一期由参数periodType（daily/weekly/monthly/quarterly/yearly）决定，compareWith=lastYear时取去年同期，
+     * 都不指定时取紧接本期之前、天数相同的一段时间
+     */
+    Report generatePeriodComparisonReport(int userId, LocalDate startDate, LocalDate endDate,
+                                          Map<String, String> parameters) throws ServiceException;
+
     /**
      * 根据报表类型生成自定义报表
      */
     Report generateCustomReport(int userId, ReportType reportType, LocalDate startDate,
                                 LocalDate endDate, Map<String, String> parameters) throws ServiceException;
 
+    /**
+     * 根据报表类型生成自定义报表，并在每个生成阶段回调进度
+     * 回调抛出OperationCancelledException时生成中止，不保存报表
+     */
+    Report generateCustomReport(int userId, ReportType reportType, LocalDate startDate,
+                                LocalDate endDate, Map<String, String> parameters,
+                                ReportProgress progress) throws ServiceException;
+
+    /**
+     * 获取报表内容，按需从压缩存储中读取并解压
+     */
+    String getReportContent(int reportId) throws ServiceException;
+
     /**
      * 获取指定ID的报表
      */
@@ -77,7 +99,23 @@ public interface ReportService {
     void exportReportToExcel(int reportId, OutputStream outputStream) throws ServiceException;
 
     /**
-     * 删除某用户指定日期之前的所有报表
+     * 将多份报表导出为PDF并打包成ZIP，各报表并行生成，按给定顺序流式写入输出流
+     * @param reportIds 报表ID列表
+     * @param outputStream 输出流，写完后不关闭
+     * @throws ServiceException 报表不存在或导出失败时抛出
+     */
+    void exportReportsToPdfZip(List<Integer> reportIds, OutputStream outputStream) throws ServiceException;
+
+    /**
+     * 将多份报表导出为Excel并打包成ZIP，各报表并行生成，按给定顺序流式写入输出流
+     * @param reportIds 报表ID列表
+     * @param outputStream 输出流，写完后不关闭
+     * @throws ServiceException 报表不存在或导出失败时抛出
+     */
+    void exportReportsToExcelZip(List<Integer> reportIds, OutputStream outputStream) throws ServiceException;
+
+    /**
+     * 删除某用户指定日期之前的所有报表，定时报表最近一次生成的报表除外
      * @param userId 用户ID
      * @param olderThan 日期
      * @return 删除的报表数量
@@ -73,6 +73,34 @@ public interface StatisticsService {
                                                              LocalDate endDate)
             throws ServiceException;
 
+    /**
+     * 获取指定层级的分类支出分布，每个分类的金额包含其所有子分类
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param parentCategoryId 父分类ID，为null时按顶级分类汇总
+     * @return 父分类下各直接子分类的支出分布，父分类自身的直接支出作为单独一项
+     * @throws ServiceException 如果获取过程中发生错误
+     */
+    List<CategoryDistribution> getExpenseCategoryDistribution(int userId, LocalDate startDate,
+                                                              LocalDate endDate, Integer parentCategoryId)
+            throws ServiceException;
+
+    /**
+     * 获取指定层级的分类收入分布，每个分类的金额包含其所有子分类
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param parentCategoryId 父分类ID，为null时按顶级分类汇总
+     * @return 父分类下各直接子分类的收入分布，父分类自身的直接收入作为单独一项
+     * @throws ServiceException 如果获取过程中发生错误
+     */
+    List<CategoryDistribution> getIncomeCategoryDistribution(int userId, LocalDate startDate,
+                                                             LocalDate endDate, Integer parentCategoryId)
+            throws ServiceException;
+
     /**
      * 获取交易频率数据
      *
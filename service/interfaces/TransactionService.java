@@ -2,9 +2,11 @@ package com.PFM.CD.service.interfaces;
 
 import com.PFM.CD.entity.Transaction;
 import com.PFM.CD.entity.enums.TransactionType;
+import com.PFM.CD.service.dto.ImportResult;
 import com.PFM.CD.service.exception.ServiceException;
 import com.PFM.CD.service.exception.InsufficientBalanceException;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -50,6 +52,22 @@ public interface TransactionService {
                               LocalDate transactionDate, String description)
             throws InsufficientBalanceException, ServiceException;
 
+    /**
+     * 记录支出交易，按自动分类规则选择分类
+     *
+     * @param userId 用户ID
+     * @param accountId 付款账户ID
+     * @param amount 金额
+     * @param transactionDate 交易日期
+     * @param description 描述
+     * @return 创建的交易
+     * @throws InsufficientBalanceException 如果账户余额不足
+     * @throws ServiceException 如果没有匹配的分类规则或记录过程中发生其他错误
+     */
+    Transaction recordExpense(int userId, int accountId, BigDecimal amount,
+                              LocalDate transactionDate, String description)
+            throws InsufficientBalanceException, ServiceException;
+
     /**
      * 记录转账交易
      *
@@ -142,7 +160,7 @@ public interface TransactionService {
      * @param userId 用户ID
      * @param accountId 账户ID
      * @return 交易列表
-     * @throws ServiceException 如果获取过程中发生错误
+     * @throws ServiceException 如果账户不属于该用户或获取过程中发生错误
      */
     List<Transaction> getTransactionsByAccount(int userId, int accountId) throws ServiceException;
 
@@ -220,4 +238,45 @@ public interface TransactionService {
      * @throws ServiceException 如果导入过程中发生错误
      */
     int importTransactions(List<Transaction> transactions) throws ServiceException;
+
+    /**
+     * 从CSV文件导入交易，文件格式与exportTransactionsToCsv的输出相同
+     * 文件经过解析、规范化、校验、去重、汇总和写入流水线，每批交易与对应的账户余额和预算支出变化在同一事务中写入；
+     * 被拒绝和重复的行跳过并写入结果中的拒绝文件。
+     *
+     * @param userId 用户ID
+     * @param filePath CSV文件路径（UTF-8编码）
+     * @return 导入结果
+     * @throws ServiceException 如果文件无法读取、缺少必填列或插入过程中发生数据库错误
+     */
+    ImportResult importTransactionsFromCsv(int userId, String filePath) throws ServiceException;
+
+    /**
+     * 从CSV文件导入交易，可选用批量装载模式
+     * 批量装载模式用LOAD DATA LOCAL INFILE把交易装入暂存表后合并，适合首次迁移大量历史数据；
+     * 需要在JDBC URL中设置allowLoadLocalInfile=true并在服务器上开启local_infile，否则自动改用批量插入。
+     *
+     * @param userId 用户ID
+     * @param filePath CSV文件路径（UTF-8编码）
+     * @param bulkLoad 是否使用批量装载模式
+     * @return 导入结果
+     * @throws ServiceException 如果文件无法读取、缺少必填列或写入过程中发生数据库错误
+     */
+    ImportResult importTransactionsFromCsv(int userId, String filePath, boolean bulkLoad) throws ServiceException;
+
+    /**
+     * 将指定日期范围内的交易导出为CSV
+     * 交易从数据库游标逐行读取并直接编码写出，内存占用与交易数量无关。
+     * 输出流由调用方关闭；压缩时会写完GZIP尾部但不关闭输出流。
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param outputStream 输出流
+     * @param gzip 是否使用GZIP压缩
+     * @return 导出的交易数量
+     * @throws ServiceException 如果导出过程中发生错误
+     */
+    int exportTransactionsToCsv(int userId, LocalDate startDate, LocalDate endDate,
+                                OutputStream outputStream, boolean gzip) throws ServiceException;
 }
\ No newline at end of file
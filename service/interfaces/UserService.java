@@ -3,6 +3,9 @@ package com.PFM.CD.service.interfaces;
 import com.PFM.CD.entity.User;
 import com.PFM.CD.service.exception.ServiceException;
 import com.PFM.CD.service.exception.AuthenticationException;
+import com.PFM.CD.service.session.Session;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 用户服务接口，提供用户相关的业务逻辑
@@ -24,7 +27,7 @@ public interface UserService {
     User register(String username, String password, String email) throws ServiceException;
 
     /**
-     * 用户登录
+     * 用户登录，不带来源标识，只按用户名限流
      *
      * @param username 用户名
      * @param password 密码（明文）
@@ -34,6 +37,67 @@ public interface UserService {
      */
     User login(String username, String password) throws AuthenticationException, ServiceException;
 
+    /**
+     * 异步用户登录，密码验证在专用的哈希线程池中执行，不占用调用线程
+     * 不带来源标识，只按用户名限流
+     * 认证失败时以{@link AuthenticationException}完成，系统过载时以
+     * {@link java.util.concurrent.RejectedExecutionException}完成
+     *
+     * @param username 用户名
+     * @param password 密码（明文）
+     * @return 登录成功的用户
+     */
+    CompletableFuture<User> loginAsync(String username, String password);
+
+    /**
+     * 带来源标识的用户登录，按用户名和来源分别限流
+     *
+     * @param username 用户名
+     * @param password 密码（明文）
+     * @param source 来源标识（如客户端地址），为null时只按用户名限流
+     * @return 登录成功的用户
+     * @throws AuthenticationException 如果认证失败或尝试过于频繁
+     * @throws ServiceException 如果登录过程中发生其他错误
+     */
+    User login(String username, String password, String source) throws AuthenticationException, ServiceException;
+
+    /**
+     * 带来源标识的异步用户登录，超出限额的尝试在验证密码之前即以{@link AuthenticationException}完成
+     *
+     * @param username 用户名
+     * @param password 密码（明文）
+     * @param source 来源标识（如客户端地址），为null时只按用户名限流
+     * @return 登录成功的用户
+     */
+    CompletableFuture<User> loginAsync(String username, String password, String source);
+
+    /**
+     * 登录并创建会话，返回的会话令牌用于后续请求
+     *
+     * @param username 用户名
+     * @param password 密码（明文）
+     * @return 新会话
+     * @throws AuthenticationException 如果认证失败
+     * @throws ServiceException 如果登录过程中发生其他错误
+     */
+    Session openSession(String username, String password) throws AuthenticationException, ServiceException;
+
+    /**
+     * 通过令牌获取会话
+     *
+     * @param token 会话令牌
+     * @return 会话
+     * @throws AuthenticationException 如果会话不存在或已过期
+     */
+    Session getSession(String token) throws AuthenticationException;
+
+    /**
+     * 注销会话
+     *
+     * @param token 会话令牌
+     */
+    void closeSession(String token);
+
     /**
      * 修改用户密码
      *
@@ -100,4 +164,11 @@ public interface UserService {
      * @throws ServiceException 如果检查过程中发生错误
      */
     boolean isEmailAvailable(String email) throws ServiceException;
+
+    /**
+     * 从用户表重建用户名/邮箱可用性预检过滤器，用于清除已修改用户名留下的旧值
+     *
+     * @throws ServiceException 如果重建过程中发生错误
+     */
+    void rebuildAvailabilityFilter() throws ServiceException;
 }
\ No newline at end of file
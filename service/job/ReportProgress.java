@@ -0,0 +1,28 @@
+package com.PFM.CD.service.job;
+
+import com.PFM.CD.entity.enums.ReportJobPhase;
+import com.PFM.CD.service.exception.OperationCancelledException;
+
+/**
+ * 报表生成进度回调
+ * 报表服务在进入每个阶段时调用，回调可借此报告进度，并在任务被取消时抛出异常中止生成
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public interface ReportProgress {
+
+    /**
+     * 不报告进度、不支持取消的空实现
+     */
+    ReportProgress NONE = phase -> {
+    };
+
+    /**
+     * 进入新的生成阶段
+     *
+     * @param phase 阶段
+     * @throws OperationCancelledException 如果任务已被取消
+     */
+    void enterPhase(ReportJobPhase phase) throws OperationCancelledException;
+}
@@ -0,0 +1,206 @@
+package com.PFM.CD.service.job;
+
+import com.PFM.CD.dao.interfaces.ReportDao;
+import com.PFM.CD.service.constants.ServiceConstants;
+import com.PFM.CD.utils.file.TempFileManager;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报表保留策略压缩器
+ * 在后台定期为每个用户执行报表保留策略：删除超过有效期的报表，以及超出保留份数的旧报表。
+ * 删除按报表ID分成小批次进行，每批在一个短事务内完成并在批次之间暂停，
+ * 避免一次性大范围删除长时间锁表、阻塞报表写入。
+ * 每轮结束后清理删除时仍在宽限期内、此后未再被引用的报表内容，并顺带清理过期的临时导出文件。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ReportRetentionCompactor {
+
+    /**
+     * 默认每批删除的报表数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /**
+     * 默认批次之间的暂停时间（毫秒）
+     */
+    public static final long DEFAULT_PAUSE_MILLIS = 200;
+
+    /**
+     * 默认执行间隔（分钟）
+     */
+    public static final int DEFAULT_INTERVAL_MINUTES = 360;
+
+    // 每次分页读取的用户数
+    private static final int USER_PAGE_SIZE = 500;
+
+    // 遗留临时目录超过多少小时未修改才清理
+    private static final long STALE_TEMP_DIR_HOURS = 24;
+
+    private final ReportDao reportDao;
+    private final int keepCount;
+    private final int expiryDays;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int intervalMinutes;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 构造函数，使用默认的保留份数和有效期
+     *
+     * @param reportDao 报表DAO接口
+     */
+    public ReportRetentionCompactor(ReportDao reportDao) {
+        this(reportDao, ServiceConstants.MAX_REPORTS_TO_KEEP, ServiceConstants.DEFAULT_REPORTS_EXPIRY_DAYS,
+                DEFAULT_BATCH_SIZE, DEFAULT_PAUSE_MILLIS, DEFAULT_INTERVAL_MINUTES);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param reportDao 报表DAO接口
+     * @param keepCount 每个用户保留的报表份数
+     * @param expiryDays 报表有效期（天）
+     * @param batchSize 每批删除的报表数
+     * @param pauseMillis 批次之间的暂停时间（毫秒）
+     * @param intervalMinutes 执行间隔（分钟）
+     */
+    public ReportRetentionCompactor(ReportDao reportDao, int keepCount, int expiryDays, int batchSize,
+                                    long pauseMillis, int intervalMinutes) {
+        this.reportDao = reportDao;
+        this.keepCount = Math.max(1, keepCount);
+        this.expiryDays = Math.max(1, expiryDays);
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMillis = Math.max(0, pauseMillis);
+        this.intervalMinutes = Math.max(1, intervalMinutes);
+    }
+
+    /**
+     * 启动定期压缩任务
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "report-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::compactQuietly,
+                intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 停止定期压缩任务，正在进行的一轮会在当前批次结束后退出
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 对所有用户执行一轮保留策略
+     *
+     * @return 删除的报表数
+     * @throws SQLException 如果数据库操作失败
+     */
+    public int compact() throws SQLException {
+        LocalDate expiryDate = LocalDate.now().minusDays(expiryDays);
+        int deleted = 0;
+        int afterUserId = 0;
+
+        while (isActive()) {
+            List<Integer> userIds = reportDao.findUserIdsWithReports(afterUserId, USER_PAGE_SIZE);
+            for (int userId : userIds) {
+                if (!isActive()) {
+                    break;
+                }
+                deleted += compactUser(userId, expiryDate);
+            }
+            if (userIds.size() < USER_PAGE_SIZE) {
+                break;
+            }
+            afterUserId = userIds.get(userIds.size() - 1);
+        }
+
+        if (isActive()) {
+            reportDao.deleteUnreferencedContent();
+        }
+
+        TempFileManager.cleanupExpiredFiles();
+        TempFileManager.cleanupStaleDirectories(STALE_TEMP_DIR_HOURS);
+        return deleted;
+    }
+
+    /**
+     * 对单个用户执行保留策略：先删过期报表，再删超出保留份数的报表
+     *
+     * @param userId 用户ID
+     * @param expiryDate 早于该日期生成的报表视为过期
+     * @return 删除的报表数
+     * @throws SQLException 如果数据库操作失败
+     */
+    public int compactUser(int userId, LocalDate expiryDate) throws SQLException {
+        int deleted = 0;
+
+        // 过期报表删除后不会再被查到，每次都从头取下一批
+        List<Integer> ids;
+        while (isActive() && !(ids = reportDao.findIdsOlderThan(userId, expiryDate, batchSize)).isEmpty()) {
+            deleted += deleteBatch(ids);
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+
+        // 保留份数之后的报表删除后，后面的报表顺次前移，同样每次从保留份数处取下一批
+        while (isActive() && !(ids = reportDao.findIdsBeyondKeepCount(userId, keepCount, batchSize)).isEmpty()) {
+            deleted += deleteBatch(ids);
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+
+        return deleted;
+    }
+
+    /**
+     * 删除一批报表，之后暂停一段时间让出锁给其他写入
+     */
+    private int deleteBatch(List<Integer> ids) throws SQLException {
+        int deleted = reportDao.deleteByIds(ids);
+        if (pauseMillis > 0) {
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 停止时后台线程被中断，据此在批次之间退出
+     */
+    private boolean isActive() {
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (SQLException e) {
+            System.err.println("执行报表保留策略失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.PFM.CD.service.session;
+
+import com.PFM.CD.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 登录会话
+ * 保存已认证的用户以及该用户拥有的账户、预算ID集合，供所有权校验在内存中完成。
+ * 同一用户的多个会话共享同一份所有权集合。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class Session {
+
+    private final String token;
+    private final User user;
+    private final OwnedResources resources;
+    private final LocalDateTime createdAt;
+    private volatile long lastAccessNanos;
+
+    Session(String token, User user, OwnedResources resources) {
+        this.token = token;
+        this.user = user;
+        this.resources = resources;
+        this.createdAt = LocalDateTime.now();
+        this.lastAccessNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取会话令牌
+     *
+     * @return 会话令牌
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * 获取会话用户
+     *
+     * @return 用户
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * 获取会话用户ID
+     *
+     * @return 用户ID
+     */
+    public int getUserId() {
+        return user.getUserId();
+    }
+
+    /**
+     * 获取会话创建时间
+     *
+     * @return 创建时间
+     */
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * 检查账户是否属于会话用户
+     * 只查内存集合，返回false不代表一定不属于，需要确定时用SessionManager.isAccountOwner
+     *
+     * @param accountId 账户ID
+     * @return 如果属于返回true，否则返回false
+     */
+    public boolean ownsAccount(int accountId) {
+        return resources.accountIds.contains(accountId);
+    }
+
+    /**
+     * 检查预算是否属于会话用户
+     * 只查内存集合，返回false不代表一定不属于，需要确定时用SessionManager.isBudgetOwner
+     *
+     * @param budgetId 预算ID
+     * @return 如果属于返回true，否则返回false
+     */
+    public boolean ownsBudget(int budgetId) {
+        return resources.budgetIds.contains(budgetId);
+    }
+
+    /**
+     * 获取会话用户拥有的账户ID
+     *
+     * @return 不可修改的账户ID集合
+     */
+    public Set<Integer> getAccountIds() {
+        return Collections.unmodifiableSet(resources.accountIds);
+    }
+
+    /**
+     * 获取会话用户拥有的预算ID
+     *
+     * @return 不可修改的预算ID集合
+     */
+    public Set<Integer> getBudgetIds() {
+        return Collections.unmodifiableSet(resources.budgetIds);
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    OwnedResources getResources() {
+        return resources;
+    }
+
+    /**
+     * 某个用户拥有的资源ID集合，由该用户的所有会话共享
+     */
+    static final class OwnedResources {
+
+        final Set<Integer> accountIds = ConcurrentHashMap.newKeySet();
+        final Set<Integer> budgetIds = ConcurrentHashMap.newKeySet();
+
+        /**
+         * 引用该集合的会话数，只在SessionManager的compute回调中修改
+         */
+        int sessionCount;
+
+        volatile boolean loaded;
+    }
+}
@@ -0,0 +1,361 @@
+package com.PFM.CD.service.session;
+
+import com.PFM.CD.dao.interfaces.AccountDao;
+import com.PFM.CD.dao.interfaces.BudgetDao;
+import com.PFM.CD.entity.Account;
+import com.PFM.CD.entity.Budget;
+import com.PFM.CD.entity.User;
+import com.PFM.CD.utils.security.PasswordUtils;
+
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话管理器
+ * 登录后为用户签发不透明令牌，会话保存在并发Map中，空闲超时后失效，会话总数有上限。
+ * 用户有活跃会话时，账户/预算的所有权校验先查内存中的ID集合；
+ * 集合中没有（例如其他节点新建的账户）或用户没有会话时按ID查询数据库，查到属于该用户的ID补进集合。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class SessionManager {
+
+    /**
+     * 默认空闲超时时间（分钟）
+     */
+    public static final int DEFAULT_IDLE_TIMEOUT_MINUTES = 30;
+
+    /**
+     * 默认最大会话数
+     */
+    public static final int DEFAULT_MAX_SESSIONS = 10000;
+
+    private final AccountDao accountDao;
+    private final BudgetDao budgetDao;
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Session.OwnedResources> resourcesByUser = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 构造函数
+     *
+     * @param accountDao 账户DAO接口
+     * @param budgetDao 预算DAO接口
+     */
+    public SessionManager(AccountDao accountDao, BudgetDao budgetDao) {
+        this(accountDao, budgetDao, DEFAULT_IDLE_TIMEOUT_MINUTES, DEFAULT_MAX_SESSIONS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param accountDao 账户DAO接口
+     * @param budgetDao 预算DAO接口
+     * @param idleTimeoutMinutes 空闲超时时间（分钟）
+     * @param maxSessions 最大会话数
+     */
+    public SessionManager(AccountDao accountDao, BudgetDao budgetDao, int idleTimeoutMinutes, int maxSessions) {
+        if (idleTimeoutMinutes <= 0 || maxSessions <= 0) {
+            throw new IllegalArgumentException("空闲超时时间和最大会话数必须为正数");
+        }
+        this.accountDao = accountDao;
+        this.budgetDao = budgetDao;
+        this.idleTimeoutNanos = TimeUnit.MINUTES.toNanos(idleTimeoutMinutes);
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * 启动定期清理过期会话的任务
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodSeconds = Math.max(1, Math.min(60, TimeUnit.NANOSECONDS.toSeconds(idleTimeoutNanos) / 2));
+        scheduler.scheduleWithFixedDelay(this::removeExpiredSessions, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止清理任务并清空所有会话
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+        for (String token : sessions.keySet()) {
+            invalidate(token);
+        }
+    }
+
+    /**
+     * 为已认证的用户创建会话，并加载其账户和预算ID
+     *
+     * @param user 已认证的用户
+     * @return 新会话
+     * @throws SQLException 如果加载所有权数据失败
+     */
+    public Session createSession(User user) throws SQLException {
+        if (sessions.size() >= maxSessions) {
+            removeExpiredSessions();
+            while (sessions.size() >= maxSessions && evictLeastRecentlyUsed()) {
+                // 继续淘汰直到低于上限
+            }
+        }
+
+        int userId = user.getUserId();
+        Session.OwnedResources resources = resourcesByUser.compute(userId, (k, existing) -> {
+            Session.OwnedResources r = existing != null ? existing : new Session.OwnedResources();
+            r.sessionCount++;
+            return r;
+        });
+
+        Session session;
+        try {
+            loadResources(userId, resources);
+            String token;
+            do {
+                token = PasswordUtils.generateToken();
+                session = new Session(token, user, resources);
+            } while (sessions.putIfAbsent(token, session) != null);
+        } catch (SQLException | RuntimeException e) {
+            release(userId);
+            throw e;
+        }
+        return session;
+    }
+
+    /**
+     * 通过令牌获取会话，并刷新其最后访问时间
+     *
+     * @param token 会话令牌
+     * @return 会话，如果不存在或已过期返回null
+     */
+    public Session getSession(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (isExpired(session, System.nanoTime())) {
+            remove(session);
+            return null;
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * 使会话失效
+     *
+     * @param token 会话令牌
+     * @return 如果会话存在并被移除返回true，否则返回false
+     */
+    public boolean invalidate(String token) {
+        Session session = token != null ? sessions.get(token) : null;
+        return session != null && remove(session);
+    }
+
+    /**
+     * 使用户的所有会话失效，例如修改密码后
+     *
+     * @param userId 用户ID
+     */
+    public void invalidateUser(int userId) {
+        for (Session session : sessions.values()) {
+            if (session.getUserId() == userId) {
+                remove(session);
+            }
+        }
+    }
+
+    /**
+     * 检查账户是否属于用户
+     * 内存集合命中时不查询数据库，未命中时以数据库为准
+     *
+     * @param userId 用户ID
+     * @param accountId 账户ID
+     * @return 如果账户属于该用户返回true，否则返回false
+     * @throws SQLException 如果查询数据库失败
+     */
+    public boolean isAccountOwner(int userId, int accountId) throws SQLException {
+        Session.OwnedResources resources = resourcesByUser.get(userId);
+        if (resources != null && resources.loaded && resources.accountIds.contains(accountId)) {
+            return true;
+        }
+        Account account = accountDao.findById(accountId);
+        if (account == null || account.getUserId() != userId) {
+            return false;
+        }
+        if (resources != null) {
+            resources.accountIds.add(accountId);
+        }
+        return true;
+    }
+
+    /**
+     * 检查预算是否属于用户
+     * 内存集合命中时不查询数据库，未命中时以数据库为准
+     *
+     * @param userId 用户ID
+     * @param budgetId 预算ID
+     * @return 如果预算属于该用户返回true，否则返回false
+     * @throws SQLException 如果查询数据库失败
+     */
+    public boolean isBudgetOwner(int userId, int budgetId) throws SQLException {
+        Session.OwnedResources resources = resourcesByUser.get(userId);
+        if (resources != null && resources.loaded && resources.budgetIds.contains(budgetId)) {
+            return true;
+        }
+        Budget budget = budgetDao.findById(budgetId);
+        if (budget == null || budget.getUserId() != userId) {
+            return false;
+        }
+        if (resources != null) {
+            resources.budgetIds.add(budgetId);
+        }
+        return true;
+    }
+
+    /**
+     * 新建账户后调用，更新会话中的所有权集合
+     *
+     * @param userId 用户ID
+     * @param accountId 账户ID
+     */
+    public void accountCreated(int userId, int accountId) {
+        Session.OwnedResources resources = resourcesByUser.get(userId);
+        if (resources != null) {
+            resources.accountIds.add(accountId);
+        }
+    }
+
+    /**
+     * 删除账户后调用，更新会话中的所有权集合
+     *
+     * @param userId 用户ID
+     * @param accountId 账户ID
+     */
+    public void accountRemoved(int userId, int accountId) {
+        Session.OwnedResources resources = resourcesByUser.get(userId);
+        if (resources != null) {
+            resources.accountIds.remove(accountId);
+        }
+    }
+
+    /**
+     * 新建预算后调用，更新会话中的所有权集合
+     *
+     * @param userId 用户ID
+     * @param budgetId 预算ID
+     */
+    public void budgetCreated(int userId, int budgetId) {
+        Session.OwnedResources resources = resourcesByUser.get(userId);
+        if (resources != null) {
+            resources.budgetIds.add(budgetId);
+        }
+    }
+
+    /**
+     * 删除预算后调用，更新会话中的所有权集合
+     *
+     * @param userId 用户ID
+     * @param budgetId 预算ID
+     */
+    public void budgetRemoved(int userId, int budgetId) {
+        Session.OwnedResources resources = resourcesByUser.get(userId);
+        if (resources != null) {
+            resources.budgetIds.remove(budgetId);
+        }
+    }
+
+    /**
+     * 获取当前会话数
+     *
+     * @return 会话数
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 移除所有空闲超时的会话
+     */
+    private void removeExpiredSessions() {
+        long now = System.nanoTime();
+        for (Session session : sessions.values()) {
+            if (isExpired(session, now)) {
+                remove(session);
+            }
+        }
+    }
+
+    /**
+     * 淘汰最久未访问的会话
+     *
+     * @return 如果淘汰了会话返回true
+     */
+    private boolean evictLeastRecentlyUsed() {
+        Session oldest = null;
+        for (Session session : sessions.values()) {
+            if (oldest == null || session.getLastAccessNanos() - oldest.getLastAccessNanos() < 0) {
+                oldest = session;
+            }
+        }
+        return oldest != null && remove(oldest);
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.getLastAccessNanos() > idleTimeoutNanos;
+    }
+
+    /**
+     * 移除会话，并在用户没有其他会话时释放所有权集合
+     */
+    private boolean remove(Session session) {
+        if (sessions.remove(session.getToken(), session)) {
+            release(session.getUserId());
+            return true;
+        }
+        return false;
+    }
+
+    private void release(int userId) {
+        resourcesByUser.computeIfPresent(userId, (k, r) -> --r.sessionCount > 0 ? r : null);
+    }
+
+    /**
+     * 首次为用户建立会话时从数据库加载账户和预算ID
+     */
+    private void loadResources(int userId, Session.OwnedResources resources) throws SQLException {
+        if (resources.loaded) {
+            return;
+        }
+        synchronized (resources) {
+            if (resources.loaded) {
+                return;
+            }
+            for (Account account : accountDao.findByUserId(userId)) {
+                resources.accountIds.add(account.getAccountId());
+            }
+            for (Budget budget : budgetDao.findByUserId(userId)) {
+                resources.budgetIds.add(budget.getBudgetId());
+            }
+            resources.loaded = true;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.PFM.CD.utils.date;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * 五段式cron表达式：分 时 日 月 周
+ * 每段支持 *、数字、范围 a-b、列表 a,b 和步长 * /n、a-b/n；周的0和7都表示周日。
+ * 日和周同时限定时满足其一即可，与常见cron实现一致。
+ * 解析后不可变，可在多线程间共享。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public final class CronExpression {
+
+    // 查找下一次触发时间时最多向后搜索的年数，避免2月30日这类永远不触发的表达式死循环
+    private static final int MAX_SEARCH_YEARS = 5;
+
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        this.minutes = parseField(fields[0], 0, 59, "分");
+        this.hours = parseField(fields[1], 0, 23, "时");
+        this.daysOfMonth = parseField(fields[2], 1, 31, "日");
+        this.months = parseField(fields[3], 1, 12, "月");
+        this.daysOfWeek = parseField(fields[4], 0, 7, "周");
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+        this.dayOfMonthRestricted = !fields[2].equals("*");
+        this.dayOfWeekRestricted = !fields[4].equals("*");
+    }
+
+    /**
+     * 解析cron表达式
+     *
+     * @param expression 表达式，如"0 2 1 * *"表示每月1日02:00
+     * @return cron表达式
+     * @throws IllegalArgumentException 如果表达式格式错误
+     */
+    public static CronExpression parse(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("cron表达式不能为空");
+        }
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("cron表达式应为5段（分 时 日 月 周）: " + expression);
+        }
+        return new CronExpression(expression.trim(), fields);
+    }
+
+    /**
+     * 检查表达式是否有效
+     *
+     * @param expression 表达式
+     * @return 是否有效
+     */
+    public static boolean isValid(String expression) {
+        try {
+            parse(expression);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 计算指定时间之后的下一次触发时间
+     *
+     * @param after 起始时间（不包含）
+     * @return 下一次触发时间，精确到分钟；若表达式永远不会触发则返回null
+     */
+    public LocalDateTime next(LocalDateTime after) {
+        LocalDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDateTime limit = time.plusYears(MAX_SEARCH_YEARS);
+
+        // 从大到小逐段对齐，不匹配时直接跳到下一个月/天/小时的开头
+        while (time.isBefore(limit)) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+                continue;
+            }
+            if (!matchesDay(time.toLocalDate())) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+                continue;
+            }
+            if (!hours.get(time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+                continue;
+            }
+            if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+                continue;
+            }
+            return time;
+        }
+        return null;
+    }
+
+    /**
+     * 获取表达式文本
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private boolean matchesDay(LocalDate date) {
+        boolean dayOfMonth = daysOfMonth.get(date.getDayOfMonth());
+        boolean dayOfWeek = daysOfWeek.get(date.getDayOfWeek().getValue() % 7);
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return dayOfMonth || dayOfWeek;
+        }
+        return dayOfMonth && dayOfWeek;
+    }
+
+    private static BitSet parseField(String field, int min, int max, String name) {
+        BitSet bits = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, name);
+                part = part.substring(0, slash);
+            }
+
+            int start;
+            int end;
+            if (part.equals("*")) {
+                start = min;
+                end = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash > 0) {
+                    start = parseNumber(part.substring(0, dash), min, max, name);
+                    end = parseNumber(part.substring(dash + 1), min, max, name);
+                    if (end < start) {
+                        throw new IllegalArgumentException(name + "字段范围无效: " + part);
+                    }
+                } else {
+                    start = parseNumber(part, min, max, name);
+                    // "5/15"表示从5开始每15一次
+                    end = slash >= 0 ? max : start;
+                }
+            }
+
+            for (int i = start; i <= end; i += step) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String text, int min, int max, String name) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException(name + "字段超出范围[" + min + "-" + max + "]: " + text);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + "字段不是有效的数字: " + text);
+        }
+    }
+}
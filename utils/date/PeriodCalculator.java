@@ -182,6 +182,37 @@ public class PeriodCalculator {
         return result;
     }
 
+    /**
+     * 计算紧接在当前周期之前、天数相同的周期
+     *
+     * @param currentStartDate 当前周期开始日期
+     * @param currentEndDate 当前周期结束日期
+     * @return 上一个周期的日期范围
+     */
+    public static Map<String, LocalDate> getPrecedingPeriod(LocalDate currentStartDate, LocalDate currentEndDate) {
+        long days = ChronoUnit.DAYS.between(currentStartDate, currentEndDate);
+        LocalDate previousEnd = currentStartDate.minusDays(1);
+
+        Map<String, LocalDate> result = new HashMap<>();
+        result.put("startDate", previousEnd.minusDays(days));
+        result.put("endDate", previousEnd);
+        return result;
+    }
+
+    /**
+     * 计算去年同期的日期范围
+     *
+     * @param currentStartDate 当前周期开始日期
+     * @param currentEndDate 当前周期结束日期
+     * @return 去年同期的日期范围
+     */
+    public static Map<String, LocalDate> getSamePeriodLastYear(LocalDate currentStartDate, LocalDate currentEndDate) {
+        Map<String, LocalDate> result = new HashMap<>();
+        result.put("startDate", currentStartDate.minusYears(1));
+        result.put("endDate", currentEndDate.minusYears(1));
+        return result;
+    }
+
     /**
      * 计算两个日期之间有多少个工作日
      *
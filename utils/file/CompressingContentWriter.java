@@ -0,0 +1,148 @@
+package com.PFM.CD.utils.file;
+
+import com.PFM.CD.utils.security.EncryptionUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 压缩内容写入器
+ * 以UTF-8编码边写边压缩，同时计算原始内容的SHA-256摘要和字节数。报表直接渲染到该对象，
+ * 不在内存中拼出完整的报表字符串，内存中只保留压缩后的字节。压缩格式与CompressionUtils.deflate相同。
+ * 写完后调用close，再读取压缩结果；不是线程安全的。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CompressingContentWriter extends Writer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(BUFFER_SIZE);
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final MessageDigest digest;
+    private final Writer writer;
+    private long rawLength;
+    private String contentHash;
+    private boolean closed;
+
+    public CompressingContentWriter() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 所有Java平台都必须支持SHA-256
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+
+        OutputStream deflating = new DeflaterOutputStream(compressed, deflater, BUFFER_SIZE);
+        OutputStream digesting = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                digest.update((byte) b);
+                rawLength++;
+                deflating.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                digest.update(b, off, len);
+                rawLength += len;
+                deflating.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                deflating.close();
+            }
+        };
+        writer = new OutputStreamWriter(digesting, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        writer.write(c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        writer.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        writer.write(str, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writer.flush();
+    }
+
+    /**
+     * 结束压缩，之后可以读取结果
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.close();
+        } finally {
+            deflater.end();
+        }
+        contentHash = EncryptionUtils.toHex(digest.digest());
+    }
+
+    /**
+     * @return 压缩后的字节
+     * @throws IllegalStateException 如果尚未关闭
+     */
+    public byte[] toByteArray() {
+        ensureClosed();
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @return 原始内容的UTF-8字节数
+     * @throws IllegalStateException 如果尚未关闭
+     */
+    public long getRawLength() {
+        ensureClosed();
+        return rawLength;
+    }
+
+    /**
+     * @return 原始内容的SHA-256摘要（64位小写十六进制），与EncryptionUtils.sha256Hex的结果相同
+     * @throws IllegalStateException 如果尚未关闭
+     */
+    public String getContentHash() {
+        ensureClosed();
+        return contentHash;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("写入器已关闭");
+        }
+    }
+
+    private void ensureClosed() {
+        if (!closed) {
+            throw new IllegalStateException("写入器尚未关闭");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.PFM.CD.utils.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 压缩工具类
+ * 基于java.util.zip的Deflate算法压缩/解压文本内容，用于数据库中大文本的存储
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CompressionUtils {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private CompressionUtils() {
+        throw new IllegalStateException("工具类不应被实例化");
+    }
+
+    /**
+     * 以UTF-8编码压缩文本
+     *
+     * @param text 文本
+     * @return 压缩后的字节
+     */
+    public static byte[] deflate(String text) {
+        return deflate(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 压缩字节数组
+     *
+     * @param data 原始字节
+     * @return 压缩后的字节
+     */
+    public static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                output.write(buffer, 0, count);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 解压为UTF-8文本
+     *
+     * @param compressed 压缩后的字节
+     * @return 文本
+     * @throws DataFormatException 如果数据不是有效的Deflate格式
+     */
+    public static String inflateToString(byte[] compressed) throws DataFormatException {
+        return new String(inflate(compressed), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解压字节数组
+     *
+     * @param compressed 压缩后的字节
+     * @return 原始字节
+     * @throws DataFormatException 如果数据不是有效的Deflate格式
+     */
+    public static byte[] inflate(byte[] compressed) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("压缩数据不完整");
+                }
+                output.write(buffer, 0, count);
+            }
+            return output.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 以流的方式解压，解压后的内容按需读取，不会整体保存在内存中
+     *
+     * @param compressed 压缩后的字节
+     * @return 解压输入流，数据无效时在读取时抛出IOException
+     */
+    public static InputStream inflatingStream(byte[] compressed) {
+        return new InflaterInputStream(new ByteArrayInputStream(compressed), new Inflater(), BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,318 @@
+package com.PFM.CD.utils.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 流式CSV读取器
+ * 按RFC 4180解析：引号内可以包含分隔符、换行和转义的双引号，记录以CRLF、LF或CR结束。
+ * 从可复用的字符缓冲区读取，每次只保留当前一条记录，并且所有记录复用同一个CsvRecord，
+ * 内存占用与文件大小无关。支持拉取（next/iterator）和推送（readAll）两种用法。
+ * 文件开头的UTF-8 BOM会被跳过；空行作为字段数为0的记录返回。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CsvReader implements Closeable, Iterable<CsvRecord> {
+
+    /**
+     * 默认字符缓冲区大小
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final char DEFAULT_SEPARATOR = ',';
+    private static final char DEFAULT_QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    // 解析状态
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private final Reader reader;
+    private final char separator;
+    private final char quote;
+    private final char[] buffer;
+    private final CsvRecord record = new CsvRecord();
+
+    private int position;
+    private int limit;
+    private boolean eof;
+    private boolean started;
+    private boolean skipLineFeed;
+    private long lineNumber = 1;
+    private long recordCount;
+
+    /**
+     * 逐条处理记录的回调
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+
+        /**
+         * 处理一条记录，记录对象会被复用，不应在回调之外保留
+         *
+         * @param record 记录
+         * @throws IOException 如果处理失败，将中止读取
+         */
+        void handle(CsvRecord record) throws IOException;
+    }
+
+    /**
+     * 构造函数，使用逗号分隔和双引号
+     *
+     * @param reader 字符输入流，由本对象负责关闭
+     */
+    public CsvReader(Reader reader) {
+        this(reader, DEFAULT_SEPARATOR, DEFAULT_QUOTE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param reader 字符输入流，由本对象负责关闭
+     * @param separator 分隔符
+     * @param quote 引号字符
+     */
+    public CsvReader(Reader reader, char separator, char quote) {
+        this(reader, separator, quote, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param reader 字符输入流，由本对象负责关闭
+     * @param separator 分隔符
+     * @param quote 引号字符
+     * @param bufferSize 字符缓冲区大小
+     */
+    public CsvReader(Reader reader, char separator, char quote, int bufferSize) {
+        if (separator == quote || separator == '\n' || separator == '\r') {
+            throw new IllegalArgumentException("分隔符无效: " + separator);
+        }
+        this.reader = reader;
+        this.separator = separator;
+        this.quote = quote;
+        this.buffer = new char[Math.max(16, bufferSize)];
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @return 下一条记录，已到文件末尾时返回null；返回的对象在下次调用时被复用
+     * @throws IOException 如果读取失败或引号未闭合
+     */
+    public CsvRecord next() throws IOException {
+        if (!started) {
+            started = true;
+            if (fill() && buffer[position] == BOM) {
+                position++;
+            }
+        }
+        if (!parseRecord()) {
+            return null;
+        }
+        recordCount++;
+        return record;
+    }
+
+    /**
+     * 逐条读取所有剩余记录并交给回调处理
+     *
+     * @param handler 记录回调
+     * @return 处理的记录数
+     * @throws IOException 如果读取失败或回调抛出异常
+     */
+    public long readAll(RecordHandler handler) throws IOException {
+        long count = 0;
+        CsvRecord current;
+        while ((current = next()) != null) {
+            handler.handle(current);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 以迭代器方式读取，迭代器返回的是同一个被复用的记录对象
+     * 读取失败时抛出UncheckedIOException
+     */
+    @Override
+    public Iterator<CsvRecord> iterator() {
+        return new Iterator<CsvRecord>() {
+
+            private CsvRecord pending;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (pending == null && !done) {
+                    try {
+                        pending = CsvReader.this.next();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    done = pending == null;
+                }
+                return pending != null;
+            }
+
+            @Override
+            public CsvRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                CsvRecord current = pending;
+                pending = null;
+                return current;
+            }
+        };
+    }
+
+    /**
+     * 设置下一条记录的行号，用于从文件中间开始读取的情况
+     *
+     * @param lineNumber 行号（从1开始）
+     */
+    void setLineNumber(long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * 获取已读取的记录数
+     *
+     * @return 记录数
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 解析一条记录到record中
+     *
+     * @return 是否读到了记录
+     */
+    private boolean parseRecord() throws IOException {
+        record.reset(lineNumber);
+        int state = FIELD_START;
+
+        while (true) {
+            if (position >= limit && !fill()) {
+                // 文件结束
+                if (state == QUOTED) {
+                    throw new IOException("第" + record.getLineNumber() + "行开始的引号字段没有闭合");
+                }
+                if (state == FIELD_START && record.size() == 0) {
+                    return false;
+                }
+                record.endField();
+                return true;
+            }
+
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (buffer[position] == '\n') {
+                    position++;
+                    continue;
+                }
+            }
+
+            if (state == QUOTED) {
+                // 批量复制到下一个引号为止
+                int start = position;
+                while (position < limit && buffer[position] != quote) {
+                    if (buffer[position] == '\n') {
+                        lineNumber++;
+                    }
+                    position++;
+                }
+                record.append(buffer, start, position - start);
+                if (position < limit) {
+                    position++;
+                    state = QUOTE_IN_QUOTED;
+                }
+                continue;
+            }
+
+            if (state == QUOTE_IN_QUOTED) {
+                if (buffer[position] == quote) {
+                    // 两个连续的引号表示一个引号字符
+                    record.append(quote);
+                    position++;
+                    state = QUOTED;
+                    continue;
+                }
+                // 引号字段结束，之后的字符按普通字段处理
+                state = UNQUOTED;
+            }
+
+            char c = buffer[position];
+            if (state == FIELD_START && c == quote) {
+                position++;
+                state = QUOTED;
+                continue;
+            }
+
+            if (c == separator) {
+                position++;
+                record.endField();
+                state = FIELD_START;
+            } else if (c == '\n' || c == '\r') {
+                position++;
+                lineNumber++;
+                skipLineFeed = c == '\r';
+                // 空行没有字段
+                if (state != FIELD_START || record.size() > 0) {
+                    record.endField();
+                }
+                return true;
+            } else {
+                // 批量复制到下一个分隔符或换行为止
+                int start = position;
+                while (position < limit) {
+                    char ch = buffer[position];
+                    if (ch == separator || ch == '\n' || ch == '\r') {
+                        break;
+                    }
+                    position++;
+                }
+                record.append(buffer, start, position - start);
+                state = UNQUOTED;
+            }
+        }
+    }
+
+    /**
+     * 读取更多字符到缓冲区
+     *
+     * @return 是否还有数据
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int n;
+        do {
+            n = reader.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            eof = true;
+            position = 0;
+            limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
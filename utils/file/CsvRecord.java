@@ -0,0 +1,379 @@
+package com.PFM.CD.utils.file;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CSV记录
+ * 由CsvReader复用：读取下一条记录时内容会被覆盖，需要保留的字段应调用getString复制出来。
+ * 字段内容保存在共享的字符数组中，数值和日期访问器直接从字符解析，不创建中间字符串。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public final class CsvRecord {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INITIAL_FIELDS = 16;
+
+    private char[] data = new char[INITIAL_CAPACITY];
+    private int length;
+    private int[] starts = new int[INITIAL_FIELDS];
+    private int[] ends = new int[INITIAL_FIELDS];
+    private int fieldCount;
+    private int fieldStart;
+    private long lineNumber;
+
+    // 按列复用的字段视图和去除千分位时使用的临时缓冲
+    private Field[] fields = new Field[0];
+    private char[] scratch = new char[32];
+
+    CsvRecord() {
+    }
+
+    /**
+     * 开始新记录
+     */
+    void reset(long lineNumber) {
+        this.length = 0;
+        this.fieldCount = 0;
+        this.fieldStart = 0;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * 追加一个字符到当前字段
+     */
+    void append(char c) {
+        if (length == data.length) {
+            data = Arrays.copyOf(data, length * 2);
+        }
+        data[length++] = c;
+    }
+
+    /**
+     * 追加一段字符到当前字段
+     */
+    void append(char[] source, int offset, int count) {
+        if (length + count > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + count));
+        }
+        System.arraycopy(source, offset, data, length, count);
+        length += count;
+    }
+
+    /**
+     * 结束当前字段
+     */
+    void endField() {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = fieldStart;
+        ends[fieldCount] = length;
+        fieldCount++;
+        fieldStart = length;
+    }
+
+    /**
+     * 获取字段数，空行的字段数为0
+     *
+     * @return 字段数
+     */
+    public int size() {
+        return fieldCount;
+    }
+
+    /**
+     * 获取记录开始的行号（从1开始），引号内的换行会使一条记录跨越多行
+     *
+     * @return 行号
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 获取字段的字符视图，视图按列复用，读取下一条记录后内容随之改变
+     *
+     * @param index 字段下标
+     * @return 字段内容
+     */
+    public CharSequence get(int index) {
+        checkIndex(index);
+        if (index >= fields.length) {
+            int oldLength = fields.length;
+            fields = Arrays.copyOf(fields, Math.max(index + 1, fieldCount));
+            for (int i = oldLength; i < fields.length; i++) {
+                fields[i] = new Field(i);
+            }
+        }
+        return fields[index];
+    }
+
+    /**
+     * 获取字段字符串
+     *
+     * @param index 字段下标
+     * @return 字段内容
+     */
+    public String getString(int index) {
+        checkIndex(index);
+        return new String(data, starts[index], ends[index] - starts[index]);
+    }
+
+    /**
+     * 检查字段去除首尾空白后是否为空
+     *
+     * @param index 字段下标
+     * @return 是否为空
+     */
+    public boolean isBlank(int index) {
+        checkIndex(index);
+        return trimStart(index) >= trimEnd(index);
+    }
+
+    /**
+     * 解析整数字段
+     *
+     * @param index 字段下标
+     * @return 整数值
+     * @throws NumberFormatException 如果字段为空或不是有效的整数
+     */
+    public int getInt(int index) {
+        long value = getLong(index);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalid(index, "整数");
+        }
+        return (int) value;
+    }
+
+    /**
+     * 解析长整数字段
+     *
+     * @param index 字段下标
+     * @return 长整数值
+     * @throws NumberFormatException 如果字段为空或不是有效的整数
+     */
+    public long getLong(int index) {
+        checkIndex(index);
+        int start = trimStart(index);
+        int end = trimEnd(index);
+        if (start >= end) {
+            throw invalid(index, "整数");
+        }
+
+        boolean negative = false;
+        char first = data[start];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++start == end) {
+                throw invalid(index, "整数");
+            }
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                throw invalid(index, "整数");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * 解析金额字段，允许千分位逗号
+     *
+     * @param index 字段下标
+     * @return 金额，字段为空时返回null
+     * @throws NumberFormatException 如果字段不是有效的数字
+     */
+    public BigDecimal getBigDecimal(int index) {
+        checkIndex(index);
+        int start = trimStart(index);
+        int end = trimEnd(index);
+        if (start >= end) {
+            return null;
+        }
+
+        char[] source = data;
+        int offset = start;
+        int count = end - start;
+
+        // 含千分位时去掉逗号后再解析
+        for (int i = start; i < end; i++) {
+            if (data[i] == ',') {
+                if (scratch.length < count) {
+                    scratch = new char[count];
+                }
+                int n = 0;
+                for (int j = start; j < end; j++) {
+                    if (data[j] != ',') {
+                        scratch[n++] = data[j];
+                    }
+                }
+                source = scratch;
+                offset = 0;
+                count = n;
+                break;
+            }
+        }
+
+        try {
+            return new BigDecimal(source, offset, count);
+        } catch (NumberFormatException e) {
+            throw invalid(index, "数字");
+        }
+    }
+
+    /**
+     * 解析日期字段，支持yyyy-MM-dd、yyyy/MM/dd、yyyy.MM.dd（月日可为一位数）和yyyyMMdd
+     *
+     * @param index 字段下标
+     * @return 日期，字段为空时返回null
+     * @throws DateTimeException 如果字段不是有效的日期
+     */
+    public LocalDate getLocalDate(int index) {
+        checkIndex(index);
+        int start = trimStart(index);
+        int end = trimEnd(index);
+        if (start >= end) {
+            return null;
+        }
+
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int part = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = data[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > 8) {
+                    throw invalidDate(index);
+                }
+                int digit = c - '0';
+                if (part == 0) {
+                    year = year * 10 + digit;
+                } else if (part == 1) {
+                    month = month * 10 + digit;
+                } else {
+                    day = day * 10 + digit;
+                }
+            } else if ((c == '-' || c == '/' || c == '.') && part < 2 && digits > 0) {
+                part++;
+                digits = 0;
+            } else {
+                throw invalidDate(index);
+            }
+        }
+
+        if (part == 0 && digits == 8) {
+            // yyyyMMdd
+            day = year % 100;
+            month = year / 100 % 100;
+            year = year / 10000;
+        } else if (part != 2 || digits == 0) {
+            throw invalidDate(index);
+        }
+
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            throw invalidDate(index);
+        }
+    }
+
+    /**
+     * 复制所有字段为字符串列表
+     *
+     * @return 字段列表
+     */
+    public List<String> toList() {
+        List<String> values = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            values.add(getString(i));
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    private int trimStart(int index) {
+        int start = starts[index];
+        int end = ends[index];
+        while (start < end && Character.isWhitespace(data[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int index) {
+        int start = starts[index];
+        int end = ends[index];
+        while (end > start && Character.isWhitespace(data[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("第" + lineNumber + "行没有第" + (index + 1) + "列，共" + fieldCount + "列");
+        }
+    }
+
+    private NumberFormatException invalid(int index, String type) {
+        return new NumberFormatException("第" + lineNumber + "行第" + (index + 1) + "列不是有效的" + type + ": "
+                + getString(index));
+    }
+
+    private DateTimeException invalidDate(int index) {
+        return new DateTimeException("第" + lineNumber + "行第" + (index + 1) + "列不是有效的日期: " + getString(index));
+    }
+
+    /**
+     * 按列复用的字段视图
+     */
+    private final class Field implements CharSequence {
+
+        private final int index;
+
+        private Field(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return ends[index] - starts[index];
+        }
+
+        @Override
+        public char charAt(int i) {
+            if (i < 0 || i >= length()) {
+                throw new IndexOutOfBoundsException("index: " + i);
+            }
+            return data[starts[index] + i];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return getString(index);
+        }
+    }
+}
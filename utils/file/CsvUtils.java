@@ -1,12 +1,12 @@
 package com.PFM.CD.utils.file;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -15,6 +15,8 @@ import java.util.List;
 
 /**
  * CSV文件处理工具类
+ * 读取基于流式的CsvReader，引号内的换行按RFC 4180作为字段内容处理；
+ * 大文件应使用openReader或forEachRecord逐条处理，避免一次性载入所有记录。
  *
  * @author rywc2005
  * @since 2025-06-24
@@ -56,18 +58,54 @@ public class CsvUtils {
             throws IOException {
         List<List<String>> records = new ArrayList<>();
 
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(new FileInputStream(filePath), charset))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                List<String> values = parseCsvLine(line, separator, quote);
-                records.add(values);
-            }
+        try (CsvReader reader = openReader(filePath, separator, quote, charset)) {
+            reader.readAll(record -> records.add(record.toList()));
         }
 
         return records;
     }
 
+    /**
+     * 打开CSV文件的流式读取器（UTF-8，逗号分隔）
+     *
+     * @param filePath 文件路径
+     * @return CSV读取器，使用完毕后需要关闭
+     * @throws IOException 如果文件无法打开
+     */
+    public static CsvReader openReader(String filePath) throws IOException {
+        return openReader(filePath, DEFAULT_SEPARATOR, DEFAULT_QUOTE, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 打开CSV文件的流式读取器（指定分隔符和引号字符）
+     *
+     * @param filePath 文件路径
+     * @param separator 分隔符
+     * @param quote 引号字符
+     * @param charset 字符集
+     * @return CSV读取器，使用完毕后需要关闭
+     * @throws IOException 如果文件无法打开
+     */
+    public static CsvReader openReader(String filePath, char separator, char quote, Charset charset)
+            throws IOException {
+        // CsvReader自带字符缓冲，不再套BufferedReader
+        return new CsvReader(new InputStreamReader(new FileInputStream(filePath), charset), separator, quote);
+    }
+
+    /**
+     * 逐条读取CSV文件并交给回调处理，记录对象在回调之间复用
+     *
+     * @param filePath 文件路径
+     * @param handler 记录回调
+     * @return 处理的记录数
+     * @throws IOException 如果读取过程中发生IO错误或回调抛出异常
+     */
+    public static long forEachRecord(String filePath, CsvReader.RecordHandler handler) throws IOException {
+        try (CsvReader reader = openReader(filePath)) {
+            return reader.readAll(handler);
+        }
+    }
+
     /**
      * 写入CSV文件
      *
@@ -100,53 +138,6 @@ public class CsvUtils {
         }
     }
 
-    /**
-     * 解析CSV行
-     *
-     * @param line CSV行
-     * @param separator 分隔符
-     * @param quote 引号字符
-     * @return 字段列表
-     */
-    private static List<String> parseCsvLine(String line, char separator, char quote) {
-        List<String> result = new ArrayList<>();
-
-        if (line == null || line.isEmpty()) {
-            return result;
-        }
-
-        StringBuilder field = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-
-            if (c == quote) {
-                // 处理引号字符
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == quote) {
-                    // 转义的引号（两个连续的引号）
-                    field.append(quote);
-                    i++; // 跳过下一个引号
-                } else {
-                    // 切换引号状态
-                    inQuotes = !inQuotes;
-                }
-            } else if (c == separator && !inQuotes) {
-                // 处理分隔符（不在引号内）
-                result.add(field.toString());
-                field.setLength(0); // 清空字段
-            } else {
-                // 普通字符
-                field.append(c);
-            }
-        }
-
-        // 添加最后一个字段
-        result.add(field.toString());
-
-        return result;
-    }
-
     /**
      * 格式化CSV行
      *
@@ -195,8 +186,10 @@ public class CsvUtils {
      * @throws IOException 如果读取过程中发生IO错误
      */
     public static List<String> readCsvHeader(String filePath) throws IOException {
-        List<List<String>> records = readCsv(filePath);
-        return records.isEmpty() ? new ArrayList<>() : records.get(0);
+        try (CsvReader reader = openReader(filePath)) {
+            CsvRecord header = reader.next();
+            return header == null ? new ArrayList<>() : header.toList();
+        }
     }
 
     /**
@@ -224,10 +217,11 @@ public class CsvUtils {
             return records;
         }
 
-        String[] lines = csvContent.split("\r\n|\n|\r");
-        for (String line : lines) {
-            List<String> values = parseCsvLine(line, separator, quote);
-            records.add(values);
+        try (CsvReader reader = new CsvReader(new StringReader(csvContent), separator, quote)) {
+            reader.readAll(record -> records.add(record.toList()));
+        } catch (IOException e) {
+            // 字符串读取不会发生IO错误，这里只可能是引号未闭合
+            throw new IllegalArgumentException("CSV内容格式错误: " + e.getMessage(), e);
         }
 
         return records;
@@ -0,0 +1,217 @@
+package com.PFM.CD.utils.file;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 流式CSV写入器
+ * 逐字段写入底层Writer，不构建行列表或整行字符串；字段只在需要时加引号，
+ * 扫描和转义直接在输出上完成。日期和整数按字符写出，不创建临时字符串。
+ * 不是线程安全的，也不负责缓冲，底层Writer应自带缓冲。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+    private static final char DEFAULT_SEPARATOR = ',';
+    private static final char DEFAULT_QUOTE = '"';
+    private static final String DEFAULT_LINE_SEPARATOR = "\r\n";
+
+    private final Writer writer;
+    private final char separator;
+    private final char quote;
+    private final String lineSeparator;
+    private final char[] digits = new char[20];
+
+    private boolean firstField = true;
+    private long rowCount;
+
+    /**
+     * 使用默认分隔符、引号和换行符（RFC 4180）创建写入器
+     *
+     * @param writer 底层Writer
+     */
+    public CsvWriter(Writer writer) {
+        this(writer, DEFAULT_SEPARATOR, DEFAULT_QUOTE, DEFAULT_LINE_SEPARATOR);
+    }
+
+    /**
+     * 创建写入器
+     *
+     * @param writer 底层Writer
+     * @param separator 分隔符
+     * @param quote 引号字符
+     * @param lineSeparator 换行符
+     */
+    public CsvWriter(Writer writer, char separator, char quote, String lineSeparator) {
+        this.writer = writer;
+        this.separator = separator;
+        this.quote = quote;
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * 写入字符串字段，null写为空字段
+     */
+    public CsvWriter writeField(String value) throws IOException {
+        startField();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return this;
+        }
+
+        // 加引号并把内部引号写成两个，按段写出避免逐字符调用
+        writer.write(quote);
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == quote) {
+                writer.write(value, start, i - start + 1);
+                writer.write(quote);
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write(quote);
+        return this;
+    }
+
+    /**
+     * 写入整数字段
+     */
+    public CsvWriter writeField(long value) throws IOException {
+        startField();
+        writeLong(value);
+        return this;
+    }
+
+    /**
+     * 写入可为空的整数字段
+     */
+    public CsvWriter writeField(Integer value) throws IOException {
+        if (value == null) {
+            return writeField((String) null);
+        }
+        return writeField(value.longValue());
+    }
+
+    /**
+     * 写入金额字段，不使用科学计数法
+     */
+    public CsvWriter writeField(BigDecimal value) throws IOException {
+        startField();
+        if (value != null) {
+            writer.write(value.toPlainString());
+        }
+        return this;
+    }
+
+    /**
+     * 写入日期字段，格式为yyyy-MM-dd
+     */
+    public CsvWriter writeField(LocalDate value) throws IOException {
+        startField();
+        if (value == null) {
+            return this;
+        }
+
+        int year = value.getYear();
+        if (year < 1000 || year > 9999) {
+            writer.write(value.toString());
+            return this;
+        }
+        writeLong(year);
+        writer.write('-');
+        writeTwoDigits(value.getMonthValue());
+        writer.write('-');
+        writeTwoDigits(value.getDayOfMonth());
+        return this;
+    }
+
+    /**
+     * 写入一整行字符串字段
+     */
+    public CsvWriter writeRow(String... values) throws IOException {
+        for (String value : values) {
+            writeField(value);
+        }
+        return endRow();
+    }
+
+    /**
+     * 结束当前行
+     */
+    public CsvWriter endRow() throws IOException {
+        writer.write(lineSeparator);
+        firstField = true;
+        rowCount++;
+        return this;
+    }
+
+    /**
+     * 获取已写入的行数（包括标题行）
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void startField() throws IOException {
+        if (firstField) {
+            firstField = false;
+        } else {
+            writer.write(separator);
+        }
+    }
+
+    private boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == separator || c == quote || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        // 首尾空白在部分解析器中会被去掉，加引号保留原值
+        return value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ';
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writer.write(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            writer.write('-');
+            value = -value;
+        }
+
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        writer.write(digits, pos, digits.length - pos);
+    }
+
+    private void writeTwoDigits(int value) throws IOException {
+        writer.write('0' + value / 10);
+        writer.write('0' + value % 10);
+    }
+}
@@ -0,0 +1,245 @@
+package com.PFM.CD.utils.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存映射CSV文件分块器
+ * 用FileChannel.map映射文件，按字节扫描引号和换行，在引号之外的换行处把文件切成大小相近的块，
+ * 每块都由完整的记录组成，可以在不同线程中用各自的CsvReader独立解析。
+ * 按字节判断引号和换行对ASCII兼容的编码（如UTF-8、GBK）是安全的，多字节字符不会包含这两个字节。
+ * 数据块只在LF处切分，只用CR换行的文件除标题行外作为一个块处理；
+ * 单独的标题块在标题记录实际结束的位置（CR、LF或CRLF）切分，保证数据不会留在标题块中。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class MappedCsvSplitter implements Closeable {
+
+    /**
+     * 默认块大小（字节）
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    // 扫描分块边界时每次映射的窗口大小
+    private static final long SCAN_WINDOW = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int chunkSize;
+    private final char separator;
+    private final char quote;
+    private final Charset charset;
+
+    /**
+     * 文件中的一个块，由完整的记录组成
+     */
+    public static final class Chunk {
+
+        private final int index;
+        private final long offset;
+        private final long length;
+        private final long firstLine;
+
+        private Chunk(int index, long offset, long length, long firstLine) {
+            this.index = index;
+            this.offset = offset;
+            this.length = length;
+            this.firstLine = firstLine;
+        }
+
+        /**
+         * 获取块序号（从0开始）
+         *
+         * @return 块序号
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * 获取块在文件中的起始偏移
+         *
+         * @return 字节偏移
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * 获取块长度
+         *
+         * @return 字节数
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * 获取块第一行在文件中的行号（从1开始）
+         *
+         * @return 行号
+         */
+        public long getFirstLine() {
+            return firstLine;
+        }
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param file CSV文件
+     * @param chunkSize 目标块大小（字节），块在达到该大小后的第一个记录边界处结束
+     * @param separator 分隔符
+     * @param quote 引号字符，必须是ASCII字符
+     * @param charset 字符集，必须与ASCII兼容
+     * @throws IOException 如果文件无法打开
+     */
+    public MappedCsvSplitter(Path file, int chunkSize, char separator, char quote, Charset charset)
+            throws IOException {
+        if (quote > 0x7F) {
+            throw new IllegalArgumentException("引号字符必须是ASCII字符: " + quote);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.separator = separator;
+        this.quote = quote;
+        this.charset = charset;
+    }
+
+    /**
+     * 获取文件大小
+     *
+     * @return 字节数
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * 扫描文件并切分为块
+     *
+     * @param headerChunk 是否把第一条记录（标题行）单独作为第0块
+     * @return 按文件顺序排列的块
+     * @throws IOException 如果读取失败
+     */
+    public List<Chunk> split(boolean headerChunk) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        byte quoteByte = (byte) quote;
+        boolean inQuotes = false;
+        long line = 1;
+        long chunkStart = 0;
+        long chunkFirstLine = 1;
+        long target = headerChunk ? 0 : chunkSize;
+        boolean headerPending = headerChunk;
+        byte previous = 0;
+
+        for (long window = 0; window < fileSize; window += SCAN_WINDOW) {
+            int size = (int) Math.min(SCAN_WINDOW, fileSize - window);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, window, size);
+
+            for (int i = 0; i < size; i++) {
+                byte b = buffer.get(i);
+                if (headerPending && previous == '\r' && b != '\n' && !inQuotes) {
+                    // 标题行以单独的CR结束
+                    long end = window + i;
+                    line++;
+                    chunks.add(new Chunk(chunks.size(), chunkStart, end - chunkStart, chunkFirstLine));
+                    chunkStart = end;
+                    chunkFirstLine = line;
+                    target = chunkSize;
+                    headerPending = false;
+                }
+                previous = b;
+                if (b == quoteByte) {
+                    // 转义的引号连续出现两次，状态翻转两次后不变
+                    inQuotes = !inQuotes;
+                } else if (b == '\n') {
+                    line++;
+                    long end = window + i + 1;
+                    if (!inQuotes && end - chunkStart >= target) {
+                        chunks.add(new Chunk(chunks.size(), chunkStart, end - chunkStart, chunkFirstLine));
+                        chunkStart = end;
+                        chunkFirstLine = line;
+                        target = chunkSize;
+                        headerPending = false;
+                    }
+                }
+            }
+        }
+
+        if (chunkStart < fileSize) {
+            chunks.add(new Chunk(chunks.size(), chunkStart, fileSize - chunkStart, chunkFirstLine));
+        }
+        return chunks;
+    }
+
+    /**
+     * 映射一个块并创建读取器，记录的行号是在文件中的行号
+     *
+     * @param chunk 块
+     * @return CSV读取器
+     * @throws IOException 如果映射失败或块超过2GB
+     */
+    public CsvReader openReader(Chunk chunk) throws IOException {
+        if (chunk.getLength() > Integer.MAX_VALUE) {
+            throw new IOException("第" + chunk.getFirstLine() + "行开始的记录过大，无法映射");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.getOffset(), chunk.getLength());
+        CsvReader reader = new CsvReader(new InputStreamReader(new ByteBufferInputStream(buffer), charset),
+                separator, quote);
+        reader.setLineNumber(chunk.getFirstLine());
+        return reader;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 读取ByteBuffer的输入流
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
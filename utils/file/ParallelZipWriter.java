@@ -0,0 +1,296 @@
+package com.PFM.CD.utils.file;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 并行生成ZIP条目并按顺序流式写出
+ * 各条目在线程池中同时生成，生成的字节经过有界缓冲直接写入ZipOutputStream，
+ * 调用线程按添加顺序逐个取出条目写入目标流。某个条目的缓冲写满时其生成线程阻塞等待，
+ * 因此内存占用与条目大小无关，总耗时接近最慢的单个条目，也不产生中间临时文件。
+ * 目标流长时间不读取（如下载方停止接收）时，正在写出的条目的生成线程最多等待停滞超时时间，
+ * 之后放弃该条目并释放线程，避免一个停滞的导出占住共享线程池、挂起其他导出。
+ * 提前生成、尚未轮到写出的条目不计停滞时间，等待前面的条目写完，整个写出失败时被取消。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ParallelZipWriter {
+
+    /**
+     * 默认数据块大小（字节）
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * 默认每个条目最多缓冲的数据块数
+     */
+    public static final int DEFAULT_BUFFERED_CHUNKS = 16;
+
+    /**
+     * 默认停滞超时（毫秒）：缓冲已满时生成线程最多等待这么久
+     */
+    public static final long DEFAULT_STALL_TIMEOUT_MILLIS = 60_000L;
+
+    // 条目结束标记，按引用比较
+    private static final byte[] END_OF_ENTRY = new byte[0];
+
+    // 尚未开始写出的条目缓冲已满时，检查是否已开始写出的间隔（毫秒）
+    private static final long DRAIN_CHECK_MILLIS = 200L;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int chunkSize;
+    private final int bufferedChunks;
+    private final long stallTimeoutMillis;
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * 生成ZIP条目内容的回调
+     */
+    @FunctionalInterface
+    public interface EntryWriter {
+
+        /**
+         * 将条目内容写入输出流
+         *
+         * @param out 条目输出流，写完后可以关闭也可以不关闭
+         * @throws Exception 如果生成失败
+         */
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param executor 生成条目的线程池
+     * @param parallelism 同时生成的最大条目数
+     */
+    public ParallelZipWriter(ExecutorService executor, int parallelism) {
+        this(executor, parallelism, DEFAULT_CHUNK_SIZE, DEFAULT_BUFFERED_CHUNKS, DEFAULT_STALL_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param executor 生成条目的线程池
+     * @param parallelism 同时生成的最大条目数
+     * @param chunkSize 数据块大小（字节）
+     * @param bufferedChunks 每个条目最多缓冲的数据块数
+     * @param stallTimeoutMillis 缓冲已满时生成线程最多等待的时间（毫秒），超时后该条目失败
+     */
+    public ParallelZipWriter(ExecutorService executor, int parallelism, int chunkSize, int bufferedChunks,
+                             long stallTimeoutMillis) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.bufferedChunks = Math.max(1, bufferedChunks);
+        this.stallTimeoutMillis = Math.max(1L, stallTimeoutMillis);
+    }
+
+    /**
+     * 添加条目，条目按添加顺序写入ZIP
+     *
+     * @param name 条目名称
+     * @param writer 生成条目内容的回调
+     * @return 当前对象
+     */
+    public ParallelZipWriter addEntry(String name, EntryWriter writer) {
+        entries.add(new Entry(name, writer));
+        return this;
+    }
+
+    /**
+     * 生成所有条目并写入目标流，写完后结束ZIP但不关闭目标流
+     * 任一条目生成失败、写出失败或目标流停滞超时时取消其余条目；每个对象只能写出一次
+     *
+     * @param out 目标输出流
+     * @throws IOException 如果条目生成失败、目标流停滞超时或写出过程中发生IO错误
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        List<Future<?>> futures = new ArrayList<>();
+        boolean completed = false;
+
+        try {
+            ZipOutputStream zos = new ZipOutputStream(out);
+
+            // 滑动窗口：最多提前启动parallelism个条目，每写完一个再启动下一个。
+            // 条目按顺序提交，正在写出的条目总是已经开始生成，因此不会因缓冲写满而互相等待
+            int submitted = 0;
+            while (submitted < Math.min(parallelism, entries.size())) {
+                futures.add(executor.submit(entries.get(submitted++)::produce));
+            }
+
+            for (Entry entry : entries) {
+                // 写条目头之前就开始计时，目标流在写条目头时停滞也能按超时释放生成线程
+                entry.draining = true;
+                zos.putNextEntry(new ZipEntry(entry.name));
+                entry.drainTo(zos);
+                zos.closeEntry();
+
+                if (submitted < entries.size()) {
+                    futures.add(executor.submit(entries.get(submitted++)::produce));
+                }
+            }
+
+            zos.finish();
+            zos.flush();
+            completed = true;
+        } finally {
+            if (!completed) {
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取已添加的条目数
+     *
+     * @return 条目数
+     */
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * ZIP条目，生成线程写入有界队列，调用线程从队列取出
+     */
+    private final class Entry {
+
+        private final String name;
+        private final EntryWriter writer;
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(bufferedChunks);
+        private volatile Throwable failure;
+        private volatile boolean draining;   // 调用线程已开始写出本条目
+
+        private Entry(String name, EntryWriter writer) {
+            this.name = name;
+            this.writer = writer;
+        }
+
+        /**
+         * 在线程池中生成条目内容
+         */
+        private void produce() {
+            ChunkOutputStream stream = new ChunkOutputStream();
+            try {
+                writer.writeTo(stream);
+                stream.close();
+            } catch (Throwable t) {
+                // 丢弃未取走的数据，保证结束标记一定能放入队列
+                failure = t;
+                chunks.clear();
+                chunks.offer(END_OF_ENTRY);
+            }
+        }
+
+        /**
+         * 取出条目内容写入ZIP，直到条目结束
+         */
+        private void drainTo(OutputStream out) throws IOException {
+            try {
+                byte[] chunk;
+                while ((chunk = chunks.take()) != END_OF_ENTRY) {
+                    out.write(chunk);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("写入ZIP条目时被中断: " + name);
+            }
+
+            if (failure != null) {
+                throw new IOException("生成ZIP条目失败: " + name, failure);
+            }
+        }
+
+        /**
+         * 按数据块写入队列的输出流，队列满时阻塞
+         */
+        private final class ChunkOutputStream extends OutputStream {
+
+            private byte[] buffer = new byte[chunkSize];
+            private int count;
+            private boolean closed;
+
+            @Override
+            public void write(int b) throws IOException {
+                ensureOpen();
+                if (count == buffer.length) {
+                    flushBuffer();
+                }
+                buffer[count++] = (byte) b;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ensureOpen();
+                while (len > 0) {
+                    if (count == buffer.length) {
+                        flushBuffer();
+                    }
+                    int n = Math.min(len, buffer.length - count);
+                    System.arraycopy(b, off, buffer, count, n);
+                    count += n;
+                    off += n;
+                    len -= n;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (count > 0) {
+                    flushBuffer();
+                }
+                put(END_OF_ENTRY);
+            }
+
+            private void flushBuffer() throws IOException {
+                // 交出当前缓冲区，之后写入新的缓冲区
+                byte[] chunk = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+                put(chunk);
+                buffer = new byte[chunkSize];
+                count = 0;
+            }
+
+            private void put(byte[] chunk) throws IOException {
+                try {
+                    // 还没轮到写出时不计时，前面的条目生成得再慢也不算停滞；整个写出失败时由writeTo中断
+                    while (!draining) {
+                        if (chunks.offer(chunk, DRAIN_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                            return;
+                        }
+                    }
+                    if (!chunks.offer(chunk, stallTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        throw new IOException("目标流超过" + stallTimeoutMillis + "毫秒未读取，放弃ZIP条目: " + name);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("生成ZIP条目时被取消: " + name);
+                }
+            }
+
+            private void ensureOpen() throws IOException {
+                if (closed) {
+                    throw new IOException("ZIP条目输出流已关闭: " + name);
+                }
+            }
+        }
+    }
+}
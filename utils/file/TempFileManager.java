@@ -23,7 +23,11 @@ public class TempFileManager {
     private static final String TEMP_DIR_PREFIX = "pfm_temp_";
     private static final long DEFAULT_CLEANUP_DELAY_HOURS = 24;
     private static final ConcurrentHashMap<String, Long> MANAGED_FILES = new ConcurrentHashMap<>();
-    private static final ScheduledExecutorService CLEANUP_EXECUTOR = Executors.newSingleThreadScheduledExecutor();
+    private static final ScheduledExecutorService CLEANUP_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "temp-file-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
     private static Path tempDirPath;
 
     static {
@@ -145,10 +149,13 @@ public class TempFileManager {
 
     /**
      * 清理过期的临时文件
+     *
+     * @return 删除的文件或目录数
      */
-    private static void cleanupExpiredFiles() {
+    public static int cleanupExpiredFiles() {
         long currentTime = System.currentTimeMillis();
         List<String> expiredFiles = new ArrayList<>();
+        int cleaned = 0;
 
         // 找出过期的文件
         MANAGED_FILES.forEach((path, expirationTime) -> {
@@ -169,10 +176,39 @@ public class TempFileManager {
 
                 // 从管理列表中移除
                 MANAGED_FILES.remove(path);
+                cleaned++;
             } catch (Exception e) {
                 System.err.println("清理过期文件失败: " + e.getMessage());
             }
         }
+        return cleaned;
+    }
+
+    /**
+     * 清理之前进程异常退出后遗留在系统临时目录中的临时目录
+     * 当前进程使用的临时目录不受影响
+     *
+     * @param olderThanHours 最后修改时间早于多少小时前的目录才会被删除
+     * @return 删除的目录数
+     */
+    public static int cleanupStaleDirectories(long olderThanHours) {
+        File[] candidates = new File(System.getProperty("java.io.tmpdir"))
+                .listFiles(file -> file.isDirectory() && file.getName().startsWith(TEMP_DIR_PREFIX));
+        if (candidates == null) {
+            return 0;
+        }
+
+        long threshold = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(olderThanHours);
+        int cleaned = 0;
+        for (File dir : candidates) {
+            if (dir.toPath().equals(tempDirPath) || dir.lastModified() >= threshold) {
+                continue;
+            }
+            if (FileUtils.deleteDirectory(dir.getPath())) {
+                cleaned++;
+            }
+        }
+        return cleaned;
     }
 
     /**
@@ -0,0 +1,135 @@
+package com.PFM.CD.utils.file;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 流式TSV写入器，输出MySQL LOAD DATA的默认格式
+ * 字段以制表符分隔，行以LF结束，null写为\N，字段中的反斜杠、制表符、换行、回车和NUL用反斜杠转义，
+ * 对应LOAD DATA的FIELDS TERMINATED BY '\t' ESCAPED BY '\\' LINES TERMINATED BY '\n'。
+ * 不是线程安全的，也不负责缓冲，底层Writer应自带缓冲。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class TsvWriter implements Closeable, Flushable {
+
+    private final Writer writer;
+
+    private boolean firstField = true;
+    private long rowCount;
+
+    /**
+     * 创建写入器
+     *
+     * @param writer 底层Writer
+     */
+    public TsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * 写入字符串字段，null写为\N
+     */
+    public TsvWriter writeField(String value) throws IOException {
+        startField();
+        if (value == null) {
+            writer.write("\\N");
+            return this;
+        }
+
+        // 按段写出不需要转义的部分
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char escaped = escape(value.charAt(i));
+            if (escaped != 0) {
+                writer.write(value, start, i - start);
+                writer.write('\\');
+                writer.write(escaped);
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        return this;
+    }
+
+    /**
+     * 写入可为空的整数字段
+     */
+    public TsvWriter writeField(Integer value) throws IOException {
+        return writeField(value == null ? null : value.toString());
+    }
+
+    /**
+     * 写入金额字段，不使用科学计数法
+     */
+    public TsvWriter writeField(BigDecimal value) throws IOException {
+        return writeField(value == null ? null : value.toPlainString());
+    }
+
+    /**
+     * 写入日期字段，格式为yyyy-MM-dd
+     */
+    public TsvWriter writeField(LocalDate value) throws IOException {
+        return writeField(value == null ? null : value.toString());
+    }
+
+    /**
+     * 结束当前行
+     */
+    public TsvWriter endRow() throws IOException {
+        writer.write('\n');
+        firstField = true;
+        rowCount++;
+        return this;
+    }
+
+    /**
+     * 获取已写入的行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void startField() throws IOException {
+        if (firstField) {
+            firstField = false;
+        } else {
+            writer.write('\t');
+        }
+    }
+
+    /**
+     * 返回转义后跟在反斜杠之后的字符，不需要转义时返回0
+     */
+    private static char escape(char c) {
+        switch (c) {
+            case '\\':
+                return '\\';
+            case '\t':
+                return 't';
+            case '\n':
+                return 'n';
+            case '\r':
+                return 'r';
+            case '\0':
+                return '0';
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.PFM.CD.utils.format;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * 预编译的数字格式化器
+ * 从一个DecimalFormat模板读取前后缀、分组、小数位数、乘数、舍入方式和符号后不再变化，
+ * 可以在多个线程中共享，输出与模板的DecimalFormat一致（包括负数舍入为零时保留负号）。
+ * 整数部分和小数部分不超过long范围时直接按位写出，不创建中间对象；
+ * formatUnscaledTo按“未缩放值+小数位数”（如以分为单位的金额）写出，是报表逐格输出的快速路径。
+ * 不支持科学计数法模式。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public final class CompiledNumberFormat {
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final int groupingSize;             // 为0表示不分组
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final char zeroDigit;
+    private final int minIntegerDigits;
+    private final int minFractionDigits;
+    private final int maxFractionDigits;
+    private final int multiplier;
+    private final BigDecimal bigMultiplier;
+    private final RoundingMode roundingMode;
+    private final boolean decimalSeparatorAlwaysShown;
+    private final String nan;
+    private final String infinity;
+
+    private CompiledNumberFormat(DecimalFormat prototype) {
+        String pattern = prototype.toPattern();
+        if (pattern.indexOf('E') >= 0) {
+            throw new IllegalArgumentException("不支持科学计数法模式: " + pattern);
+        }
+        DecimalFormatSymbols symbols = prototype.getDecimalFormatSymbols();
+        boolean currency = pattern.indexOf('\u00A4') >= 0;
+
+        this.positivePrefix = prototype.getPositivePrefix();
+        this.positiveSuffix = prototype.getPositiveSuffix();
+        this.negativePrefix = prototype.getNegativePrefix();
+        this.negativeSuffix = prototype.getNegativeSuffix();
+        this.groupingSize = prototype.isGroupingUsed() ? prototype.getGroupingSize() : 0;
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.decimalSeparator = currency ? symbols.getMonetaryDecimalSeparator() : symbols.getDecimalSeparator();
+        this.zeroDigit = symbols.getZeroDigit();
+        this.minIntegerDigits = Math.min(prototype.getMinimumIntegerDigits(), POW10.length);
+        this.minFractionDigits = prototype.getMinimumFractionDigits();
+        this.maxFractionDigits = Math.max(prototype.getMaximumFractionDigits(), minFractionDigits);
+        this.multiplier = prototype.getMultiplier();
+        this.bigMultiplier = BigDecimal.valueOf(multiplier);
+        this.roundingMode = prototype.getRoundingMode();
+        this.decimalSeparatorAlwaysShown = prototype.isDecimalSeparatorAlwaysShown();
+        this.nan = symbols.getNaN();
+        this.infinity = symbols.getInfinity();
+    }
+
+    /**
+     * 从DecimalFormat模板编译格式化器，之后修改模板不影响编译结果
+     *
+     * @param prototype 模板
+     * @return 格式化器
+     * @throws IllegalArgumentException 如果模板使用科学计数法
+     */
+    public static CompiledNumberFormat compile(DecimalFormat prototype) {
+        return new CompiledNumberFormat(prototype);
+    }
+
+    /**
+     * 格式化BigDecimal
+     *
+     * @param number 数字
+     * @return 格式化后的字符串
+     */
+    public String format(BigDecimal number) {
+        StringBuilder sb = new StringBuilder(24);
+        try {
+            formatTo(number, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 格式化double
+     *
+     * @param number 数字
+     * @return 格式化后的字符串
+     */
+    public String format(double number) {
+        StringBuilder sb = new StringBuilder(24);
+        try {
+            formatTo(number, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 格式化long
+     *
+     * @param number 数字
+     * @return 格式化后的字符串
+     */
+    public String format(long number) {
+        StringBuilder sb = new StringBuilder(24);
+        try {
+            formatUnscaledTo(number, 0, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 格式化以分为单位的金额
+     *
+     * @param cents 金额（分）
+     * @return 格式化后的字符串
+     */
+    public String formatCents(long cents) {
+        StringBuilder sb = new StringBuilder(24);
+        try {
+            formatUnscaledTo(cents, 2, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 把BigDecimal格式化后写入out
+     *
+     * @param number 数字
+     * @param out 输出
+     * @throws IOException 如果写入失败
+     */
+    public void formatTo(BigDecimal number, Appendable out) throws IOException {
+        formatDecimal(number, out);
+    }
+
+    /**
+     * 把double格式化后写入out，NaN和无穷大按模板的符号输出
+     *
+     * @param number 数字
+     * @param out 输出
+     * @throws IOException 如果写入失败
+     */
+    public void formatTo(double number, Appendable out) throws IOException {
+        if (Double.isNaN(number)) {
+            out.append(nan);
+            return;
+        }
+        boolean negative = (number < 0.0 || (number == 0.0 && 1 / number < 0.0)) ^ (multiplier < 0);
+        if (multiplier != 1) {
+            number *= multiplier;
+        }
+        if (Double.isInfinite(number)) {
+            out.append(negative ? negativePrefix : positivePrefix)
+                    .append(infinity)
+                    .append(negative ? negativeSuffix : positiveSuffix);
+            return;
+        }
+
+        // 与DecimalFormat一致：不需要舍入时按最短十进制表示输出，需要舍入时按二进制精确值舍入
+        BigDecimal value = BigDecimal.valueOf(number);
+        if (value.scale() > maxFractionDigits) {
+            value = new BigDecimal(number).setScale(maxFractionDigits, roundingMode);
+        }
+        formatScaled(negative, value, out);
+    }
+
+    /**
+     * 把以分为单位的金额格式化后写入out
+     *
+     * @param cents 金额（分）
+     * @param out 输出
+     * @throws IOException 如果写入失败
+     */
+    public void formatCentsTo(long cents, Appendable out) throws IOException {
+        formatUnscaledTo(cents, 2, out);
+    }
+
+    /**
+     * 把unscaledValue × 10^-scale格式化后写入out，scale不超过最大小数位数时不创建任何对象
+     *
+     * @param unscaledValue 未缩放值
+     * @param scale 小数位数，不能为负
+     * @param out 输出
+     * @throws IOException 如果写入失败
+     */
+    public void formatUnscaledTo(long unscaledValue, int scale, Appendable out) throws IOException {
+        if (scale < 0 || scale >= POW10.length) {
+            throw new IllegalArgumentException("小数位数超出范围: " + scale);
+        }
+        long value = unscaledValue;
+        if (multiplier != 1) {
+            try {
+                value = Math.multiplyExact(unscaledValue, (long) multiplier);
+            } catch (ArithmeticException e) {
+                value = Long.MIN_VALUE;
+            }
+        }
+        if (value == Long.MIN_VALUE || scale > maxFractionDigits) {
+            // 需要舍入或超出long范围，走BigDecimal路径
+            formatDecimal(BigDecimal.valueOf(unscaledValue, scale), out);
+            return;
+        }
+        writeLong(value < 0, Math.abs(value), scale, out);
+    }
+
+    private void formatDecimal(BigDecimal number, Appendable out) throws IOException {
+        BigDecimal value = multiplier == 1 ? number : number.multiply(bigMultiplier);
+        boolean negative = value.signum() < 0;
+        if (value.scale() > maxFractionDigits) {
+            value = value.setScale(maxFractionDigits, roundingMode);
+        }
+        formatScaled(negative, value, out);
+    }
+
+    /**
+     * 输出已舍入到最大小数位数以内的值
+     */
+    private void formatScaled(boolean negative, BigDecimal value, Appendable out) throws IOException {
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 63 && value.scale() < POW10.length) {
+            writeLong(negative, Math.abs(unscaled.longValue()), value.scale(), out);
+        } else {
+            writeDigits(negative, unscaled.abs().toString(), value.scale(), out);
+        }
+    }
+
+    /**
+     * 按位写出magnitude × 10^-scale，scale不超过最大小数位数
+     */
+    private void writeLong(boolean negative, long magnitude, int scale, Appendable out) throws IOException {
+        long integerPart = magnitude / POW10[scale];
+        long fraction = magnitude % POW10[scale];
+        int fractionDigits = scale;
+        while (fractionDigits > minFractionDigits && fraction % 10 == 0) {
+            fraction /= 10;
+            fractionDigits--;
+        }
+
+        out.append(negative ? negativePrefix : positivePrefix);
+
+        int integerDigits = 0;
+        while (integerDigits < POW10.length && integerPart >= POW10[integerDigits]) {
+            integerDigits++;
+        }
+        int width = Math.max(integerDigits, minIntegerDigits);
+        if (width == 0 && fractionDigits == 0 && minFractionDigits == 0) {
+            width = 1;
+        }
+        for (int i = width - 1; i >= 0; i--) {
+            int digit = i < integerDigits ? (int) (integerPart / POW10[i] % 10) : 0;
+            out.append((char) (zeroDigit + digit));
+            if (groupingSize > 0 && i > 0 && i % groupingSize == 0) {
+                out.append(groupingSeparator);
+            }
+        }
+
+        int shownFractionDigits = Math.max(fractionDigits, minFractionDigits);
+        if (shownFractionDigits > 0 || decimalSeparatorAlwaysShown) {
+            out.append(decimalSeparator);
+        }
+        for (int i = fractionDigits - 1; i >= 0; i--) {
+            out.append((char) (zeroDigit + (int) (fraction / POW10[i] % 10)));
+        }
+        for (int i = fractionDigits; i < shownFractionDigits; i++) {
+            out.append(zeroDigit);
+        }
+
+        out.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+    /**
+     * 超出long范围时按十进制数字串写出
+     */
+    private void writeDigits(boolean negative, String digits, int scale, Appendable out) throws IOException {
+        int integerDigits = Math.max(0, digits.length() - scale);
+        int fractionDigits = scale;
+        while (fractionDigits > minFractionDigits && charAt(digits, integerDigits + fractionDigits - 1, scale) == '0') {
+            fractionDigits--;
+        }
+
+        out.append(negative ? negativePrefix : positivePrefix);
+
+        int width = Math.max(integerDigits, minIntegerDigits);
+        if (width == 0 && fractionDigits == 0 && minFractionDigits == 0) {
+            width = 1;
+        }
+        for (int i = width - 1; i >= 0; i--) {
+            char c = i < integerDigits ? digits.charAt(integerDigits - 1 - i) : '0';
+            out.append((char) (zeroDigit + (c - '0')));
+            if (groupingSize > 0 && i > 0 && i % groupingSize == 0) {
+                out.append(groupingSeparator);
+            }
+        }
+
+        int shownFractionDigits = Math.max(fractionDigits, minFractionDigits);
+        if (shownFractionDigits > 0 || decimalSeparatorAlwaysShown) {
+            out.append(decimalSeparator);
+        }
+        for (int i = 0; i < shownFractionDigits; i++) {
+            char c = i < fractionDigits ? charAt(digits, integerDigits + i, scale) : '0';
+            out.append((char) (zeroDigit + (c - '0')));
+        }
+
+        out.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+    /**
+     * 取小数点位置对齐后的第index位数字，数字串短于小数位数时左侧补零
+     */
+    private static char charAt(String digits, int index, int scale) {
+        int offset = index - Math.max(0, scale - digits.length());
+        return offset < 0 ? '0' : digits.charAt(offset);
+    }
+}
@@ -1,6 +1,9 @@
 package com.PFM.CD.utils.format;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
@@ -8,9 +11,12 @@ import java.util.Currency;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 货币格式化工具类
+ * 每种（区域, 货币）和每种自定义格式只编译一次CompiledNumberFormat并缓存，格式化时不再创建NumberFormat，
+ * 可以在多个线程中同时调用。逐格输出的报表应通过getFormat取得格式化器后写入Appendable。
  *
  * @author rywc2005
  * @since 2025-06-24
@@ -27,6 +33,17 @@ public class CurrencyFormatter {
         CURRENCY_LOCALES.put("GBP", Locale.UK);
     }
 
+    // 键为“区域|货币代码”或“区域|符号|小数位数|是否分组”
+    private static final Map<String, CompiledNumberFormat> FORMAT_CACHE = new ConcurrentHashMap<>();
+
+    private static final String[] CHINESE_DIGITS = {"零", "壹", "贰", "叁", "肆", "伍", "陆", "柒", "捌", "玖"};
+    private static final String[] CHINESE_DIGIT_UNITS = {"", "拾", "佰", "仟"};
+    private static final int[] SECTION_POWERS = {1, 10, 100, 1000};
+    private static final String[] CHINESE_SECTION_UNITS = {"", "万", "亿", "兆"};
+
+    // 中文大写能表示的最大金额（分），即9999兆9999亿9999万9999元9角9分
+    private static final long MAX_CHINESE_CENTS = 999_999_999_999_999_999L;
+
     /**
      * 私有构造函数，防止实例化
      */
@@ -52,11 +69,73 @@ public class CurrencyFormatter {
      * @return 格式化后的货币字符串
      */
     public static String format(BigDecimal amount, String currencyCode) {
-        Locale locale = CURRENCY_LOCALES.getOrDefault(currencyCode, Locale.getDefault());
+        return getFormat(currencyCode).format(amount);
+    }
+
+    /**
+     * 格式化以分为单位的货币金额（默认使用中国区域设置）
+     *
+     * @param cents 金额（分）
+     * @return 格式化后的货币字符串
+     */
+    public static String formatCents(long cents) {
+        return getFormat("CNY").formatCents(cents);
+    }
+
+    /**
+     * 把以分为单位的货币金额格式化后写入out，不创建中间对象
+     *
+     * @param cents 金额（分）
+     * @param currencyCode 货币代码（ISO 4217）
+     * @param out 输出
+     * @throws IOException 如果写入失败
+     */
+    public static void formatCentsTo(long cents, String currencyCode, Appendable out) throws IOException {
+        getFormat(currencyCode).formatCentsTo(cents, out);
+    }
+
+    /**
+     * 获取货币的预编译格式化器，使用该货币的默认区域设置
+     *
+     * @param currencyCode 货币代码（ISO 4217）
+     * @return 货币格式化器，可以在多个线程中共享
+     */
+    public static CompiledNumberFormat getFormat(String currencyCode) {
+        return getFormat(CURRENCY_LOCALES.getOrDefault(currencyCode, Locale.getDefault()), currencyCode);
+    }
+
+    /**
+     * 获取指定区域和货币的预编译格式化器
+     *
+     * @param locale 区域设置
+     * @param currencyCode 货币代码（ISO 4217）
+     * @return 货币格式化器，可以在多个线程中共享
+     */
+    public static CompiledNumberFormat getFormat(Locale locale, String currencyCode) {
+        String key = locale.toLanguageTag() + '|' + currencyCode;
+        CompiledNumberFormat format = FORMAT_CACHE.get(key);
+        if (format == null) {
+            format = FORMAT_CACHE.computeIfAbsent(key,
+                    k -> CompiledNumberFormat.compile((DecimalFormat) createFormat(locale, currencyCode)));
+        }
+        return format;
+    }
+
+    /**
+     * 创建货币格式化器
+     * NumberFormat不是线程安全的，只在需要解析或修改格式时使用；格式化应使用getFormat
+     *
+     * @param currencyCode 货币代码（ISO 4217）
+     * @return 货币格式化器
+     */
+    public static NumberFormat createFormat(String currencyCode) {
+        return createFormat(CURRENCY_LOCALES.getOrDefault(currencyCode, Locale.getDefault()), currencyCode);
+    }
+
+    private static NumberFormat createFormat(Locale locale, String currencyCode) {
         NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(locale);
         currencyFormatter.setCurrency(Currency.getInstance(currencyCode));
-
-        return currencyFormatter.format(amount);
+        return currencyFormatter;
     }
 
     /**
@@ -69,20 +148,24 @@ public class CurrencyFormatter {
      * @return 格式化后的货币字符串
      */
     public static String format(BigDecimal amount, String symbol, int decimalPlaces, boolean groupingUsed) {
-        // 设置小数位数和舍入模式
-        amount = amount.setScale(decimalPlaces, RoundingMode.HALF_UP);
-
-        // 创建格式化器
-        DecimalFormat decimalFormat = new DecimalFormat();
-        decimalFormat.setMinimumFractionDigits(decimalPlaces);
-        decimalFormat.setMaximumFractionDigits(decimalPlaces);
-        decimalFormat.setGroupingUsed(groupingUsed);
-
-        // 格式化金额
-        String formattedAmount = decimalFormat.format(amount);
-
-        // 添加货币符号
-        return symbol + formattedAmount;
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        String key = locale.toLanguageTag() + '|' + symbol + '|' + decimalPlaces + '|' + groupingUsed;
+        CompiledNumberFormat format = FORMAT_CACHE.get(key);
+        if (format == null) {
+            format = FORMAT_CACHE.computeIfAbsent(key, k -> {
+                // 货币符号放在负号之前，与原来“符号+格式化后的数字”的输出一致
+                DecimalFormat decimalFormat = new DecimalFormat();
+                decimalFormat.setMinimumFractionDigits(decimalPlaces);
+                decimalFormat.setMaximumFractionDigits(decimalPlaces);
+                decimalFormat.setGroupingUsed(groupingUsed);
+                decimalFormat.setRoundingMode(RoundingMode.HALF_UP);
+                decimalFormat.setPositivePrefix(symbol + decimalFormat.getPositivePrefix());
+                decimalFormat.setNegativePrefix(symbol + decimalFormat.getNegativePrefix());
+                return CompiledNumberFormat.compile(decimalFormat);
+            });
+        }
+        // 先舍入再格式化，舍入为零的负数不带负号
+        return format.format(amount.setScale(decimalPlaces, RoundingMode.HALF_UP));
     }
 
     /**
@@ -115,73 +198,118 @@ public class CurrencyFormatter {
      *
      * @param amount 金额
      * @return 中文大写金额
+     * @throws IllegalArgumentException 如果金额超出中文大写的表示范围
      */
     public static String toChinese(BigDecimal amount) {
         // 四舍五入到分
-        amount = amount.setScale(2, RoundingMode.HALF_UP);
+        BigInteger cents = amount.setScale(2, RoundingMode.HALF_UP).unscaledValue();
+        if (cents.bitLength() >= 63) {
+            throw new IllegalArgumentException("金额超出中文大写的表示范围: " + amount.toPlainString());
+        }
+        return toChinese(cents.longValue());
+    }
 
-        // 分解成整数部分和小数部分
-        String[] parts = amount.toString().split("\\.");
-        String integerPart = parts[0];
-        String decimalPart = parts.length > 1 ? parts[1] : "00";
+    /**
+     * 将以分为单位的金额转换为中文大写
+     *
+     * @param cents 金额（分）
+     * @return 中文大写金额
+     * @throws IllegalArgumentException 如果金额超出中文大写的表示范围
+     */
+    public static String toChinese(long cents) {
+        StringBuilder result = new StringBuilder(32);
+        try {
+            toChinese(cents, result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
 
-        // 如果小数部分长度不足2位，补0
-        if (decimalPart.length() == 1) {
-            decimalPart += "0";
+    /**
+     * 将以分为单位的金额转换为中文大写后写入out
+     * 整数部分按四位一节（万、亿、兆）读出，节内和节之间连续的零只读一个“零”，节末尾的零不读
+     *
+     * @param cents 金额（分）
+     * @param out 输出
+     * @throws IOException 如果写入失败
+     * @throws IllegalArgumentException 如果金额超出中文大写的表示范围
+     */
+    public static void toChinese(long cents, Appendable out) throws IOException {
+        if (cents > MAX_CHINESE_CENTS || cents < -MAX_CHINESE_CENTS) {
+            throw new IllegalArgumentException("金额超出中文大写的表示范围: " + cents + "分");
         }
 
-        // 中文数字
-        String[] chineseNumbers = {"零", "壹", "贰", "叁", "肆", "伍", "陆", "柒", "捌", "玖"};
+        // 处理负数
+        if (cents < 0) {
+            out.append("负");
+            cents = -cents;
+        }
 
-        // 整数部分的位级单位
-        String[] integerUnits = {"", "拾", "佰", "仟", "万", "拾", "佰", "仟", "亿", "拾", "佰", "仟", "兆"};
+        long yuan = cents / 100;
+        int jiao = (int) (cents / 10 % 10);
+        int fen = (int) (cents % 10);
 
         // 处理整数部分
-        StringBuilder result = new StringBuilder();
+        if (yuan == 0) {
+            out.append("零元");
+        } else {
+            int highestSection = CHINESE_SECTION_UNITS.length - 1;
+            while (sectionOf(yuan, highestSection) == 0) {
+                highestSection--;
+            }
 
-        // 处理负数
-        if (amount.compareTo(BigDecimal.ZERO) < 0) {
-            result.append("负");
-            integerPart = integerPart.substring(1);
-        }
+            boolean zeroPending = false;
+            for (int section = highestSection; section >= 0; section--) {
+                int value = sectionOf(yuan, section);
+                if (value == 0) {
+                    zeroPending = true;
+                    continue;
+                }
+                if (section < highestSection && value < 1000) {
+                    zeroPending = true;
+                }
 
-        // 处理整数部分为0的情况
-        if (integerPart.equals("0")) {
-            result.append("零元");
-        } else {
-            for (int i = 0; i < integerPart.length(); i++) {
-                int digit = Character.getNumericValue(integerPart.charAt(i));
-                int position = integerPart.length() - i - 1;
-
-                if (digit != 0) {
-                    result.append(chineseNumbers[digit]).append(integerUnits[position]);
-                } else {
-                    // 处理连续的零
-                    if (i < integerPart.length() - 1 &&
-                            Character.getNumericValue(integerPart.charAt(i + 1)) != 0) {
-                        result.append(chineseNumbers[digit]);
+                boolean started = false;
+                for (int position = 3; position >= 0; position--) {
+                    int digit = value / SECTION_POWERS[position] % 10;
+                    if (digit == 0) {
+                        zeroPending |= started;
+                        continue;
                     }
+                    if (zeroPending) {
+                        out.append(CHINESE_DIGITS[0]);
+                        zeroPending = false;
+                    }
+                    out.append(CHINESE_DIGITS[digit]).append(CHINESE_DIGIT_UNITS[position]);
+                    started = true;
                 }
+                out.append(CHINESE_SECTION_UNITS[section]);
+
+                // 节末尾的零不读
+                zeroPending = false;
             }
-            result.append("元");
+            out.append("元");
         }
 
         // 处理小数部分
-        int jiao = Character.getNumericValue(decimalPart.charAt(0));
-        int fen = Character.getNumericValue(decimalPart.charAt(1));
-
         if (jiao == 0 && fen == 0) {
-            result.append("整");
+            out.append("整");
         } else {
             if (jiao != 0) {
-                result.append(chineseNumbers[jiao]).append("角");
+                out.append(CHINESE_DIGITS[jiao]).append("角");
             }
             if (fen != 0) {
-                result.append(chineseNumbers[fen]).append("分");
+                out.append(CHINESE_DIGITS[fen]).append("分");
             }
         }
+    }
 
-        return result.toString();
+    private static int sectionOf(long yuan, int section) {
+        for (int i = 0; i < section; i++) {
+            yuan /= 10_000;
+        }
+        return (int) (yuan % 10_000);
     }
 
     /**
@@ -1,17 +1,21 @@
 package com.PFM.CD.utils.format;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.time.format.TextStyle;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 日期格式化工具类
+ * DateTimeFormatter不可变，按模式缓存后可以在多个线程中共享；
+ * 默认格式（yyyy-MM-dd和yyyy-MM-dd HH:mm:ss）直接按位写入Appendable，不创建中间对象
  *
  * @author rywc2005
  * @since 2025-06-24
@@ -19,7 +23,10 @@ import java.util.Map;
 public class DateFormatter {
 
     private static final Locale CHINA_LOCALE = Locale.CHINA;
-    private static final Map<String, DateTimeFormatter> FORMATTER_CACHE = new HashMap<>();
+    private static final Map<String, DateTimeFormatter> FORMATTER_CACHE = new ConcurrentHashMap<>();
+
+    private static final String DATE_PATTERN = "yyyy-MM-dd";
+    private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
 
     /**
      * 私有构造函数，防止实例化
@@ -39,7 +46,50 @@ public class DateFormatter {
             return "";
         }
 
-        return getFormatter("yyyy-MM-dd").format(date);
+        StringBuilder sb = new StringBuilder(10);
+        try {
+            formatTo(date, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 使用默认格式（yyyy-MM-dd）把日期写入out
+     *
+     * @param date 日期，不能为null
+     * @param out 输出
+     * @throws IOException 如果写入失败
+     */
+    public static void formatTo(LocalDate date, Appendable out) throws IOException {
+        int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            // 四位以外的年份交给DateTimeFormatter处理
+            getFormatter(DATE_PATTERN).formatTo(date, out);
+            return;
+        }
+        appendDigits(out, year, 4);
+        out.append('-');
+        appendDigits(out, date.getMonthValue(), 2);
+        out.append('-');
+        appendDigits(out, date.getDayOfMonth(), 2);
+    }
+
+    /**
+     * 使用指定格式把日期写入out
+     *
+     * @param date 日期，不能为null
+     * @param pattern 格式模式
+     * @param out 输出
+     * @throws IOException 如果写入失败
+     */
+    public static void formatTo(LocalDate date, String pattern, Appendable out) throws IOException {
+        if (DATE_PATTERN.equals(pattern)) {
+            formatTo(date, out);
+        } else {
+            getFormatter(pattern).formatTo(date, out);
+        }
     }
 
     /**
@@ -68,7 +118,48 @@ public class DateFormatter {
             return "";
         }
 
-        return getFormatter("yyyy-MM-dd HH:mm:ss").format(dateTime);
+        StringBuilder sb = new StringBuilder(19);
+        try {
+            formatTo(dateTime, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 使用默认格式（yyyy-MM-dd HH:mm:ss）把日期时间写入out
+     *
+     * @param dateTime 日期时间，不能为null
+     * @param out 输出
+     * @throws IOException 如果写入失败
+     */
+    public static void formatTo(LocalDateTime dateTime, Appendable out) throws IOException {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            getFormatter(DATE_TIME_PATTERN).formatTo(dateTime, out);
+            return;
+        }
+        formatTo(dateTime.toLocalDate(), out);
+        out.append(' ');
+        appendDigits(out, dateTime.getHour(), 2);
+        out.append(':');
+        appendDigits(out, dateTime.getMinute(), 2);
+        out.append(':');
+        appendDigits(out, dateTime.getSecond(), 2);
+    }
+
+    /**
+     * 写出固定位数的非负整数，不足时左侧补零
+     */
+    private static void appendDigits(Appendable out, int value, int width) throws IOException {
+        int divisor = 1;
+        for (int i = 1; i < width; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
     }
 
     /**
@@ -0,0 +1,131 @@
+package com.PFM.CD.utils.format;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 扁平JSON工具类
+ * 报表参数等字符串映射与形如{"键":"值"}的扁平JSON对象之间的转换。键按字典序排列，
+ * 相同的映射总是得到相同的字符串；引号和反斜杠被转义，null键和null值写为不带引号的null，
+ * 不同的映射不会得到相同的字符串
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class JsonUtils {
+
+    private static final String NULL_LITERAL = "null";
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private JsonUtils() {
+        throw new IllegalStateException("工具类不应被实例化");
+    }
+
+    /**
+     * 将Map转换为JSON字符串，键按字典序排列，null键排在最前
+     *
+     * @param map 字符串映射，可以为null
+     * @return JSON字符串，空映射返回{}
+     */
+    public static String mapToJson(Map<String, String> map) {
+        if (map == null || map.isEmpty()) {
+            return "{}";
+        }
+
+        Map<String, String> sorted = new TreeMap<>(Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        sorted.putAll(map);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+
+        boolean first = true;
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            if (!first) {
+                sb.append(",");
+            }
+            appendJsonString(sb, entry.getKey());
+            sb.append(":");
+            appendJsonString(sb, entry.getValue());
+            first = false;
+        }
+
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * 将mapToJson生成的扁平JSON字符串解析为Map
+     *
+     * @param json JSON字符串，可以为null
+     * @return 解析得到的映射，json为null时返回空映射
+     */
+    public static Map<String, String> jsonToMap(String json) {
+        Map<String, String> map = new HashMap<>();
+        if (json == null) {
+            return map;
+        }
+
+        StringBuilder current = new StringBuilder();
+        String key = null;
+        boolean hasKey = false;
+        boolean inString = false;
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            String token = null;
+            boolean complete = false;
+
+            if (inString) {
+                if (c == '\\' && i + 1 < json.length()) {
+                    current.append(json.charAt(++i));
+                } else if (c == '"') {
+                    inString = false;
+                    token = current.toString();
+                    complete = true;
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (json.startsWith(NULL_LITERAL, i)) {
+                i += NULL_LITERAL.length() - 1;
+                complete = true;
+            }
+
+            if (complete) {
+                if (!hasKey) {
+                    key = token;
+                    hasKey = true;
+                } else {
+                    map.put(key, token);
+                    hasKey = false;
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 写出一个JSON字符串，转义引号和反斜杠，null写为不带引号的null
+     */
+    private static void appendJsonString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append(NULL_LITERAL);
+            return;
+        }
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+}
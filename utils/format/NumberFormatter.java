@@ -5,15 +5,37 @@ import java.math.RoundingMode;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 数字格式化工具类
+ * 每种格式只编译一次CompiledNumberFormat并缓存，可以在多个线程中同时调用
  *
  * @author rywc2005
  * @since 2025-06-24
  */
 public class NumberFormatter {
 
+    // 键为“类型|区域|小数位数”
+    private static final Map<String, CompiledNumberFormat> FORMAT_CACHE = new ConcurrentHashMap<>();
+
+    private static final CompiledNumberFormat GROUPING_INTEGER_FORMAT =
+            CompiledNumberFormat.compile((DecimalFormat) NumberFormat.getNumberInstance(Locale.US));
+
+    private static final CompiledNumberFormat GROUPING_DECIMAL_FORMAT;
+
+    static {
+        DecimalFormat groupingDecimal = (DecimalFormat) NumberFormat.getNumberInstance(Locale.US);
+        groupingDecimal.setMinimumFractionDigits(0);
+        groupingDecimal.setMaximumFractionDigits(2);
+        GROUPING_DECIMAL_FORMAT = CompiledNumberFormat.compile(groupingDecimal);
+    }
+
+    // 科学计数法不能预编译，每个线程复用一个DecimalFormat
+    private static final ThreadLocal<DecimalFormat> SCIENTIFIC_FORMAT =
+            ThreadLocal.withInitial(() -> new DecimalFormat("0.###E0"));
+
     /**
      * 私有构造函数，防止实例化
      */
@@ -39,12 +61,7 @@ public class NumberFormatter {
      * @return 格式化后的字符串
      */
     public static String format(double number, int decimalPlaces) {
-        DecimalFormat df = new DecimalFormat();
-        df.setMinimumFractionDigits(0);
-        df.setMaximumFractionDigits(decimalPlaces);
-        df.setGroupingUsed(true);
-
-        return df.format(number);
+        return getFormat(decimalPlaces).format(number);
     }
 
     /**
@@ -69,12 +86,29 @@ public class NumberFormatter {
             return "";
         }
 
-        DecimalFormat df = new DecimalFormat();
-        df.setMinimumFractionDigits(0);
-        df.setMaximumFractionDigits(decimalPlaces);
-        df.setGroupingUsed(true);
+        return getFormat(decimalPlaces).format(number);
+    }
 
-        return df.format(number);
+    /**
+     * 获取带千位分隔符、最多保留指定位数小数的预编译格式化器（使用默认区域设置）
+     *
+     * @param decimalPlaces 最多保留的小数位数
+     * @return 格式化器，可以在多个线程中共享
+     */
+    public static CompiledNumberFormat getFormat(int decimalPlaces) {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        String key = "number|" + locale.toLanguageTag() + '|' + decimalPlaces;
+        CompiledNumberFormat format = FORMAT_CACHE.get(key);
+        if (format == null) {
+            format = FORMAT_CACHE.computeIfAbsent(key, k -> {
+                DecimalFormat df = new DecimalFormat();
+                df.setMinimumFractionDigits(0);
+                df.setMaximumFractionDigits(decimalPlaces);
+                df.setGroupingUsed(true);
+                return CompiledNumberFormat.compile(df);
+            });
+        }
+        return format;
     }
 
     /**
@@ -95,11 +129,38 @@ public class NumberFormatter {
      * @return 格式化后的百分比字符串
      */
     public static String formatPercent(double number, int decimalPlaces) {
+        return getPercentFormat(decimalPlaces).format(number);
+    }
+
+    /**
+     * 获取最多保留指定位数小数的预编译百分比格式化器（使用默认区域设置）
+     *
+     * @param decimalPlaces 最多保留的小数位数
+     * @return 百分比格式化器，可以在多个线程中共享
+     */
+    public static CompiledNumberFormat getPercentFormat(int decimalPlaces) {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        String key = "percent|" + locale.toLanguageTag() + '|' + decimalPlaces;
+        CompiledNumberFormat format = FORMAT_CACHE.get(key);
+        if (format == null) {
+            format = FORMAT_CACHE.computeIfAbsent(key,
+                    k -> CompiledNumberFormat.compile((DecimalFormat) createPercentFormat(decimalPlaces)));
+        }
+        return format;
+    }
+
+    /**
+     * 创建百分比格式化器
+     * NumberFormat不是线程安全的，只在需要解析或修改格式时使用；格式化应使用getPercentFormat
+     *
+     * @param decimalPlaces 最多保留的小数位数
+     * @return 百分比格式化器
+     */
+    public static NumberFormat createPercentFormat(int decimalPlaces) {
         NumberFormat percentFormat = NumberFormat.getPercentInstance();
         percentFormat.setMinimumFractionDigits(0);
         percentFormat.setMaximumFractionDigits(decimalPlaces);
-
-        return percentFormat.format(number);
+        return percentFormat;
     }
 
     /**
@@ -124,11 +185,7 @@ public class NumberFormatter {
             return "";
         }
 
-        NumberFormat percentFormat = NumberFormat.getPercentInstance();
-        percentFormat.setMinimumFractionDigits(0);
-        percentFormat.setMaximumFractionDigits(decimalPlaces);
-
-        return percentFormat.format(number.doubleValue());
+        return getPercentFormat(decimalPlaces).format(number.doubleValue());
     }
 
     /**
@@ -138,8 +195,7 @@ public class NumberFormatter {
      * @return 格式化后的带千位分隔符的字符串
      */
     public static String formatWithGrouping(long number) {
-        NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.US);
-        return numberFormat.format(number);
+        return GROUPING_INTEGER_FORMAT.format(number);
     }
 
     /**
@@ -149,11 +205,7 @@ public class NumberFormatter {
      * @return 格式化后的带千位分隔符的字符串
      */
     public static String formatWithGrouping(double number) {
-        NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.US);
-        numberFormat.setMinimumFractionDigits(0);
-        numberFormat.setMaximumFractionDigits(2);
-
-        return numberFormat.format(number);
+        return GROUPING_DECIMAL_FORMAT.format(number);
     }
 
     /**
@@ -163,8 +215,7 @@ public class NumberFormatter {
      * @return 格式化后的科学计数法字符串
      */
     public static String formatScientific(double number) {
-        DecimalFormat scientificFormat = new DecimalFormat("0.###E0");
-        return scientificFormat.format(number);
+        return SCIENTIFIC_FORMAT.get().format(number);
     }
 
     /**
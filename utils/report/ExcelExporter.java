@@ -9,25 +9,68 @@ import com.PFM.CD.utils.format.NumberFormatter;
 import com.PFM.CD.utils.format.DateFormatter;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * Excel报表导出工具类
+ * 基于SXSSF流式写入：内存中只保留最近rowWindow行，更早的行刷写到压缩临时文件，
+ * 最终直接写入调用方的输出流，导出内存与数据行数无关。
  *
  * @author rywc2005
  * @since 2025-06-24
  */
 public class ExcelExporter {
 
+    /**
+     * 默认内存中保留的行数
+     */
+    public static final int DEFAULT_ROW_WINDOW = 100;
+
+    private static final Pattern AMOUNT_PATTERN = Pattern.compile("^[-+]?[¥￥$]?[-+]?\\d[\\d,]*(\\.\\d+)?$");
+    private static final Pattern PERCENT_PATTERN = Pattern.compile("^[-+]?\\d[\\d,]*(\\.\\d+)?%$");
+
+    // Excel数值的有效数字位数
+    private static final int MAX_NUMERIC_DIGITS = 15;
+
+    private final int rowWindow;
+
+    /**
+     * 使用默认行窗口创建导出器
+     */
+    public ExcelExporter() {
+        this(DEFAULT_ROW_WINDOW);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param rowWindow 每个工作表在内存中保留的行数
+     */
+    public ExcelExporter(int rowWindow) {
+        if (rowWindow <= 0) {
+            throw new IllegalArgumentException("行窗口必须为正数");
+        }
+        this.rowWindow = rowWindow;
+    }
+
     /**
      * 导出收支报表到Excel
      *
@@ -46,8 +89,41 @@ public class ExcelExporter {
                                           List<CategoryDistribution> expenseDistributions,
                                           List<CategoryDistribution> incomeDistributions,
                                           Map<String, Object> summaryData) throws IOException {
+        // 创建临时文件
+        Path tempFile = TempFileManager.createTempFile("income_expense_report_", ".xlsx");
+
+        // 写入文件
+        try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(tempFile.toFile()))) {
+            exportIncomeExpenseReport(userId, startDate, endDate, incomeExpenseTrends,
+                    expenseDistributions, incomeDistributions, summaryData, fileOut);
+        }
+
+        return tempFile;
+    }
+
+    /**
+     * 导出收支报表到输出流
+     * 收支趋势可以是逐行读取数据库游标的惰性Iterable，写入过程中不会整体加载
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param incomeExpenseTrends 收支趋势数据
+     * @param expenseDistributions 支出分布数据
+     * @param incomeDistributions 收入分布数据
+     * @param summaryData 汇总数据
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void exportIncomeExpenseReport(int userId, LocalDate startDate, LocalDate endDate,
+                                          Iterable<IncomeExpenseTrend> incomeExpenseTrends,
+                                          Iterable<CategoryDistribution> expenseDistributions,
+                                          Iterable<CategoryDistribution> incomeDistributions,
+                                          Map<String, Object> summaryData,
+                                          OutputStream outputStream) throws IOException {
         // 创建工作簿和工作表
-        try (Workbook workbook = new XSSFWorkbook()) {
+        SXSSFWorkbook workbook = createWorkbook();
+        try {
             // 创建样式
             CellStyle headerStyle = createHeaderStyle(workbook);
             CellStyle titleStyle = createTitleStyle(workbook);
@@ -56,22 +132,22 @@ public class ExcelExporter {
             CellStyle percentStyle = createPercentStyle(workbook);
 
             // 创建摘要工作表
-            Sheet summarySheet = workbook.createSheet("收支摘要");
+            Sheet summarySheet = createSheet(workbook, "收支摘要");
             createIncomeExpenseSummary(summarySheet, headerStyle, titleStyle, amountStyle,
                     startDate, endDate, summaryData);
 
             // 创建收入分布工作表
-            Sheet incomeSheet = workbook.createSheet("收入分布");
+            Sheet incomeSheet = createSheet(workbook, "收入分布");
             createDistributionSheet(incomeSheet, headerStyle, titleStyle, amountStyle, percentStyle,
                     "收入分布", incomeDistributions);
 
             // 创建支出分布工作表
-            Sheet expenseSheet = workbook.createSheet("支出分布");
+            Sheet expenseSheet = createSheet(workbook, "支出分布");
             createDistributionSheet(expenseSheet, headerStyle, titleStyle, amountStyle, percentStyle,
                     "支出分布", expenseDistributions);
 
             // 创建收支趋势工作表
-            Sheet trendSheet = workbook.createSheet("收支趋势");
+            Sheet trendSheet = createSheet(workbook, "收支趋势");
             createTrendSheet(trendSheet, headerStyle, titleStyle, dateStyle, amountStyle,
                     incomeExpenseTrends);
 
@@ -83,15 +159,9 @@ public class ExcelExporter {
                 trendSheet.autoSizeColumn(i);
             }
 
-            // 创建临时文件
-            Path tempFile = TempFileManager.createTempFile("income_expense_report_", ".xlsx");
-
-            // 写入文件
-            try (FileOutputStream fileOut = new FileOutputStream(tempFile.toFile())) {
-                workbook.write(fileOut);
-            }
-
-            return tempFile;
+            workbook.write(outputStream);
+        } finally {
+            closeWorkbook(workbook);
         }
     }
 
@@ -107,8 +177,32 @@ public class ExcelExporter {
      */
     public Path exportBudgetReport(int userId, LocalDate startDate, LocalDate endDate,
                                    Map<String, Object> budgetData) throws IOException {
+        // 创建临时文件
+        Path tempFile = TempFileManager.createTempFile("budget_report_", ".xlsx");
+
+        // 写入文件
+        try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(tempFile.toFile()))) {
+            exportBudgetReport(userId, startDate, endDate, budgetData, fileOut);
+        }
+
+        return tempFile;
+    }
+
+    /**
+     * 导出预算报表到输出流
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param budgetData 预算数据，budgetDetails可以是惰性Iterable
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void exportBudgetReport(int userId, LocalDate startDate, LocalDate endDate,
+                                   Map<String, Object> budgetData, OutputStream outputStream) throws IOException {
         // 创建工作簿和工作表
-        try (Workbook workbook = new XSSFWorkbook()) {
+        SXSSFWorkbook workbook = createWorkbook();
+        try {
             // 创建样式
             CellStyle headerStyle = createHeaderStyle(workbook);
             CellStyle titleStyle = createTitleStyle(workbook);
@@ -116,12 +210,12 @@ public class ExcelExporter {
             CellStyle percentStyle = createPercentStyle(workbook);
 
             // 创建摘要工作表
-            Sheet summarySheet = workbook.createSheet("预算摘要");
+            Sheet summarySheet = createSheet(workbook, "预算摘要");
             createBudgetSummary(summarySheet, headerStyle, titleStyle, amountStyle, percentStyle,
                     startDate, endDate, budgetData);
 
             // 创建预算详情工作表
-            Sheet detailsSheet = workbook.createSheet("预算详情");
+            Sheet detailsSheet = createSheet(workbook, "预算详情");
             createBudgetDetails(detailsSheet, headerStyle, titleStyle, amountStyle, percentStyle,
                     budgetData);
 
@@ -131,15 +225,9 @@ public class ExcelExporter {
                 detailsSheet.autoSizeColumn(i);
             }
 
-            // 创建临时文件
-            Path tempFile = TempFileManager.createTempFile("budget_report_", ".xlsx");
-
-            // 写入文件
-            try (FileOutputStream fileOut = new FileOutputStream(tempFile.toFile())) {
-                workbook.write(fileOut);
-            }
-
-            return tempFile;
+            workbook.write(outputStream);
+        } finally {
+            closeWorkbook(workbook);
         }
     }
 
@@ -155,8 +243,32 @@ public class ExcelExporter {
      */
     public Path exportAccountReport(int userId, LocalDate startDate, LocalDate endDate,
                                     Map<String, Object> accountData) throws IOException {
+        // 创建临时文件
+        Path tempFile = TempFileManager.createTempFile("account_report_", ".xlsx");
+
+        // 写入文件
+        try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(tempFile.toFile()))) {
+            exportAccountReport(userId, startDate, endDate, accountData, fileOut);
+        }
+
+        return tempFile;
+    }
+
+    /**
+     * 导出账户报表到输出流
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param accountData 账户数据，accountDetails和balanceTrends可以是惰性Iterable
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void exportAccountReport(int userId, LocalDate startDate, LocalDate endDate,
+                                    Map<String, Object> accountData, OutputStream outputStream) throws IOException {
         // 创建工作簿和工作表
-        try (Workbook workbook = new XSSFWorkbook()) {
+        SXSSFWorkbook workbook = createWorkbook();
+        try {
             // 创建样式
             CellStyle headerStyle = createHeaderStyle(workbook);
             CellStyle titleStyle = createTitleStyle(workbook);
@@ -165,17 +277,17 @@ public class ExcelExporter {
             CellStyle percentStyle = createPercentStyle(workbook);
 
             // 创建摘要工作表
-            Sheet summarySheet = workbook.createSheet("账户摘要");
+            Sheet summarySheet = createSheet(workbook, "账户摘要");
             createAccountSummary(summarySheet, headerStyle, titleStyle, amountStyle,
                     startDate, endDate, accountData);
 
             // 创建账户详情工作表
-            Sheet detailsSheet = workbook.createSheet("账户详情");
+            Sheet detailsSheet = createSheet(workbook, "账户详情");
             createAccountDetails(detailsSheet, headerStyle, titleStyle, amountStyle,
                     accountData);
 
             // 创建余额趋势工作表
-            Sheet trendSheet = workbook.createSheet("余额趋势");
+            Sheet trendSheet = createSheet(workbook, "余额趋势");
             createBalanceTrends(trendSheet, headerStyle, titleStyle, dateStyle, amountStyle, percentStyle,
                     accountData);
 
@@ -186,15 +298,9 @@ public class ExcelExporter {
                 trendSheet.autoSizeColumn(i);
             }
 
-            // 创建临时文件
-            Path tempFile = TempFileManager.createTempFile("account_report_", ".xlsx");
-
-            // 写入文件
-            try (FileOutputStream fileOut = new FileOutputStream(tempFile.toFile())) {
-                workbook.write(fileOut);
-            }
-
-            return tempFile;
+            workbook.write(outputStream);
+        } finally {
+            closeWorkbook(workbook);
         }
     }
 
@@ -275,7 +381,7 @@ public class ExcelExporter {
      */
     private void createDistributionSheet(Sheet sheet, CellStyle headerStyle, CellStyle titleStyle,
                                          CellStyle amountStyle, CellStyle percentStyle,
-                                         String title, List<CategoryDistribution> distributions) {
+                                         String title, Iterable<CategoryDistribution> distributions) {
         // 标题行
         Row titleRow = sheet.createRow(0);
         Cell titleCell = titleRow.createCell(0);
@@ -320,7 +426,7 @@ public class ExcelExporter {
      */
     private void createTrendSheet(Sheet sheet, CellStyle headerStyle, CellStyle titleStyle,
                                   CellStyle dateStyle, CellStyle amountStyle,
-                                  List<IncomeExpenseTrend> trends) {
+                                  Iterable<IncomeExpenseTrend> trends) {
         // 标题行
         Row titleRow = sheet.createRow(0);
         Cell titleCell = titleRow.createCell(0);
@@ -516,7 +622,7 @@ public class ExcelExporter {
         headerCell6.setCellStyle(headerStyle);
 
         // 数据行
-        List<Map<String, Object>> budgetDetails = (List<Map<String, Object>>) budgetData.get("budgetDetails");
+        Iterable<Map<String, Object>> budgetDetails = (Iterable<Map<String, Object>>) budgetData.get("budgetDetails");
         if (budgetDetails != null) {
             int rowNum = 2;
 
@@ -707,7 +813,7 @@ public class ExcelExporter {
         headerCell7.setCellStyle(headerStyle);
 
         // 数据行
-        List<Map<String, Object>> accountDetails = (List<Map<String, Object>>) accountData.get("accountDetails");
+        Iterable<Map<String, Object>> accountDetails = (Iterable<Map<String, Object>>) accountData.get("accountDetails");
         if (accountDetails != null) {
             int rowNum = 2;
 
@@ -785,7 +891,7 @@ public class ExcelExporter {
         headerCell4.setCellStyle(headerStyle);
 
         // 数据行
-        List<Map<String, Object>> balanceTrends = (List<Map<String, Object>>) accountData.get("balanceTrends");
+        Iterable<Map<String, Object>> balanceTrends = (Iterable<Map<String, Object>>) accountData.get("balanceTrends");
         if (balanceTrends != null) {
             int rowNum = 2;
             BigDecimal previousBalance = null;
@@ -893,6 +999,203 @@ public class ExcelExporter {
         return style;
     }
 
-    public void export(Report report, OutputStream outputStream) {
+    /**
+     * 导出已保存的报表到输出流
+     *
+     * @param report 报表，内容需已加载
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void export(Report report, OutputStream outputStream) throws IOException {
+        String content = report.getContent() != null ? report.getContent() : "";
+        export(report, new StringReader(content), outputStream);
+    }
+
+    /**
+     * 逐行读取报表内容并导出到输出流
+     * 报表内容为ReportGenerator生成的Markdown文本：每个二级标题对应一个工作表，
+     * 表格行拆分为单元格，金额和百分比写为带格式的数值
+     *
+     * @param report 报表
+     * @param content 报表内容字符流，调用方负责关闭
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void export(Report report, Reader content, OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = createWorkbook();
+        try {
+            // 创建样式
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle titleStyle = createTitleStyle(workbook);
+            CellStyle amountStyle = createAmountStyle(workbook);
+            CellStyle percentStyle = createPercentStyle(workbook);
+
+            Set<String> sheetNames = new HashSet<>();
+            String firstSheetName = report.getReportType() != null
+                    ? report.getReportType().getDisplayName() : "报表";
+            Sheet sheet = createSheet(workbook, uniqueSheetName(firstSheetName, sheetNames));
+            int rowNum = 0;
+            int columnCount = 1;
+            boolean headerRow = true;
+
+            BufferedReader reader = new BufferedReader(content);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String text = line.trim();
+                if (text.startsWith("## ")) {
+                    // 二级标题开始新的工作表
+                    autoSizeColumns(sheet, columnCount);
+                    String sectionTitle = text.substring(3).trim();
+                    sheet = createSheet(workbook, uniqueSheetName(sectionTitle, sheetNames));
+                    rowNum = 0;
+                    columnCount = 1;
+
+                    Cell titleCell = sheet.createRow(rowNum++).createCell(0);
+                    titleCell.setCellValue(sectionTitle);
+                    titleCell.setCellStyle(titleStyle);
+                    headerRow = true;
+                } else if (MarkdownTable.isTableRow(text)) {
+                    if (MarkdownTable.isSeparator(text)) {
+                        continue;
+                    }
+                    String[] values = MarkdownTable.splitRow(text);
+                    Row row = sheet.createRow(rowNum++);
+                    for (int i = 0; i < values.length; i++) {
+                        Cell cell = row.createCell(i);
+                        if (headerRow) {
+                            cell.setCellValue(values[i]);
+                            cell.setCellStyle(headerStyle);
+                        } else {
+                            setTableCellValue(cell, values[i], amountStyle, percentStyle);
+                        }
+                    }
+                    columnCount = Math.max(columnCount, values.length);
+                    headerRow = false;
+                } else if (text.isEmpty()) {
+                    // 空行结束当前表格，下一个表格的第一行是表头
+                    headerRow = true;
+                } else {
+                    Cell cell = sheet.createRow(rowNum++).createCell(0);
+                    if (text.startsWith("#")) {
+                        cell.setCellValue(text.replaceFirst("^#+\\s*", ""));
+                        cell.setCellStyle(titleStyle);
+                    } else {
+                        cell.setCellValue(text);
+                    }
+                }
+            }
+
+            autoSizeColumns(sheet, columnCount);
+            workbook.write(outputStream);
+        } finally {
+            closeWorkbook(workbook);
+        }
+    }
+
+    /**
+     * 创建流式工作簿，刷写出窗口的行使用压缩临时文件
+     */
+    private SXSSFWorkbook createWorkbook() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
+
+    /**
+     * 创建工作表
+     * 行在刷写出窗口前记录列宽，autoSizeColumn才能覆盖已刷写的行
+     */
+    private Sheet createSheet(SXSSFWorkbook workbook, String name) {
+        SXSSFSheet sheet = workbook.createSheet(name);
+        sheet.trackAllColumnsForAutoSizing();
+        return sheet;
+    }
+
+    /**
+     * 删除临时文件并关闭工作簿
+     */
+    private void closeWorkbook(SXSSFWorkbook workbook) {
+        workbook.dispose();
+        try {
+            workbook.close();
+        } catch (IOException e) {
+            System.err.println("关闭Excel工作簿失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 自动调整前若干列的列宽
+     */
+    private void autoSizeColumns(Sheet sheet, int columnCount) {
+        for (int i = 0; i < columnCount; i++) {
+            sheet.autoSizeColumn(i);
+        }
+    }
+
+    /**
+     * 生成合法且不重复的工作表名称
+     */
+    private String uniqueSheetName(String name, Set<String> usedNames) {
+        String safeName = WorkbookUtil.createSafeSheetName(name.isEmpty() ? "报表" : name);
+        String candidate = safeName;
+        int suffix = 2;
+        // 工作表名称不区分大小写
+        while (!usedNames.add(candidate.toLowerCase())) {
+            String tail = " (" + suffix++ + ")";
+            candidate = safeName.substring(0, Math.min(safeName.length(), 31 - tail.length())) + tail;
+        }
+        return candidate;
+    }
+
+    /**
+     * 写入表格单元格，金额和百分比转换为数值
+     */
+    private void setTableCellValue(Cell cell, String value, CellStyle amountStyle, CellStyle percentStyle) {
+        boolean percent = PERCENT_PATTERN.matcher(value).matches();
+        if (percent || AMOUNT_PATTERN.matcher(value).matches()) {
+            BigDecimal number = parseNumber(value);
+            if (number != null) {
+                if (percent) {
+                    cell.setCellValue(number.movePointLeft(2).doubleValue());
+                    cell.setCellStyle(percentStyle);
+                } else {
+                    cell.setCellValue(number.doubleValue());
+                    // 不带小数的整数（如交易笔数）不使用金额格式
+                    if (value.indexOf('.') >= 0 || !Character.isDigit(value.charAt(0))) {
+                        cell.setCellStyle(amountStyle);
+                    }
+                }
+                return;
+            }
+        }
+        cell.setCellValue(value);
+    }
+
+    /**
+     * 去掉货币符号、千分位和百分号后解析数值
+     * Excel数值只保留15位有效数字，超过的长数字串（如卡号、流水号）和以0开头的编号转为数值会丢失数字，
+     * 这些值返回null，按原文本写入
+     *
+     * @return 数值，无法不失真地写为数值时返回null
+     */
+    private BigDecimal parseNumber(String value) {
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isDigit(c) || c == '.' || c == '-') {
+                digits.append(c);
+            }
+        }
+
+        String text = digits.charAt(0) == '-' ? digits.substring(1) : digits.toString();
+        if (text.length() > 1 && text.charAt(0) == '0' && text.charAt(1) != '.') {
+            return null;
+        }
+        try {
+            BigDecimal number = new BigDecimal(digits.toString());
+            return number.precision() <= MAX_NUMERIC_DIGITS ? number : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
\ No newline at end of file
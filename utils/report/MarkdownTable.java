@@ -0,0 +1,62 @@
+package com.PFM.CD.utils.report;
+
+import java.util.regex.Pattern;
+
+/**
+ * Markdown表格行解析
+ * 报表内容中以"|"开头的行是表格行，第一行为表头，"|---|---|"形式的行是分隔行。
+ * 供PDF和Excel导出共用，保证两种格式对表格的识别一致。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+final class MarkdownTable {
+
+    private static final Pattern SEPARATOR_PATTERN = Pattern.compile("^\\|[\\s:|-]+$");
+    private static final Pattern CELL_PATTERN = Pattern.compile("\\|");
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private MarkdownTable() {
+        throw new IllegalStateException("工具类不应被实例化");
+    }
+
+    /**
+     * 判断是否为表格行（包括分隔行）
+     *
+     * @param text 去掉首尾空白的行
+     * @return 是否为表格行
+     */
+    static boolean isTableRow(String text) {
+        return text.startsWith("|");
+    }
+
+    /**
+     * 判断是否为表头与数据之间的分隔行
+     *
+     * @param text 去掉首尾空白的表格行
+     * @return 是否为分隔行
+     */
+    static boolean isSeparator(String text) {
+        return SEPARATOR_PATTERN.matcher(text).matches();
+    }
+
+    /**
+     * 拆分表格行，单元格去掉首尾空白
+     *
+     * @param text 去掉首尾空白的表格行
+     * @return 单元格内容
+     */
+    static String[] splitRow(String text) {
+        String inner = text.substring(1);
+        if (inner.endsWith("|")) {
+            inner = inner.substring(0, inner.length() - 1);
+        }
+        String[] values = CELL_PATTERN.split(inner, -1);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values[i].trim();
+        }
+        return values;
+    }
+}
@@ -14,9 +14,13 @@ import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.nio.file.Path;
 import java.time.LocalDate;
@@ -25,16 +29,23 @@ import java.util.Map;
 
 /**
  * PDF报表导出工具类
+ * 文档直接写入调用方的输出流，长表格分段写出；中文字体由{@link PdfFontCache}在进程内共享。
+ * 默认字体STSong-Light不嵌入文档，由阅读器提供字形；只有通过pfm.pdf.fontPath指定字体文件时才嵌入所用字形的子集。
  *
  * @author rywc2005
  * @since 2025-06-24
  */
 public class PdfExporter {
 
-    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
-    private static final Font SUBTITLE_FONT = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
-    private static final Font NORMAL_FONT = new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL);
-    private static final Font HEADER_FONT = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
+    private static final Font TITLE_FONT = PdfFontCache.getFont(16, Font.BOLD);
+    private static final Font SUBTITLE_FONT = PdfFontCache.getFont(14, Font.BOLD);
+    private static final Font NORMAL_FONT = PdfFontCache.getFont(10, Font.NORMAL);
+    private static final Font HEADER_FONT = PdfFontCache.getFont(10, Font.BOLD);
+
+    /**
+     * 大表格每累积多少行写出一次，写出的行排版到页面后即可释放
+     */
+    private static final int LARGE_TABLE_FLUSH_ROWS = 50;
 
     /**
      * 导出收支报表到PDF
@@ -57,11 +68,37 @@ public class PdfExporter {
         // 创建临时文件
         Path tempFile = TempFileManager.createTempFile("income_expense_report_", ".pdf");
 
+        try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(tempFile.toFile()))) {
+            exportIncomeExpenseReport(userId, startDate, endDate, incomeExpenseTrends,
+                    expenseDistributions, incomeDistributions, summaryData, fileOut);
+        }
+
+        return tempFile;
+    }
+
+    /**
+     * 导出收支报表到输出流
+     * 页面排版完成后即写入输出流，收支趋势可以是逐行读取的惰性Iterable
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param incomeExpenseTrends 收支趋势数据
+     * @param expenseDistributions 支出分布数据
+     * @param incomeDistributions 收入分布数据
+     * @param summaryData 汇总数据
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void exportIncomeExpenseReport(int userId, LocalDate startDate, LocalDate endDate,
+                                          Iterable<IncomeExpenseTrend> incomeExpenseTrends,
+                                          List<CategoryDistribution> expenseDistributions,
+                                          List<CategoryDistribution> incomeDistributions,
+                                          Map<String, Object> summaryData,
+                                          OutputStream outputStream) throws IOException {
         try {
             // 创建文档
-            Document document = new Document(PageSize.A4);
-            PdfWriter.getInstance(document, new FileOutputStream(tempFile.toFile()));
-            document.open();
+            Document document = openDocument(outputStream);
 
             // 添加标题
             addReportTitle(document, "收支报表", startDate, endDate);
@@ -82,8 +119,6 @@ public class PdfExporter {
             addIncomeExpenseAnalysis(document, summaryData, expenseDistributions);
 
             document.close();
-
-            return tempFile;
         } catch (DocumentException e) {
             throw new IOException("创建PDF文档失败", e);
         }
@@ -104,11 +139,28 @@ public class PdfExporter {
         // 创建临时文件
         Path tempFile = TempFileManager.createTempFile("budget_report_", ".pdf");
 
+        try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(tempFile.toFile()))) {
+            exportBudgetReport(userId, startDate, endDate, budgetData, fileOut);
+        }
+
+        return tempFile;
+    }
+
+    /**
+     * 导出预算报表到输出流
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param budgetData 预算数据
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void exportBudgetReport(int userId, LocalDate startDate, LocalDate endDate,
+                                   Map<String, Object> budgetData, OutputStream outputStream) throws IOException {
         try {
             // 创建文档
-            Document document = new Document(PageSize.A4);
-            PdfWriter.getInstance(document, new FileOutputStream(tempFile.toFile()));
-            document.open();
+            Document document = openDocument(outputStream);
 
             // 添加标题
             addReportTitle(document, "预算执行报表", startDate, endDate);
@@ -123,8 +175,6 @@ public class PdfExporter {
             addBudgetAnalysis(document, budgetData);
 
             document.close();
-
-            return tempFile;
         } catch (DocumentException e) {
             throw new IOException("创建PDF文档失败", e);
         }
@@ -145,11 +195,28 @@ public class PdfExporter {
         // 创建临时文件
         Path tempFile = TempFileManager.createTempFile("account_report_", ".pdf");
 
+        try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(tempFile.toFile()))) {
+            exportAccountReport(userId, startDate, endDate, accountData, fileOut);
+        }
+
+        return tempFile;
+    }
+
+    /**
+     * 导出账户报表到输出流
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param accountData 账户数据，balanceTrends可以是惰性Iterable
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void exportAccountReport(int userId, LocalDate startDate, LocalDate endDate,
+                                    Map<String, Object> accountData, OutputStream outputStream) throws IOException {
         try {
             // 创建文档
-            Document document = new Document(PageSize.A4);
-            PdfWriter.getInstance(document, new FileOutputStream(tempFile.toFile()));
-            document.open();
+            Document document = openDocument(outputStream);
 
             // 添加标题
             addReportTitle(document, "账户报表", startDate, endDate);
@@ -167,8 +234,6 @@ public class PdfExporter {
             addAccountAnalysis(document, accountData);
 
             document.close();
-
-            return tempFile;
         } catch (DocumentException e) {
             throw new IOException("创建PDF文档失败", e);
         }
@@ -279,14 +344,12 @@ public class PdfExporter {
     /**
      * 添加趋势表
      */
-    private void addTrendTable(Document document, List<IncomeExpenseTrend> trends) throws DocumentException {
+    private void addTrendTable(Document document, Iterable<IncomeExpenseTrend> trends) throws DocumentException {
         Paragraph subtitle = new Paragraph("收支趋势", SUBTITLE_FONT);
         subtitle.setSpacingBefore(15);
         document.add(subtitle);
 
-        PdfPTable table = new PdfPTable(4);
-        table.setWidthPercentage(95);
-        table.setSpacingBefore(10);
+        PdfPTable table = createLargeTable(4, 95);
 
         // 表头
         PdfPCell cell1 = new PdfPCell(new Phrase("日期", HEADER_FONT));
@@ -310,14 +373,16 @@ public class PdfExporter {
         table.addCell(cell4);
 
         // 数据
+        int rowCount = 0;
         for (IncomeExpenseTrend trend : trends) {
             table.addCell(new Phrase(DateFormatter.format(trend.getDate()), NORMAL_FONT));
             table.addCell(new Phrase(CurrencyFormatter.format(trend.getIncome()), NORMAL_FONT));
             table.addCell(new Phrase(CurrencyFormatter.format(trend.getExpense()), NORMAL_FONT));
             table.addCell(new Phrase(CurrencyFormatter.format(trend.getBalance()), NORMAL_FONT));
+            flushLargeTable(document, table, ++rowCount);
         }
 
-        document.add(table);
+        completeLargeTable(document, table);
     }
 
     /**
@@ -612,9 +677,7 @@ public class PdfExporter {
         subtitle.setSpacingBefore(15);
         document.add(subtitle);
 
-        PdfPTable table = new PdfPTable(4);
-        table.setWidthPercentage(90);
-        table.setSpacingBefore(10);
+        PdfPTable table = createLargeTable(4, 90);
 
         // 表头
         String[] headers = {"日期", "总余额", "变动金额", "变动比例"};
@@ -626,9 +689,10 @@ public class PdfExporter {
         }
 
         // 数据
-        List<Map<String, Object>> balanceTrends = (List<Map<String, Object>>) accountData.get("balanceTrends");
+        Iterable<Map<String, Object>> balanceTrends = (Iterable<Map<String, Object>>) accountData.get("balanceTrends");
         if (balanceTrends != null) {
             BigDecimal previousBalance = null;
+            int rowCount = 0;
 
             for (Map<String, Object> trend : balanceTrends) {
                 LocalDate date = (LocalDate) trend.get("date");
@@ -652,12 +716,13 @@ public class PdfExporter {
                 table.addCell(new Phrase(CurrencyFormatter.format(balance), NORMAL_FONT));
                 table.addCell(new Phrase(CurrencyFormatter.format(change), NORMAL_FONT));
                 table.addCell(new Phrase(changePercentage, NORMAL_FONT));
+                flushLargeTable(document, table, ++rowCount);
 
                 previousBalance = balance;
             }
         }
 
-        document.add(table);
+        completeLargeTable(document, table);
     }
 
     /**
@@ -729,7 +794,137 @@ public class PdfExporter {
         }
     }
 
-    public void export(Report report, OutputStream outputStream) {
+    /**
+     * 导出已保存的报表到输出流
+     *
+     * @param report 报表，内容需已加载
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void export(Report report, OutputStream outputStream) throws IOException {
+        String content = report.getContent() != null ? report.getContent() : "";
+        export(report, new StringReader(content), outputStream);
+    }
+
+    /**
+     * 逐行读取报表内容并导出到输出流
+     * 报表内容为ReportGenerator生成的Markdown文本：标题转换为段落标题，表格转换为表格，
+     * 长表格分段写出，内存占用与报表行数无关
+     *
+     * @param report 报表
+     * @param content 报表内容字符流，调用方负责关闭
+     * @param outputStream 输出流，调用方负责关闭
+     * @throws IOException 如果导出过程中发生IO错误
+     */
+    public void export(Report report, Reader content, OutputStream outputStream) throws IOException {
+        try {
+            Document document = openDocument(outputStream);
+
+            PdfPTable table = null;
+            int rowCount = 0;
+
+            BufferedReader reader = new BufferedReader(content);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String text = line.trim();
+                if (MarkdownTable.isTableRow(text)) {
+                    if (MarkdownTable.isSeparator(text)) {
+                        continue;
+                    }
+                    String[] values = MarkdownTable.splitRow(text);
+                    if (table == null) {
+                        // 表格第一行为表头
+                        table = createLargeTable(values.length, 95);
+                        rowCount = 0;
+                        for (String value : values) {
+                            table.addCell(createHeaderCell(value));
+                        }
+                        continue;
+                    }
+                    for (int i = 0; i < table.getNumberOfColumns(); i++) {
+                        table.addCell(new Phrase(i < values.length ? values[i] : "", NORMAL_FONT));
+                    }
+                    flushLargeTable(document, table, ++rowCount);
+                    continue;
+                }
+
+                // 非表格行结束当前表格
+                if (table != null) {
+                    completeLargeTable(document, table);
+                    table = null;
+                }
+
+                if (text.startsWith("## ")) {
+                    Paragraph subtitle = new Paragraph(text.substring(3).trim(), SUBTITLE_FONT);
+                    subtitle.setSpacingBefore(15);
+                    document.add(subtitle);
+                } else if (text.startsWith("#")) {
+                    Paragraph title = new Paragraph(text.replaceFirst("^#+\\s*", ""), TITLE_FONT);
+                    title.setAlignment(Element.ALIGN_CENTER);
+                    document.add(title);
+                } else if (!text.isEmpty()) {
+                    document.add(new Paragraph(text, NORMAL_FONT));
+                }
+            }
+
+            if (table != null) {
+                completeLargeTable(document, table);
+            }
+
+            document.close();
+        } catch (DocumentException e) {
+            throw new IOException("创建PDF文档失败", e);
+        }
+    }
+
+    /**
+     * 创建直接写入输出流的文档，页面排版完成后即写出
+     */
+    private Document openDocument(OutputStream outputStream) throws DocumentException {
+        Document document = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+        // 关闭文档时不关闭调用方的输出流
+        writer.setCloseStream(false);
+        document.open();
+        return document;
+    }
+
+    /**
+     * 创建分段写出的大表格，表头在每一页重复
+     */
+    private PdfPTable createLargeTable(int columns, float widthPercentage) {
+        PdfPTable table = new PdfPTable(columns);
+        table.setWidthPercentage(widthPercentage);
+        table.setSpacingBefore(10);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        return table;
+    }
 
+    /**
+     * 每累积LARGE_TABLE_FLUSH_ROWS行把已有的行写入文档
+     */
+    private void flushLargeTable(Document document, PdfPTable table, int rowCount) throws DocumentException {
+        if (rowCount % LARGE_TABLE_FLUSH_ROWS == 0) {
+            document.add(table);
+        }
+    }
+
+    /**
+     * 写出大表格的剩余行
+     */
+    private void completeLargeTable(Document document, PdfPTable table) throws DocumentException {
+        table.setComplete(true);
+        document.add(table);
+    }
+
+    /**
+     * 创建表头单元格
+     */
+    private PdfPCell createHeaderCell(String text) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, HEADER_FONT));
+        cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
+        cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        return cell;
     }
 }
\ No newline at end of file
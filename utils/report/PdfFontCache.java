@@ -0,0 +1,125 @@
+package com.PFM.CD.utils.report;
+
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.pdf.BaseFont;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PDF字体缓存
+ * 进程内共享已加载的中文BaseFont：字体文件只解析一次，之后所有文档复用同一个BaseFont。
+ * 默认的STSong-Light不嵌入文档，依赖阅读器的亚洲字体包；设置pfm.pdf.fontPath后嵌入该字体，
+ * 每个文档只包含实际用到的字形子集。BaseFont加载后只读，可以在多个导出线程间共享。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public final class PdfFontCache {
+
+    /**
+     * 默认中文字体：iText亚洲字体包中的宋体，由阅读器提供字形，不嵌入文档
+     */
+    public static final String DEFAULT_FONT_NAME = "STSong-Light";
+
+    /**
+     * 默认中文字体编码
+     */
+    public static final String DEFAULT_FONT_ENCODING = "UniGB-UCS2-H";
+
+    /**
+     * 指定TrueType/OpenType字体文件的系统属性，如C:/Windows/Fonts/simsun.ttc,0；
+     * 设置后嵌入该字体的子集，文档在没有中文字体的环境中也能正确显示
+     */
+    public static final String FONT_PATH_PROPERTY = "pfm.pdf.fontPath";
+
+    private static final Map<String, BaseFont> BASE_FONTS = new ConcurrentHashMap<>();
+    private static final Map<String, Font> FONTS = new ConcurrentHashMap<>();
+    private static final LongAdder LOAD_COUNT = new LongAdder();
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private PdfFontCache() {
+        throw new IllegalStateException("工具类不应被实例化");
+    }
+
+    /**
+     * 获取默认中文字体
+     *
+     * @return 共享的BaseFont
+     * @throws IllegalStateException 如果字体无法加载
+     */
+    public static BaseFont getBaseFont() {
+        String fontPath = System.getProperty(FONT_PATH_PROPERTY);
+        if (fontPath != null && !fontPath.trim().isEmpty()) {
+            return getBaseFont(fontPath.trim(), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+        }
+        return getBaseFont(DEFAULT_FONT_NAME, DEFAULT_FONT_ENCODING, BaseFont.NOT_EMBEDDED);
+    }
+
+    /**
+     * 获取指定字体，首次请求时加载
+     *
+     * @param name 字体名称或字体文件路径
+     * @param encoding 编码
+     * @param embedded 是否嵌入文档
+     * @return 共享的BaseFont
+     * @throws IllegalStateException 如果字体无法加载
+     */
+    public static BaseFont getBaseFont(String name, String encoding, boolean embedded) {
+        String key = name + "|" + encoding + "|" + embedded;
+        return BASE_FONTS.computeIfAbsent(key, k -> loadBaseFont(name, encoding, embedded));
+    }
+
+    /**
+     * 获取默认中文字体的指定字号和样式
+     * 默认字体无法加载时退回Helvetica，中文字符将无法显示
+     *
+     * @param size 字号
+     * @param style 样式，如Font.BOLD
+     * @return 共享的Font，调用方不应修改
+     */
+    public static Font getFont(float size, int style) {
+        return FONTS.computeIfAbsent(size + "|" + style, k -> createFont(size, style));
+    }
+
+    /**
+     * 获取字体文件的实际加载次数
+     */
+    public static long getLoadCount() {
+        return LOAD_COUNT.sum();
+    }
+
+    /**
+     * 清空缓存，下次使用时重新加载
+     */
+    public static void clear() {
+        FONTS.clear();
+        BASE_FONTS.clear();
+    }
+
+    private static BaseFont loadBaseFont(String name, String encoding, boolean embedded) {
+        try {
+            // 由本类缓存，不再使用iText内部的字体缓存
+            BaseFont baseFont = BaseFont.createFont(name, encoding, embedded, false, null, null);
+            baseFont.setSubset(true);
+            LOAD_COUNT.increment();
+            return baseFont;
+        } catch (DocumentException | IOException e) {
+            throw new IllegalStateException("加载PDF字体失败: " + name, e);
+        }
+    }
+
+    private static Font createFont(float size, int style) {
+        try {
+            return new Font(getBaseFont(), size, style);
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage() + "，改用Helvetica字体");
+            return new Font(Font.FontFamily.HELVETICA, size, style);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.PFM.CD.utils.report.template;
+
+import com.PFM.CD.utils.format.CompiledNumberFormat;
+import com.PFM.CD.utils.format.CurrencyFormatter;
+import com.PFM.CD.utils.format.DateFormatter;
+import com.PFM.CD.utils.format.NumberFormatter;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单次渲染的上下文
+ * 保存模型、循环变量和输出目标；数字和日期由共享的预编译格式化器直接写入输出目标。
+ * 不是线程安全的，每次渲染创建一个新实例。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+final class RenderContext {
+
+    /**
+     * 输出格式
+     */
+    enum Format {
+        TEXT, CURRENCY, PERCENT, NUMBER, DATE;
+
+        static Format fromName(String name) {
+            switch (name) {
+                case "currency":
+                    return CURRENCY;
+                case "percent":
+                    return PERCENT;
+                case "number":
+                    return NUMBER;
+                case "date":
+                    return DATE;
+                default:
+                    throw new IllegalArgumentException("未知的格式: " + name);
+            }
+        }
+    }
+
+    private static final String DEFAULT_CURRENCY = "CNY";
+
+    // 按类缓存getter，所有渲染共享
+    private static final Map<Class<?>, Map<String, Optional<Method>>> GETTERS = new ConcurrentHashMap<>();
+
+    // NUMBER格式：两位小数，四舍五入，不分组
+    private static final CompiledNumberFormat NUMBER_FORMAT;
+
+    static {
+        DecimalFormat numberFormat = new DecimalFormat("0.00");
+        numberFormat.setRoundingMode(RoundingMode.HALF_UP);
+        NUMBER_FORMAT = CompiledNumberFormat.compile(numberFormat);
+    }
+
+    private final Map<String, Object> model;
+    private final Appendable out;
+    private final List<String> names = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+
+    RenderContext(Map<String, Object> model, Appendable out) {
+        this.model = model;
+        this.out = out;
+    }
+
+    Appendable out() {
+        return out;
+    }
+
+    /**
+     * 按名称查找变量，内层循环变量优先于模型
+     */
+    Object lookup(String name) {
+        for (int i = names.size() - 1; i >= 0; i--) {
+            if (names.get(i).equals(name)) {
+                return values.get(i);
+            }
+        }
+        return model.get(name);
+    }
+
+    /**
+     * 定义变量，直到作用域结束前有效
+     */
+    void define(String name, Object value) {
+        names.add(name);
+        values.add(value);
+    }
+
+    /**
+     * 记录当前作用域位置
+     */
+    int mark() {
+        return names.size();
+    }
+
+    /**
+     * 丢弃mark之后定义的变量
+     */
+    void reset(int mark) {
+        for (int i = names.size() - 1; i >= mark; i--) {
+            names.remove(i);
+            values.remove(i);
+        }
+    }
+
+    /**
+     * 按格式输出值，null输出为空字符串
+     */
+    void write(Object value, Format format) throws IOException {
+        if (value == null) {
+            return;
+        }
+        switch (format) {
+            case CURRENCY: {
+                BigDecimal amount = TemplateExpression.toDecimal(value);
+                if (amount != null) {
+                    CurrencyFormatter.getFormat(DEFAULT_CURRENCY).formatTo(amount, out);
+                } else {
+                    out.append(value.toString());
+                }
+                break;
+            }
+            case PERCENT: {
+                // 值为百分数（如12.5表示12.5%）
+                BigDecimal percentage = TemplateExpression.toDecimal(value);
+                if (percentage != null) {
+                    NumberFormatter.getPercentFormat(2).formatTo(percentage.doubleValue() / 100, out);
+                } else {
+                    out.append(value.toString());
+                }
+                break;
+            }
+            case NUMBER: {
+                BigDecimal number = TemplateExpression.toDecimal(value);
+                if (number != null) {
+                    NUMBER_FORMAT.formatTo(number, out);
+                } else {
+                    out.append(value.toString());
+                }
+                break;
+            }
+            case DATE:
+                if (value instanceof LocalDate) {
+                    DateFormatter.formatTo((LocalDate) value, out);
+                } else if (value instanceof LocalDateTime) {
+                    DateFormatter.formatTo((LocalDateTime) value, out);
+                } else {
+                    out.append(value.toString());
+                }
+                break;
+            default:
+                if (value instanceof BigDecimal) {
+                    out.append(((BigDecimal) value).toPlainString());
+                } else {
+                    out.append(value.toString());
+                }
+        }
+    }
+
+    /**
+     * 读取对象属性：Map按键取值，Map.Entry支持key/value，其他对象调用getX()或isX()
+     */
+    static Object property(Object target, String name) {
+        if (target instanceof Map) {
+            return ((Map<?, ?>) target).get(name);
+        }
+        if (target instanceof Map.Entry) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) target;
+            if ("key".equals(name)) {
+                return entry.getKey();
+            }
+            if ("value".equals(name)) {
+                return entry.getValue();
+            }
+        }
+
+        Optional<Method> getter = GETTERS
+                .computeIfAbsent(target.getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, property -> findGetter(target.getClass(), property));
+        if (!getter.isPresent()) {
+            return null;
+        }
+        try {
+            return getter.get().invoke(target);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("读取属性失败: " + target.getClass().getSimpleName() + "." + name, e);
+        }
+    }
+
+    private static Optional<Method> findGetter(Class<?> type, String property) {
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                Method method = type.getMethod(prefix + suffix);
+                if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    return Optional.of(method);
+                }
+            } catch (NoSuchMethodException e) {
+                // 尝试下一个前缀
+            }
+        }
+        return Optional.empty();
+    }
+}
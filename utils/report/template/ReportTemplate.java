@@ -0,0 +1,504 @@
+package com.PFM.CD.utils.report.template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已编译的报表模板
+ * 模板文本只解析一次，编译为由文本、输出、循环、条件和赋值节点组成的渲染计划，
+ * 渲染时逐节点写入Appendable，不拼接完整的结果字符串。编译后的模板不可变，可在多线程间共享。
+ *
+ * <p>模板语法：</p>
+ * <ul>
+ *     <li>{@code ${expr}} 输出表达式的值，{@code ${expr|currency}} 按格式输出，
+ *     格式有currency、percent（值为百分数）、number（两位小数）和date</li>
+ *     <li>{@code {{#each items as item}} ... {{/each}}} 遍历Iterable，
+ *     {@code {{#each items as item, prev}}} 同时绑定上一个元素（第一次为null）</li>
+ *     <li>{@code {{#if cond}} ... {{#elseif cond}} ... {{#else}} ... {{/if}}} 条件分支</li>
+ *     <li>{@code {{#set name = expr}}} 定义变量，在所在的循环体内有效</li>
+ *     <li>{@code {{! 注释 }}}</li>
+ * </ul>
+ * 独占一行的块标签连同换行一起去掉，模板可以按行书写而不产生多余的空行。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public final class ReportTemplate {
+
+    private final String name;
+    private final Node[] nodes;
+
+    private ReportTemplate(String name, Node[] nodes) {
+        this.name = name;
+        this.nodes = nodes;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param name 模板名称，用于错误信息
+     * @param source 模板文本
+     * @return 编译后的模板
+     * @throws IllegalArgumentException 如果模板语法错误
+     */
+    public static ReportTemplate compile(String name, String source) {
+        // 统一换行符，Windows下编辑的模板输出与其他平台一致
+        return new ReportTemplate(name, new Compiler(name, source.replace("\r\n", "\n")).compile());
+    }
+
+    /**
+     * 获取模板名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 渲染到输出目标
+     *
+     * @param model 模型数据
+     * @param out 输出目标，如Writer或StringBuilder
+     * @throws IOException 如果写入失败
+     */
+    public void render(Map<String, Object> model, Appendable out) throws IOException {
+        RenderContext context = new RenderContext(model, out);
+        renderAll(nodes, context);
+    }
+
+    /**
+     * 渲染为字符串
+     *
+     * @param model 模型数据
+     * @return 渲染结果
+     */
+    public String render(Map<String, Object> model) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            render(model, sb);
+        } catch (IOException e) {
+            // StringBuilder不会抛出IOException
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    private static void renderAll(Node[] nodes, RenderContext context) throws IOException {
+        for (Node node : nodes) {
+            node.render(context);
+        }
+    }
+
+    /**
+     * 渲染计划节点
+     */
+    private interface Node {
+        void render(RenderContext context) throws IOException;
+    }
+
+    private static final class TextNode implements Node {
+
+        private final String text;
+
+        private TextNode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(RenderContext context) throws IOException {
+            context.out().append(text);
+        }
+    }
+
+    private static final class OutputNode implements Node {
+
+        private final TemplateExpression expression;
+        private final RenderContext.Format format;
+
+        private OutputNode(TemplateExpression expression, RenderContext.Format format) {
+            this.expression = expression;
+            this.format = format;
+        }
+
+        @Override
+        public void render(RenderContext context) throws IOException {
+            context.write(expression.evaluate(context), format);
+        }
+    }
+
+    private static final class SetNode implements Node {
+
+        private final String variable;
+        private final TemplateExpression expression;
+
+        private SetNode(String variable, TemplateExpression expression) {
+            this.variable = variable;
+            this.expression = expression;
+        }
+
+        @Override
+        public void render(RenderContext context) {
+            context.define(variable, expression.evaluate(context));
+        }
+    }
+
+    private static final class EachNode implements Node {
+
+        private final TemplateExpression source;
+        private final String variable;
+        private final String previousVariable;
+        private Node[] body;
+
+        private EachNode(TemplateExpression source, String variable, String previousVariable) {
+            this.source = source;
+            this.variable = variable;
+            this.previousVariable = previousVariable;
+        }
+
+        @Override
+        public void render(RenderContext context) throws IOException {
+            Object items = source.evaluate(context);
+            if (items == null) {
+                return;
+            }
+            if (!(items instanceof Iterable)) {
+                throw new IllegalStateException("#each的对象不可遍历: " + items.getClass().getSimpleName());
+            }
+
+            // 逐个元素渲染，惰性Iterable不会被整体加载
+            Object previous = null;
+            for (Object item : (Iterable<?>) items) {
+                int mark = context.mark();
+                context.define(variable, item);
+                if (previousVariable != null) {
+                    context.define(previousVariable, previous);
+                }
+                renderAll(body, context);
+                context.reset(mark);
+                previous = item;
+            }
+        }
+    }
+
+    private static final class IfNode implements Node {
+
+        private final List<TemplateExpression> conditions = new ArrayList<>();
+        private final List<Node[]> branches = new ArrayList<>();
+        private Node[] otherwise = new Node[0];
+
+        @Override
+        public void render(RenderContext context) throws IOException {
+            for (int i = 0; i < conditions.size(); i++) {
+                if (conditions.get(i).test(context)) {
+                    renderAll(branches.get(i), context);
+                    return;
+                }
+            }
+            renderAll(otherwise, context);
+        }
+    }
+
+    /**
+     * 模板编译器
+     */
+    private static final class Compiler {
+
+        private final String name;
+        private final String source;
+        private final Deque<Block> blocks = new ArrayDeque<>();
+        private int pos;
+        // 缓冲文本之前的输出是否停在行首
+        private boolean atLineStart = true;
+
+        private Compiler(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        Node[] compile() {
+            Block root = new Block(null, "root");
+            blocks.push(root);
+            StringBuilder text = new StringBuilder();
+
+            while (pos < source.length()) {
+                int output = source.indexOf("${", pos);
+                int tag = source.indexOf("{{", pos);
+                int next = minPositive(output, tag);
+                if (next < 0) {
+                    text.append(source, pos, source.length());
+                    break;
+                }
+                text.append(source, pos, next);
+
+                if (next == output) {
+                    int end = source.indexOf('}', next + 2);
+                    if (end < 0) {
+                        throw error(next, "${缺少结束的}");
+                    }
+                    flushText(text);
+                    current().nodes.add(compileOutput(source.substring(next + 2, end).trim(), next));
+                    atLineStart = false;
+                    pos = end + 1;
+                } else {
+                    int end = source.indexOf("}}", next + 2);
+                    if (end < 0) {
+                        throw error(next, "{{缺少结束的}}");
+                    }
+                    String content = source.substring(next + 2, end).trim();
+                    pos = end + 2;
+                    boolean standalone = isStandalone(text, pos);
+                    if (standalone) {
+                        trimLineIndent(text);
+                        skipLineEnd();
+                    }
+                    flushText(text);
+                    compileTag(content, next);
+                    atLineStart = standalone;
+                }
+            }
+            flushText(text);
+
+            if (blocks.size() > 1) {
+                throw error(source.length(), "缺少{{/" + current().type + "}}");
+            }
+            return root.toArray();
+        }
+
+        private Node compileOutput(String content, int at) {
+            int pipe = findFormatPipe(content);
+            try {
+                if (pipe < 0) {
+                    return new OutputNode(TemplateExpression.parse(content), RenderContext.Format.TEXT);
+                }
+                return new OutputNode(TemplateExpression.parse(content.substring(0, pipe)),
+                        RenderContext.Format.fromName(content.substring(pipe + 1).trim()));
+            } catch (IllegalArgumentException e) {
+                throw error(at, e.getMessage());
+            }
+        }
+
+        private void compileTag(String content, int at) {
+            try {
+                if (content.startsWith("!")) {
+                    return;
+                }
+                if (content.startsWith("#each ")) {
+                    compileEach(content.substring(6).trim(), at);
+                } else if (content.equals("/each")) {
+                    close("each", at);
+                } else if (content.startsWith("#if ")) {
+                    IfNode node = new IfNode();
+                    node.conditions.add(TemplateExpression.parse(content.substring(4)));
+                    current().nodes.add(node);
+                    blocks.push(new Block(node, "if"));
+                } else if (content.startsWith("#elseif ")) {
+                    Block block = expect("if", "#elseif", at);
+                    block.finishBranch();
+                    block.ifNode.conditions.add(TemplateExpression.parse(content.substring(8)));
+                } else if (content.equals("#else")) {
+                    Block block = expect("if", "#else", at);
+                    block.finishBranch();
+                    block.inElse = true;
+                } else if (content.equals("/if")) {
+                    close("if", at);
+                } else if (content.startsWith("#set ")) {
+                    String assignment = content.substring(5);
+                    int equals = assignment.indexOf('=');
+                    if (equals <= 0) {
+                        throw error(at, "#set格式应为{{#set 变量 = 表达式}}");
+                    }
+                    current().nodes.add(new SetNode(checkVariable(assignment.substring(0, equals).trim(), at),
+                            TemplateExpression.parse(assignment.substring(equals + 1))));
+                } else {
+                    throw error(at, "未知的标签{{" + content + "}}");
+                }
+            } catch (IllegalArgumentException e) {
+                if (e.getMessage() != null && e.getMessage().startsWith("模板")) {
+                    throw e;
+                }
+                throw error(at, e.getMessage());
+            }
+        }
+
+        private void compileEach(String content, int at) {
+            int as = content.lastIndexOf(" as ");
+            if (as < 0) {
+                throw error(at, "#each格式应为{{#each 集合 as 变量}}");
+            }
+            String[] variables = content.substring(as + 4).split(",");
+            if (variables.length > 2) {
+                throw error(at, "#each最多绑定两个变量");
+            }
+            EachNode node = new EachNode(TemplateExpression.parse(content.substring(0, as)),
+                    checkVariable(variables[0].trim(), at),
+                    variables.length == 2 ? checkVariable(variables[1].trim(), at) : null);
+            current().nodes.add(node);
+            blocks.push(new Block(node, "each"));
+        }
+
+        private void close(String type, int at) {
+            Block block = expect(type, "{{/" + type + "}}", at);
+            blocks.pop();
+            if (block.ifNode != null) {
+                block.finishBranch();
+            } else {
+                block.eachNode.body = block.toArray();
+            }
+        }
+
+        private Block expect(String type, String tag, int at) {
+            Block block = current();
+            if (!type.equals(block.type) || (block.inElse && !tag.startsWith("{{/"))) {
+                throw error(at, tag + "没有对应的开始标签");
+            }
+            return block;
+        }
+
+        private Block current() {
+            return blocks.peek();
+        }
+
+        private void flushText(StringBuilder text) {
+            if (text.length() > 0) {
+                current().nodes.add(new TextNode(text.toString()));
+                atLineStart = text.charAt(text.length() - 1) == '\n';
+                text.setLength(0);
+            }
+        }
+
+        /**
+         * 标签前后在同一行内只有空白
+         */
+        private boolean isStandalone(StringBuilder text, int after) {
+            boolean lineStart = atLineStart;
+            for (int i = text.length() - 1; i >= 0; i--) {
+                char c = text.charAt(i);
+                if (c == '\n') {
+                    lineStart = true;
+                    break;
+                }
+                if (c != ' ' && c != '\t') {
+                    return false;
+                }
+            }
+            if (!lineStart) {
+                return false;
+            }
+            for (int i = after; i < source.length(); i++) {
+                char c = source.charAt(i);
+                if (c == '\n' || c == '\r') {
+                    return true;
+                }
+                if (c != ' ' && c != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void trimLineIndent(StringBuilder text) {
+            int length = text.length();
+            while (length > 0 && (text.charAt(length - 1) == ' ' || text.charAt(length - 1) == '\t')) {
+                length--;
+            }
+            text.setLength(length);
+        }
+
+        private void skipLineEnd() {
+            while (pos < source.length() && (source.charAt(pos) == ' ' || source.charAt(pos) == '\t')) {
+                pos++;
+            }
+            if (pos < source.length() && source.charAt(pos) == '\r') {
+                pos++;
+            }
+            if (pos < source.length() && source.charAt(pos) == '\n') {
+                pos++;
+            }
+        }
+
+        private String checkVariable(String variable, int at) {
+            if (variable.isEmpty() || !Character.isJavaIdentifierStart(variable.charAt(0))) {
+                throw error(at, "无效的变量名: " + variable);
+            }
+            for (int i = 1; i < variable.length(); i++) {
+                if (!Character.isJavaIdentifierPart(variable.charAt(i))) {
+                    throw error(at, "无效的变量名: " + variable);
+                }
+            }
+            return variable;
+        }
+
+        /**
+         * 查找分隔格式名的单个'|'，跳过逻辑运算符"||"
+         */
+        private int findFormatPipe(String content) {
+            for (int i = content.length() - 1; i >= 0; i--) {
+                if (content.charAt(i) != '|') {
+                    continue;
+                }
+                boolean doubled = (i > 0 && content.charAt(i - 1) == '|')
+                        || (i + 1 < content.length() && content.charAt(i + 1) == '|');
+                if (!doubled) {
+                    return i;
+                }
+                i--;
+            }
+            return -1;
+        }
+
+        private int minPositive(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            return Math.min(a, b);
+        }
+
+        private IllegalArgumentException error(int at, String message) {
+            int line = 1;
+            for (int i = 0; i < at && i < source.length(); i++) {
+                if (source.charAt(i) == '\n') {
+                    line++;
+                }
+            }
+            return new IllegalArgumentException("模板" + name + "第" + line + "行: " + message);
+        }
+
+        /**
+         * 编译中的块
+         */
+        private final class Block {
+
+            private final String type;
+            private final IfNode ifNode;
+            private final EachNode eachNode;
+            private List<Node> nodes = new ArrayList<>();
+            private boolean inElse;
+
+            private Block(Node node, String type) {
+                this.type = type;
+                this.ifNode = node instanceof IfNode ? (IfNode) node : null;
+                this.eachNode = node instanceof EachNode ? (EachNode) node : null;
+            }
+
+            private void finishBranch() {
+                if (inElse) {
+                    ifNode.otherwise = toArray();
+                } else {
+                    ifNode.branches.add(toArray());
+                }
+                nodes = new ArrayList<>();
+            }
+
+            private Node[] toArray() {
+                return nodes.toArray(new Node[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.PFM.CD.utils.report.template;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 模板表达式
+ * 在模板编译时解析为表达式树，渲染时只做求值。支持：
+ * <ul>
+ *     <li>变量路径：name、item.amount（Map取键，其他对象调用getter）</li>
+ *     <li>数字、字符串字面量和null</li>
+ *     <li>算术运算 + - * /，数值统一按BigDecimal计算，除法保留4位小数</li>
+ *     <li>比较运算 == != &gt; &gt;= &lt; &lt;=，逻辑运算 &amp;&amp; || !</li>
+ * </ul>
+ * 任一操作数为null时算术结果为null，除数为零时结果为null。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+abstract class TemplateExpression {
+
+    private static final int DIVIDE_SCALE = 4;
+
+    /**
+     * 求值
+     *
+     * @param context 渲染上下文
+     * @return 表达式的值
+     */
+    abstract Object evaluate(RenderContext context);
+
+    /**
+     * 求值并判断真假：null、false、0、空字符串和空集合为假
+     */
+    boolean test(RenderContext context) {
+        return isTruthy(evaluate(context));
+    }
+
+    /**
+     * 解析表达式
+     *
+     * @param source 表达式文本
+     * @return 表达式
+     * @throws IllegalArgumentException 如果表达式语法错误
+     */
+    static TemplateExpression parse(String source) {
+        Parser parser = new Parser(source);
+        TemplateExpression expression = parser.parseOr();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("多余的字符");
+        }
+        return expression;
+    }
+
+    static boolean isTruthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            BigDecimal decimal = toDecimal(value);
+            return decimal != null && decimal.signum() != 0;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() > 0;
+        }
+        if (value instanceof Collection) {
+            return !((Collection<?>) value).isEmpty();
+        }
+        if (value instanceof Map) {
+            return !((Map<?, ?>) value).isEmpty();
+        }
+        return true;
+    }
+
+    static BigDecimal toDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            return Double.isNaN(d) || Double.isInfinite(d) ? null : BigDecimal.valueOf(d);
+        }
+        return null;
+    }
+
+    /**
+     * 字面量
+     */
+    private static final class Literal extends TemplateExpression {
+
+        private final Object value;
+
+        private Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(RenderContext context) {
+            return value;
+        }
+    }
+
+    /**
+     * 变量路径，路径各段在编译时拆分
+     */
+    private static final class PathExpression extends TemplateExpression {
+
+        private final String root;
+        private final String[] properties;
+
+        private PathExpression(String root, String[] properties) {
+            this.root = root;
+            this.properties = properties;
+        }
+
+        @Override
+        Object evaluate(RenderContext context) {
+            Object value = context.lookup(root);
+            for (int i = 0; i < properties.length && value != null; i++) {
+                value = RenderContext.property(value, properties[i]);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 一元运算
+     */
+    private static final class Unary extends TemplateExpression {
+
+        private final char operator;
+        private final TemplateExpression operand;
+
+        private Unary(char operator, TemplateExpression operand) {
+            this.operator = operator;
+            this.operand = operand;
+        }
+
+        @Override
+        Object evaluate(RenderContext context) {
+            if (operator == '!') {
+                return !operand.test(context);
+            }
+            BigDecimal value = toDecimal(operand.evaluate(context));
+            return value != null ? value.negate() : null;
+        }
+    }
+
+    /**
+     * 二元运算
+     */
+    private static final class Binary extends TemplateExpression {
+
+        private final String operator;
+        private final TemplateExpression left;
+        private final TemplateExpression right;
+
+        private Binary(String operator, TemplateExpression left, TemplateExpression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(RenderContext context) {
+            switch (operator) {
+                case "&&":
+                    return left.test(context) && right.test(context);
+                case "||":
+                    return left.test(context) || right.test(context);
+                case "+":
+                case "-":
+                case "*":
+                case "/":
+                    return arithmetic(toDecimal(left.evaluate(context)), toDecimal(right.evaluate(context)));
+                default:
+                    return compare(left.evaluate(context), right.evaluate(context));
+            }
+        }
+
+        private BigDecimal arithmetic(BigDecimal a, BigDecimal b) {
+            if (a == null || b == null) {
+                return null;
+            }
+            switch (operator) {
+                case "+":
+                    return a.add(b);
+                case "-":
+                    return a.subtract(b);
+                case "*":
+                    return a.multiply(b);
+                default:
+                    return b.signum() == 0 ? null : a.divide(b, DIVIDE_SCALE, RoundingMode.HALF_UP);
+            }
+        }
+
+        private boolean compare(Object a, Object b) {
+            BigDecimal da = toDecimal(a);
+            BigDecimal db = toDecimal(b);
+            if (da != null && db != null) {
+                int result = da.compareTo(db);
+                switch (operator) {
+                    case "==":
+                        return result == 0;
+                    case "!=":
+                        return result != 0;
+                    case ">":
+                        return result > 0;
+                    case ">=":
+                        return result >= 0;
+                    case "<":
+                        return result < 0;
+                    default:
+                        return result <= 0;
+                }
+            }
+            // 非数值只支持相等比较
+            boolean equal = Objects.equals(a == null ? null : a.toString(), b == null ? null : b.toString());
+            switch (operator) {
+                case "==":
+                    return equal;
+                case "!=":
+                    return !equal;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * 递归下降解析器
+     */
+    private static final class Parser {
+
+        private final String source;
+        private int pos;
+
+        private Parser(String source) {
+            this.source = source;
+        }
+
+        TemplateExpression parseOr() {
+            TemplateExpression left = parseAnd();
+            while (consume("||")) {
+                left = new Binary("||", left, parseAnd());
+            }
+            return left;
+        }
+
+        private TemplateExpression parseAnd() {
+            TemplateExpression left = parseComparison();
+            while (consume("&&")) {
+                left = new Binary("&&", left, parseComparison());
+            }
+            return left;
+        }
+
+        private TemplateExpression parseComparison() {
+            TemplateExpression left = parseSum();
+            for (String operator : new String[]{"==", "!=", ">=", "<=", ">", "<"}) {
+                if (consume(operator)) {
+                    return new Binary(operator, left, parseSum());
+                }
+            }
+            return left;
+        }
+
+        private TemplateExpression parseSum() {
+            TemplateExpression left = parseProduct();
+            while (true) {
+                if (consume("+")) {
+                    left = new Binary("+", left, parseProduct());
+                } else if (consume("-")) {
+                    left = new Binary("-", left, parseProduct());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private TemplateExpression parseProduct() {
+            TemplateExpression left = parseUnary();
+            while (true) {
+                if (consume("*")) {
+                    left = new Binary("*", left, parseUnary());
+                } else if (consume("/")) {
+                    left = new Binary("/", left, parseUnary());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private TemplateExpression parseUnary() {
+            if (consume("!")) {
+                return new Unary('!', parseUnary());
+            }
+            if (consume("-")) {
+                return new Unary('-', parseUnary());
+            }
+            return parsePrimary();
+        }
+
+        private TemplateExpression parsePrimary() {
+            skipWhitespace();
+            if (atEnd()) {
+                throw error("表达式不完整");
+            }
+
+            char c = source.charAt(pos);
+            if (c == '(') {
+                pos++;
+                TemplateExpression inner = parseOr();
+                if (!consume(")")) {
+                    throw error("缺少右括号");
+                }
+                return inner;
+            }
+            if (c == '\'' || c == '"') {
+                int end = source.indexOf(c, pos + 1);
+                if (end < 0) {
+                    throw error("字符串缺少结束引号");
+                }
+                String text = source.substring(pos + 1, end);
+                pos = end + 1;
+                return new Literal(text);
+            }
+            if (Character.isDigit(c)) {
+                int start = pos;
+                while (pos < source.length()
+                        && (Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.')) {
+                    pos++;
+                }
+                return new Literal(new BigDecimal(source.substring(start, pos)));
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                String path = readPath();
+                switch (path) {
+                    case "null":
+                        return new Literal(null);
+                    case "true":
+                        return new Literal(Boolean.TRUE);
+                    case "false":
+                        return new Literal(Boolean.FALSE);
+                    default:
+                        String[] segments = path.split("\\.");
+                        String[] properties = new String[segments.length - 1];
+                        System.arraycopy(segments, 1, properties, 0, properties.length);
+                        return new PathExpression(segments[0], properties);
+                }
+            }
+            throw error("无法识别的字符 '" + c + "'");
+        }
+
+        private String readPath() {
+            int start = pos;
+            while (pos < source.length()) {
+                char c = source.charAt(pos);
+                if (Character.isJavaIdentifierPart(c)) {
+                    pos++;
+                } else if (c == '.' && pos + 1 < source.length()
+                        && Character.isJavaIdentifierStart(source.charAt(pos + 1))) {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+            return source.substring(start, pos);
+        }
+
+        private boolean consume(String token) {
+            skipWhitespace();
+            if (!source.startsWith(token, pos)) {
+                return false;
+            }
+            // 避免把"||"、"&&"、">="等拆成单个字符
+            if (token.length() == 1 && pos + 1 < source.length()) {
+                char next = source.charAt(pos + 1);
+                if ((token.equals(">") || token.equals("<") || token.equals("!")) && next == '=') {
+                    return false;
+                }
+            }
+            pos += token.length();
+            return true;
+        }
+
+        void skipWhitespace() {
+            while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean atEnd() {
+            return pos >= source.length();
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("表达式\"" + source + "\"第" + (pos + 1) + "个字符处: " + message);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.PFM.CD.utils.report.template;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 报表模板注册表
+ * 按名称加载并缓存编译后的模板，同一模板只编译一次。
+ * 加载顺序：系统属性pfm.report.templateDir指定的目录，其次是本包下的类路径资源（名称.tpl）。
+ * 新增报表类型只需在模板目录中放入对应的.tpl文件。
+ * 打包要求：javac不会复制非Java文件，构建时必须把本目录下的.tpl文件原样复制到类路径的
+ * com/PFM/CD/utils/report/template/目录（与编译后的类放在一起，或打进同一个jar），
+ * 否则需要用pfm.report.templateDir指向模板目录。ReportGenerator创建时会检查内置模板，缺少时立即失败。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class TemplateRegistry {
+
+    /**
+     * 模板目录系统属性
+     */
+    public static final String TEMPLATE_DIR_PROPERTY = "pfm.report.templateDir";
+
+    private static final String TEMPLATE_SUFFIX = ".tpl";
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-z0-9_-]+");
+
+    private static volatile TemplateRegistry defaultInstance;
+
+    private final Path templateDir;
+    private final Map<String, ReportTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * 使用系统属性指定的模板目录创建注册表
+     */
+    public TemplateRegistry() {
+        String dir = System.getProperty(TEMPLATE_DIR_PROPERTY);
+        this.templateDir = dir != null && !dir.trim().isEmpty() ? Paths.get(dir.trim()) : null;
+    }
+
+    /**
+     * 使用指定的模板目录创建注册表
+     *
+     * @param templateDir 模板目录，为null时只从类路径加载
+     */
+    public TemplateRegistry(Path templateDir) {
+        this.templateDir = templateDir;
+    }
+
+    /**
+     * 获取共享的默认注册表
+     */
+    public static TemplateRegistry getDefault() {
+        if (defaultInstance == null) {
+            synchronized (TemplateRegistry.class) {
+                if (defaultInstance == null) {
+                    defaultInstance = new TemplateRegistry();
+                }
+            }
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * 获取编译后的模板，首次获取时加载并编译
+     *
+     * @param name 模板名称
+     * @return 模板
+     * @throws IllegalArgumentException 如果模板不存在或语法错误
+     */
+    public ReportTemplate get(String name) {
+        checkName(name);
+        ReportTemplate template = templates.get(name);
+        if (template == null) {
+            template = templates.computeIfAbsent(name, key -> ReportTemplate.compile(key, load(key)));
+        }
+        return template;
+    }
+
+    /**
+     * 注册模板，覆盖同名模板
+     *
+     * @param name 模板名称
+     * @param source 模板文本
+     * @return 编译后的模板
+     */
+    public ReportTemplate register(String name, String source) {
+        checkName(name);
+        ReportTemplate template = ReportTemplate.compile(name, source);
+        templates.put(name, template);
+        return template;
+    }
+
+    /**
+     * 判断模板是否存在
+     *
+     * @param name 模板名称
+     * @return 是否存在
+     */
+    public boolean contains(String name) {
+        if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+            return false;
+        }
+        if (templates.containsKey(name)) {
+            return true;
+        }
+        if (templateDir != null && Files.isRegularFile(templateDir.resolve(name + TEMPLATE_SUFFIX))) {
+            return true;
+        }
+        return ReportTemplate.class.getResource(name + TEMPLATE_SUFFIX) != null;
+    }
+
+    /**
+     * 检查模板都存在，用于启动时发现模板文件没有打包的问题
+     *
+     * @param names 模板名称
+     * @throws IllegalStateException 如果有模板不存在
+     */
+    public void requireAll(String... names) {
+        StringBuilder missing = new StringBuilder();
+        for (String name : names) {
+            if (!contains(name)) {
+                missing.append(missing.length() == 0 ? "" : ", ").append(name).append(TEMPLATE_SUFFIX);
+            }
+        }
+        if (missing.length() > 0) {
+            throw new IllegalStateException("缺少报表模板: " + missing
+                    + "，请将模板文件复制到类路径的com/PFM/CD/utils/report/template/目录，或设置系统属性"
+                    + TEMPLATE_DIR_PROPERTY);
+        }
+    }
+
+    /**
+     * 清空缓存，下次获取时重新加载模板
+     */
+    public void clear() {
+        templates.clear();
+    }
+
+    private String load(String name) {
+        String fileName = name + TEMPLATE_SUFFIX;
+        try {
+            if (templateDir != null) {
+                Path file = templateDir.resolve(fileName);
+                if (Files.isRegularFile(file)) {
+                    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                }
+            }
+
+            try (InputStream in = ReportTemplate.class.getResourceAsStream(fileName)) {
+                if (in == null) {
+                    throw new IllegalArgumentException("报表模板不存在: " + name);
+                }
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                byte[] chunk = new byte[4096];
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    buffer.write(chunk, 0, read);
+                }
+                return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("读取报表模板失败: " + name, e);
+        }
+    }
+
+    private void checkName(String name) {
+        if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("无效的模板名称: " + name);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+{{! 账户报表 }}
+# 账户报表
+
+报表生成日期: ${generatedDate|date}
+报表周期: ${startDate|date} 至 ${endDate|date}
+
+## 账户摘要
+
+| 项目 | 数值 |
+|------|------|
+| 账户总数 | ${totalAccounts} |
+| 活跃账户数 | ${activeAccounts} |
+| 总资产 | ${totalBalance|currency} |
+| 总流入 | ${totalInflow|currency} |
+| 总流出 | ${totalOutflow|currency} |
+| 净流入 | ${netFlow|currency} |
+
+{{#if accountDetails}}
+## 账户详情
+
+| 账户名称 | 当前余额 | 期初余额 | 变动金额 | 流入金额 | 流出金额 | 交易次数 |
+|----------|----------|----------|----------|----------|----------|----------|
+{{#each accountDetails as account}}
+| ${account.name} | ${account.balance|currency} | ${account.initialBalance|currency} | ${account.balance - account.initialBalance|currency} | ${account.inflow|currency} | ${account.outflow|currency} | ${account.transactionCount} |
+{{/each}}
+
+{{/if}}
+{{#if balanceTrends}}
+## 余额趋势
+
+| 日期 | 总余额 | 变动金额 | 变动比例 |
+|------|--------|----------|----------|
+{{#each balanceTrends as trend, prev}}
+{{#if prev}}
+| ${trend.date|date} | ${trend.balance|currency} | ${trend.balance - prev.balance|currency} | {{#if prev.balance != 0}}${(trend.balance - prev.balance) / prev.balance * 100|percent}{{#else}}N/A{{/if}} |
+{{#else}}
+| ${trend.date|date} | ${trend.balance|currency} | ${0|currency} | N/A |
+{{/if}}
+{{/each}}
+
+{{/if}}
+## 分析结论
+
+{{#if netFlow > 0}}
+- 期间净流入为正，总资产增加${netFlow|currency}。
+{{#elseif netFlow < 0}}
+- 期间净流入为负，总资产减少${-netFlow|currency}。
+{{#else}}
+- 期间净流入为零，总资产保持不变。
+{{/if}}
+{{#if mostActiveAccount}}
+- 最活跃的账户为"${mostActiveAccount.name}"，共有${mostActiveAccount.transactionCount}笔交易。
+{{/if}}
+{{#if mostChangedAccount}}
+{{#set change = mostChangedAccount.balance - mostChangedAccount.initialBalance}}
+- 余额变动最大的账户为"${mostChangedAccount.name}"，{{#if change > 0}}增加了${change|currency}{{#else}}减少了${-change|currency}{{/if}}。
+{{/if}}
@@ -0,0 +1,46 @@
+{{! 预算执行报表 }}
+# 预算执行报表
+
+报表生成日期: ${generatedDate|date}
+报表周期: ${startDate|date} 至 ${endDate|date}
+
+## 预算执行摘要
+
+| 项目 | 数值 |
+|------|------|
+| 预算总数 | ${totalBudgets} |
+| 预算总额 | ${totalBudgetAmount|currency} |
+| 已用金额 | ${totalSpentAmount|currency} |
+| 使用率 | ${overallUsagePercentage|percent} |
+| 超支预算数 | ${overBudgetCount} |
+| 接近限额预算数 | ${nearLimitCount} |
+| 健康预算数 | ${healthyBudgetCount} |
+
+{{#if budgetDetails}}
+## 预算执行详情
+
+| 预算名称 | 预算金额 | 已用金额 | 剩余金额 | 使用率 | 状态 |
+|----------|----------|----------|----------|--------|------|
+{{#each budgetDetails as budget}}
+{{#set usage = budget.spent / budget.amount * 100}}
+| ${budget.name} | ${budget.amount|currency} | ${budget.spent|currency} | ${budget.amount - budget.spent|currency} | ${usage|percent} | {{#if usage > 100}}超支{{#elseif usage > 80}}接近限额{{#else}}健康{{/if}} |
+{{/each}}
+
+{{/if}}
+## 分析结论
+
+{{#if overallUsagePercentage > 100}}
+- 总体预算已超支，请注意控制支出。
+{{#elseif overallUsagePercentage > 90}}
+- 总体预算使用率较高，接近限额，请谨慎支出。
+{{#elseif overallUsagePercentage > 70}}
+- 总体预算使用率适中，请继续保持良好的财务习惯。
+{{#else}}
+- 总体预算使用率较低，资金利用效率有待提高。
+{{/if}}
+{{#if overBudgetCount > 0}}
+- 有${overBudgetCount}个预算已超支，请重点关注并调整。
+{{/if}}
+{{#if nearLimitCount > 0}}
+- 有${nearLimitCount}个预算接近限额，请注意控制相关支出。
+{{/if}}
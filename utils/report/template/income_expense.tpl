@@ -0,0 +1,53 @@
+{{! 收支报表 }}
+# 收支报表
+
+报表生成日期: ${generatedDate|date}
+报表周期: ${startDate|date} 至 ${endDate|date}
+
+## 收支摘要
+
+| 项目 | 金额 |
+|------|------|
+| 总收入 | ${totalIncome|currency} |
+| 总支出 | ${totalExpense|currency} |
+| 结余 | ${totalIncome - totalExpense|currency} |
+
+## 收入分布
+
+| 分类 | 金额 | 占比 |
+|------|------|------|
+{{#each incomeDistributions as income}}
+| ${income.categoryName} | ${income.amount|currency} | ${income.percentage|percent} |
+{{/each}}
+
+## 支出分布
+
+| 分类 | 金额 | 占比 |
+|------|------|------|
+{{#each expenseDistributions as expense}}
+| ${expense.categoryName} | ${expense.amount|currency} | ${expense.percentage|percent} |
+{{/each}}
+
+## 收支趋势
+
+| 日期 | 收入 | 支出 | 结余 |
+|------|------|------|------|
+{{#each trends as trend}}
+| ${trend.date|date} | ${trend.income|currency} | ${trend.expense|currency} | ${trend.balance|currency} |
+{{/each}}
+
+## 分析结论
+
+- 收入支出比: ${incomeExpenseRatio|number}
+{{#if incomeExpenseRatio > 1.5}}
+- 收入远高于支出，财务状况良好，可考虑增加投资或储蓄。
+{{#elseif incomeExpenseRatio > 1}}
+- 收入高于支出，财务状况稳定。
+{{#elseif incomeExpenseRatio == 1}}
+- 收入与支出持平，需注意控制支出。
+{{#else}}
+- 支出超过收入，财务状况需要注意，应考虑增加收入或减少支出。
+{{/if}}
+{{#if maxExpenseCategory}}
+- 最大支出类别为"${maxExpenseCategory.categoryName}"，占总支出的${maxExpenseCategory.percentage|percent}。
+{{/if}}
@@ -0,0 +1,59 @@
+{{! 对比报表：本期与上一期 }}
+# 对比报表
+
+报表生成日期: ${generatedDate|date}
+本期: ${startDate|date} 至 ${endDate|date}
+上期: ${previousStartDate|date} 至 ${previousEndDate|date}
+
+## 收支对比
+
+| 项目 | 本期 | 上期 | 变化 | 变化率 |
+|------|------|------|------|------|
+{{#each totals as line}}
+| ${line.name} | ${line.current|currency} | ${line.previous|currency} | ${line.delta|currency} | {{#if line.changePercentage == null}}-{{#else}}${line.changePercentage|percent}{{/if}} |
+{{/each}}
+
+{{#if expenseByCategory}}
+## 支出分类对比
+
+| 分类 | 本期 | 上期 | 变化 | 变化率 | 本期笔数 | 上期笔数 |
+|------|------|------|------|------|------|------|
+{{#each expenseByCategory as line}}
+| ${line.name} | ${line.current|currency} | ${line.previous|currency} | ${line.delta|currency} | {{#if line.changePercentage == null}}新增{{#else}}${line.changePercentage|percent}{{/if}} | ${line.currentCount} | ${line.previousCount} |
+{{/each}}
+
+{{/if}}
+{{#if incomeByCategory}}
+## 收入分类对比
+
+| 分类 | 本期 | 上期 | 变化 | 变化率 | 本期笔数 | 上期笔数 |
+|------|------|------|------|------|------|------|
+{{#each incomeByCategory as line}}
+| ${line.name} | ${line.current|currency} | ${line.previous|currency} | ${line.delta|currency} | {{#if line.changePercentage == null}}新增{{#else}}${line.changePercentage|percent}{{/if}} | ${line.currentCount} | ${line.previousCount} |
+{{/each}}
+
+{{/if}}
+{{#if netFlowByAccount}}
+## 账户净流入对比
+
+| 账户 | 本期 | 上期 | 变化 | 变化率 |
+|------|------|------|------|------|
+{{#each netFlowByAccount as line}}
+| ${line.name} | ${line.current|currency} | ${line.previous|currency} | ${line.delta|currency} | {{#if line.changePercentage == null}}新增{{#else}}${line.changePercentage|percent}{{/if}} |
+{{/each}}
+
+{{/if}}
+## 分析结论
+
+{{#if expense.changePercentage == null}}
+- 上期没有支出记录，无法计算支出变化率。
+{{#elseif expense.changePercentage > 10}}
+- 本期支出比上期增长${expense.changePercentage|percent}，需要关注支出增长。
+{{#elseif expense.changePercentage < -10}}
+- 本期支出比上期下降${0 - expense.changePercentage|percent}，支出控制良好。
+{{#else}}
+- 本期支出与上期基本持平。
+{{/if}}
+{{#if topExpenseChange}}
+- 支出变化最大的分类为"${topExpenseChange.name}"，变化金额${topExpenseChange.delta|currency}。
+{{/if}}
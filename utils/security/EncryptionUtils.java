@@ -7,6 +7,7 @@ import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
@@ -113,6 +114,45 @@ public class EncryptionUtils {
         return new String(decryptedBytes, StandardCharsets.UTF_8);
     }
 
+    /**
+     * 计算字符串UTF-8编码的SHA-256摘要
+     *
+     * @param input 输入字符串
+     * @return 64位小写十六进制摘要
+     */
+    public static String sha256Hex(String input) {
+        return sha256Hex(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 计算字节数组的SHA-256摘要
+     *
+     * @param input 输入字节
+     * @return 64位小写十六进制摘要
+     */
+    public static String sha256Hex(byte[] input) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(input));
+        } catch (NoSuchAlgorithmException e) {
+            // 所有Java平台都必须支持SHA-256
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+    }
+
+    /**
+     * 转换为小写十六进制字符串
+     *
+     * @param bytes 字节数组
+     * @return 十六进制字符串，长度为字节数的两倍
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
     /**
      * 简单的Base64编码
      *
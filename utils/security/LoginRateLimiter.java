@@ -0,0 +1,140 @@
+package com.PFM.CD.utils.security;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录限流器
+ * 分别按用户名和来源标识限制登录尝试次数，在执行昂贵的密码哈希验证之前拒绝超额请求，
+ * 防止暴力破解和撞库攻击占满CPU。用户名表已满时新用户名不再单独限流，由来源限流兜底；
+ * 没有来源标识的尝试（如本地客户端、修改密码）只按用户名限流，不会因为彼此共用额度而互相锁定。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class LoginRateLimiter {
+
+    /**
+     * 每个用户名默认允许的连续尝试次数
+     */
+    public static final int DEFAULT_USERNAME_BURST = 5;
+
+    /**
+     * 每个用户名默认的令牌补充间隔（秒）
+     */
+    public static final int DEFAULT_USERNAME_REFILL_SECONDS = 12;
+
+    /**
+     * 每个来源默认允许的连续尝试次数
+     */
+    public static final int DEFAULT_SOURCE_BURST = 20;
+
+    /**
+     * 每个来源默认的令牌补充间隔（秒）
+     */
+    public static final int DEFAULT_SOURCE_REFILL_SECONDS = 3;
+
+    /**
+     * 每类键默认最多跟踪的数量
+     */
+    public static final int DEFAULT_MAX_TRACKED_KEYS = 100000;
+
+    private final RateLimiter usernameLimiter;
+    private final RateLimiter sourceLimiter;
+
+    /**
+     * 使用默认配置创建登录限流器
+     */
+    public LoginRateLimiter() {
+        this(DEFAULT_USERNAME_BURST, DEFAULT_USERNAME_REFILL_SECONDS,
+                DEFAULT_SOURCE_BURST, DEFAULT_SOURCE_REFILL_SECONDS, DEFAULT_MAX_TRACKED_KEYS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param usernameBurst 每个用户名允许的连续尝试次数
+     * @param usernameRefillSeconds 每个用户名补充一次尝试机会的间隔（秒）
+     * @param sourceBurst 每个来源允许的连续尝试次数
+     * @param sourceRefillSeconds 每个来源补充一次尝试机会的间隔（秒）
+     * @param maxTrackedKeys 每类键最多跟踪的数量
+     */
+    public LoginRateLimiter(int usernameBurst, int usernameRefillSeconds,
+                            int sourceBurst, int sourceRefillSeconds, int maxTrackedKeys) {
+        this.usernameLimiter = new RateLimiter(usernameBurst, usernameRefillSeconds, TimeUnit.SECONDS, maxTrackedKeys);
+        this.sourceLimiter = new RateLimiter(sourceBurst, sourceRefillSeconds, TimeUnit.SECONDS, maxTrackedKeys);
+    }
+
+    /**
+     * 登记一次登录尝试
+     *
+     * @param username 用户名
+     * @param source 来源标识（如客户端地址），为null时只检查用户名额度
+     * @return 如果允许继续验证密码返回true，超出限额返回false
+     */
+    public boolean tryAcquire(String username, String source) {
+        if (source == null) {
+            return usernameLimiter.tryAcquire(normalize(username));
+        }
+        // 先检查来源，避免同一来源遍历大量用户名时为每个用户名建桶
+        return sourceLimiter.tryAcquire(source) && usernameLimiter.tryAcquire(normalize(username));
+    }
+
+    /**
+     * 登录成功后清除该用户名的失败记录
+     *
+     * @param username 用户名
+     */
+    public void recordSuccess(String username) {
+        usernameLimiter.reset(normalize(username));
+    }
+
+    /**
+     * 获取放行的登录尝试次数
+     */
+    public long getAllowedCount() {
+        return usernameLimiter.getAllowedCount();
+    }
+
+    /**
+     * 获取因用户名超限被拒绝的次数
+     */
+    public long getRejectedByUsernameCount() {
+        return usernameLimiter.getRejectedCount();
+    }
+
+    /**
+     * 获取因来源超限被拒绝的次数
+     */
+    public long getRejectedBySourceCount() {
+        return sourceLimiter.getRejectedCount();
+    }
+
+    /**
+     * 获取因跟踪键数达到上限而未按该键限流的次数
+     */
+    public long getOverflowCount() {
+        return usernameLimiter.getOverflowCount() + sourceLimiter.getOverflowCount();
+    }
+
+    /**
+     * 获取当前跟踪的用户名数
+     */
+    public int getTrackedUsernameCount() {
+        return usernameLimiter.getTrackedKeyCount();
+    }
+
+    /**
+     * 获取当前跟踪的来源数
+     */
+    public int getTrackedSourceCount() {
+        return sourceLimiter.getTrackedKeyCount();
+    }
+
+    /**
+     * 用户名不区分大小写，防止通过大小写变化绕过限流
+     */
+    private static String normalize(String username) {
+        return username != null ? username.trim().toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -27,12 +27,15 @@ public class PasswordHasher {
     private static final int SALT_SIZE = 16;
     private static final SecureRandom RANDOM = new SecureRandom();
 
-    private static HashAlgorithm defaultAlgorithm = HashAlgorithm.BCRYPT;
+    private static final HashAlgorithm DEFAULT_ALGORITHM = HashAlgorithm.BCRYPT;
+
+    private final HashAlgorithm defaultAlgorithm;
 
     /**
      * 构造函数
      */
     public PasswordHasher() {
+        this(DEFAULT_ALGORITHM);
     }
 
     /**
@@ -41,19 +44,38 @@ public class PasswordHasher {
      * @param algorithm 默认哈希算法
      */
     public PasswordHasher(HashAlgorithm algorithm) {
-        this.defaultAlgorithm = algorithm;
+        this.defaultAlgorithm = algorithm != null ? algorithm : DEFAULT_ALGORITHM;
     }
 
     /**
-     * 使用默认算法对密码进行哈希
+     * 获取本实例使用的默认哈希算法
+     *
+     * @return 默认哈希算法
+     */
+    public HashAlgorithm getDefaultAlgorithm() {
+        return defaultAlgorithm;
+    }
+
+    /**
+     * 使用本实例的默认算法对密码进行哈希
      *
      * @param plainPassword 明文密码
      * @return 哈希后的密码
      */
-    public static String hashPassword(String plainPassword) {
+    public String hash(String plainPassword) {
         return hashPassword(plainPassword, defaultAlgorithm);
     }
 
+    /**
+     * 使用BCrypt对密码进行哈希，按配置的算法哈希应使用实例方法{@link #hash}
+     *
+     * @param plainPassword 明文密码
+     * @return 哈希后的密码
+     */
+    public static String hashPassword(String plainPassword) {
+        return hashPassword(plainPassword, DEFAULT_ALGORITHM);
+    }
+
     /**
      * 使用指定算法对密码进行哈希
      *
@@ -114,6 +136,11 @@ public class PasswordHasher {
             return false;
         }
 
+        // 不是本实例默认算法生成的哈希需要升级
+        if (algorithmOf(hashedPassword) != defaultAlgorithm) {
+            return true;
+        }
+
         // 检查BCrypt工作因子
         if (hashedPassword.startsWith("$2a$") || hashedPassword.startsWith("$2b$") || hashedPassword.startsWith("$2y$")) {
             // 提取工作因子
@@ -244,6 +271,20 @@ public class PasswordHasher {
         return false;
     }
 
+    /**
+     * 通过哈希值前缀识别算法，无法识别时返回null
+     */
+    private static HashAlgorithm algorithmOf(String hashedPassword) {
+        if (hashedPassword.startsWith("$2a$") || hashedPassword.startsWith("$2b$") || hashedPassword.startsWith("$2y$")) {
+            return HashAlgorithm.BCRYPT;
+        } else if (hashedPassword.startsWith("pbkdf2:")) {
+            return HashAlgorithm.PBKDF2;
+        } else if (hashedPassword.startsWith("argon2id:")) {
+            return HashAlgorithm.ARGON2ID;
+        }
+        return null;
+    }
+
     /**
      * 获取算法前缀
      */
@@ -0,0 +1,180 @@
+package com.PFM.CD.utils.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希线程池
+ * 把CPU密集的密码哈希与验证放到固定大小的专用线程池中执行，队列有界，
+ * 过载时立即拒绝而不是让请求线程排队等待，结果以{@link CompletableFuture}返回。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class PasswordHashingPool {
+
+    /**
+     * 默认等待队列容量
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private final PasswordHasher passwordHasher;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder upgraded = new LongAdder();
+
+    /**
+     * 使用默认配置创建线程池：线程数等于CPU核数
+     *
+     * @param passwordHasher 密码哈希器
+     */
+    public PasswordHashingPool(PasswordHasher passwordHasher) {
+        this(passwordHasher, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param passwordHasher 密码哈希器
+     * @param threads 工作线程数
+     * @param queueCapacity 等待队列容量
+     */
+    public PasswordHashingPool(PasswordHasher passwordHasher, int threads, int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("线程数和队列容量必须为正数");
+        }
+        this.passwordHasher = passwordHasher;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 异步对密码进行哈希
+     *
+     * @param plainPassword 明文密码
+     * @return 哈希结果；过载时以{@link RejectedExecutionException}异常完成
+     */
+    public CompletableFuture<String> hash(String plainPassword) {
+        return submit(() -> passwordHasher.hash(plainPassword));
+    }
+
+    /**
+     * 异步验证密码，并判断已存储的哈希是否需要升级
+     *
+     * @param plainPassword 明文密码
+     * @param hashedPassword 已存储的哈希
+     * @return 验证结果；过载时以{@link RejectedExecutionException}异常完成
+     */
+    public CompletableFuture<VerifyResult> verify(String plainPassword, String hashedPassword) {
+        return submit(() -> {
+            boolean matched = PasswordHasher.verifyPassword(plainPassword, hashedPassword);
+            return new VerifyResult(matched, matched && passwordHasher.needsUpgrade(hashedPassword));
+        });
+    }
+
+    /**
+     * 异步生成升级后的哈希，用于登录成功后透明升级旧哈希
+     *
+     * @param plainPassword 明文密码
+     * @return 新哈希；过载时以{@link RejectedExecutionException}异常完成
+     */
+    public CompletableFuture<String> rehash(String plainPassword) {
+        CompletableFuture<String> future = hash(plainPassword);
+        future.thenRun(upgraded::increment);
+        return future;
+    }
+
+    /**
+     * 获取已提交的任务数
+     */
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    /**
+     * 获取因过载被拒绝的任务数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 获取已完成的哈希升级数
+     */
+    public long getUpgradedCount() {
+        return upgraded.sum();
+    }
+
+    /**
+     * 获取当前排队的任务数
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 关闭线程池，已提交的任务会继续执行
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 提交任务，队列已满时立即返回失败的Future
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(task, executor);
+            submitted.increment();
+            return future;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * 密码验证结果
+     */
+    public static final class VerifyResult {
+
+        private final boolean matched;
+        private final boolean upgradeNeeded;
+
+        private VerifyResult(boolean matched, boolean upgradeNeeded) {
+            this.matched = matched;
+            this.upgradeNeeded = upgradeNeeded;
+        }
+
+        /**
+         * 密码是否匹配
+         */
+        public boolean isMatched() {
+            return matched;
+        }
+
+        /**
+         * 密码匹配且存储的哈希算法或参数已过时
+         */
+        public boolean isUpgradeNeeded() {
+            return upgradeNeeded;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.PFM.CD.utils.security;
 
+import com.PFM.CD.utils.validation.ValidatorRegistry;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.security.SecureRandom;
@@ -142,22 +143,22 @@ public class PasswordUtils {
         }
 
         // 包含小写字母
-        if (password.matches(".*[a-z].*")) {
+        if (ValidatorRegistry.LOWERCASE.matcher(password).find()) {
             strength++;
         }
 
         // 包含大写字母
-        if (password.matches(".*[A-Z].*")) {
+        if (ValidatorRegistry.UPPERCASE.matcher(password).find()) {
             strength++;
         }
 
         // 包含数字
-        if (password.matches(".*\\d.*")) {
+        if (ValidatorRegistry.DIGIT.matcher(password).find()) {
             strength++;
         }
 
         // 包含特殊字符
-        if (password.matches(".*[!@#$%^&*(),.?\":{}|<>].*")) {
+        if (ValidatorRegistry.SPECIAL.matcher(password).find()) {
             strength++;
         }
 
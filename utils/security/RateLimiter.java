@@ -0,0 +1,224 @@
+package com.PFM.CD.utils.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按键限流的令牌桶
+ * 每个键一个令牌桶，桶状态只有一个"理论到达时间"（GCRA算法），用CAS无锁更新。
+ * 桶保存在有上限的并发Map中，令牌已补满的空闲桶由时间轮在调用线程上顺带清除，不需要后台线程。
+ * 达到上限时新键不建桶、直接放行（只计入溢出次数），避免攻击者用大量随机键占满表后
+ * 让所有新键共享同一个额度而被一起拒绝；此时应由其他维度的限流（如按来源）兜底。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class RateLimiter {
+
+    /**
+     * 时间轮槽数
+     */
+    private static final int WHEEL_SLOTS = 64;
+
+    /**
+     * 时间轮最小刻度（纳秒）
+     */
+    private static final long MIN_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final List<Set<String>> wheel;
+    private final long tickNanos;
+    private final long originNanos;
+    private final AtomicLong currentTick = new AtomicLong();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 桶容量，即允许的突发次数
+     * @param refillInterval 每补充一个令牌所需的时间
+     * @param unit 时间单位
+     * @param maxKeys 最多跟踪的键数
+     */
+    public RateLimiter(int capacity, long refillInterval, TimeUnit unit, int maxKeys) {
+        if (capacity <= 0 || refillInterval <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("桶容量、补充间隔和最大键数必须为正数");
+        }
+        this.intervalNanos = unit.toNanos(refillInterval);
+        this.burstNanos = Math.multiplyExact(intervalNanos, (long) capacity);
+        this.maxKeys = maxKeys;
+        this.originNanos = System.nanoTime();
+        this.tickNanos = Math.max(MIN_TICK_NANOS, burstNanos / WHEEL_SLOTS);
+        this.wheel = new ArrayList<>(WHEEL_SLOTS);
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * 尝试为键消耗一个令牌
+     *
+     * @param key 限流键，为null时直接放行
+     * @return 如果允许返回true，令牌不足返回false；跟踪的键数达到上限时新键直接放行
+     */
+    public boolean tryAcquire(String key) {
+        if (key == null) {
+            return true;
+        }
+        long now = System.nanoTime();
+        advanceWheel(now);
+
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                // 不把无关的键合并到同一个桶里，否则一次键喷洒就能锁住所有新用户
+                overflowed.increment();
+                allowed.increment();
+                return true;
+            } else {
+                Bucket created = new Bucket(now);
+                bucket = buckets.putIfAbsent(key, created);
+                if (bucket == null) {
+                    bucket = created;
+                    schedule(key, now + burstNanos);
+                }
+            }
+        }
+
+        if (bucket.tryAcquire(now)) {
+            allowed.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * 清除键的限流状态，例如登录成功后
+     *
+     * @param key 限流键
+     */
+    public void reset(String key) {
+        if (key != null) {
+            buckets.remove(key);
+        }
+    }
+
+    /**
+     * 获取放行次数
+     */
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    /**
+     * 获取拒绝次数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 获取因超出键数上限而未限流直接放行的次数
+     */
+    public long getOverflowCount() {
+        return overflowed.sum();
+    }
+
+    /**
+     * 获取被时间轮清除的空闲桶数
+     */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    /**
+     * 获取当前跟踪的键数
+     */
+    public int getTrackedKeyCount() {
+        return buckets.size();
+    }
+
+    /**
+     * 把键登记到时间轮中预计空闲的槽位，超出一圈的放到最远的槽位，届时再重新登记
+     */
+    private void schedule(String key, long idleAtNanos) {
+        long tick = currentTick.get();
+        long target = (idleAtNanos - originNanos) / tickNanos + 1;
+        target = Math.max(tick + 1, Math.min(target, tick + WHEEL_SLOTS - 1));
+        wheel.get((int) (target % WHEEL_SLOTS)).add(key);
+    }
+
+    /**
+     * 推进时间轮，只有CAS成功的线程处理到期的槽位
+     */
+    private void advanceWheel(long now) {
+        long dueTick = (now - originNanos) / tickNanos;
+        long tick = currentTick.get();
+        // 长时间空闲后只需再转一圈即可覆盖所有槽位
+        if (dueTick - tick > WHEEL_SLOTS && currentTick.compareAndSet(tick, dueTick - WHEEL_SLOTS)) {
+            tick = dueTick - WHEEL_SLOTS;
+        }
+        while (tick < dueTick && currentTick.compareAndSet(tick, tick + 1)) {
+            expireSlot(wheel.get((int) ((tick + 1) % WHEEL_SLOTS)), now);
+            tick++;
+        }
+    }
+
+    private void expireSlot(Set<String> slot, long now) {
+        for (String key : slot) {
+            slot.remove(key);
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                continue;
+            }
+            long tat = bucket.tat.get();
+            if (tat - now <= 0) {
+                // 令牌已补满，与新建的桶等价，可以安全丢弃
+                if (buckets.remove(key, bucket)) {
+                    expired.increment();
+                }
+            } else {
+                schedule(key, tat);
+            }
+        }
+    }
+
+    /**
+     * 单个键的令牌桶，理论到达时间早于当前时间表示桶已满
+     */
+    private final class Bucket {
+
+        private final AtomicLong tat;
+
+        private Bucket(long now) {
+            this.tat = new AtomicLong(now);
+        }
+
+        private boolean tryAcquire(long now) {
+            while (true) {
+                long current = tat.get();
+                long next = (current - now > 0 ? current : now) + intervalNanos;
+                if (next - now > burstNanos) {
+                    return false;
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.PFM.CD.utils.validation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 字段验证规则
+ * 规则只检查非空值，必填检查由RecordValidator完成。规则用and组合，按顺序检查，遇到第一个错误即停止。
+ * 规则不可变，可以在多个线程中共享。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+@FunctionalInterface
+public interface FieldRule {
+
+    /**
+     * 验证字段值
+     *
+     * @param fieldName 字段名称，用于错误信息
+     * @param value 字段值，不为null且不为空白
+     * @return 错误信息，验证通过返回null
+     */
+    String validate(String fieldName, String value);
+
+    /**
+     * 组合规则：本规则通过后再检查next
+     *
+     * @param next 下一条规则
+     * @return 组合后的规则
+     */
+    default FieldRule and(FieldRule next) {
+        return (fieldName, value) -> {
+            String error = validate(fieldName, value);
+            return error != null ? error : next.validate(fieldName, value);
+        };
+    }
+
+    /**
+     * 最小长度
+     *
+     * @param minLength 最小长度
+     * @return 规则
+     */
+    static FieldRule minLength(int minLength) {
+        return (fieldName, value) -> value.length() < minLength ? fieldName + "长度不能小于" + minLength : null;
+    }
+
+    /**
+     * 最大长度
+     *
+     * @param maxLength 最大长度
+     * @return 规则
+     */
+    static FieldRule maxLength(int maxLength) {
+        return (fieldName, value) -> value.length() > maxLength ? fieldName + "长度不能大于" + maxLength : null;
+    }
+
+    /**
+     * 长度范围
+     *
+     * @param minLength 最小长度
+     * @param maxLength 最大长度
+     * @return 规则
+     */
+    static FieldRule length(int minLength, int maxLength) {
+        return minLength(minLength).and(maxLength(maxLength));
+    }
+
+    /**
+     * 整个值匹配正则表达式
+     *
+     * @param pattern 已编译的正则表达式
+     * @return 规则
+     */
+    static FieldRule matches(Pattern pattern) {
+        return (fieldName, value) -> pattern.matcher(value).matches() ? null : fieldName + "格式不正确";
+    }
+
+    /**
+     * 整个值匹配正则表达式，表达式由ValidatorRegistry编译并缓存
+     *
+     * @param regex 正则表达式
+     * @return 规则
+     */
+    static FieldRule matches(String regex) {
+        return matches(ValidatorRegistry.getPattern(regex));
+    }
+
+    /**
+     * 满足条件
+     *
+     * @param predicate 条件
+     * @param message 不满足时的错误信息（接在字段名称之后）
+     * @return 规则
+     */
+    static FieldRule of(Predicate<String> predicate, String message) {
+        return (fieldName, value) -> predicate.test(value) ? null : fieldName + message;
+    }
+
+    /**
+     * 非负金额，最多两位小数
+     *
+     * @return 规则
+     */
+    static FieldRule amount() {
+        return ValidatorRegistry.AMOUNT;
+    }
+
+    /**
+     * 按指定格式解析为日期
+     *
+     * @param pattern 日期格式模式
+     * @return 规则
+     */
+    static FieldRule date(String pattern) {
+        DateTimeFormatter formatter = ValidatorRegistry.getDateFormatter(pattern);
+        return (fieldName, value) -> {
+            try {
+                LocalDate.parse(value, formatter);
+                return null;
+            } catch (DateTimeParseException e) {
+                return fieldName + "不是有效的日期";
+            }
+        };
+    }
+
+    /**
+     * 数值范围（包含边界）
+     *
+     * @param min 最小值，为null时不限
+     * @param max 最大值，为null时不限
+     * @return 规则
+     */
+    static FieldRule decimalRange(BigDecimal min, BigDecimal max) {
+        return (fieldName, value) -> {
+            BigDecimal number;
+            try {
+                number = new BigDecimal(value.trim());
+            } catch (NumberFormatException e) {
+                return fieldName + "不是有效的数字";
+            }
+            if (min != null && number.compareTo(min) < 0) {
+                return fieldName + "不能小于" + min.toPlainString();
+            }
+            if (max != null && number.compareTo(max) > 0) {
+                return fieldName + "不能大于" + max.toPlainString();
+            }
+            return null;
+        };
+    }
+}
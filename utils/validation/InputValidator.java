@@ -2,7 +2,6 @@ package com.PFM.CD.utils.validation;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,12 +9,16 @@ import java.util.regex.Pattern;
 
 /**
  * 输入验证工具类
+ * 正则表达式和日期格式由ValidatorRegistry预先编译并共享，需要组合多条规则或批量验证时使用RecordValidator。
  *
  * @author rywc2005
  * @since 2025-06-24
  */
 public class InputValidator {
 
+    private static final Pattern EMAIL = ValidatorRegistry.getPattern(RegexPatterns.EMAIL_PATTERN);
+    private static final Pattern USERNAME = ValidatorRegistry.getPattern(RegexPatterns.USERNAME_PATTERN);
+
     /**
      * 私有构造函数，防止实例化
      */
@@ -34,7 +37,7 @@ public class InputValidator {
             return false;
         }
 
-        return Pattern.matches(RegexPatterns.EMAIL_PATTERN, email);
+        return EMAIL.matcher(email).matches();
     }
 
     /**
@@ -48,8 +51,8 @@ public class InputValidator {
             return false;
         }
 
-        return Pattern.matches(RegexPatterns.USERNAME_PATTERN, username) &&
-                username.length() >= 3 && username.length() <= 50;
+        return username.length() >= 3 && username.length() <= 50 &&
+                USERNAME.matcher(username).matches();
     }
 
     /**
@@ -69,22 +72,22 @@ public class InputValidator {
         }
 
         // 包含至少一个小写字母
-        if (!Pattern.compile("[a-z]").matcher(password).find()) {
+        if (!ValidatorRegistry.LOWERCASE.matcher(password).find()) {
             return false;
         }
 
         // 包含至少一个大写字母
-        if (!Pattern.compile("[A-Z]").matcher(password).find()) {
+        if (!ValidatorRegistry.UPPERCASE.matcher(password).find()) {
             return false;
         }
 
         // 包含至少一个数字
-        if (!Pattern.compile("\\d").matcher(password).find()) {
+        if (!ValidatorRegistry.DIGIT.matcher(password).find()) {
             return false;
         }
 
         // 包含至少一个特殊字符
-        if (!Pattern.compile("[!@#$%^&*(),.?\":{}|<>]").matcher(password).find()) {
+        if (!ValidatorRegistry.SPECIAL.matcher(password).find()) {
             return false;
         }
 
@@ -123,7 +126,7 @@ public class InputValidator {
         }
 
         try {
-            LocalDate.parse(dateString, DateTimeFormatter.ofPattern(pattern));
+            LocalDate.parse(dateString, ValidatorRegistry.getDateFormatter(pattern));
             return true;
         } catch (DateTimeParseException e) {
             return false;
@@ -191,7 +194,7 @@ public class InputValidator {
         }
 
         // 检查模式
-        if (pattern != null && !Pattern.matches(pattern, fieldValue)) {
+        if (pattern != null && !ValidatorRegistry.getPattern(pattern).matcher(fieldValue).matches()) {
             return fieldName + "格式不正确";
         }
 
@@ -218,4 +221,15 @@ public class InputValidator {
 
         return errors;
     }
+
+    /**
+     * 按验证器验证表单，每个字段只返回第一个错误
+     *
+     * @param fields 字段映射（字段名到字段值）
+     * @param validator 记录验证器
+     * @return 错误信息映射（字段名到错误信息），如果全部验证通过返回空映射
+     */
+    public static Map<String, String> validateForm(Map<String, String> fields, RecordValidator validator) {
+        return validator.validate(fields).getFieldErrors();
+    }
 }
\ No newline at end of file
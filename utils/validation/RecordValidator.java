@@ -0,0 +1,220 @@
+package com.PFM.CD.utils.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 记录验证器
+ * 由若干字段规则组成，创建后不可变，可以在多个线程中共享。
+ * 同一字段的规则按顺序检查，遇到第一个错误即停止；不同字段和不同行的错误累积到ValidationResult，
+ * 不抛出异常。批量验证表格数据时表头只解析一次，结果已满时立即停止。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public final class RecordValidator {
+
+    /**
+     * 构建器
+     */
+    public static final class Builder {
+
+        private final List<FieldSpec> fields = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 添加字段
+         *
+         * @param name 字段名称
+         * @param required 是否必填
+         * @param rules 规则，按顺序检查
+         * @return 构建器
+         */
+        public Builder field(String name, boolean required, FieldRule... rules) {
+            FieldRule combined = null;
+            for (FieldRule rule : rules) {
+                combined = combined == null ? rule : combined.and(rule);
+            }
+            fields.add(new FieldSpec(name, required, combined));
+            return this;
+        }
+
+        /**
+         * 添加必填字段
+         *
+         * @param name 字段名称
+         * @param rules 规则，按顺序检查
+         * @return 构建器
+         */
+        public Builder required(String name, FieldRule... rules) {
+            return field(name, true, rules);
+        }
+
+        /**
+         * 添加可选字段，为空时不检查规则
+         *
+         * @param name 字段名称
+         * @param rules 规则，按顺序检查
+         * @return 构建器
+         */
+        public Builder optional(String name, FieldRule... rules) {
+            return field(name, false, rules);
+        }
+
+        public RecordValidator build() {
+            return new RecordValidator(fields.toArray(new FieldSpec[0]));
+        }
+    }
+
+    private static final class FieldSpec {
+
+        final String name;
+        final boolean required;
+        final FieldRule rule;       // 没有规则时为null
+
+        FieldSpec(String name, boolean required, FieldRule rule) {
+            this.name = name;
+            this.required = required;
+            this.rule = rule;
+        }
+
+        /**
+         * @return 错误信息，通过时返回null
+         */
+        String check(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return required ? name + "不能为空" : null;
+            }
+            return rule == null ? null : rule.validate(name, value);
+        }
+    }
+
+    private final FieldSpec[] fields;
+
+    private RecordValidator(FieldSpec[] fields) {
+        this.fields = fields;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 验证单条记录（如表单）
+     *
+     * @param record 字段名到值的映射
+     * @return 验证结果
+     */
+    public ValidationResult validate(Map<String, String> record) {
+        ValidationResult result = new ValidationResult();
+        validate(record, 0, result);
+        return result;
+    }
+
+    /**
+     * 验证一条记录，错误累积到result
+     *
+     * @param record 字段名到值的映射
+     * @param row 行号
+     * @param result 验证结果
+     * @return 记录是否有效
+     */
+    public boolean validate(Map<String, String> record, long row, ValidationResult result) {
+        boolean valid = true;
+        for (FieldSpec field : fields) {
+            String error = field.check(record.get(field.name));
+            if (error != null) {
+                valid = false;
+                result.addError(row, field.name, error);
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * 批量验证表格数据，行号从1开始
+     *
+     * @param header 表头，决定每个字段在行中的位置；表头中没有的字段视为空
+     * @param rows 数据行
+     * @param result 验证结果，已满时停止
+     * @return 验证的行数
+     */
+    public long validateRows(String[] header, Iterable<String[]> rows, ValidationResult result) {
+        int[] columns = bind(header);
+        long row = 0;
+        for (String[] values : rows) {
+            if (result.isFull()) {
+                break;
+            }
+            row++;
+            validateRow(columns, values, row, result);
+        }
+        return row;
+    }
+
+    /**
+     * 批量验证一列数据，行号从1开始
+     *
+     * @param fieldName 字段名称
+     * @param values 数据
+     * @param result 验证结果，已满时停止
+     * @return 验证的行数
+     * @throws IllegalArgumentException 如果验证器中没有该字段
+     */
+    public long validateColumn(String fieldName, List<String> values, ValidationResult result) {
+        FieldSpec field = null;
+        for (FieldSpec spec : fields) {
+            if (spec.name.equals(fieldName)) {
+                field = spec;
+                break;
+            }
+        }
+        if (field == null) {
+            throw new IllegalArgumentException("未定义的字段: " + fieldName);
+        }
+
+        long row = 0;
+        for (String value : values) {
+            if (result.isFull()) {
+                break;
+            }
+            row++;
+            String error = field.check(value);
+            if (error != null) {
+                result.addError(row, field.name, error);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @return 每个字段在表头中的位置，没有的字段为-1
+     */
+    private int[] bind(String[] header) {
+        int[] columns = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            columns[i] = -1;
+            for (int j = 0; j < header.length; j++) {
+                if (fields[i].name.equals(header[j].trim())) {
+                    columns[i] = j;
+                    break;
+                }
+            }
+        }
+        return columns;
+    }
+
+    private void validateRow(int[] columns, String[] values, long row, ValidationResult result) {
+        for (int i = 0; i < fields.length; i++) {
+            int column = columns[i];
+            String value = column >= 0 && column < values.length ? values[column] : null;
+            String error = fields[i].check(value);
+            if (error != null) {
+                result.addError(row, fields[i].name, error);
+            }
+        }
+    }
+}
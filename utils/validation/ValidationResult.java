@@ -0,0 +1,152 @@
+package com.PFM.CD.utils.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 验证结果
+ * 累积验证过程中发现的错误而不抛出异常。可以设置错误数量上限，达到上限后结果变为已满，
+ * 批量验证随即停止，只统计不再记录更多的错误。不是线程安全的，每次批量验证使用一个实例。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public class ValidationResult {
+
+    /**
+     * 单条验证错误
+     */
+    public static final class Error {
+
+        private final long row;
+        private final String field;
+        private final String message;
+
+        Error(long row, String field, String message) {
+            this.row = row;
+            this.field = field;
+            this.message = message;
+        }
+
+        /**
+         * @return 行号（从1开始），验证单条记录时为0
+         */
+        public long getRow() {
+            return row;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return row > 0 ? "第" + row + "行: " + message : message;
+        }
+    }
+
+    private final int maxErrors;
+    private final List<Error> errors = new ArrayList<>();
+    private long invalidRows;
+    private long lastInvalidRow = -1;
+
+    /**
+     * 创建不限错误数量的验证结果
+     */
+    public ValidationResult() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 创建验证结果
+     *
+     * @param maxErrors 最多记录的错误数量，达到后结果变为已满
+     */
+    public ValidationResult(int maxErrors) {
+        if (maxErrors <= 0) {
+            throw new IllegalArgumentException("错误数量上限必须大于0");
+        }
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * 记录一个错误
+     *
+     * @param row 行号，单条记录时为0
+     * @param field 字段名称
+     * @param message 错误信息
+     */
+    public void addError(long row, String field, String message) {
+        if (row != lastInvalidRow) {
+            lastInvalidRow = row;
+            invalidRows++;
+        }
+        if (errors.size() < maxErrors) {
+            errors.add(new Error(row, field, message));
+        }
+    }
+
+    /**
+     * @return 是否没有错误
+     */
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * @return 错误数量是否已达到上限
+     */
+    public boolean isFull() {
+        return errors.size() >= maxErrors;
+    }
+
+    /**
+     * @return 已记录的错误数量
+     */
+    public int getErrorCount() {
+        return errors.size();
+    }
+
+    /**
+     * @return 有错误的行数
+     */
+    public long getInvalidRowCount() {
+        return invalidRows;
+    }
+
+    /**
+     * @return 已记录的错误（只读）
+     */
+    public List<Error> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * 按字段汇总错误，每个字段只保留第一个错误，可直接用于表单提示或ValidationException
+     *
+     * @return 字段名到错误信息的映射，按发现顺序排列
+     */
+    public Map<String, String> getFieldErrors() {
+        Map<String, String> fieldErrors = new LinkedHashMap<>();
+        for (Error error : errors) {
+            fieldErrors.putIfAbsent(error.getField(), error.getMessage());
+        }
+        return fieldErrors;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationResult{" +
+                "errors=" + errors.size() +
+                ", invalidRows=" + invalidRows +
+                ", full=" + isFull() +
+                '}';
+    }
+}
@@ -0,0 +1,123 @@
+package com.PFM.CD.utils.validation;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 验证器注册表
+ * 类加载时编译RegexPatterns中的全部正则表达式，其他表达式和日期格式在第一次使用时编译并缓存，
+ * 之后所有验证共享同一个Pattern，不再调用Pattern.matches。常用字段规则预先组合好供直接使用。
+ *
+ * @author rywc2005
+ * @since 2025-06-24
+ */
+public final class ValidatorRegistry {
+
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+    private static final Map<String, DateTimeFormatter> DATE_FORMATTERS = new ConcurrentHashMap<>();
+
+    static {
+        for (Field field : RegexPatterns.class.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isPublic(modifiers) && Modifier.isStatic(modifiers) && field.getType() == String.class) {
+                try {
+                    String regex = (String) field.get(null);
+                    PATTERNS.put(regex, Pattern.compile(regex));
+                } catch (IllegalAccessException e) {
+                    throw new ExceptionInInitializerError(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 密码字符类别：小写字母、大写字母、数字、特殊字符，用find检查是否包含
+     */
+    public static final Pattern LOWERCASE = getPattern("[a-z]");
+    public static final Pattern UPPERCASE = getPattern("[A-Z]");
+    public static final Pattern DIGIT = getPattern("\\d");
+    public static final Pattern SPECIAL = getPattern("[!@#$%^&*(),.?\":{}|<>]");
+
+    /**
+     * 邮箱
+     */
+    public static final FieldRule EMAIL = FieldRule.matches(RegexPatterns.EMAIL_PATTERN);
+
+    /**
+     * 用户名：3到50个字母、数字、下划线或连字符
+     */
+    public static final FieldRule USERNAME = FieldRule.length(3, 50)
+            .and(FieldRule.matches(RegexPatterns.USERNAME_PATTERN));
+
+    /**
+     * 强密码：至少8位，包含大小写字母、数字和特殊字符
+     */
+    public static final FieldRule STRONG_PASSWORD = FieldRule.minLength(8)
+            .and(FieldRule.of(InputValidator::isStrongPassword, "必须包含大小写字母、数字和特殊字符"));
+
+    /**
+     * 中国大陆手机号
+     */
+    public static final FieldRule CHINA_MOBILE = FieldRule.matches(RegexPatterns.CHINA_MOBILE_PATTERN);
+
+    /**
+     * 非负金额，最多两位小数
+     */
+    public static final FieldRule AMOUNT = FieldRule.matches(RegexPatterns.AMOUNT_PATTERN);
+
+    /**
+     * 日期（yyyy-MM-dd）
+     */
+    public static final FieldRule DATE = FieldRule.matches(RegexPatterns.DATE_PATTERN)
+            .and(FieldRule.date("yyyy-MM-dd"));
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private ValidatorRegistry() {
+        throw new IllegalStateException("工具类不应被实例化");
+    }
+
+    /**
+     * 获取编译后的正则表达式
+     *
+     * @param regex 正则表达式
+     * @return 编译后的正则表达式，可以在多个线程中共享
+     * @throws java.util.regex.PatternSyntaxException 如果表达式语法错误
+     */
+    public static Pattern getPattern(String regex) {
+        Pattern pattern = PATTERNS.get(regex);
+        if (pattern == null) {
+            pattern = PATTERNS.computeIfAbsent(regex, Pattern::compile);
+        }
+        return pattern;
+    }
+
+    /**
+     * 获取日期格式化器
+     *
+     * @param pattern 日期格式模式
+     * @return 日期格式化器，可以在多个线程中共享
+     * @throws IllegalArgumentException 如果模式无效
+     */
+    public static DateTimeFormatter getDateFormatter(String pattern) {
+        DateTimeFormatter formatter = DATE_FORMATTERS.get(pattern);
+        if (formatter == null) {
+            formatter = DATE_FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+        }
+        return formatter;
+    }
+
+    /**
+     * 获取已编译的正则表达式数量
+     *
+     * @return 数量
+     */
+    public static int getPatternCount() {
+        return PATTERNS.size();
+    }
+}